@@ -0,0 +1,72 @@
+package tqs.blacktie.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tqs.blacktie.entity.Product;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typo-tolerant lookup over the 500k product catalog of {@link ProductSearchIndexBenchmarkTest}:
+ * the dictionary lookup of {@link FuzzyTermMatcher} on its own, and a whole search whose terms are
+ * all mistyped. Sampled, so JMH reports the percentiles next to the mean.
+ * Run with {@code mvn -Pjmh test-compile exec:exec}, or
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="FuzzyLookupBenchmark.matcher -f 1"} for one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FuzzyLookupBenchmark {
+
+    private static final int QUERIES = 1_024;
+
+    private final FuzzyTermMatcher matcher = new FuzzyTermMatcher();
+    private final ProductSearchIndex index = new ProductSearchIndex();
+    private final String[] terms = new String[QUERIES];
+    private final String[] queries = new String[QUERIES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        List<Product> catalog = ProductSearchIndexBenchmarkTest.catalog(random);
+        index.rebuild(catalog);
+        for (Product product : catalog) {
+            for (String term : ProductTextAnalyzer.terms(product.getName() + " " + product.getDescription())) {
+                matcher.add(term);
+            }
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            String garment = ProductSearchIndexBenchmarkTest.typo(random,
+                    ProductSearchIndexBenchmarkTest.pick(random, ProductSearchIndexBenchmarkTest.GARMENTS));
+            terms[i] = ProductTextAnalyzer.terms(garment).get(0);
+            queries[i] = ProductSearchIndexBenchmarkTest.typo(random,
+                    ProductSearchIndexBenchmarkTest.pick(random, ProductSearchIndexBenchmarkTest.COLOURS)) + " "
+                    + garment;
+        }
+    }
+
+    @Benchmark
+    public List<FuzzyTermMatcher.Match> matcher() {
+        return matcher.matches(terms[next++ & (QUERIES - 1)], ProductSearchIndex.MAX_EXPANSIONS);
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return index.search(queries[next++ & (QUERIES - 1)], null, null);
+    }
+}
@@ -0,0 +1,49 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
+import tqs.blacktie.service.BookingAvailabilityIndex;
+import tqs.blacktie.service.ProductBlackoutService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Order(2)
+public class AvailabilityIndexLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndexLoader.class);
+
+    private final BookingRepository bookingRepository;
+    private final ProductBlackoutRepository blackoutRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+
+    public AvailabilityIndexLoader(BookingRepository bookingRepository, ProductBlackoutRepository blackoutRepository,
+            BookingAvailabilityIndex availabilityIndex) {
+        this.bookingRepository = bookingRepository;
+        this.blackoutRepository = blackoutRepository;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    @Override
+    public void run() {
+        // Runs after SampleDataLoader so seeded bookings are indexed too
+        LocalDateTime now = LocalDateTime.now();
+        availabilityIndex.rebuild(() -> {
+            List<Booking> bookings = new ArrayList<>(bookingRepository.findByStatusIn(
+                    List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID)));
+            // Completed rentals still block the product during their buffer days after the return
+            bookings.addAll(bookingRepository.findByStatusAndReturnDateAfter(
+                    Booking.STATUS_COMPLETED, now.minusDays(ProductBlackoutService.MAX_BUFFER_DAYS)));
+            return bookings;
+        }, () -> blackoutRepository.findByEndDateAfter(now));
+        availabilityIndex.pruneEndedBefore(now);
+        logger.info("Availability index rebuilt with {} active bookings and block-outs", availabilityIndex.size());
+    }
+}
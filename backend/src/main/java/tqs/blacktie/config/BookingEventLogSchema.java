@@ -0,0 +1,112 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Table of the append-only booking event log ({@link tqs.blacktie.service.BookingEventLog}).
+ *
+ * Hibernate's schema update cannot declare partitioned tables, so the DDL is applied here,
+ * idempotently. On PostgreSQL the table is range-partitioned by month on {@code occurred_at}: one
+ * partition per month from the current one to {@code booking.events.partitions-ahead} months
+ * ahead, created again every day so there is always room for the coming months, and a default
+ * partition catching anything outside them. Old months can then be detached or dropped without
+ * touching the rest, and time-bounded analytics only scan the months they ask for. Other databases
+ * (H2 in the test profile) get a plain table with the same columns. Applied before the web server
+ * starts, so no booking change is ever recorded against a missing table.
+ */
+@Component
+@Order(0)
+public class BookingEventLogSchema implements StartupTask {
+
+    public static final String TABLE = "booking_events";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingEventLogSchema.class);
+
+    static final String CREATE_PARTITIONED_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "id bigserial NOT NULL, booking_id bigint NOT NULL, product_id bigint, "
+            + "event_type varchar(32) NOT NULL, status varchar(32), actor_id bigint, "
+            + "occurred_at timestamp NOT NULL, payload text, "
+            + "PRIMARY KEY (id, occurred_at)) PARTITION BY RANGE (occurred_at)";
+
+    static final String CREATE_DEFAULT_PARTITION = "CREATE TABLE IF NOT EXISTS " + TABLE + "_default "
+            + "PARTITION OF " + TABLE + " DEFAULT";
+
+    static final String CREATE_PLAIN_TABLE = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+            + "id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, booking_id bigint NOT NULL, "
+            + "product_id bigint, event_type varchar(32) NOT NULL, status varchar(32), actor_id bigint, "
+            + "occurred_at timestamp NOT NULL, payload clob)";
+
+    static final String CREATE_BOOKING_INDEX = "CREATE INDEX IF NOT EXISTS idx_booking_events_booking ON "
+            + TABLE + " (booking_id, occurred_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int partitionsAhead;
+    private volatile boolean partitioned;
+
+    public BookingEventLogSchema(JdbcTemplate jdbcTemplate,
+            @Value("${booking.events.partitions-ahead:3}") int partitionsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitionsAhead = partitionsAhead;
+    }
+
+    @Override
+    public void run() {
+        partitioned = isPostgres();
+        if (partitioned) {
+            jdbcTemplate.execute(CREATE_PARTITIONED_TABLE);
+            jdbcTemplate.execute(CREATE_DEFAULT_PARTITION);
+        } else {
+            jdbcTemplate.execute(CREATE_PLAIN_TABLE);
+        }
+        jdbcTemplate.execute(CREATE_BOOKING_INDEX);
+        createPartitions(LocalDate.now());
+    }
+
+    @Scheduled(cron = "${booking.events.partition-cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        createPartitions(LocalDate.now());
+    }
+
+    /**
+     * Makes sure the month of the given day and the configured months after it have their own
+     * partition, and returns how many were checked. Does nothing on unpartitioned databases.
+     */
+    public int createPartitions(LocalDate today) {
+        if (!partitioned) {
+            return 0;
+        }
+        YearMonth month = YearMonth.from(today);
+        for (int i = 0; i <= partitionsAhead; i++) {
+            try {
+                jdbcTemplate.execute(monthPartitionDdl(month.plusMonths(i)));
+            } catch (DataAccessException e) {
+                // Rows of that month already in the default partition: keep them there rather than fail
+                logger.warn("Could not create booking event partition for {}", month.plusMonths(i), e);
+            }
+        }
+        return partitionsAhead + 1;
+    }
+
+    static String monthPartitionDdl(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + TABLE + "_" + month.getYear() + "_"
+                + String.format("%02d", month.getMonthValue()) + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
@@ -0,0 +1,76 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Database-enforced non-overlap of active bookings, as a last line of defence when several
+ * backend nodes take reservations.
+ *
+ * On PostgreSQL it adds a generated {@code tsrange} column to {@code bookings} and a GiST exclusion
+ * constraint on {@code (product_id, booked_range)} limited to APPROVED and PAID bookings, so two
+ * active bookings of the same product can never overlap whatever node wrote them. The check is on
+ * the raw dates: buffer days and block-outs stay with the availability index. Hibernate's schema
+ * update does not know about range types, so the DDL is applied here, idempotently, before the
+ * sample data and the in-memory indexes are loaded. Other databases (H2 in the test profile) are
+ * left alone and keep relying on the reservation lock and the availability index.
+ */
+@Component
+@Order(0)
+public class BookingRangeConstraint implements StartupTask {
+
+    public static final String NAME = "bookings_no_active_overlap";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingRangeConstraint.class);
+
+    static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS btree_gist";
+
+    static final String ADD_RANGE_COLUMN = "ALTER TABLE bookings ADD COLUMN IF NOT EXISTS booked_range tsrange "
+            + "GENERATED ALWAYS AS (tsrange(booking_date, return_date, '[]')) STORED";
+
+    static final String CONSTRAINT_EXISTS = "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)";
+
+    static final String ADD_CONSTRAINT = "ALTER TABLE bookings ADD CONSTRAINT " + NAME
+            + " EXCLUDE USING gist (product_id WITH =, booked_range WITH &&)"
+            + " WHERE (status IN ('APPROVED', 'PAID'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public BookingRangeConstraint(JdbcTemplate jdbcTemplate,
+            @Value("${booking.range-constraint.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run() {
+        if (!enabled || !isPostgres()) {
+            logger.info("Booking range constraint not installed, overlaps are checked by the application only");
+            return;
+        }
+        try {
+            jdbcTemplate.execute(CREATE_EXTENSION);
+            jdbcTemplate.execute(ADD_RANGE_COLUMN);
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(CONSTRAINT_EXISTS, Boolean.class, NAME))) {
+                jdbcTemplate.execute(ADD_CONSTRAINT);
+            }
+            logger.info("Booking range constraint {} in place", NAME);
+        } catch (DataAccessException e) {
+            // Missing privileges or overlapping legacy rows must not keep the application from starting
+            logger.error("Could not install booking range constraint {}", NAME, e);
+        }
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(product);
+    }
+}
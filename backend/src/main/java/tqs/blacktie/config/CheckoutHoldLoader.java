@@ -0,0 +1,38 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.service.CheckoutHoldService;
+
+import java.time.LocalDateTime;
+
+@Component
+@Order(3)
+public class CheckoutHoldLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutHoldLoader.class);
+
+    private final BookingRepository bookingRepository;
+    private final CheckoutHoldService checkoutHoldService;
+
+    public CheckoutHoldLoader(BookingRepository bookingRepository, CheckoutHoldService checkoutHoldService) {
+        this.bookingRepository = bookingRepository;
+        this.checkoutHoldService = checkoutHoldService;
+    }
+
+    @Override
+    public void run() {
+        // Approvals older than holds carry no deadline and would block their dates forever
+        int backfilled = checkoutHoldService.backfill(LocalDateTime.now());
+        if (backfilled > 0) {
+            logger.info("Gave {} approved bookings without a deadline a checkout hold", backfilled);
+        }
+        // Holds only live in memory, so restart them from the approved bookings still unpaid
+        checkoutHoldService.rebuild(bookingRepository.findHoldsByStatus(Booking.STATUS_APPROVED));
+        logger.info("Checkout holds rebuilt with {} approved bookings", checkoutHoldService.size());
+    }
+}
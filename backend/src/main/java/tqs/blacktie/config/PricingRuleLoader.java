@@ -0,0 +1,25 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.service.PricingService;
+
+@Component
+@Order(5)
+public class PricingRuleLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleLoader.class);
+
+    private final PricingService pricingService;
+
+    public PricingRuleLoader(PricingService pricingService) {
+        this.pricingService = pricingService;
+    }
+
+    @Override
+    public void run() {
+        logger.info("Pricing engine loaded with {} pricing rules", pricingService.reloadRules());
+    }
+}
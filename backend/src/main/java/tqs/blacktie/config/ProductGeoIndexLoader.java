@@ -0,0 +1,29 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.repository.ProductRepository;
+import tqs.blacktie.service.ProductGeoIndex;
+
+@Component
+@Order(8)
+public class ProductGeoIndexLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductGeoIndexLoader.class);
+
+    private final ProductRepository productRepository;
+    private final ProductGeoIndex geoIndex;
+
+    public ProductGeoIndexLoader(ProductRepository productRepository, ProductGeoIndex geoIndex) {
+        this.productRepository = productRepository;
+        this.geoIndex = geoIndex;
+    }
+
+    @Override
+    public void run() {
+        geoIndex.rebuild(productRepository.findByAvailableTrue());
+        logger.info("Product geo index rebuilt with {} located products", geoIndex.size());
+    }
+}
@@ -0,0 +1,30 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.repository.ProductRepository;
+import tqs.blacktie.service.ProductSearchIndex;
+
+@Component
+@Order(6)
+public class ProductSearchIndexLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexLoader.class);
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+
+    public ProductSearchIndexLoader(ProductRepository productRepository, ProductSearchIndex searchIndex) {
+        this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    public void run() {
+        // Runs after SampleDataLoader so seeded products are searchable too
+        searchIndex.rebuild(productRepository.findByAvailableTrue());
+        logger.info("Product search index rebuilt with {} available products", searchIndex.size());
+    }
+}
@@ -0,0 +1,43 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.ProductRepository;
+import tqs.blacktie.service.ProductSuggestionIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@Order(7)
+public class ProductSuggestionIndexLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestionIndexLoader.class);
+
+    private final ProductRepository productRepository;
+    private final BookingRepository bookingRepository;
+    private final ProductSuggestionIndex suggestionIndex;
+
+    public ProductSuggestionIndexLoader(ProductRepository productRepository, BookingRepository bookingRepository,
+            ProductSuggestionIndex suggestionIndex) {
+        this.productRepository = productRepository;
+        this.bookingRepository = bookingRepository;
+        this.suggestionIndex = suggestionIndex;
+    }
+
+    @Override
+    public void run() {
+        // Rejected and cancelled requests say little about what renters come back for
+        Map<Long, Long> bookingsByProduct = bookingRepository
+            .countByProductAndStatusNotIn(List.of(Booking.STATUS_REJECTED, Booking.STATUS_CANCELLED)).stream()
+            .collect(Collectors.toMap(BookingRepository.ProductBookings::getProductId,
+                BookingRepository.ProductBookings::getBookings));
+        suggestionIndex.rebuild(productRepository.findByAvailableTrue(), bookingsByProduct);
+        logger.info("Product suggestion index rebuilt with {} available products", suggestionIndex.size());
+    }
+}
@@ -3,7 +3,6 @@ package tqs.blacktie.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -15,7 +14,7 @@ import java.util.List;
 
 @Component
 @Order(1)
-public class SampleDataLoader implements CommandLineRunner {
+public class SampleDataLoader implements StartupTask {
 
     private static final Logger logger = LoggerFactory.getLogger(SampleDataLoader.class);
 
@@ -44,7 +43,7 @@ public class SampleDataLoader implements CommandLineRunner {
     }
 
     @Override
-    public void run(String... args) {
+    public void run() {
         if (!sampleDataEnabled) {
             logger.info("Sample data loading is disabled");
             return;
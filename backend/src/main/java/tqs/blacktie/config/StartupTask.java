@@ -0,0 +1,11 @@
+package tqs.blacktie.config;
+
+/**
+ * Work that has to be done before the application serves its first request, such as schema
+ * changes and loading the in-memory indexes. Run once at startup by {@link StartupTasks}, in the
+ * order given by {@link org.springframework.core.annotation.Order @Order}.
+ */
+public interface StartupTask {
+
+    void run();
+}
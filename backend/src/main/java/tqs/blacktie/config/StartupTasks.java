@@ -0,0 +1,25 @@
+package tqs.blacktie.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link StartupTask}s once every bean is created but before the web server starts
+ * listening. Unlike command line runners, which only run once the server is already serving, no
+ * request can then see an empty index or a missing table.
+ */
+@Component
+public class StartupTasks implements SmartInitializingSingleton {
+
+    private final ObjectProvider<StartupTask> tasks;
+
+    public StartupTasks(ObjectProvider<StartupTask> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        tasks.orderedStream().forEach(StartupTask::run);
+    }
+}
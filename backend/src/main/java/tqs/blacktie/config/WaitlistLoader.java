@@ -0,0 +1,30 @@
+package tqs.blacktie.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.WaitlistEntry;
+import tqs.blacktie.repository.WaitlistEntryRepository;
+import tqs.blacktie.service.WaitlistIndex;
+
+@Component
+@Order(4)
+public class WaitlistLoader implements StartupTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistLoader.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistIndex waitlistIndex;
+
+    public WaitlistLoader(WaitlistEntryRepository waitlistRepository, WaitlistIndex waitlistIndex) {
+        this.waitlistRepository = waitlistRepository;
+        this.waitlistIndex = waitlistIndex;
+    }
+
+    @Override
+    public void run() {
+        waitlistIndex.rebuild(waitlistRepository.findKeysByStatus(WaitlistEntry.STATUS_WAITING));
+        logger.info("Waitlist index rebuilt with {} waiting entries", waitlistIndex.size());
+    }
+}
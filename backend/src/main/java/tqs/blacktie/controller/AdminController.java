@@ -1,14 +1,22 @@
 package tqs.blacktie.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tqs.blacktie.dto.*;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.service.AdminService;
+import tqs.blacktie.service.BookingEventLog;
+import tqs.blacktie.service.BookingExportService;
+import tqs.blacktie.service.PricingService;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,9 +28,16 @@ public class AdminController {
     private static final String MESSAGE_KEY = "message";
 
     private final AdminService adminService;
+    private final PricingService pricingService;
+    private final BookingExportService exportService;
+    private final BookingEventLog eventLog;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, PricingService pricingService,
+            BookingExportService exportService, BookingEventLog eventLog) {
         this.adminService = adminService;
+        this.pricingService = pricingService;
+        this.exportService = exportService;
+        this.eventLog = eventLog;
     }
 
     /**
@@ -187,4 +202,124 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+
+    // ==================== Booking Export ====================
+
+    @GetMapping("/bookings/export")
+    public ResponseEntity<Object> exportBookings(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(defaultValue = "csv") String format) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        BookingExportService.Format exportFormat;
+        try {
+            exportFormat = BookingExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put(MESSAGE_KEY, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        StreamingResponseBody body = out -> exportService.exportAllBookings(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + exportFormat.fileName("all-bookings") + "\"")
+                .body(body);
+    }
+
+    // ==================== Booking Event Log ====================
+
+    @GetMapping("/bookings/{bookingId}/events")
+    public ResponseEntity<Object> getBookingEvents(
+            @RequestHeader("X-User-Id") Long userId,
+            @PathVariable Long bookingId) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        List<BookingEventResponse> events = eventLog.history(bookingId);
+        return ResponseEntity.ok(events);
+    }
+
+    @GetMapping("/bookings/{bookingId}/replay")
+    public ResponseEntity<Object> replayBooking(
+            @RequestHeader("X-User-Id") Long userId,
+            @PathVariable Long bookingId) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        try {
+            BookingReplayResponse replay = eventLog.replay(bookingId);
+            return ResponseEntity.ok(replay);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put(MESSAGE_KEY, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
+    @GetMapping("/booking-events/summary")
+    public ResponseEntity<Object> getBookingEventSummary(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        try {
+            Map<String, Long> counts = eventLog.countByType(from, to);
+            return ResponseEntity.ok(counts);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put(MESSAGE_KEY, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    // ==================== Pricing Rules ====================
+
+    @GetMapping("/pricing-rules")
+    public ResponseEntity<Object> getPricingRules(@RequestHeader("X-User-Id") Long userId) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        List<PricingRuleResponse> rules = pricingService.getRules();
+        return ResponseEntity.ok(rules);
+    }
+
+    @PostMapping("/pricing-rules")
+    public ResponseEntity<Object> addPricingRule(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody PricingRuleRequest request) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        try {
+            PricingRuleResponse rule = pricingService.addRule(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(rule);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put(MESSAGE_KEY, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    @DeleteMapping("/pricing-rules/{ruleId}")
+    public ResponseEntity<Object> deletePricingRule(
+            @RequestHeader("X-User-Id") Long userId,
+            @PathVariable Long ruleId) {
+        ResponseEntity<Map<String, String>> accessCheck = checkAdminAccess(userId);
+        if (accessCheck != null) return ResponseEntity.status(accessCheck.getStatusCode()).body(accessCheck.getBody());
+
+        try {
+            pricingService.deleteRule(ruleId);
+            Map<String, String> response = new HashMap<>();
+            response.put(MESSAGE_KEY, "Pricing rule deleted successfully");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put(MESSAGE_KEY, e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
 }
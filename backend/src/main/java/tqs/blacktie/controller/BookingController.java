@@ -1,15 +1,29 @@
 package tqs.blacktie.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tqs.blacktie.config.BookingRangeConstraint;
+import tqs.blacktie.dto.BookingDecisionResult;
+import tqs.blacktie.dto.BookingPageRequest;
 import tqs.blacktie.dto.BookingRequest;
 import tqs.blacktie.dto.BookingResponse;
 import tqs.blacktie.dto.ApproveBookingRequest;
+import tqs.blacktie.dto.BulkDecisionRequest;
+import tqs.blacktie.dto.CartBookingRequest;
 import tqs.blacktie.dto.RejectBookingRequest;
 import tqs.blacktie.dto.RequestDepositRequest;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.service.BookingExportService;
 import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.IdempotencyService;
 
 import java.util.List;
 
@@ -18,34 +32,76 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final IdempotencyService idempotencyService;
+    private final BookingExportService exportService;
 
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, IdempotencyService idempotencyService,
+            BookingExportService exportService) {
         this.bookingService = bookingService;
+        this.idempotencyService = idempotencyService;
+        this.exportService = exportService;
     }
 
     @PostMapping
     public ResponseEntity<?> createBooking(
             @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody BookingRequest request) {
-        try {
-            BookingResponse booking = bookingService.createBooking(userId, request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(booking);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
-        }
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings user " + userId, request, () -> {
+            try {
+                BookingResponse booking = bookingService.createBooking(userId, request);
+                return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            }
+        });
+    }
+
+    @PostMapping("/cart")
+    public ResponseEntity<?> createCartBooking(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CartBookingRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/cart user " + userId, request, () -> {
+            try {
+                List<BookingResponse> bookings = bookingService.createCartBooking(userId, request.getItems());
+                return ResponseEntity.status(HttpStatus.CREATED).body(bookings);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+            }
+        });
     }
 
+    // The listings below return a keyset page ({items, nextCursor}) as soon as a cursor or limit
+    // is given, and the plain list otherwise for existing clients (capped for the list of all bookings)
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<BookingResponse>> getUserBookings(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserBookings(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
+        if (page != null) {
+            return ResponseEntity.ok(bookingService.getUserBookings(userId, page));
+        }
         List<BookingResponse> bookings = bookingService.getUserBookings(userId);
         return ResponseEntity.ok(bookings);
     }
 
     @GetMapping("/user/{userId}/history")
-    public ResponseEntity<List<BookingResponse>> getRenterHistory(@PathVariable Long userId) {
+    public ResponseEntity<?> getRenterHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
         try {
+            if (page != null) {
+                return ResponseEntity.ok(bookingService.getRenterHistory(userId, page));
+            }
             List<BookingResponse> history = bookingService.getRenterHistory(userId);
             return ResponseEntity.ok(history);
         } catch (IllegalArgumentException e) {
@@ -54,8 +110,15 @@ public class BookingController {
     }
 
     @GetMapping("/user/{userId}/active")
-    public ResponseEntity<List<BookingResponse>> getActiveBookings(@PathVariable Long userId) {
+    public ResponseEntity<?> getActiveBookings(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
         try {
+            if (page != null) {
+                return ResponseEntity.ok(bookingService.getActiveBookingsByRenter(userId, page));
+            }
             List<BookingResponse> activeBookings = bookingService.getActiveBookingsByRenter(userId);
             return ResponseEntity.ok(activeBookings);
         } catch (IllegalArgumentException e) {
@@ -64,7 +127,13 @@ public class BookingController {
     }
 
     @GetMapping
-    public ResponseEntity<List<BookingResponse>> getAllBookings() {
+    public ResponseEntity<?> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
+        if (page != null) {
+            return ResponseEntity.ok(bookingService.getAllBookings(page));
+        }
         List<BookingResponse> bookings = bookingService.getAllBookings();
         return ResponseEntity.ok(bookings);
     }
@@ -72,8 +141,14 @@ public class BookingController {
     @GetMapping("/product/{productId}")
     public ResponseEntity<?> getBookingsByProduct(
             @PathVariable Long productId,
-            @RequestHeader("X-User-Id") Long userId) {
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
         try {
+            if (page != null) {
+                return ResponseEntity.ok(bookingService.getBookingsByProduct(productId, userId, page));
+            }
             List<BookingResponse> bookings = bookingService.getBookingsByProduct(productId, userId);
             return ResponseEntity.ok(bookings);
         } catch (IllegalArgumentException e) {
@@ -84,11 +159,45 @@ public class BookingController {
     }
 
     @GetMapping("/owner/history")
-    public ResponseEntity<List<BookingResponse>> getOwnerBookings(@RequestHeader("X-User-Id") Long ownerId) {
+    public ResponseEntity<?> getOwnerBookings(
+            @RequestHeader("X-User-Id") Long ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
+        if (page != null) {
+            return ResponseEntity.ok(bookingService.getOwnerBookings(ownerId, page));
+        }
         List<BookingResponse> bookings = bookingService.getOwnerBookings(ownerId);
         return ResponseEntity.ok(bookings);
     }
 
+    // Streamed from a database cursor while the response is written, so any history size fits
+    @GetMapping("/owner/export")
+    public ResponseEntity<?> exportOwnerBookings(
+            @RequestHeader("X-User-Id") Long ownerId,
+            @RequestParam(defaultValue = "csv") String format) {
+        BookingExportService.Format exportFormat;
+        try {
+            exportFormat = BookingExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        // Checked before streaming starts, once the status can no longer change
+        try {
+            bookingService.checkIsOwner(ownerId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+        StreamingResponseBody body = out -> exportService.exportOwnerBookings(ownerId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + exportFormat.fileName("bookings") + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<?> getBookingById(@PathVariable Long bookingId) {
         try {
@@ -114,8 +223,15 @@ public class BookingController {
     }
 
     @GetMapping("/pending-approval")
-    public ResponseEntity<?> getPendingApprovalBookings(@RequestHeader("X-User-Id") Long ownerId) {
+    public ResponseEntity<?> getPendingApprovalBookings(
+            @RequestHeader("X-User-Id") Long ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        BookingPageRequest page = pageOf(cursor, limit);
         try {
+            if (page != null) {
+                return ResponseEntity.ok(bookingService.getPendingApprovalBookings(ownerId, page));
+            }
             List<BookingResponse> bookings = bookingService.getPendingApprovalBookings(ownerId);
             return ResponseEntity.ok(bookings);
         } catch (IllegalArgumentException e) {
@@ -156,15 +272,40 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/bulk-decision")
+    public ResponseEntity<List<BookingDecisionResult>> decideBookings(
+            @RequestHeader("X-User-Id") Long ownerId,
+            @Valid @RequestBody BulkDecisionRequest request) {
+        return ResponseEntity.ok(bookingService.decideBookings(ownerId, request.getDecisions()));
+    }
+
     @PostMapping("/{bookingId}/payment")
     public ResponseEntity<?> processPayment(
             @PathVariable Long bookingId,
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        String scope = "POST /api/bookings/" + bookingId + "/payment user " + userId;
+        return idempotencyService.execute(idempotencyKey, scope, bookingId, () -> {
+            try {
+                BookingResponse booking = bookingService.processPayment(bookingId, userId);
+                return ResponseEntity.ok(booking);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+            }
+        });
+    }
+
+    @PostMapping("/handoff/{code}")
+    public ResponseEntity<?> handOver(
+            @PathVariable String code,
             @RequestHeader("X-User-Id") Long userId) {
         try {
-            BookingResponse booking = bookingService.processPayment(bookingId, userId);
+            BookingResponse booking = bookingService.handOver(code, userId);
             return ResponseEntity.ok(booking);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         }
@@ -213,4 +354,34 @@ public class BookingController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
         }
     }
+
+    // The requested page, or null for the whole list when neither cursor nor limit is given
+    private static BookingPageRequest pageOf(String cursor, Integer limit) {
+        return cursor != null || limit != null ? BookingPageRequest.of(cursor, limit) : null;
+    }
+
+    @ExceptionHandler(BookingPageRequest.InvalidPageException.class)
+    public ResponseEntity<String> handleInvalidPage(BookingPageRequest.InvalidPageException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConcurrentModification(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Booking was modified by another request, please retry");
+    }
+
+    // Raised on commit when another node reserved overlapping dates in the meantime, or when two
+    // payments drew the same delivery code at once
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleIntegrityViolation(DataIntegrityViolationException ex) {
+        String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        if (cause.contains(BookingRangeConstraint.NAME)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Product is already booked for the selected dates");
+        }
+        if (cause.toLowerCase().contains(Booking.DELIVERY_CODE_INDEX)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Payment could not be completed, please retry");
+        }
+        throw ex;
+    }
 }
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import tqs.blacktie.dto.PaymentIntentRequest;
 import tqs.blacktie.dto.PaymentIntentResponse;
 import tqs.blacktie.dto.PaymentStatusResponse;
+import tqs.blacktie.service.IdempotencyService;
 import tqs.blacktie.service.PaymentService;
 
 @RestController
@@ -15,26 +16,32 @@ import tqs.blacktie.service.PaymentService;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/create-payment-intent")
-    public ResponseEntity<Object> createPaymentIntent(
+    public ResponseEntity<?> createPaymentIntent(
             @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody PaymentIntentRequest request) {
-        try {
-            PaymentIntentResponse response = paymentService.createPaymentIntent(userId, request);
-            return ResponseEntity.ok(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (IllegalStateException e) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
-        } catch (StripeException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Payment processing error: " + e.getMessage());
-        }
+        String scope = "POST /api/payments/create-payment-intent user " + userId;
+        return idempotencyService.execute(idempotencyKey, scope, request, () -> {
+            try {
+                PaymentIntentResponse response = paymentService.createPaymentIntent(userId, request);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+            } catch (StripeException e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Payment processing error: " + e.getMessage());
+            }
+        });
     }
 
     @GetMapping("/status/{paymentIntentId}")
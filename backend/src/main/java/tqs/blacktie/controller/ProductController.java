@@ -1,17 +1,29 @@
 package tqs.blacktie.controller;
 
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import tqs.blacktie.dto.AvailabilityCalendarResponse;
+import tqs.blacktie.dto.BlackoutRequest;
+import tqs.blacktie.dto.BlackoutResponse;
+import tqs.blacktie.dto.PriceQuoteResponse;
+import tqs.blacktie.dto.SuggestionResponse;
 import tqs.blacktie.entity.Product;
+import tqs.blacktie.service.PricingService;
+import tqs.blacktie.service.ProductBlackoutService;
 import tqs.blacktie.service.ProductService;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,18 +32,51 @@ import java.util.UUID;
 public class ProductController {
 
 	private final ProductService productService;
-	private static final String UPLOAD_DIR = "uploads/products/";
+	private final ProductBlackoutService blackoutService;
+	private final PricingService pricingService;
+	private Path uploadDir = Paths.get("uploads/products/");
 
-	public ProductController(ProductService productService) {
+	public ProductController(ProductService productService, ProductBlackoutService blackoutService,
+			PricingService pricingService) {
 		this.productService = productService;
+		this.blackoutService = blackoutService;
+		this.pricingService = pricingService;
+	}
+
+	@Value("${product.upload-dir:uploads/products/}")
+	void setUploadDir(String uploadDir) {
+		this.uploadDir = Paths.get(uploadDir);
 	}
 
 	@GetMapping
-	public List<Product> getProducts(
+	public ResponseEntity<?> getProducts(
 			@RequestParam(required = false) String name,
 			@RequestParam(required = false) Double maxPrice,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) Double lat,
+			@RequestParam(required = false) Double lng,
+			@RequestParam(required = false) Double radiusKm,
 			@RequestHeader("X-User-Id") Long userId) {
-		return productService.getAvailableProducts(name, maxPrice, userId);
+		try {
+			List<Product> products = productService.getAvailableProducts(name, maxPrice, userId, from, to, lat, lng,
+					radiusKm);
+			return ResponseEntity.ok(products);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping("/suggest")
+	public ResponseEntity<?> suggest(
+			@RequestParam String q,
+			@RequestParam(defaultValue = "10") int limit) {
+		try {
+			List<SuggestionResponse> suggestions = productService.suggest(q, limit);
+			return ResponseEntity.ok(suggestions);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
 	}
 
 	@PostMapping
@@ -92,7 +137,7 @@ public class ProductController {
 	}
 
 	private String saveImage(MultipartFile image) throws IOException {
-		Path uploadPath = Paths.get(UPLOAD_DIR);
+		Path uploadPath = uploadDir;
 		if (!Files.exists(uploadPath)) {
 			Files.createDirectories(uploadPath);
 		}
@@ -112,7 +157,7 @@ public class ProductController {
 	@GetMapping("/images/{filename}")
 	public ResponseEntity<byte[]> getImage(@PathVariable String filename) {
 		try {
-			Path filePath = Paths.get(UPLOAD_DIR).resolve(filename);
+			Path filePath = uploadDir.resolve(filename);
 			if (!Files.exists(filePath)) {
 				return ResponseEntity.notFound().build();
 			}
@@ -131,6 +176,87 @@ public class ProductController {
 		}
 	}
 
+	@GetMapping("/{productId}/availability")
+	public ResponseEntity<?> getAvailability(
+			@PathVariable Long productId,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+		try {
+			AvailabilityCalendarResponse calendar = productService.getAvailabilityCalendar(productId, from, to);
+			return ResponseEntity.ok(calendar);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping("/{productId}/quote")
+	public ResponseEntity<?> getQuote(
+			@PathVariable Long productId,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+		try {
+			PriceQuoteResponse quote = pricingService.getQuote(productId, from, to);
+			return ResponseEntity.ok(quote);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
+	@GetMapping("/{productId}/blackouts")
+	public ResponseEntity<?> getBlackouts(@PathVariable Long productId) {
+		try {
+			List<BlackoutResponse> blackouts = blackoutService.getBlackouts(productId);
+			return ResponseEntity.ok(blackouts);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.notFound().build();
+		}
+	}
+
+	@PostMapping("/{productId}/blackouts")
+	public ResponseEntity<?> addBlackout(
+			@PathVariable Long productId,
+			@RequestHeader("X-User-Id") Long userId,
+			@Valid @RequestBody BlackoutRequest request) {
+		try {
+			BlackoutResponse blackout = blackoutService.addBlackout(productId, userId, request);
+			return ResponseEntity.status(HttpStatus.CREATED).body(blackout);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
+	@DeleteMapping("/{productId}/blackouts/{blackoutId}")
+	public ResponseEntity<?> removeBlackout(
+			@PathVariable Long productId,
+			@PathVariable Long blackoutId,
+			@RequestHeader("X-User-Id") Long userId) {
+		try {
+			blackoutService.removeBlackout(productId, blackoutId, userId);
+			return ResponseEntity.noContent().build();
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.notFound().build();
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+		}
+	}
+
+	@PutMapping("/{productId}/buffer-days")
+	public ResponseEntity<?> updateBufferDays(
+			@PathVariable Long productId,
+			@RequestParam int days,
+			@RequestHeader("X-User-Id") Long userId) {
+		try {
+			Product product = blackoutService.updateBufferDays(productId, userId, days);
+			return ResponseEntity.ok(product);
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalStateException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+		}
+	}
+
 	@DeleteMapping("/{productId}")
 	public ResponseEntity<?> deleteProduct(
 			@PathVariable Long productId,
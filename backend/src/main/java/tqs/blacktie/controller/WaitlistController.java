@@ -0,0 +1,60 @@
+package tqs.blacktie.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.WaitlistEntryResponse;
+import tqs.blacktie.service.WaitlistService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    public WaitlistController(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(
+            @RequestHeader("X-User-Id") Long userId,
+            @Valid @RequestBody BookingRequest request) {
+        try {
+            WaitlistEntryResponse entry = waitlistService.join(userId, request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getWaitlist(@RequestHeader("X-User-Id") Long userId) {
+        try {
+            List<WaitlistEntryResponse> entries = waitlistService.getUserEntries(userId);
+            return ResponseEntity.ok(entries);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/{entryId}")
+    public ResponseEntity<?> leaveWaitlist(
+            @PathVariable Long entryId,
+            @RequestHeader("X-User-Id") Long userId) {
+        try {
+            waitlistService.leave(entryId, userId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+}
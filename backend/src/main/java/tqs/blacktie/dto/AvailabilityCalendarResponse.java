@@ -0,0 +1,30 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityCalendarResponse {
+
+    private Long productId;
+    private LocalDate from;
+    private LocalDate to;
+    private List<BusyRange> busy; // Consecutive booked days, both ends inclusive
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BusyRange {
+        private LocalDate from;
+        private LocalDate to;
+    }
+}
@@ -0,0 +1,21 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlackoutResponse {
+
+    private Long id;
+    private Long productId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String reason;
+}
@@ -0,0 +1,30 @@
+package tqs.blacktie.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecision {
+
+    public static final String APPROVE = "APPROVE";
+    public static final String REJECT = "REJECT";
+
+    @NotNull(message = "Booking ID is required")
+    private Long bookingId;
+
+    @NotBlank(message = "Decision is required")
+    private String decision; // APPROVE or REJECT
+
+    private String deliveryMethod; // Required when approving: PICKUP or SHIPPING
+
+    private String pickupLocation; // Required when approving with PICKUP
+
+    private String reason; // Optional when rejecting
+}
@@ -0,0 +1,26 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingDecisionResult {
+
+    private Long bookingId;
+    private boolean success;
+    private String error; // Why the decision was not applied, null on success
+    private BookingResponse booking; // The updated booking, null on failure
+
+    public static BookingDecisionResult applied(BookingResponse booking) {
+        return new BookingDecisionResult(booking.getId(), true, null, booking);
+    }
+
+    public static BookingDecisionResult failed(Long bookingId, String error) {
+        return new BookingDecisionResult(bookingId, false, error, null);
+    }
+}
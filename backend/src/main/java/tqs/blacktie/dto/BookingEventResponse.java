@@ -0,0 +1,28 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingEventResponse {
+
+    private Long id;
+    private Long bookingId;
+    private Long productId;
+    private String type;
+    // Booking status right after the event
+    private String status;
+    // User who caused the transition, null for system jobs
+    private Long actorId;
+    private LocalDateTime occurredAt;
+    // Booking fields set by the event, by name
+    private Map<String, Object> changes;
+}
@@ -0,0 +1,55 @@
+package tqs.blacktie.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a booking listing ordered by (bookingDate, id): the page holds the bookings
+ * strictly after {@code (afterDate, afterId)}. Clients only ever see the cursor as an opaque token.
+ */
+public record BookingPageRequest(LocalDateTime afterDate, long afterId, int limit) {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Sorts before any real booking date, so the first page needs no separate query
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    public static BookingPageRequest of(String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_LIMIT : limit;
+        if (pageSize < 1 || pageSize > MAX_LIMIT) {
+            throw new InvalidPageException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (cursor == null || cursor.isBlank()) {
+            return new BookingPageRequest(START, 0L, pageSize);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new BookingPageRequest(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)), pageSize);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidPageException("Invalid cursor");
+        }
+    }
+
+    /** The first page of the given size, with no upper bound on the size. */
+    public static BookingPageRequest first(int limit) {
+        return new BookingPageRequest(START, 0L, limit);
+    }
+
+    public static String cursorAfter(LocalDateTime bookingDate, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((bookingDate + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** A limit out of range or a cursor that was not issued by a previous page. */
+    public static class InvalidPageException extends IllegalArgumentException {
+
+        public InvalidPageException(String message) {
+            super(message);
+        }
+    }
+}
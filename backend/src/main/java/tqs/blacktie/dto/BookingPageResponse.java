@@ -0,0 +1,18 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPageResponse {
+
+    private List<BookingResponse> items;
+    private String nextCursor; // Null on the last page
+}
@@ -0,0 +1,24 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingReplayResponse {
+
+    private Long bookingId;
+    private String status;
+    private boolean deleted;
+    private int events;
+    private LocalDateTime lastEventAt;
+    // Booking fields as left by the last event that set each of them
+    private Map<String, Object> state;
+}
@@ -30,6 +30,7 @@ public class BookingResponse {
     private String rejectionReason;
     private LocalDateTime approvedAt;
     private LocalDateTime paidAt;
+    private LocalDateTime handedOverAt;
     private Double depositAmount;
     private Boolean depositRequested;
     private String depositReason;
@@ -0,0 +1,24 @@
+package tqs.blacktie.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionRequest {
+
+    public static final int MAX_DECISIONS = 200;
+
+    @NotEmpty(message = "At least one decision is required")
+    @Size(max = MAX_DECISIONS, message = "At most " + MAX_DECISIONS + " decisions can be sent at once")
+    private List<@Valid BookingDecision> decisions;
+}
@@ -0,0 +1,24 @@
+package tqs.blacktie.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBookingRequest {
+
+    public static final int MAX_ITEMS = 20;
+
+    @NotEmpty(message = "The cart is empty")
+    @Size(max = MAX_ITEMS, message = "A cart can hold at most " + MAX_ITEMS + " items")
+    private List<@Valid BookingRequest> items;
+}
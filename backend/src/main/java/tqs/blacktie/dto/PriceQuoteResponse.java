@@ -0,0 +1,24 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteResponse {
+
+    private Long productId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long days;
+    private Double dailyPrice;
+    // Daily price times the days, before any pricing rule
+    private Double basePrice;
+    private Double totalPrice;
+}
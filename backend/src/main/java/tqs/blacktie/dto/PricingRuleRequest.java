@@ -0,0 +1,33 @@
+package tqs.blacktie.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingRuleRequest {
+
+    @NotBlank(message = "Rule type is required")
+    private String type;
+
+    @NotNull(message = "Percentage is required")
+    private Double percentage;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private Integer minDays;
+
+    @Size(max = 255, message = "Description must be at most 255 characters")
+    private String description;
+}
@@ -0,0 +1,23 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingRuleResponse {
+
+    private Long id;
+    private String type;
+    private Double percentage;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer minDays;
+    private String description;
+}
@@ -0,0 +1,19 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+
+    // PRODUCT, SIZE or CITY
+    private String type;
+    // Product id for PRODUCT suggestions, null for sizes and cities
+    private Long id;
+    private String label;
+}
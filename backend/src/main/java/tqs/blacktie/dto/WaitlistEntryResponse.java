@@ -0,0 +1,24 @@
+package tqs.blacktie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistEntryResponse {
+
+    private Long id;
+    private Long productId;
+    private String productName;
+    private LocalDateTime bookingDate;
+    private LocalDateTime returnDate;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime notifiedAt;
+}
@@ -4,12 +4,22 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import tqs.blacktie.constants.BookingConstants;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_user_status", columnList = "user_id, status"),
+    @Index(name = "idx_bookings_product_status", columnList = "product_id, status"),
+    @Index(name = "idx_bookings_date_id", columnList = "booking_date, id"),
+    @Index(name = Booking.DELIVERY_CODE_INDEX, columnList = "delivery_code", unique = true)
+})
+@NamedEntityGraph(name = Booking.GRAPH_WITH_PARTIES, attributeNodes = {
+    @NamedAttributeNode("renter"),
+    @NamedAttributeNode(value = "product", subgraph = "product-owner")
+}, subgraphs = @NamedSubgraph(name = "product-owner", attributeNodes = @NamedAttributeNode("owner")))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,11 +34,22 @@ public class Booking {
     
     public static final String DELIVERY_PICKUP = BookingConstants.DELIVERY_PICKUP;
     public static final String DELIVERY_SHIPPING = BookingConstants.DELIVERY_SHIPPING;
+
+    // Fetch plan of the listings: renter, product and product owner joined in the same select
+    public static final String GRAPH_WITH_PARTIES = "Booking.withParties";
+
+    // Unique index resolving delivery codes at handover
+    public static final String DELIVERY_CODE_INDEX = "uk_bookings_delivery_code";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "user_id", nullable = false)
     private User renter;
@@ -45,12 +66,14 @@ public class Booking {
     private String status = STATUS_PENDING_APPROVAL;
 
     private String deliveryMethod; // PICKUP or SHIPPING
-    private String deliveryCode; // Generated after payment if SHIPPING
+    private String deliveryCode; // Generated after payment, shown at pickup or to the courier
     private String pickupLocation; // Address/instructions if PICKUP
     private String rejectionReason; // Reason if rejected by owner
     
     private LocalDateTime approvedAt;
+    private LocalDateTime holdExpiresAt; // Cancelled if still unpaid then; set at startup on approvals older than holds
     private LocalDateTime paidAt;
+    private LocalDateTime handedOverAt; // When the delivery code was scanned at pickup or delivery
     
     // Deposit-related fields
     private Double depositAmount; // Amount of deposit required
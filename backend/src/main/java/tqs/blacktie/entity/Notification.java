@@ -20,6 +20,8 @@ public class Notification {
     public static final String TYPE_BOOKING_CANCELLED_BY_OWNER = "BOOKING_CANCELLED_BY_OWNER";
     public static final String TYPE_BOOKING_APPROVED = "BOOKING_APPROVED";
     public static final String TYPE_BOOKING_REJECTED = "BOOKING_REJECTED";
+    public static final String TYPE_CHECKOUT_HOLD_EXPIRED = "CHECKOUT_HOLD_EXPIRED";
+    public static final String TYPE_WAITLIST_SLOT_AVAILABLE = "WAITLIST_SLOT_AVAILABLE";
     public static final String TYPE_PAYMENT_RECEIVED = "PAYMENT_RECEIVED";
     public static final String TYPE_ACCOUNT_SUSPENDED = "ACCOUNT_SUSPENDED";
     public static final String TYPE_ACCOUNT_BANNED = "ACCOUNT_BANNED";
@@ -0,0 +1,47 @@
+package tqs.blacktie.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Notification waiting to be delivered, written in the same transaction as the change that caused
+ * it. Only ids are kept so writing it never loads or locks the related user and booking rows.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Column(nullable = false)
+    private String type;
+
+    @Column(nullable = false, length = 500)
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public NotificationOutboxEvent(Long recipientId, Long bookingId, String type, String message,
+            LocalDateTime createdAt) {
+        this.recipientId = recipientId;
+        this.bookingId = bookingId;
+        this.type = type;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+}
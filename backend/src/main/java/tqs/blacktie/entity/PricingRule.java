@@ -0,0 +1,56 @@
+package tqs.blacktie.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A platform-wide price adjustment, as a percentage of the daily price: positive for a surcharge,
+ * negative for a discount.
+ *
+ * WEEKEND applies to Saturdays and Sundays, SEASON to every day between startDate and endDate
+ * (inclusive), and LONG_RENTAL to the whole rental once it lasts at least minDays days (only the
+ * largest tier reached applies).
+ */
+@Entity
+@Table(name = "pricing_rules")
+@Getter
+@Setter
+@NoArgsConstructor
+public class PricingRule {
+
+    public static final String TYPE_WEEKEND = "WEEKEND";
+    public static final String TYPE_SEASON = "SEASON";
+    public static final String TYPE_LONG_RENTAL = "LONG_RENTAL";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    @Column(nullable = false)
+    private Double percentage;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private Integer minDays;
+
+    private String description;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public PricingRule(String type, Double percentage) {
+        this.type = type;
+        this.percentage = percentage;
+        this.createdAt = LocalDateTime.now();
+    }
+}
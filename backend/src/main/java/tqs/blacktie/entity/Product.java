@@ -5,9 +5,10 @@ import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_owner", columnList = "owner_id"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -17,6 +18,11 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String name;
 
@@ -56,6 +62,11 @@ public class Product {
     @Column(name = "size")
     private String size;
 
+    // Days the product stays unavailable after each return, e.g. for dry-cleaning
+    @Column(name = "buffer_days", nullable = false)
+    @ColumnDefault("0")
+    private Integer bufferDays = 0;
+
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
@@ -0,0 +1,47 @@
+package tqs.blacktie.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A period in which the owner takes a product off the market (maintenance, cleaning, tailoring).
+ * It blocks bookings exactly like an approved booking does, without being one.
+ */
+@Entity
+@Table(name = "product_blackouts", indexes = @Index(name = "idx_blackouts_product", columnList = "product_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductBlackout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private LocalDateTime startDate;
+
+    @Column(nullable = false)
+    private LocalDateTime endDate;
+
+    private String reason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public ProductBlackout(Product product, LocalDateTime startDate, LocalDateTime endDate, String reason) {
+        this.product = product;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.reason = reason;
+        this.createdAt = LocalDateTime.now();
+    }
+}
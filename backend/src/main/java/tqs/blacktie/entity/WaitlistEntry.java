@@ -0,0 +1,58 @@
+package tqs.blacktie.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "waitlist_entries", indexes = {
+    @Index(name = "idx_waitlist_product_status", columnList = "product_id, status"),
+    @Index(name = "idx_waitlist_user_status", columnList = "user_id, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class WaitlistEntry {
+
+    public static final String STATUS_WAITING = "WAITING";
+    public static final String STATUS_NOTIFIED = "NOTIFIED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Also the priority: lower ids joined earlier and are notified first
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private LocalDateTime bookingDate;
+
+    @Column(nullable = false)
+    private LocalDateTime returnDate;
+
+    @Column(nullable = false)
+    private String status = STATUS_WAITING;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime notifiedAt; // When the renter was told the dates became free
+
+    public WaitlistEntry(User user, Product product, LocalDateTime bookingDate, LocalDateTime returnDate) {
+        this.user = user;
+        this.product = product;
+        this.bookingDate = bookingDate;
+        this.returnDate = returnDate;
+        this.status = STATUS_WAITING;
+        this.createdAt = LocalDateTime.now();
+    }
+}
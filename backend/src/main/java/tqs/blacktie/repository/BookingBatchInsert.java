@@ -0,0 +1,18 @@
+package tqs.blacktie.repository;
+
+import tqs.blacktie.entity.Booking;
+
+import java.util.List;
+
+/**
+ * Custom fragment of {@link BookingRepository}: inserts several new bookings with one JDBC batch.
+ * Bookings use identity keys, which keep Hibernate from batching their inserts itself.
+ */
+public interface BookingBatchInsert {
+
+    /**
+     * Inserts the bookings as PENDING_APPROVAL and sets their generated ids. The bookings are not
+     * attached to the persistence context.
+     */
+    void insertAll(List<Booking> bookings);
+}
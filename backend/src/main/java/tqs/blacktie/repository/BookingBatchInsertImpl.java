@@ -0,0 +1,60 @@
+package tqs.blacktie.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import tqs.blacktie.entity.Booking;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+class BookingBatchInsertImpl implements BookingBatchInsert {
+
+    private static final String INSERT_BOOKING = "INSERT INTO bookings "
+            + "(user_id, product_id, booking_date, return_date, total_price, status, version, "
+            + "deposit_requested, deposit_paid) VALUES (?, ?, ?, ?, ?, ?, 0, FALSE, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    BookingBatchInsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_BOOKING, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        ps.setLong(1, booking.getRenter().getId());
+                        ps.setLong(2, booking.getProduct().getId());
+                        ps.setTimestamp(3, Timestamp.valueOf(booking.getBookingDate()));
+                        ps.setTimestamp(4, Timestamp.valueOf(booking.getReturnDate()));
+                        ps.setDouble(5, booking.getTotalPrice());
+                        ps.setString(6, Booking.STATUS_PENDING_APPROVAL);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            booking.setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            booking.setVersion(0L);
+            booking.setStatus(Booking.STATUS_PENDING_APPROVAL);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package tqs.blacktie.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tqs.blacktie.entity.Booking;
@@ -9,10 +15,24 @@ import tqs.blacktie.entity.User;
 import tqs.blacktie.entity.Product;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingBatchInsert {
+
+    // Keyset condition shared by the paged listings: strictly after (afterDate, afterId)
+    String AFTER_POSITION =
+            "(b.bookingDate > :afterDate OR (b.bookingDate = :afterDate AND b.id > :afterId))";
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    // List endpoints read renter, product and owner of every row, so they share one fetch plan
+    @Override
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    List<Booking> findAll();
 
     // Find all bookings for a specific user
     List<Booking> findByRenter(User renter);
@@ -23,6 +43,20 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // Find bookings by user ID
     List<Booking> findByRenterId(Long renterId);
 
+    // Find bookings of a user in any of the given statuses
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    List<Booking> findByRenterIdAndStatusIn(Long renterId, Collection<String> statuses);
+
+    // Find bookings of a product in any of the given statuses
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    List<Booking> findByProductAndStatusIn(Product product, Collection<String> statuses);
+
+    // Resolve a delivery code through its unique index
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    Optional<Booking> findByDeliveryCode(String deliveryCode);
+
+    boolean existsByDeliveryCode(String deliveryCode);
+
     // Find bookings by product ID
     List<Booking> findByProductId(Long productId);
 
@@ -30,10 +64,133 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByProductAndBookingDateLessThanEqualAndReturnDateGreaterThanEqual(
         Product product, LocalDateTime returnDate, LocalDateTime bookingDate);
 
+    // Whether a booking of the product in any of the given statuses overlaps [from, to], bounds inclusive
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.product.id = :productId AND b.status IN (:statuses) "
+            + "AND b.bookingDate <= :to AND b.returnDate >= :from")
+    boolean existsOverlapping(@Param("productId") Long productId, @Param("statuses") Collection<String> statuses,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Find bookings in any of the given statuses (used to rebuild the availability index)
+    List<Booking> findByStatusIn(Collection<String> statuses);
+
+    // Find bookings in the given status returned after the given time
+    List<Booking> findByStatusAndReturnDateAfter(String status, LocalDateTime after);
+
     // Find bookings for products owned by a specific owner
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
     @Query("SELECT b FROM Booking b WHERE b.product.owner.id = :ownerId")
     List<Booking> findByProductOwnerId(@Param("ownerId") Long ownerId);
 
+    // Find bookings for products owned by a specific owner in any of the given statuses
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE b.product.owner.id = :ownerId AND b.status IN (:statuses)")
+    List<Booking> findByProductOwnerIdAndStatusIn(@Param("ownerId") Long ownerId,
+            @Param("statuses") Collection<String> statuses);
+
+    // Keyset pages ordered by (bookingDate, id), holding the bookings after the given position
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE " + AFTER_POSITION + " ORDER BY b.bookingDate, b.id")
+    List<Booking> findPageAfter(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId,
+            Pageable page);
+
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE b.renter.id = :renterId AND b.status IN (:statuses) AND "
+            + AFTER_POSITION + " ORDER BY b.bookingDate, b.id")
+    List<Booking> findPageByRenterIdAndStatusIn(@Param("renterId") Long renterId,
+            @Param("statuses") Collection<String> statuses, @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId, Pageable page);
+
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE b.product.owner.id = :ownerId AND "
+            + AFTER_POSITION + " ORDER BY b.bookingDate, b.id")
+    List<Booking> findPageByProductOwnerId(@Param("ownerId") Long ownerId,
+            @Param("afterDate") LocalDateTime afterDate, @Param("afterId") Long afterId, Pageable page);
+
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE b.product.owner.id = :ownerId AND b.status IN (:statuses) AND "
+            + AFTER_POSITION + " ORDER BY b.bookingDate, b.id")
+    List<Booking> findPageByProductOwnerIdAndStatusIn(@Param("ownerId") Long ownerId,
+            @Param("statuses") Collection<String> statuses, @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId, Pageable page);
+
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @Query("SELECT b FROM Booking b WHERE b.product.id = :productId AND b.status IN (:statuses) AND "
+            + AFTER_POSITION + " ORDER BY b.bookingDate, b.id")
+    List<Booking> findPageByProductIdAndStatusIn(@Param("productId") Long productId,
+            @Param("statuses") Collection<String> statuses, @Param("afterDate") LocalDateTime afterDate,
+            @Param("afterId") Long afterId, Pageable page);
+
+    // Forward-only cursors for the exports, read EXPORT_FETCH_SIZE rows per round trip. The caller
+    // must hold a transaction open and close the stream
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b WHERE b.product.owner.id = :ownerId ORDER BY b.bookingDate, b.id")
+    Stream<Booking> streamByProductOwnerId(@Param("ownerId") Long ownerId);
+
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b ORDER BY b.bookingDate, b.id")
+    Stream<Booking> streamAll();
+
+    // Bookings of the given ids with renter, product and owner loaded
+    @EntityGraph(Booking.GRAPH_WITH_PARTIES)
+    List<Booking> findByIdIn(Collection<Long> ids);
+
+    // Claims up to :limit bookings in the given status that ended before :before. Rows already
+    // claimed by another transaction are skipped instead of waited on, so sweepers on several
+    // nodes work through disjoint chunks
+    @Query(value = "SELECT id AS id, product_id AS productId FROM bookings "
+            + "WHERE status = :status AND return_date < :before "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BookingKey> lockByStatusAndReturnDateBefore(@Param("status") String status,
+            @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    // Same as above for bookings that should have started before :before
+    @Query(value = "SELECT id AS id, product_id AS productId FROM bookings "
+            + "WHERE status = :status AND booking_date < :before "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<BookingKey> lockByStatusAndBookingDateBefore(@Param("status") String status,
+            @Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    // Locks the bookings among :ids still in the given status whose checkout hold expired at or
+    // before :now. Waits for rows being paid right now, so the status seen is the committed one
+    @Query(value = "SELECT id AS id, product_id AS productId FROM bookings "
+            + "WHERE id IN (:ids) AND status = :status AND hold_expires_at <= :now "
+            + "ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<BookingKey> lockByIdInAndStatusAndHoldExpiredBefore(@Param("ids") Collection<Long> ids,
+            @Param("status") String status, @Param("now") LocalDateTime now);
+
+    // Gives the bookings in the given status that have no checkout hold deadline yet the one passed
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.holdExpiresAt = :deadline, b.version = b.version + 1 "
+            + "WHERE b.status = :status AND b.holdExpiresAt IS NULL")
+    int setMissingHoldDeadline(@Param("status") String status, @Param("deadline") LocalDateTime deadline);
+
+    // Id and hold deadline of every held booking in the given status, to rebuild the checkout holds
+    @Query("SELECT b.id AS id, b.holdExpiresAt AS holdExpiresAt FROM Booking b "
+            + "WHERE b.status = :status AND b.holdExpiresAt IS NOT NULL")
+    List<HoldKey> findHoldsByStatus(@Param("status") String status);
+
+    // Bookings per product outside the given statuses, to weigh the product suggestions
+    @Query("SELECT b.product.id AS productId, COUNT(b) AS bookings FROM Booking b "
+            + "WHERE b.status NOT IN (:statuses) GROUP BY b.product.id")
+    List<ProductBookings> countByProductAndStatusNotIn(@Param("statuses") Collection<String> statuses);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 WHERE b.id IN (:ids)")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = '" + Booking.STATUS_REJECTED + "', b.rejectionReason = :reason, "
+            + "b.version = b.version + 1 WHERE b.id IN (:ids)")
+    int rejectByIdIn(@Param("ids") Collection<Long> ids, @Param("reason") String reason);
+
     // Count by status for admin metrics
     long countByStatus(String status);
 
@@ -43,4 +200,22 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     // Sum of total revenue (completed bookings)
     @Query("SELECT COALESCE(SUM(b.totalPrice), 0) FROM Booking b WHERE b.status = :status")
     Double sumTotalPriceByStatus(@Param("status") String status);
+
+    interface BookingKey {
+        Long getId();
+
+        Long getProductId();
+    }
+
+    interface ProductBookings {
+        Long getProductId();
+
+        long getBookings();
+    }
+
+    interface HoldKey {
+        Long getId();
+
+        LocalDateTime getHoldExpiresAt();
+    }
 }
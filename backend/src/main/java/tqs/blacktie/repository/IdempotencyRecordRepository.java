@@ -0,0 +1,57 @@
+package tqs.blacktie.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.entity.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Plain insert, so a key already taken fails with a duplicate key error instead of being merged
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, fingerprint, created_at, expires_at) "
+            + "VALUES (:id, :fingerprint, :createdAt, :expiresAt)", nativeQuery = true)
+    int reserve(@Param("id") String id, @Param("fingerprint") String fingerprint,
+            @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, "
+            + "r.responseBody = :responseBody, r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") String id, @Param("statusCode") int statusCode,
+            @Param("contentType") String contentType, @Param("responseBody") String responseBody,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Extends the lease of a request still running. Matching on the reservation time leaves alone a
+    // key that was completed, released or taken over by another request in the meantime
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.expiresAt = :expiresAt "
+            + "WHERE r.id = :id AND r.createdAt = :createdAt AND r.statusCode IS NULL")
+    int renew(@Param("id") String id, @Param("createdAt") LocalDateTime createdAt,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id")
+    int release(@Param("id") String id);
+
+    // Deletes the record only if it has expired, so two requests taking over the same key cannot
+    // delete each other's reservation
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int releaseExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,24 @@
+package tqs.blacktie.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import tqs.blacktie.entity.PricingRule;
+
+import java.util.List;
+
+@Repository
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+
+    List<PricingRule> findAllByOrderById();
+
+    // Rules are only ever added or deleted, so their count and highest id change with every write
+    @Query("SELECT COUNT(r) AS rules, COALESCE(MAX(r.id), 0) AS lastId FROM PricingRule r")
+    RulesVersion findVersion();
+
+    interface RulesVersion {
+        long getRules();
+
+        long getLastId();
+    }
+}
@@ -0,0 +1,34 @@
+package tqs.blacktie.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.entity.ProductBlackout;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductBlackoutRepository extends JpaRepository<ProductBlackout, Long> {
+
+    List<ProductBlackout> findByProductIdOrderByStartDate(Long productId);
+
+    // Blackouts not over yet, with their product (and its buffer), to rebuild the availability index
+    @EntityGraph(attributePaths = "product")
+    List<ProductBlackout> findByEndDateAfter(LocalDateTime after);
+
+    // Whether a block-out of the product overlaps [from, to], bounds inclusive
+    @Query("SELECT COUNT(b) > 0 FROM ProductBlackout b WHERE b.product.id = :productId "
+            + "AND b.startDate <= :to AND b.endDate >= :from")
+    boolean existsOverlapping(@Param("productId") Long productId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductBlackout b WHERE b.product.id = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
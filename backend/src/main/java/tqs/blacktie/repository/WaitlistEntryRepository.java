@@ -0,0 +1,62 @@
+package tqs.blacktie.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.entity.WaitlistEntry;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Product and dates of a waitlist entry, enough to index it
+    interface WaitlistKey {
+        Long getId();
+
+        Long getProductId();
+
+        LocalDateTime getBookingDate();
+
+        LocalDateTime getReturnDate();
+    }
+
+    @EntityGraph(attributePaths = "product")
+    List<WaitlistEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    boolean existsByUserIdAndProductIdAndBookingDateAndReturnDateAndStatus(Long userId, Long productId,
+            LocalDateTime bookingDate, LocalDateTime returnDate, String status);
+
+    // Locks the entries among :ids that are still in the given status, in priority order, so a
+    // waiter is never notified twice by concurrent cancellations
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = { "user", "product" })
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.id IN (:ids) AND w.status = :status ORDER BY w.id")
+    List<WaitlistEntry> lockByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Query("SELECT w.id AS id, w.product.id AS productId, w.bookingDate AS bookingDate, "
+            + "w.returnDate AS returnDate FROM WaitlistEntry w WHERE w.status = :status")
+    List<WaitlistKey> findKeysByStatus(@Param("status") String status);
+
+    @Query("SELECT w.id AS id, w.product.id AS productId, w.bookingDate AS bookingDate, "
+            + "w.returnDate AS returnDate FROM WaitlistEntry w WHERE w.user.id = :userId")
+    List<WaitlistKey> findKeysByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.product.id = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -1,6 +1,7 @@
 package tqs.blacktie.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tqs.blacktie.dto.AdminUserResponse;
 import tqs.blacktie.dto.PlatformMetricsResponse;
 import tqs.blacktie.entity.Booking;
@@ -9,10 +10,12 @@ import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.BookingRepository;
 import tqs.blacktie.repository.NotificationRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class AdminService {
@@ -24,17 +27,41 @@ public class AdminService {
     private final ProductRepository productRepository;
     private final NotificationService notificationService;
     private final NotificationRepository notificationRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final WaitlistService waitlistService;
+    private final ProductBlackoutRepository blackoutRepository;
+    private final BookingEventLog eventLog;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductGeoIndex geoIndex;
+    private final PricingEngine pricingEngine;
 
     public AdminService(UserRepository userRepository,
                        BookingRepository bookingRepository,
                        ProductRepository productRepository,
                        NotificationService notificationService,
-                       NotificationRepository notificationRepository) {
+                       NotificationRepository notificationRepository,
+                       BookingAvailabilityIndex availabilityIndex,
+                       WaitlistService waitlistService,
+                       ProductBlackoutRepository blackoutRepository,
+                       BookingEventLog eventLog,
+                       ProductSearchIndex searchIndex,
+                       ProductSuggestionIndex suggestionIndex,
+                       ProductGeoIndex geoIndex,
+                       PricingEngine pricingEngine) {
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.productRepository = productRepository;
         this.notificationService = notificationService;
         this.notificationRepository = notificationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.waitlistService = waitlistService;
+        this.blackoutRepository = blackoutRepository;
+        this.eventLog = eventLog;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.geoIndex = geoIndex;
+        this.pricingEngine = pricingEngine;
     }
 
     public boolean isAdmin(Long userId) {
@@ -100,6 +127,7 @@ public class AdminService {
         return response;
     }
 
+    @Transactional
     public User updateUserStatus(Long userId, String status) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException(USER_NOT_FOUND_MSG));
@@ -157,6 +185,9 @@ public class AdminService {
             for (Booking booking : activeBookings) {
                 booking.setStatus(Booking.STATUS_CANCELLED);
                 bookingRepository.save(booking);
+                eventLog.record(booking, BookingEventLog.CANCELLED, null, Map.of("cancellationReason", reason));
+                availabilityIndex.sync(booking);
+                waitlistService.datesReleased(booking);
                 // Notify the renter
                 notificationService.createBookingCancelledByAdminNotification(booking.getRenter(), booking, reason);
             }
@@ -171,6 +202,9 @@ public class AdminService {
         for (Booking booking : activeBookings) {
             booking.setStatus(Booking.STATUS_CANCELLED);
             bookingRepository.save(booking);
+            eventLog.record(booking, BookingEventLog.CANCELLED, null, Map.of("cancellationReason", reason));
+            availabilityIndex.sync(booking);
+            waitlistService.datesReleased(booking);
             // Notify the product owner
             if (booking.getProduct().getOwner() != null) {
                 notificationService.createBookingCancelledByAdminNotification(
@@ -200,6 +234,7 @@ public class AdminService {
         return userRepository.save(user);
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException(USER_NOT_FOUND_MSG));
@@ -212,6 +247,9 @@ public class AdminService {
         List<Notification> userNotifications = notificationRepository.findByUserOrderByCreatedAtDesc(user);
         notificationRepository.deleteAll(userNotifications);
 
+        // Drop the user's waitlist entries (user_id is NOT NULL)
+        waitlistService.removeAllForUser(userId);
+
         // Delete bookings where user is renter (user_id is NOT NULL, can't set to null)
         List<Booking> userBookings = bookingRepository.findByRenterId(userId);
         for (Booking booking : userBookings) {
@@ -221,6 +259,8 @@ public class AdminService {
             
             // Delete the booking
             bookingRepository.delete(booking);
+            eventLog.record(booking, BookingEventLog.DELETED, null);
+            availabilityIndex.remove(booking);
         }
 
         // Handle products owned by this user
@@ -238,8 +278,17 @@ public class AdminService {
                 
                 // Delete the booking
                 bookingRepository.delete(booking);
+                eventLog.record(booking, BookingEventLog.DELETED, null);
+                availabilityIndex.remove(booking);
             }
-            // Delete the product
+            // Delete the product with its waitlist and block-outs
+            waitlistService.removeAllForProduct(product.getId());
+            blackoutRepository.deleteByProductId(product.getId());
+            availabilityIndex.removeProduct(product.getId());
+            searchIndex.remove(product.getId());
+            suggestionIndex.remove(product.getId());
+            geoIndex.remove(product.getId());
+            pricingEngine.evict(product.getId());
             productRepository.delete(product);
         }
 
@@ -259,6 +308,7 @@ public class AdminService {
         return productRepository.findAll();
     }
 
+    @Transactional
     public void deleteProduct(Long productId) {
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new IllegalArgumentException("Product not found"));
@@ -282,6 +332,8 @@ public class AdminService {
             
             // Delete the booking (product_id is NOT NULL, can't set to null)
             bookingRepository.delete(booking);
+            eventLog.record(booking, BookingEventLog.DELETED, null);
+            availabilityIndex.remove(booking);
         }
 
         // Notify the owner
@@ -289,7 +341,14 @@ public class AdminService {
             notificationService.createProductDeletedNotification(owner, productName, true);
         }
 
-        // Now safe to delete the product
+        // Now safe to delete the product with its waitlist and block-outs
+        waitlistService.removeAllForProduct(productId);
+        blackoutRepository.deleteByProductId(productId);
+        availabilityIndex.removeProduct(productId);
+        searchIndex.remove(productId);
+        suggestionIndex.remove(productId);
+        geoIndex.remove(productId);
+        pricingEngine.evict(productId);
         productRepository.delete(product);
     }
 }
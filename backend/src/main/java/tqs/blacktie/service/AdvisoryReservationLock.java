@@ -0,0 +1,51 @@
+package tqs.blacktie.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+
+/**
+ * Cluster-wide reservation lock backed by PostgreSQL transaction-level advisory locks.
+ * Enable with {@code booking.reservation.lock=advisory} when running several backend nodes; the
+ * checks made under the lock then read the database ({@link ReservationCheck}), since another
+ * node's commits never reach this node's availability index.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.reservation.lock", havingValue = "advisory")
+public class AdvisoryReservationLock implements ReservationLock {
+
+    // First half of the two-key advisory lock, keeps product locks apart from other advisory users
+    static final int PRODUCT_LOCK_NAMESPACE = 0x42540001;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AdvisoryReservationLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void lock(Long productId) {
+        lockKey(Long.hashCode(productId));
+    }
+
+    // Ordered by lock key rather than product id, since distinct products can share a key
+    @Override
+    public void lockAll(Collection<Long> productIds) {
+        productIds.stream()
+                .mapToInt(productId -> Long.hashCode(productId))
+                .distinct()
+                .sorted()
+                .forEach(this::lockKey);
+    }
+
+    private void lockKey(int key) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Reservation lock requires an active transaction");
+        }
+        // Released automatically by PostgreSQL when the surrounding transaction ends
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> null, PRODUCT_LOCK_NAMESPACE, key);
+    }
+}
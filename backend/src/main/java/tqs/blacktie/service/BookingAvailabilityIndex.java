@@ -0,0 +1,472 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.ProductBlackout;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory index of the APPROVED and PAID booking intervals and the owner block-outs of every
+ * product. COMPLETED bookings stay indexed too, since their buffer days keep the product blocked
+ * after the return; they are pruned once over by {@link #pruneEndedBefore}.
+ *
+ * Each product keeps an immutable snapshot of its intervals sorted by start, plus a running
+ * maximum of the end dates. An overlap check is a binary search over that snapshot, so
+ * {@link #hasOverlap} answers in O(log n) without touching the database. Writers replace the
+ * snapshot of a single product atomically, readers never lock. Changes made inside a transaction
+ * are applied once it commits, so rolled back writes never reach the index.
+ *
+ * Block-outs ({@link ProductBlackout}) live in the same snapshot as bookings, under negated ids,
+ * and every booking is stretched by the product's buffer days after its return. A booking being
+ * checked is stretched the same way, so both the cleaning time after existing bookings and the one
+ * after the new booking are honoured by the same single lookup.
+ *
+ * Every snapshot also carries a busy-day bitmap over a rolling {@value #CALENDAR_WINDOW_MONTHS}-month
+ * window starting at the first day of the current month, rebuilt whenever the product's
+ * intervals change, so availability calendars are rendered without reading the bookings table.
+ *
+ * A rebuild holds off writers from the moment its loader starts reading the database until the new
+ * snapshots are in place. A change committed in between is applied on top of the rebuilt index
+ * rather than being lost to the older rows the loader read.
+ */
+@Component
+public class BookingAvailabilityIndex {
+
+    public static final int CALENDAR_WINDOW_MONTHS = 18;
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final Map<Long, Intervals> intervalsByProduct = new ConcurrentHashMap<>();
+    // Shared by writers, which only ever replace the snapshot of one product, and taken alone by a rebuild
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    public static boolean isActive(String status) {
+        return Booking.STATUS_APPROVED.equals(status) || Booking.STATUS_PAID.equals(status);
+    }
+
+    /**
+     * Whether a booking in this status keeps the product's dates taken: active bookings, and
+     * completed ones until their buffer days are over.
+     */
+    public static boolean holdsDates(String status) {
+        return isActive(status) || Booking.STATUS_COMPLETED.equals(status);
+    }
+
+    /**
+     * Checks if the product has an active booking or a block-out overlapping the given dates
+     * (bounds inclusive), buffer days included.
+     */
+    public boolean hasOverlap(Long productId, LocalDateTime from, LocalDateTime to) {
+        Intervals intervals = intervalsByProduct.get(productId);
+        return intervals != null && intervals.overlaps(toKey(from), toKey(to));
+    }
+
+    boolean hasOverlap(Long productId, long from, long to) {
+        Intervals intervals = intervalsByProduct.get(productId);
+        return intervals != null && intervals.overlaps(from, to);
+    }
+
+    /**
+     * Same as {@link #hasOverlap} for dates that need no buffer after them, such as a block-out:
+     * only the buffers of the existing bookings count.
+     */
+    public boolean isBlocked(Long productId, LocalDateTime from, LocalDateTime to) {
+        Intervals intervals = intervalsByProduct.get(productId);
+        return intervals != null && intervals.overlapsUnstretched(toKey(from), toKey(to));
+    }
+
+    /**
+     * Busy days of the product between the given dates (inclusive), bit {@code i} standing for
+     * {@code from.plusDays(i)}. Both dates must lie inside the calendar window.
+     */
+    public BitSet busyDays(Long productId, LocalDate from, LocalDate to) {
+        LocalDate windowStart = calendarWindowStart();
+        LocalDate windowEnd = calendarWindowEnd(windowStart);
+        if (from.isBefore(windowStart) || to.isAfter(windowEnd)) {
+            throw new IllegalArgumentException(
+                    "Availability can only be queried between " + windowStart + " and " + windowEnd);
+        }
+        Intervals intervals = intervalsByProduct.get(productId);
+        if (intervals == null) {
+            return new BitSet();
+        }
+        return calendarOf(intervals, windowStart).slice(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public LocalDate calendarWindowStart() {
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    public LocalDate calendarWindowEnd(LocalDate windowStart) {
+        return windowStart.plusMonths(CALENDAR_WINDOW_MONTHS).minusDays(1);
+    }
+
+    private DayBitmap calendarOf(Intervals intervals, LocalDate windowStart) {
+        int days = (int) ChronoUnit.DAYS.between(windowStart, calendarWindowEnd(windowStart)) + 1;
+        return intervals.calendar(windowStart.toEpochDay(), days);
+    }
+
+    private void refreshCalendar(Intervals intervals) {
+        if (intervals != null) {
+            calendarOf(intervals, calendarWindowStart());
+        }
+    }
+
+    /**
+     * Brings the index in line with the current status of the booking: bookings holding dates are
+     * added (or moved if their dates changed), any other status removes them.
+     */
+    public void sync(Booking booking) {
+        if (booking == null || booking.getId() == null || booking.getProduct() == null) {
+            return;
+        }
+        Long productId = booking.getProduct().getId();
+        Long bookingId = booking.getId();
+        if (holdsDates(booking.getStatus()) && booking.getBookingDate() != null && booking.getReturnDate() != null) {
+            putInterval(booking.getProduct(), bookingId, booking.getBookingDate(), booking.getReturnDate());
+        } else {
+            apply(() -> removeInterval(productId, bookingId));
+        }
+    }
+
+    /**
+     * Adds the block-out, or moves it if its dates changed.
+     */
+    public void sync(ProductBlackout blackout) {
+        if (blackout == null || blackout.getId() == null || blackout.getProduct() == null) {
+            return;
+        }
+        putInterval(blackout.getProduct(), -blackout.getId(), blackout.getStartDate(), blackout.getEndDate());
+    }
+
+    public void removeBlackout(Long productId, Long blackoutId) {
+        apply(() -> removeInterval(productId, -blackoutId));
+    }
+
+    /**
+     * Drops everything indexed for a product that is being deleted.
+     */
+    public void removeProduct(Long productId) {
+        apply(() -> intervalsByProduct.remove(productId));
+    }
+
+    /**
+     * Changes the number of days a product stays blocked after each return.
+     */
+    public void setBufferDays(Long productId, int bufferDays) {
+        long buffer = bufferDays * SECONDS_PER_DAY;
+        apply(() -> refreshCalendar(intervalsByProduct.computeIfPresent(productId,
+                (id, current) -> current.withBuffer(buffer))));
+    }
+
+    // Applies a change once the surrounding transaction commits, never in the middle of a rebuild
+    private void apply(Runnable change) {
+        AfterCommit.run(() -> {
+            rebuildLock.readLock().lock();
+            try {
+                change.run();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+        });
+    }
+
+    private void putInterval(Product product, long id, LocalDateTime from, LocalDateTime to) {
+        long start = toKey(from);
+        long end = toKey(to);
+        long buffer = bufferOf(product);
+        apply(() -> refreshCalendar(intervalsByProduct.compute(product.getId(),
+                (productId, current) -> (current == null ? Intervals.EMPTY : current).with(id, start, end, buffer))));
+    }
+
+    private static long bufferOf(Product product) {
+        return product.getBufferDays() != null ? product.getBufferDays() * SECONDS_PER_DAY : 0;
+    }
+
+    public void remove(Booking booking) {
+        if (booking == null || booking.getId() == null || booking.getProduct() == null) {
+            return;
+        }
+        remove(booking.getProduct().getId(), booking.getId());
+    }
+
+    public void remove(Long productId, Long bookingId) {
+        apply(() -> removeInterval(productId, bookingId));
+    }
+
+    private void removeInterval(Long productId, Long bookingId) {
+        refreshCalendar(intervalsByProduct.computeIfPresent(productId, (id, current) -> {
+            Intervals updated = current.without(bookingId);
+            return updated.size() == 0 ? null : updated;
+        }));
+    }
+
+    /**
+     * Drops the bookings and block-outs no longer blocking anything at the given time, buffer days
+     * included. Nothing can be booked in the past, so they would only ever show in calendars.
+     */
+    public void pruneEndedBefore(LocalDateTime before) {
+        long key = toKey(before);
+        rebuildLock.readLock().lock();
+        try {
+            for (Long productId : intervalsByProduct.keySet()) {
+                refreshCalendar(intervalsByProduct.computeIfPresent(productId, (id, current) -> {
+                    Intervals pruned = current.withoutEndedBefore(key);
+                    return pruned.size() == 0 ? null : pruned;
+                }));
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given bookings. Bookings not holding dates are ignored.
+     */
+    public void rebuild(Collection<Booking> bookings) {
+        rebuild(bookings, List.of());
+    }
+
+    /**
+     * Replaces the whole index with the given bookings and block-outs. Bookings not holding dates
+     * are ignored.
+     */
+    public void rebuild(Collection<Booking> bookings, Collection<ProductBlackout> blackouts) {
+        rebuild(() -> bookings, () -> blackouts);
+    }
+
+    /**
+     * Replaces the whole index with the bookings and block-outs read by the given loaders. Changes
+     * committed while they read wait until the new index is in place and are applied on top of it.
+     */
+    public void rebuild(Supplier<? extends Collection<Booking>> bookings,
+            Supplier<? extends Collection<ProductBlackout>> blackouts) {
+        rebuildLock.writeLock().lock();
+        try {
+            replaceAll(bookings.get(), blackouts.get());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private void replaceAll(Collection<Booking> bookings, Collection<ProductBlackout> blackouts) {
+        Map<Long, List<long[]>> grouped = new HashMap<>();
+        Map<Long, Long> buffers = new HashMap<>();
+        for (Booking booking : bookings) {
+            if (booking.getId() != null && booking.getProduct() != null && holdsDates(booking.getStatus())
+                    && booking.getBookingDate() != null && booking.getReturnDate() != null) {
+                Long productId = booking.getProduct().getId();
+                buffers.put(productId, bufferOf(booking.getProduct()));
+                grouped.computeIfAbsent(productId, id -> new ArrayList<>()).add(new long[] {
+                        booking.getId(), toKey(booking.getBookingDate()), toKey(booking.getReturnDate()) });
+            }
+        }
+        for (ProductBlackout blackout : blackouts) {
+            Long productId = blackout.getProduct().getId();
+            buffers.put(productId, bufferOf(blackout.getProduct()));
+            grouped.computeIfAbsent(productId, id -> new ArrayList<>()).add(new long[] {
+                    -blackout.getId(), toKey(blackout.getStartDate()), toKey(blackout.getEndDate()) });
+        }
+
+        Map<Long, Intervals> rebuilt = new HashMap<>();
+        grouped.forEach((productId, intervals) ->
+                rebuilt.put(productId, Intervals.of(intervals, buffers.get(productId))));
+        rebuilt.values().forEach(this::refreshCalendar);
+
+        intervalsByProduct.keySet().retainAll(rebuilt.keySet());
+        intervalsByProduct.putAll(rebuilt);
+    }
+
+    public int size() {
+        return intervalsByProduct.values().stream().mapToInt(Intervals::size).sum();
+    }
+
+    static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static long toEpochDay(long key) {
+        return Math.floorDiv(key, SECONDS_PER_DAY);
+    }
+
+    /**
+     * Immutable, start-sorted interval list of one product: bookings under their id, block-outs
+     * under their negated id. {@code maxEnds[i]} holds the latest end among intervals {@code 0..i},
+     * bookings stretched by {@code buffer}, which lets an overlap check stop after one binary search.
+     */
+    private static final class Intervals {
+
+        static final Intervals EMPTY = new Intervals(new long[0], new long[0], new long[0], 0);
+
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long buffer;
+        private final long[] maxEnds;
+        // Built on first use for a window origin, replaced once the window rolls over
+        private volatile DayBitmap calendar;
+
+        private Intervals(long[] ids, long[] starts, long[] ends, long buffer) {
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.buffer = buffer;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, blockedUntil(i));
+                maxEnds[i] = max;
+            }
+        }
+
+        static Intervals of(List<long[]> intervals, long buffer) {
+            long[][] sorted = intervals.toArray(new long[0][]);
+            Arrays.sort(sorted, (a, b) -> Long.compare(a[1], b[1]));
+            long[] ids = new long[sorted.length];
+            long[] starts = new long[sorted.length];
+            long[] ends = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                ids[i] = sorted[i][0];
+                starts[i] = sorted[i][1];
+                ends[i] = sorted[i][2];
+            }
+            return new Intervals(ids, starts, ends, buffer);
+        }
+
+        // Bookings keep the product blocked for the buffer after their return, block-outs do not
+        private long blockedUntil(int i) {
+            return ids[i] > 0 ? ends[i] + buffer : ends[i];
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        DayBitmap calendar(long originDay, int days) {
+            DayBitmap current = calendar;
+            if (current == null || current.originDay() != originDay) {
+                long[] startDays = new long[starts.length];
+                long[] endDays = new long[ends.length];
+                for (int i = 0; i < starts.length; i++) {
+                    startDays[i] = toEpochDay(starts[i]);
+                    endDays[i] = toEpochDay(blockedUntil(i));
+                }
+                current = DayBitmap.of(originDay, days, startDays, endDays);
+                calendar = current;
+            }
+            return current;
+        }
+
+        boolean overlaps(long from, long to) {
+            return overlapsUnstretched(from, to + buffer);
+        }
+
+        boolean overlapsUnstretched(long from, long to) {
+            int last = upperBound(to) - 1;
+            return last >= 0 && maxEnds[last] >= from;
+        }
+
+        Intervals withBuffer(long newBuffer) {
+            return new Intervals(ids, starts, ends, newBuffer);
+        }
+
+        Intervals with(long id, long start, long end, long newBuffer) {
+            Intervals base = without(id);
+            int n = base.size();
+            int at = base.upperBound(start);
+
+            long[] newIds = new long[n + 1];
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            copyAround(base.ids, newIds, at, id);
+            copyAround(base.starts, newStarts, at, start);
+            copyAround(base.ends, newEnds, at, end);
+            return new Intervals(newIds, newStarts, newEnds, newBuffer);
+        }
+
+        Intervals withoutEndedBefore(long key) {
+            int kept = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (blockedUntil(i) >= key) {
+                    kept++;
+                }
+            }
+            if (kept == ids.length) {
+                return this;
+            }
+            long[] newIds = new long[kept];
+            long[] newStarts = new long[kept];
+            long[] newEnds = new long[kept];
+            int at = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (blockedUntil(i) >= key) {
+                    newIds[at] = ids[i];
+                    newStarts[at] = starts[i];
+                    newEnds[at] = ends[i];
+                    at++;
+                }
+            }
+            return new Intervals(newIds, newStarts, newEnds, buffer);
+        }
+
+        Intervals without(long id) {
+            int at = -1;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                return this;
+            }
+            return new Intervals(removeAt(ids, at), removeAt(starts, at), removeAt(ends, at), buffer);
+        }
+
+        /**
+         * Index of the first interval starting strictly after {@code key}.
+         */
+        private int upperBound(long key) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static void copyAround(long[] source, long[] target, int at, long value) {
+            System.arraycopy(source, 0, target, 0, at);
+            target[at] = value;
+            System.arraycopy(source, at, target, at + 1, source.length - at);
+        }
+
+        private static long[] removeAt(long[] source, int at) {
+            long[] target = new long[source.length - 1];
+            System.arraycopy(source, 0, target, 0, at);
+            System.arraycopy(source, at + 1, target, at, source.length - at - 1);
+            return target;
+        }
+    }
+}
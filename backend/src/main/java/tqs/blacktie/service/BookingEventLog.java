@@ -0,0 +1,265 @@
+package tqs.blacktie.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tqs.blacktie.config.BookingEventLogSchema;
+import tqs.blacktie.dto.BookingEventResponse;
+import tqs.blacktie.dto.BookingReplayResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository.BookingKey;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only history of booking transitions, kept in the monthly-partitioned
+ * {@link BookingEventLogSchema#TABLE} table.
+ *
+ * Every transition appends one event holding the booking's status afterwards and the fields it
+ * set, so a booking can be rebuilt by replaying its events in order even after its row was
+ * overwritten or deleted. Events of a transaction are buffered and written with a single JDBC batch
+ * just before it commits, on the same connection, so they are stored if and only if the transition
+ * is. Rows are never updated: analytics read this log rather than the live {@code bookings} table.
+ */
+@Component
+public class BookingEventLog {
+
+    public static final String CREATED = "CREATED";
+    public static final String APPROVED = "APPROVED";
+    public static final String REJECTED = "REJECTED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String PAID = "PAID";
+    public static final String COMPLETED = "COMPLETED";
+    // Delivery code scanned at pickup or delivery
+    public static final String HANDED_OVER = "HANDED_OVER";
+    // Approved but not paid within the checkout hold
+    public static final String HOLD_EXPIRED = "HOLD_EXPIRED";
+    public static final String DEPOSIT_REQUESTED = "DEPOSIT_REQUESTED";
+    public static final String DEPOSIT_PAID = "DEPOSIT_PAID";
+    public static final String DEPOSIT_REFUNDED = "DEPOSIT_REFUNDED";
+    public static final String DELETED = "DELETED";
+
+    private static final String INSERT_EVENT = "INSERT INTO " + BookingEventLogSchema.TABLE
+            + " (booking_id, product_id, event_type, status, actor_id, occurred_at, payload)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] INSERT_TYPES = { Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.BIGINT, Types.TIMESTAMP, Types.VARCHAR };
+
+    private static final String SELECT_BY_BOOKING = "SELECT id, booking_id, product_id, event_type, status, "
+            + "actor_id, occurred_at, payload FROM " + BookingEventLogSchema.TABLE
+            + " WHERE booking_id = ? ORDER BY occurred_at, id";
+
+    // Bounded on occurred_at so PostgreSQL only scans the partitions of the requested months
+    private static final String COUNT_BY_TYPE = "SELECT event_type, COUNT(*) AS events FROM "
+            + BookingEventLogSchema.TABLE + " WHERE occurred_at >= ? AND occurred_at < ? GROUP BY event_type";
+
+    private static final TypeReference<LinkedHashMap<String, Object>> CHANGES = new TypeReference<>() {
+    };
+
+    record Event(Long bookingId, Long productId, String type, String status, Long actorId,
+            LocalDateTime occurredAt, Map<String, Object> changes) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public BookingEventLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Appends a transition of the booking, as it is after the transition.
+     */
+    public void record(Booking booking, String type, Long actorId) {
+        record(booking, type, actorId, Map.of());
+    }
+
+    /**
+     * Appends a transition of the booking, with values the booking no longer holds (such as a
+     * refunded deposit amount) added to the recorded changes.
+     */
+    public void record(Booking booking, String type, Long actorId, Map<String, Object> extra) {
+        Map<String, Object> changes = changesOf(booking, type);
+        changes.putAll(extra);
+        append(List.of(new Event(booking.getId(), booking.getProduct().getId(), type, booking.getStatus(),
+                actorId, LocalDateTime.now(), changes)));
+    }
+
+    /**
+     * Appends the same system transition (no actor) for bookings updated in bulk.
+     */
+    public void recordAll(Collection<BookingKey> bookings, String type, String status, Map<String, Object> extra) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Event> events = new ArrayList<>(bookings.size());
+        for (BookingKey key : bookings) {
+            Map<String, Object> changes = new LinkedHashMap<>();
+            changes.put("status", status);
+            changes.putAll(extra);
+            events.add(new Event(key.getId(), key.getProductId(), type, status, null, now, changes));
+        }
+        append(events);
+    }
+
+    /**
+     * Returns the events of the booking, oldest first.
+     */
+    public List<BookingEventResponse> history(Long bookingId) {
+        return jdbcTemplate.query(SELECT_BY_BOOKING, (rs, rowNum) -> new BookingEventResponse(
+                rs.getLong("id"),
+                rs.getLong("booking_id"),
+                rs.getObject("product_id", Long.class),
+                rs.getString("event_type"),
+                rs.getString("status"),
+                rs.getObject("actor_id", Long.class),
+                rs.getTimestamp("occurred_at").toLocalDateTime(),
+                fromJson(rs.getString("payload"))), bookingId);
+    }
+
+    /**
+     * Rebuilds the booking's state by applying its events in order.
+     */
+    public BookingReplayResponse replay(Long bookingId) {
+        List<BookingEventResponse> events = history(bookingId);
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("No events recorded for booking: " + bookingId);
+        }
+        Map<String, Object> state = new LinkedHashMap<>();
+        for (BookingEventResponse event : events) {
+            state.putAll(event.getChanges());
+        }
+        BookingEventResponse last = events.get(events.size() - 1);
+        return new BookingReplayResponse(bookingId, last.getStatus(), DELETED.equals(last.getType()),
+                events.size(), last.getOccurredAt(), state);
+    }
+
+    /**
+     * Counts the events of each type that occurred in [from, to).
+     */
+    public Map<String, Long> countByType(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("A period with from before to is required");
+        }
+        Map<String, Long> counts = new TreeMap<>();
+        jdbcTemplate.query(COUNT_BY_TYPE, rs -> {
+            counts.put(rs.getString("event_type"), rs.getLong("events"));
+        }, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return counts;
+    }
+
+    // The fields each kind of transition sets; the rest of the booking is left as it was
+    private static Map<String, Object> changesOf(Booking booking, String type) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        switch (type) {
+            case CREATED -> {
+                changes.put("renterId", booking.getRenter().getId());
+                changes.put("productId", booking.getProduct().getId());
+                changes.put("bookingDate", booking.getBookingDate());
+                changes.put("returnDate", booking.getReturnDate());
+                changes.put("totalPrice", booking.getTotalPrice());
+            }
+            case APPROVED -> {
+                changes.put("deliveryMethod", booking.getDeliveryMethod());
+                changes.put("pickupLocation", booking.getPickupLocation());
+                changes.put("approvedAt", booking.getApprovedAt());
+            }
+            case REJECTED -> changes.put("rejectionReason", booking.getRejectionReason());
+            case PAID -> {
+                changes.put("paidAt", booking.getPaidAt());
+                changes.put("deliveryCode", booking.getDeliveryCode());
+            }
+            case DEPOSIT_REQUESTED, DEPOSIT_REFUNDED -> {
+                changes.put("depositRequested", booking.getDepositRequested());
+                changes.put("depositAmount", booking.getDepositAmount());
+                changes.put("depositReason", booking.getDepositReason());
+                changes.put("depositRequestedAt", booking.getDepositRequestedAt());
+                changes.put("depositPaid", booking.getDepositPaid());
+                changes.put("depositPaidAt", booking.getDepositPaidAt());
+            }
+            case HANDED_OVER -> changes.put("handedOverAt", booking.getHandedOverAt());
+            case DEPOSIT_PAID -> {
+                changes.put("depositPaid", booking.getDepositPaid());
+                changes.put("depositPaidAt", booking.getDepositPaidAt());
+            }
+            default -> {
+                // Status-only transitions
+            }
+        }
+        changes.put("status", booking.getStatus());
+        return changes;
+    }
+
+    /**
+     * Adds the events to the current transaction's batch, or writes them right away outside a
+     * transaction.
+     */
+    private void append(List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(events);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Event> pending = (List<Event>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Event> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(batch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BookingEventLog.this);
+                }
+            });
+            pending = batch;
+        }
+        pending.addAll(events);
+    }
+
+    private void insert(List<Event> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (Event event : events) {
+            rows.add(new Object[] { event.bookingId(), event.productId(), event.type(), event.status(),
+                    event.actorId(), Timestamp.valueOf(event.occurredAt()), toJson(event.changes()) });
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, rows, INSERT_TYPES);
+    }
+
+    private String toJson(Map<String, Object> changes) {
+        try {
+            return objectMapper.writeValueAsString(changes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking event", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String payload) {
+        if (payload == null) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(payload, CHANGES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read booking event", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package tqs.blacktie.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.BookingRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Booking history exports (CSV or NDJSON) for accounting.
+ *
+ * Rows are read from a forward-only cursor, {@link BookingRepository#EXPORT_FETCH_SIZE} at a time,
+ * written straight to the output and evicted from the persistence context, so memory stays flat
+ * whatever the size of the history.
+ */
+@Service
+public class BookingExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String fileName(String prefix) {
+            return prefix + "." + extension;
+        }
+
+        public static Format of(String format) {
+            if (format != null) {
+                for (Format candidate : values()) {
+                    if (candidate.name().equalsIgnoreCase(format)) {
+                        return candidate;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("Export format must be csv or ndjson");
+        }
+    }
+
+    // Flat shape of an exported booking; also the CSV header, in this order
+    record ExportRow(Long id, Long productId, String productName, Long renterId, String renterName,
+            LocalDateTime bookingDate, LocalDateTime returnDate, String status, Double totalPrice,
+            Double depositAmount, Boolean depositPaid, String deliveryMethod, LocalDateTime approvedAt,
+            LocalDateTime paidAt) {
+    }
+
+    static final String CSV_HEADER = "id,productId,productName,renterId,renterName,bookingDate,returnDate,"
+            + "status,totalPrice,depositAmount,depositPaid,deliveryMethod,approvedAt,paidAt";
+
+    private static final int FETCH_SIZE = Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE);
+
+    private final BookingRepository bookingRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public BookingExportService(BookingRepository bookingRepository, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.bookingRepository = bookingRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(ExportRow.class);
+    }
+
+    /**
+     * Writes every booking of the owner's products, by booking date, and returns how many.
+     */
+    @Transactional(readOnly = true)
+    public long exportOwnerBookings(Long ownerId, Format format, OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamByProductOwnerId(ownerId)) {
+            return export(bookings, format, out);
+        }
+    }
+
+    /**
+     * Writes every booking of the platform, by booking date, and returns how many.
+     */
+    @Transactional(readOnly = true)
+    public long exportAllBookings(Format format, OutputStream out) throws IOException {
+        try (Stream<Booking> bookings = bookingRepository.streamAll()) {
+            return export(bookings, format, out);
+        }
+    }
+
+    private long export(Stream<Booking> bookings, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+            ExportRow row = toRow(booking);
+            if (format == Format.CSV) {
+                writeCsv(writer, row);
+            } else {
+                writer.write(jsonWriter.writeValueAsString(row));
+            }
+            writer.write('\n');
+            // Renters, products and owners repeat across rows, so evict in chunks rather than per row
+            if (++count % FETCH_SIZE == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static ExportRow toRow(Booking booking) {
+        User renter = booking.getRenter();
+        return new ExportRow(booking.getId(), booking.getProduct().getId(), booking.getProduct().getName(),
+                renter.getId(), renter.getName(), booking.getBookingDate(), booking.getReturnDate(),
+                booking.getStatus(), booking.getTotalPrice(), booking.getDepositAmount(), booking.getDepositPaid(),
+                booking.getDeliveryMethod(), booking.getApprovedAt(), booking.getPaidAt());
+    }
+
+    private static void writeCsv(Writer writer, ExportRow row) throws IOException {
+        Object[] values = {row.id(), row.productId(), row.productName(), row.renterId(), row.renterName(),
+                row.bookingDate(), row.returnDate(), row.status(), row.totalPrice(), row.depositAmount(),
+                row.depositPaid(), row.deliveryMethod(), row.approvedAt(), row.paidAt()};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] instanceof String text) {
+                writer.write(csvText(text));
+            } else if (values[i] != null) {
+                writer.write(values[i].toString());
+            }
+        }
+    }
+
+    /**
+     * Quotes a text field when needed (RFC 4180) and neutralises leading formula characters, since
+     * these files are opened in spreadsheets.
+     */
+    static String csvText(String text) {
+        String value = !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0 ? "'" + text : text;
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
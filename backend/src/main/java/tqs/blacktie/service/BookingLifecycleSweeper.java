@@ -0,0 +1,119 @@
+package tqs.blacktie.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.BookingRepository.BookingKey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Moves bookings along their lifecycle once their dates pass: PAID bookings whose return date is
+ * over become COMPLETED, and PENDING_APPROVAL bookings the owner never answered before the
+ * booking date are rejected as expired.
+ *
+ * Work is done in chunks, each claimed with {@code FOR UPDATE SKIP LOCKED} and updated with a
+ * single statement in its own transaction, so a sweep never holds many locks at once and several
+ * backend replicas can sweep at the same time without blocking each other.
+ */
+@Component
+public class BookingLifecycleSweeper {
+
+    public static final String EXPIRED_REASON = "The owner did not respond before the booking date";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLifecycleSweeper.class);
+
+    private final BookingRepository bookingRepository;
+    private final NotificationService notificationService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final BookingEventLog eventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public BookingLifecycleSweeper(BookingRepository bookingRepository,
+            NotificationService notificationService,
+            BookingAvailabilityIndex availabilityIndex,
+            BookingEventLog eventLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${booking.sweeper.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.notificationService = notificationService;
+        this.availabilityIndex = availabilityIndex;
+        this.eventLog = eventLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.sweeper.interval:PT5M}",
+            initialDelayString = "${booking.sweeper.initial-delay:PT1M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int completed = completeFinishedBookings(now);
+        int expired = expireStalePendingBookings(now);
+        if (completed > 0 || expired > 0) {
+            logger.info("Booking sweep completed {} and expired {} bookings", completed, expired);
+        }
+    }
+
+    /**
+     * Completes the finished PAID bookings. They stay in the availability index until their buffer
+     * days are over, when they are pruned along with anything else no longer blocking dates.
+     */
+    public int completeFinishedBookings(LocalDateTime now) {
+        int completed = inChunks(() -> {
+            List<BookingKey> chunk = bookingRepository.lockByStatusAndReturnDateBefore(
+                    Booking.STATUS_PAID, now, chunkSize);
+            if (!chunk.isEmpty()) {
+                bookingRepository.updateStatusByIdIn(idsOf(chunk), Booking.STATUS_COMPLETED);
+                eventLog.recordAll(chunk, BookingEventLog.COMPLETED, Booking.STATUS_COMPLETED, Map.of());
+            }
+            return chunk.size();
+        });
+        availabilityIndex.pruneEndedBefore(now);
+        return completed;
+    }
+
+    public int expireStalePendingBookings(LocalDateTime now) {
+        return inChunks(() -> {
+            List<BookingKey> chunk = bookingRepository.lockByStatusAndBookingDateBefore(
+                    Booking.STATUS_PENDING_APPROVAL, now, chunkSize);
+            if (!chunk.isEmpty()) {
+                List<Long> ids = idsOf(chunk);
+                bookingRepository.rejectByIdIn(ids, EXPIRED_REASON);
+                eventLog.recordAll(chunk, BookingEventLog.REJECTED, Booking.STATUS_REJECTED,
+                        Map.of("rejectionReason", EXPIRED_REASON));
+                for (Booking booking : bookingRepository.findByIdIn(ids)) {
+                    notificationService.createBookingRejectedNotification(booking.getRenter(), booking, EXPIRED_REASON);
+                }
+            }
+            return chunk.size();
+        });
+    }
+
+    /**
+     * Runs one chunk per transaction until a chunk comes back short.
+     */
+    private int inChunks(IntSupplier chunk) {
+        int total = 0;
+        int swept;
+        do {
+            Integer result = transactionTemplate.execute(status -> chunk.getAsInt());
+            swept = result == null ? 0 : result;
+            total += swept;
+        } while (swept == chunkSize);
+        return total;
+    }
+
+    private static List<Long> idsOf(List<BookingKey> chunk) {
+        return chunk.stream().map(BookingKey::getId).toList();
+    }
+}
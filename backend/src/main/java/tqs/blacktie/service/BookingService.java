@@ -1,6 +1,13 @@
 package tqs.blacktie.service;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.dto.BookingDecision;
+import tqs.blacktie.dto.BookingDecisionResult;
+import tqs.blacktie.dto.BookingPageRequest;
+import tqs.blacktie.dto.BookingPageResponse;
 import tqs.blacktie.dto.BookingRequest;
 import tqs.blacktie.dto.BookingResponse;
 import tqs.blacktie.entity.Booking;
@@ -10,10 +17,15 @@ import tqs.blacktie.repository.BookingRepository;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
-import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,21 +33,59 @@ public class BookingService {
 
     private static final String ROLE_OWNER = "owner";
 
+    // Most bookings the unpaged list of all bookings returns; larger listings have to page
+    public static final int UNPAGED_LIMIT = 1_000;
+
+    // Status sets each listing filters on, resolved by the database through the (user_id, status)
+    // and (product_id, status) indexes instead of loading every booking and filtering in memory
+    private static final List<String> OPEN_STATUSES = List.of(
+            Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_PAID);
+    private static final List<String> ACTIVE_STATUSES = List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID);
+    private static final List<String> RENTER_HISTORY_STATUSES = List.of(
+            Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED);
+    private static final List<String> PRODUCT_HISTORY_STATUSES = List.of(
+            Booking.STATUS_PAID, Booking.STATUS_COMPLETED);
+
     private final BookingRepository bookingRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ReservationLock reservationLock;
+    private final ReservationCheck reservationCheck;
+    private final CheckoutHoldService checkoutHoldService;
+    private final WaitlistService waitlistService;
+    private final PricingEngine pricingEngine;
+    private final BookingEventLog eventLog;
+    private final DeliveryCodeGenerator deliveryCodes;
 
     public BookingService(BookingRepository bookingRepository,
             ProductRepository productRepository,
             UserRepository userRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            BookingAvailabilityIndex availabilityIndex,
+            ReservationLock reservationLock,
+            ReservationCheck reservationCheck,
+            CheckoutHoldService checkoutHoldService,
+            WaitlistService waitlistService,
+            PricingEngine pricingEngine,
+            BookingEventLog eventLog,
+            DeliveryCodeGenerator deliveryCodes) {
         this.bookingRepository = bookingRepository;
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
+        this.availabilityIndex = availabilityIndex;
+        this.reservationLock = reservationLock;
+        this.reservationCheck = reservationCheck;
+        this.checkoutHoldService = checkoutHoldService;
+        this.waitlistService = waitlistService;
+        this.pricingEngine = pricingEngine;
+        this.eventLog = eventLog;
+        this.deliveryCodes = deliveryCodes;
     }
 
+    @Transactional
     public BookingResponse createBooking(Long userId, BookingRequest request) {
         // Validate user exists
         User user = userRepository.findById(userId)
@@ -46,43 +96,21 @@ public class BookingService {
                 .orElseThrow(
                         () -> new IllegalArgumentException("Product not found with id: " + request.getProductId()));
 
-        // Validate product is available
-        if (product.getAvailable() == null || !product.getAvailable()) {
-            throw new IllegalStateException("Product is not available for booking");
-        }
-
-        // Validate dates
-        if (request.getReturnDate().isBefore(request.getBookingDate())) {
-            throw new IllegalArgumentException("Return date must be after booking date");
-        }
-
-        if (request.getBookingDate().isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Booking date cannot be in the past");
-        }
+        checkBookable(product, request);
 
-        // Check for overlapping bookings (only APPROVED and PAID bookings)
-        List<Booking> overlappingBookings = bookingRepository
-                .findByProductAndBookingDateLessThanEqualAndReturnDateGreaterThanEqual(
-                        product, request.getReturnDate(), request.getBookingDate())
-                .stream()
-                .filter(booking -> Booking.STATUS_APPROVED.equals(booking.getStatus())
-                        || Booking.STATUS_PAID.equals(booking.getStatus()))
-                .toList();
+        // Hold the product's reservation lock until commit so the check and the insert are atomic
+        reservationLock.lock(product.getId());
 
-        if (!overlappingBookings.isEmpty()) {
+        // Check for overlapping bookings (only APPROVED and PAID bookings, and block-outs)
+        if (reservationCheck.isBooked(product, request.getBookingDate(), request.getReturnDate())) {
             throw new IllegalStateException("Product is already booked for the selected dates");
         }
 
-        // Calculate total price (price per day * number of days)
-        long days = ChronoUnit.DAYS.between(request.getBookingDate(), request.getReturnDate());
-        if (days == 0) {
-            days = 1; // Minimum 1 day
-        }
-        Double totalPrice = product.getPrice() * days;
-
         // Create booking
-        Booking booking = new Booking(user, product, request.getBookingDate(), request.getReturnDate(), totalPrice);
+        Booking booking = new Booking(user, product, request.getBookingDate(), request.getReturnDate(),
+                totalPriceOf(product, request));
         Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.CREATED, userId);
 
         // Create notification for product owner
         if (product.getOwner() != null) {
@@ -92,16 +120,89 @@ public class BookingService {
         return convertToResponse(savedBooking);
     }
 
+    /**
+     * Books several products for the same renter at once. Either every item is reserved or, on the
+     * first invalid or unavailable item, none is. Products are loaded with one query, all their
+     * reservation locks are taken together, and the bookings and owner notifications are each
+     * written with a single JDBC batch, so the cost barely grows with the size of the cart.
+     */
+    @Transactional
+    public List<BookingResponse> createCartBooking(Long userId, List<BookingRequest> items) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+
+        Map<Long, Product> products = productRepository.findAllById(
+                items.stream().map(BookingRequest::getProductId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Booking> bookings = new ArrayList<>(items.size());
+        for (BookingRequest item : items) {
+            Product product = products.get(item.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with id: " + item.getProductId());
+            }
+            checkBookable(product, item);
+            bookings.add(new Booking(user, product, item.getBookingDate(), item.getReturnDate(),
+                    totalPriceOf(product, item)));
+        }
+
+        reservationLock.lockAll(products.keySet());
+
+        Map<Long, List<Booking>> cartByProduct = new HashMap<>();
+        for (Booking booking : bookings) {
+            Long productId = booking.getProduct().getId();
+            List<Booking> sameProduct = cartByProduct.computeIfAbsent(productId, id -> new ArrayList<>());
+            if (reservationCheck.isBooked(booking.getProduct(), booking.getBookingDate(), booking.getReturnDate())
+                    || sameProduct.stream().anyMatch(other -> overlaps(other, booking))) {
+                throw new IllegalStateException(
+                        "Product " + productId + " is already booked for the selected dates");
+            }
+            sameProduct.add(booking);
+        }
+
+        bookingRepository.insertAll(bookings);
+        bookings.forEach(booking -> eventLog.record(booking, BookingEventLog.CREATED, userId));
+        notificationService.createNewBookingNotifications(bookings);
+
+        return bookings.stream()
+                .map(this::convertToResponse)
+                .toList();
+    }
+
+    private static void checkBookable(Product product, BookingRequest request) {
+        // Validate product is available
+        if (product.getAvailable() == null || !product.getAvailable()) {
+            throw new IllegalStateException("Product is not available for booking");
+        }
+
+        // Validate dates
+        if (request.getReturnDate().isBefore(request.getBookingDate())) {
+            throw new IllegalArgumentException("Return date must be after booking date");
+        }
+
+        if (request.getBookingDate().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Booking date cannot be in the past");
+        }
+    }
+
+    // Price per day * number of days (at least one day), adjusted by the pricing rules
+    private Double totalPriceOf(Product product, BookingRequest request) {
+        return pricingEngine.totalPrice(product, request.getBookingDate(), request.getReturnDate());
+    }
+
     public List<BookingResponse> getUserBookings(Long userId) {
-        List<Booking> bookings = bookingRepository.findByRenterId(userId);
+        List<Booking> bookings = bookingRepository.findByRenterIdAndStatusIn(userId, OPEN_STATUSES);
         return bookings.stream()
-                .filter(booking -> !Booking.STATUS_COMPLETED.equals(booking.getStatus())
-                        && !Booking.STATUS_CANCELLED.equals(booking.getStatus())
-                        && !Booking.STATUS_REJECTED.equals(booking.getStatus()))
                 .map(this::convertToResponse)
                 .toList();
     }
 
+    public BookingPageResponse getUserBookings(Long userId, BookingPageRequest page) {
+        return toPage(bookingRepository.findPageByRenterIdAndStatusIn(
+                userId, OPEN_STATUSES, page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
     public List<BookingResponse> getOwnerBookings(Long ownerId) {
         // Get all bookings for products owned by the owner
         List<Booking> bookings = bookingRepository.findByProductOwnerId(ownerId);
@@ -110,14 +211,64 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    public BookingPageResponse getOwnerBookings(Long ownerId, BookingPageRequest page) {
+        return toPage(bookingRepository.findPageByProductOwnerId(
+                ownerId, page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
+    /**
+     * The oldest {@link #UNPAGED_LIMIT} bookings, in the order of the paged listing, for clients
+     * that do not page yet.
+     */
     public List<BookingResponse> getAllBookings() {
-        List<Booking> bookings = bookingRepository.findAll();
+        BookingPageRequest first = BookingPageRequest.first(UNPAGED_LIMIT);
+        List<Booking> bookings = bookingRepository.findPageAfter(
+                first.afterDate(), first.afterId(), PageRequest.of(0, UNPAGED_LIMIT));
         return bookings.stream()
                 .map(this::convertToResponse)
                 .toList();
     }
 
+    public BookingPageResponse getAllBookings(BookingPageRequest page) {
+        return toPage(bookingRepository.findPageAfter(page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
+    /**
+     * Turns a keyset query result fetched with one extra row into a page: the extra row only
+     * tells that another page exists, the cursor points at the last row returned.
+     */
+    private BookingPageResponse toPage(List<Booking> rows, BookingPageRequest page) {
+        if (rows.size() <= page.limit()) {
+            return new BookingPageResponse(rows.stream().map(this::convertToResponse).toList(), null);
+        }
+        List<Booking> items = rows.subList(0, page.limit());
+        Booking last = items.get(items.size() - 1);
+        return new BookingPageResponse(items.stream().map(this::convertToResponse).toList(),
+                BookingPageRequest.cursorAfter(last.getBookingDate(), last.getId()));
+    }
+
+    private static Pageable fetchOneMore(BookingPageRequest page) {
+        return PageRequest.of(0, page.limit() + 1);
+    }
+
     public List<BookingResponse> getBookingsByProduct(Long productId, Long requesterId) {
+        Product product = findViewableProduct(productId, requesterId);
+
+        List<Booking> bookings = bookingRepository.findByProductAndStatusIn(product, PRODUCT_HISTORY_STATUSES);
+        return bookings.stream()
+                .map(this::convertToResponse)
+                .toList();
+    }
+
+    public BookingPageResponse getBookingsByProduct(Long productId, Long requesterId, BookingPageRequest page) {
+        Product product = findViewableProduct(productId, requesterId);
+
+        return toPage(bookingRepository.findPageByProductIdAndStatusIn(
+                product.getId(), PRODUCT_HISTORY_STATUSES, page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
+    // Owners may only list the bookings of their own products
+    private Product findViewableProduct(Long productId, Long requesterId) {
         User requester = userRepository.findById(requesterId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + requesterId));
 
@@ -129,13 +280,7 @@ public class BookingService {
                 && !product.getOwner().getId().equals(requester.getId())) {
             throw new IllegalStateException("User is not authorized to view bookings for this product");
         }
-
-        List<Booking> bookings = bookingRepository.findByProduct(product);
-        return bookings.stream()
-                .filter(booking -> Booking.STATUS_PAID.equals(booking.getStatus()) ||
-                        Booking.STATUS_COMPLETED.equals(booking.getStatus()))
-                .map(this::convertToResponse)
-                .toList();
+        return product;
     }
 
     public BookingResponse getBookingById(Long bookingId) {
@@ -144,6 +289,7 @@ public class BookingService {
         return convertToResponse(booking);
     }
 
+    @Transactional
     public void cancelBooking(Long bookingId, Long userId) {
         User requester = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
@@ -175,6 +321,10 @@ public class BookingService {
         // Update status to CANCELLED instead of deleting
         booking.setStatus(Booking.STATUS_CANCELLED);
         bookingRepository.save(booking);
+        eventLog.record(booking, BookingEventLog.CANCELLED, userId);
+        availabilityIndex.sync(booking);
+        checkoutHoldService.release(booking.getId());
+        waitlistService.datesReleased(booking);
 
         // Create notification based on who cancelled
         if (isRenter && booking.getProduct().getOwner() != null) {
@@ -191,72 +341,85 @@ public class BookingService {
         userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
-        // Get all bookings for the renter (COMPLETED and CANCELLED)
-        List<Booking> allBookings = bookingRepository.findByRenterId(userId);
+        // Get the renter's COMPLETED and CANCELLED bookings
+        List<Booking> bookings = bookingRepository.findByRenterIdAndStatusIn(userId, RENTER_HISTORY_STATUSES);
 
-        return allBookings.stream()
-                .filter(booking -> Booking.STATUS_COMPLETED.equals(booking.getStatus())
-                        || Booking.STATUS_CANCELLED.equals(booking.getStatus()))
+        return bookings.stream()
                 .map(this::convertToResponse)
                 .toList();
     }
 
-    public List<BookingResponse> getPendingApprovalBookings(Long ownerId) {
-        // Verify user is owner
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + ownerId));
+    public BookingPageResponse getRenterHistory(Long userId, BookingPageRequest page) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
-        if (!"owner".equalsIgnoreCase(owner.getRole())) {
-            throw new IllegalStateException("User is not an owner");
-        }
+        return toPage(bookingRepository.findPageByRenterIdAndStatusIn(
+                userId, RENTER_HISTORY_STATUSES, page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
 
-        List<Booking> bookings = bookingRepository.findByProductOwnerId(ownerId);
+    public List<BookingResponse> getPendingApprovalBookings(Long ownerId) {
+        checkIsOwner(ownerId);
+
+        List<Booking> bookings = bookingRepository.findByProductOwnerIdAndStatusIn(
+                ownerId, List.of(Booking.STATUS_PENDING_APPROVAL));
         return bookings.stream()
-                .filter(booking -> Booking.STATUS_PENDING_APPROVAL.equals(booking.getStatus()))
                 .map(this::convertToResponse)
                 .toList();
     }
 
+    public BookingPageResponse getPendingApprovalBookings(Long ownerId, BookingPageRequest page) {
+        checkIsOwner(ownerId);
+
+        return toPage(bookingRepository.findPageByProductOwnerIdAndStatusIn(ownerId,
+                List.of(Booking.STATUS_PENDING_APPROVAL), page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
+    /**
+     * Throws IllegalArgumentException for an unknown user and IllegalStateException for a user
+     * who is not an owner.
+     */
+    public void checkIsOwner(Long userId) {
+        User owner = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+
+        if (!"owner".equalsIgnoreCase(owner.getRole())) {
+            throw new IllegalStateException("User is not an owner");
+        }
+    }
+
     public List<BookingResponse> getActiveBookingsByRenter(Long userId) {
         // Verify user exists
         userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
 
-        // Get all bookings for the renter with APPROVED or PAID status (active
-        // bookings)
-        List<Booking> allBookings = bookingRepository.findByRenterId(userId);
+        // Get the renter's bookings with APPROVED or PAID status (active bookings)
+        List<Booking> bookings = bookingRepository.findByRenterIdAndStatusIn(userId, ACTIVE_STATUSES);
 
-        return allBookings.stream()
-                .filter(booking -> Booking.STATUS_APPROVED.equals(booking.getStatus())
-                        || Booking.STATUS_PAID.equals(booking.getStatus()))
+        return bookings.stream()
                 .map(this::convertToResponse)
                 .toList();
     }
 
+    public BookingPageResponse getActiveBookingsByRenter(Long userId, BookingPageRequest page) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+
+        return toPage(bookingRepository.findPageByRenterIdAndStatusIn(
+                userId, ACTIVE_STATUSES, page.afterDate(), page.afterId(), fetchOneMore(page)), page);
+    }
+
+    @Transactional
     public BookingResponse approveBooking(Long bookingId, Long ownerId, String deliveryMethod, String pickupLocation) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
 
-        // Verify the owner owns the product
-        if (booking.getProduct().getOwner() == null ||
-                !booking.getProduct().getOwner().getId().equals(ownerId)) {
-            throw new IllegalStateException("User is not authorized to approve this booking");
-        }
+        checkPendingDecision(booking, ownerId, "approve");
+        checkDeliveryMethod(deliveryMethod, pickupLocation);
 
-        // Verify booking is in pending approval status
-        if (!Booking.STATUS_PENDING_APPROVAL.equals(booking.getStatus())) {
-            throw new IllegalStateException("Booking is not pending approval");
-        }
-
-        // Validate delivery method
-        if (!Booking.DELIVERY_PICKUP.equals(deliveryMethod) && !Booking.DELIVERY_SHIPPING.equals(deliveryMethod)) {
-            throw new IllegalArgumentException("Invalid delivery method. Must be PICKUP or SHIPPING");
-        }
-
-        // If PICKUP, require pickup location
-        if (Booking.DELIVERY_PICKUP.equals(deliveryMethod)
-                && (pickupLocation == null || pickupLocation.trim().isEmpty())) {
-            throw new IllegalArgumentException("Pickup location is required for PICKUP delivery method");
+        // Approving reserves the dates, so re-check overlaps under the product's reservation lock
+        reservationLock.lock(booking.getProduct().getId());
+        if (reservationCheck.isBooked(booking.getProduct(), booking.getBookingDate(), booking.getReturnDate())) {
+            throw new IllegalStateException("Product is already booked for the selected dates");
         }
 
         booking.setStatus(Booking.STATUS_APPROVED);
@@ -265,6 +428,9 @@ public class BookingService {
         booking.setApprovedAt(LocalDateTime.now());
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.APPROVED, ownerId);
+        availabilityIndex.sync(savedBooking);
+        checkoutHoldService.hold(savedBooking);
 
         // Notify renter that booking was approved
         notificationService.createBookingApprovedNotification(booking.getRenter(), savedBooking);
@@ -272,32 +438,149 @@ public class BookingService {
         return convertToResponse(savedBooking);
     }
 
+    @Transactional
     public BookingResponse rejectBooking(Long bookingId, Long ownerId, String reason) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
 
+        checkPendingDecision(booking, ownerId, "reject");
+
+        booking.setStatus(Booking.STATUS_REJECTED);
+        booking.setRejectionReason(reason);
+
+        Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.REJECTED, ownerId);
+        availabilityIndex.sync(savedBooking);
+        waitlistService.datesReleased(savedBooking);
+
+        // Notify renter that booking was rejected
+        notificationService.createBookingRejectedNotification(booking.getRenter(), savedBooking, reason);
+
+        return convertToResponse(savedBooking);
+    }
+
+    /**
+     * Applies a batch of approve/reject decisions of an owner in one transaction. Every decision is
+     * validated on its own and reported in the result at the same position; invalid ones are
+     * skipped without affecting the others. The bookings are loaded with a single query, the
+     * updates are flushed as one JDBC batch and the renters' notifications are written as another.
+     */
+    @Transactional
+    public List<BookingDecisionResult> decideBookings(Long ownerId, List<BookingDecision> decisions) {
+        Map<Long, Booking> bookings = bookingRepository.findByIdIn(
+                decisions.stream().map(BookingDecision::getBookingId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        // Approvals reserve dates: take all the product locks up front
+        reservationLock.lockAll(decisions.stream()
+                .filter(decision -> BookingDecision.APPROVE.equals(decision.getDecision()))
+                .map(decision -> bookings.get(decision.getBookingId()))
+                .filter(Objects::nonNull)
+                .map(booking -> booking.getProduct().getId())
+                .collect(Collectors.toSet()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> seen = new HashSet<>();
+        Map<Long, List<Booking>> approvedByProduct = new HashMap<>();
+        List<Booking> decided = new ArrayList<>();
+        List<BookingDecisionResult> results = new ArrayList<>(decisions.size());
+        for (BookingDecision decision : decisions) {
+            Long bookingId = decision.getBookingId();
+            try {
+                if (!seen.add(bookingId)) {
+                    throw new IllegalArgumentException("Booking " + bookingId + " appears more than once");
+                }
+                Booking booking = bookings.get(bookingId);
+                if (booking == null) {
+                    throw new IllegalArgumentException("Booking not found with id: " + bookingId);
+                }
+                if (BookingDecision.APPROVE.equals(decision.getDecision())) {
+                    approve(booking, ownerId, decision, now, approvedByProduct);
+                } else if (BookingDecision.REJECT.equals(decision.getDecision())) {
+                    checkPendingDecision(booking, ownerId, "reject");
+                    booking.setStatus(Booking.STATUS_REJECTED);
+                    booking.setRejectionReason(decision.getReason());
+                } else {
+                    throw new IllegalArgumentException("Invalid decision. Must be APPROVE or REJECT");
+                }
+                decided.add(booking);
+                results.add(BookingDecisionResult.applied(convertToResponse(booking)));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(BookingDecisionResult.failed(bookingId, e.getMessage()));
+            }
+        }
+
+        bookingRepository.flush();
+        decided.forEach(booking -> eventLog.record(booking,
+                Booking.STATUS_APPROVED.equals(booking.getStatus()) ? BookingEventLog.APPROVED
+                        : BookingEventLog.REJECTED,
+                ownerId));
+        decided.forEach(availabilityIndex::sync);
+        decided.stream()
+                .filter(booking -> Booking.STATUS_APPROVED.equals(booking.getStatus()))
+                .forEach(checkoutHoldService::hold);
+        decided.stream()
+                .filter(booking -> Booking.STATUS_REJECTED.equals(booking.getStatus()))
+                .forEach(waitlistService::datesReleased);
+        notificationService.createBookingDecisionNotifications(decided);
+        return results;
+    }
+
+    private void approve(Booking booking, Long ownerId, BookingDecision decision, LocalDateTime now,
+            Map<Long, List<Booking>> approvedByProduct) {
+        checkPendingDecision(booking, ownerId, "approve");
+        checkDeliveryMethod(decision.getDeliveryMethod(), decision.getPickupLocation());
+
+        // The index only sees committed bookings, so also check the approvals of this batch
+        Long productId = booking.getProduct().getId();
+        List<Booking> approvedInBatch = approvedByProduct.computeIfAbsent(productId, id -> new ArrayList<>());
+        if (reservationCheck.isBooked(booking.getProduct(), booking.getBookingDate(), booking.getReturnDate())
+                || approvedInBatch.stream().anyMatch(other -> overlaps(other, booking))) {
+            throw new IllegalStateException("Product is already booked for the selected dates");
+        }
+
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setDeliveryMethod(decision.getDeliveryMethod());
+        booking.setPickupLocation(decision.getPickupLocation());
+        booking.setApprovedAt(now);
+        approvedInBatch.add(booking);
+    }
+
+    // Same product, so the same buffer days after each return apply to both bookings
+    private static boolean overlaps(Booking a, Booking b) {
+        Integer bufferDays = a.getProduct().getBufferDays();
+        long buffer = bufferDays != null ? bufferDays : 0;
+        return !a.getBookingDate().isAfter(b.getReturnDate().plusDays(buffer))
+                && !b.getBookingDate().isAfter(a.getReturnDate().plusDays(buffer));
+    }
+
+    private static void checkPendingDecision(Booking booking, Long ownerId, String action) {
         // Verify the owner owns the product
         if (booking.getProduct().getOwner() == null ||
                 !booking.getProduct().getOwner().getId().equals(ownerId)) {
-            throw new IllegalStateException("User is not authorized to reject this booking");
+            throw new IllegalStateException("User is not authorized to " + action + " this booking");
         }
 
         // Verify booking is in pending approval status
         if (!Booking.STATUS_PENDING_APPROVAL.equals(booking.getStatus())) {
             throw new IllegalStateException("Booking is not pending approval");
         }
+    }
 
-        booking.setStatus(Booking.STATUS_REJECTED);
-        booking.setRejectionReason(reason);
-
-        Booking savedBooking = bookingRepository.save(booking);
-
-        // Notify renter that booking was rejected
-        notificationService.createBookingRejectedNotification(booking.getRenter(), savedBooking, reason);
+    private static void checkDeliveryMethod(String deliveryMethod, String pickupLocation) {
+        if (!Booking.DELIVERY_PICKUP.equals(deliveryMethod) && !Booking.DELIVERY_SHIPPING.equals(deliveryMethod)) {
+            throw new IllegalArgumentException("Invalid delivery method. Must be PICKUP or SHIPPING");
+        }
 
-        return convertToResponse(savedBooking);
+        // If PICKUP, require pickup location
+        if (Booking.DELIVERY_PICKUP.equals(deliveryMethod)
+                && (pickupLocation == null || pickupLocation.trim().isEmpty())) {
+            throw new IllegalArgumentException("Pickup location is required for PICKUP delivery method");
+        }
     }
 
+    @Transactional
     public BookingResponse processPayment(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
@@ -312,15 +595,21 @@ public class BookingService {
             throw new IllegalStateException("Booking must be approved before payment");
         }
 
+        // Past the deadline the dates are no longer held, even if the expiry has not run yet
+        if (booking.getHoldExpiresAt() != null && booking.getHoldExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("Checkout hold expired, the booking can no longer be paid");
+        }
+
         booking.setStatus(Booking.STATUS_PAID);
         booking.setPaidAt(LocalDateTime.now());
 
-        // Generate delivery code if shipping
-        if (Booking.DELIVERY_SHIPPING.equals(booking.getDeliveryMethod())) {
-            booking.setDeliveryCode(generateDeliveryCode());
-        }
+        // Delivery code shown at the pickup counter or to the courier, verified on handover
+        booking.setDeliveryCode(deliveryCodes.next(bookingRepository::existsByDeliveryCode));
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.PAID, userId);
+        availabilityIndex.sync(savedBooking);
+        checkoutHoldService.release(savedBooking.getId());
 
         // Notify owner that payment was received
         if (booking.getProduct().getOwner() != null) {
@@ -330,15 +619,32 @@ public class BookingService {
         return convertToResponse(savedBooking);
     }
 
-    private String generateDeliveryCode() {
-        // Generate a cryptographically secure random 8-character alphanumeric code
-        String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-        StringBuilder code = new StringBuilder();
-        SecureRandom secureRandom = new SecureRandom();
-        for (int i = 0; i < 8; i++) {
-            code.append(chars.charAt(secureRandom.nextInt(chars.length())));
+    /**
+     * Hands a paid booking over to the renter or the courier: resolves the scanned delivery code
+     * with a single indexed lookup and records when the handover happened. Only the product's
+     * owner (or the staff at their counter, signed in as them) can confirm it.
+     */
+    @Transactional
+    public BookingResponse handOver(String deliveryCode, Long userId) {
+        String code = DeliveryCodeGenerator.normalize(deliveryCode);
+        Booking booking = bookingRepository.findByDeliveryCode(code)
+                .orElseThrow(() -> new IllegalArgumentException("No booking found for delivery code: " + code));
+
+        if (booking.getProduct().getOwner() == null || !booking.getProduct().getOwner().getId().equals(userId)) {
+            throw new IllegalStateException("User is not authorized to hand over this booking");
+        }
+        if (!Booking.STATUS_PAID.equals(booking.getStatus())) {
+            throw new IllegalStateException("Only paid bookings can be handed over");
         }
-        return code.toString();
+        if (booking.getHandedOverAt() != null) {
+            throw new IllegalStateException("Booking was already handed over at " + booking.getHandedOverAt());
+        }
+
+        booking.setHandedOverAt(LocalDateTime.now());
+        Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.HANDED_OVER, userId);
+
+        return convertToResponse(savedBooking);
     }
 
     private BookingResponse convertToResponse(Booking booking) {
@@ -365,6 +671,7 @@ public class BookingService {
         response.setRejectionReason(booking.getRejectionReason());
         response.setApprovedAt(booking.getApprovedAt());
         response.setPaidAt(booking.getPaidAt());
+        response.setHandedOverAt(booking.getHandedOverAt());
         response.setDepositAmount(booking.getDepositAmount());
         response.setDepositRequested(booking.getDepositRequested());
         response.setDepositReason(booking.getDepositReason());
@@ -376,6 +683,7 @@ public class BookingService {
         return response;
     }
 
+    @Transactional
     public BookingResponse requestDeposit(Long bookingId, Long ownerId, Double depositAmount, String reason) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
@@ -407,6 +715,7 @@ public class BookingService {
         booking.setDepositRequestedAt(LocalDateTime.now());
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.DEPOSIT_REQUESTED, ownerId);
 
         // Notify renter that deposit is requested
         notificationService.createDepositRequestedNotification(booking.getRenter(), savedBooking, depositAmount,
@@ -415,6 +724,7 @@ public class BookingService {
         return convertToResponse(savedBooking);
     }
 
+    @Transactional
     public BookingResponse payDeposit(Long bookingId, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
@@ -438,6 +748,7 @@ public class BookingService {
         booking.setDepositPaidAt(LocalDateTime.now());
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventLog.record(savedBooking, BookingEventLog.DEPOSIT_PAID, userId);
 
         // Notify owner that deposit was paid
         if (booking.getProduct().getOwner() != null) {
@@ -447,6 +758,7 @@ public class BookingService {
         return convertToResponse(savedBooking);
     }
 
+    @Transactional
     public BookingResponse refundDeposit(Long bookingId, Long ownerId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found with id: " + bookingId));
@@ -477,6 +789,10 @@ public class BookingService {
         booking.setDepositPaidAt(null);
 
         Booking savedBooking = bookingRepository.save(booking);
+        // The booking no longer holds the amount, the log keeps it
+        Map<String, Object> refunded = new HashMap<>();
+        refunded.put("refundedAmount", refundedAmount);
+        eventLog.record(savedBooking, BookingEventLog.DEPOSIT_REFUNDED, ownerId, refunded);
 
         // Notify renter that deposit was refunded
         notificationService.createDepositRefundedNotification(booking.getRenter(), savedBooking, refundedAmount);
@@ -0,0 +1,193 @@
+package tqs.blacktie.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.BookingRepository.BookingKey;
+import tqs.blacktie.repository.BookingRepository.HoldKey;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-limited checkout holds: an APPROVED booking reserves its dates for {@code window} after
+ * approval. If it is not paid by then it is cancelled, its dates are freed and the renter is
+ * notified.
+ *
+ * Deadlines live in a {@link HashedTimingWheel} rather than being polled from the bookings table,
+ * so holding and releasing are O(1) and an expiry costs one query only when a hold is actually
+ * due. The wheel is in memory only: it is rebuilt at startup from the deadlines stored on the
+ * APPROVED bookings, and expiry re-checks the status and deadline under a row lock, so a booking
+ * paid in the meantime is left alone. Bookings approved before holds existed are given a full
+ * window from the first startup that finds them, so they are not cancelled without notice.
+ */
+@Component
+public class CheckoutHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutHoldService.class);
+
+    private static final int EXPIRY_CHUNK_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final NotificationService notificationService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final WaitlistService waitlistService;
+    private final BookingEventLog eventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration window;
+    private final Duration tick;
+    private final boolean background;
+    private final HashedTimingWheel wheel;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public CheckoutHoldService(BookingRepository bookingRepository,
+            NotificationService notificationService,
+            BookingAvailabilityIndex availabilityIndex,
+            WaitlistService waitlistService,
+            BookingEventLog eventLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${booking.checkout-hold.window:PT30M}") Duration window,
+            @Value("${booking.checkout-hold.tick:PT1S}") Duration tick,
+            @Value("${booking.checkout-hold.wheel-size:4096}") int wheelSize,
+            @Value("${app.scheduling.enabled:true}") boolean background) {
+        this.bookingRepository = bookingRepository;
+        this.notificationService = notificationService;
+        this.availabilityIndex = availabilityIndex;
+        this.waitlistService = waitlistService;
+        this.eventLog = eventLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.window = window;
+        this.tick = tick;
+        this.background = background;
+        this.wheel = new HashedTimingWheel(tick, wheelSize, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void start() {
+        if (background) {
+            running = true;
+            worker = Thread.ofVirtual().name("checkout-hold-wheel").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(tick);
+                expireDue(LocalDateTime.now());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the hold deadline of a booking being approved, stored with the approval, and starts the
+     * hold once the approval commits.
+     */
+    public void hold(Booking booking) {
+        Long bookingId = booking.getId();
+        LocalDateTime approvedAt = booking.getApprovedAt() != null ? booking.getApprovedAt() : LocalDateTime.now();
+        LocalDateTime expiresAt = approvedAt.plus(window);
+        booking.setHoldExpiresAt(expiresAt);
+        AfterCommit.run(() -> wheel.schedule(bookingId, toMillis(expiresAt)));
+    }
+
+    /**
+     * Drops the hold of a booking that was paid or cancelled, once that change commits.
+     */
+    public void release(Long bookingId) {
+        AfterCommit.run(() -> wheel.cancel(bookingId));
+    }
+
+    /**
+     * Gives the approved bookings that have no deadline, approved before holds existed, one a full
+     * window from {@code now}. Returns how many were given one.
+     */
+    public int backfill(LocalDateTime now) {
+        Integer backfilled = transactionTemplate.execute(status ->
+                bookingRepository.setMissingHoldDeadline(Booking.STATUS_APPROVED, now.plus(window)));
+        return backfilled == null ? 0 : backfilled;
+    }
+
+    /**
+     * Restarts the holds of the given approved bookings, as found at startup, at their stored
+     * deadlines.
+     */
+    public void rebuild(Collection<HoldKey> heldBookings) {
+        for (HoldKey hold : heldBookings) {
+            wheel.schedule(hold.getId(), toMillis(hold.getHoldExpiresAt()));
+        }
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    /**
+     * Cancels the bookings whose hold is due at the given time and are still unpaid, and returns
+     * how many were cancelled.
+     */
+    public int expireDue(LocalDateTime now) {
+        List<Long> due = wheel.advance(toMillis(now));
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += EXPIRY_CHUNK_SIZE) {
+            List<Long> chunk = due.subList(from, Math.min(from + EXPIRY_CHUNK_SIZE, due.size()));
+            try {
+                Integer count = transactionTemplate.execute(status -> expire(chunk, now));
+                expired += count == null ? 0 : count;
+            } catch (RuntimeException e) {
+                // The wheel already let go of these holds: put them back to retry on the next tick
+                long retryAt = toMillis(now) + tick.toMillis();
+                chunk.forEach(id -> wheel.schedule(id, retryAt));
+                logger.warn("Expiring {} checkout holds failed, retrying on the next tick", chunk.size(), e);
+            }
+        }
+        if (expired > 0) {
+            logger.info("Released {} unpaid checkout holds", expired);
+        }
+        return expired;
+    }
+
+    private int expire(List<Long> due, LocalDateTime now) {
+        List<BookingKey> locked = bookingRepository.lockByIdInAndStatusAndHoldExpiredBefore(
+                due, Booking.STATUS_APPROVED, now);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = locked.stream().map(BookingKey::getId).toList();
+        bookingRepository.updateStatusByIdIn(ids, Booking.STATUS_CANCELLED);
+        eventLog.recordAll(locked, BookingEventLog.HOLD_EXPIRED, Booking.STATUS_CANCELLED, Map.of());
+        locked.forEach(key -> availabilityIndex.remove(key.getProductId(), key.getId()));
+        List<Booking> expired = bookingRepository.findByIdIn(ids);
+        notificationService.createCheckoutHoldExpiredNotifications(expired);
+        expired.forEach(waitlistService::datesReleased);
+        return ids.size();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,81 @@
+package tqs.blacktie.service;
+
+import java.util.BitSet;
+
+/**
+ * Immutable busy-day bitmap of one product over a fixed window of days, one bit per day packed
+ * into {@code long} words. Bit {@code i} stands for epoch day {@code originDay + i}.
+ */
+final class DayBitmap {
+
+    private final long originDay;
+    private final int days;
+    private final long[] words;
+
+    private DayBitmap(long originDay, int days) {
+        this.originDay = originDay;
+        this.days = days;
+        this.words = new long[(days + 63) >>> 6];
+    }
+
+    /**
+     * Builds the bitmap from inclusive [start, end] epoch-day intervals, clipping them to the window.
+     */
+    static DayBitmap of(long originDay, int days, long[] startDays, long[] endDays) {
+        DayBitmap bitmap = new DayBitmap(originDay, days);
+        for (int i = 0; i < startDays.length; i++) {
+            long from = Math.max(startDays[i], originDay);
+            long to = Math.min(endDays[i], originDay + days - 1);
+            if (from <= to) {
+                bitmap.setRange((int) (from - originDay), (int) (to - originDay));
+            }
+        }
+        return bitmap;
+    }
+
+    long originDay() {
+        return originDay;
+    }
+
+    /**
+     * Copies the bits of the inclusive [fromDay, toDay] range, re-based so that bit 0 is fromDay.
+     * The range must lie inside the window.
+     */
+    BitSet slice(long fromDay, long toDay) {
+        int offset = (int) (fromDay - originDay);
+        int length = (int) (toDay - fromDay + 1);
+        long[] out = new long[(length + 63) >>> 6];
+        int wordShift = offset >>> 6;
+        int bitShift = offset & 63;
+        for (int i = 0; i < out.length; i++) {
+            long low = word(wordShift + i) >>> bitShift;
+            long high = bitShift == 0 ? 0 : word(wordShift + i + 1) << (64 - bitShift);
+            out[i] = low | high;
+        }
+        int tail = length & 63;
+        if (tail != 0) {
+            out[out.length - 1] &= (1L << tail) - 1;
+        }
+        return BitSet.valueOf(out);
+    }
+
+    private long word(int index) {
+        return index < words.length ? words[index] : 0L;
+    }
+
+    private void setRange(int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = to >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+}
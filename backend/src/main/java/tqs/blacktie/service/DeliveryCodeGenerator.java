@@ -0,0 +1,63 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.function.Predicate;
+
+/**
+ * Issues the 8-character codes renters show when a paid booking is handed over.
+ *
+ * One {@link SecureRandom} is shared by every payment (it is thread-safe) and seeded when the
+ * application starts, so no payment pays for gathering entropy. Codes are unique across bookings:
+ * a code already in use is drawn again, with the unique index on {@code bookings.delivery_code} as
+ * the last word should two payments draw the same code at the same time.
+ */
+@Component
+public class DeliveryCodeGenerator {
+
+    static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    static final int LENGTH = 8;
+    // 36^8 codes: even with millions in use, a collision on every attempt is practically impossible
+    static final int MAX_ATTEMPTS = 5;
+
+    private final SecureRandom random;
+
+    public DeliveryCodeGenerator() {
+        this(new SecureRandom());
+    }
+
+    DeliveryCodeGenerator(SecureRandom random) {
+        this.random = random;
+        // Draw once so the generator seeds itself now rather than on the first payment
+        random.nextInt();
+    }
+
+    /**
+     * Returns a new code that the given check does not report as taken.
+     */
+    public String next(Predicate<String> taken) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            String code = next();
+            if (!taken.test(code)) {
+                return code;
+            }
+        }
+        throw new IllegalStateException("Could not generate a unique delivery code, please retry");
+    }
+
+    String next() {
+        char[] code = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            code[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(code);
+    }
+
+    /**
+     * Puts a scanned or typed code in the form it is stored in.
+     */
+    public static String normalize(String code) {
+        return code == null ? "" : code.trim().toUpperCase();
+    }
+}
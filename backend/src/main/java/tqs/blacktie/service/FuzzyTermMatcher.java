@@ -0,0 +1,142 @@
+package tqs.blacktie.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the dictionary terms within a few edits of a mistyped one, for the
+ * {@link ProductSearchIndex}.
+ *
+ * Terms are indexed by their trigrams, padded as {@code $$term$} so even three-letter terms have
+ * four of them. One edit changes at most three trigrams, so a term within {@code d} edits shares
+ * at least {@code grams - 3d} of them with the query: only terms passing that count are checked
+ * with a Levenshtein distance that gives up as soon as the bound is exceeded. Terms holding digits
+ * (sizes, style numbers) are left out, a typo in a code is a different code.
+ *
+ * Not thread-safe: the search index calls it under its own lock.
+ */
+final class FuzzyTermMatcher {
+
+    /**
+     * A dictionary term and its distance to the query.
+     */
+    record Match(String term, int edits) {
+    }
+
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+
+    /**
+     * Edits tolerated for a term of the given length: none below 3 letters, one up to 5, two
+     * beyond.
+     */
+    static int maxEdits(int length) {
+        if (length < 3) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    void add(String term) {
+        if (isWord(term)) {
+            for (String gram : grams(term)) {
+                termsByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+    }
+
+    void remove(String term) {
+        if (isWord(term)) {
+            for (String gram : grams(term)) {
+                Set<String> terms = termsByGram.get(gram);
+                if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                    termsByGram.remove(gram);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        termsByGram.clear();
+    }
+
+    /**
+     * Dictionary terms within {@link #maxEdits} of the query, closest first, at most {@code limit}.
+     */
+    List<Match> matches(String query, int limit) {
+        int maxEdits = maxEdits(query.length());
+        if (maxEdits == 0 || !isWord(query)) {
+            return List.of();
+        }
+        Set<String> queryGrams = grams(query);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String term : termsByGram.getOrDefault(gram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+        int minShared = Math.max(1, queryGrams.size() - 3 * maxEdits);
+
+        List<Match> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            String term = entry.getKey();
+            if (entry.getValue() >= minShared && Math.abs(term.length() - query.length()) <= maxEdits) {
+                int edits = distance(query, term, maxEdits);
+                if (edits <= maxEdits) {
+                    matches.add(new Match(term, edits));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::edits).thenComparing(Match::term));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Levenshtein distance between the strings, or {@code max + 1} once it is known to exceed max.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static Set<String> grams(String term) {
+        String padded = "$$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static boolean isWord(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return !term.isEmpty();
+    }
+}
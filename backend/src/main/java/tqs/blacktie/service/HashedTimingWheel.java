@@ -0,0 +1,120 @@
+package tqs.blacktie.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of deadlines keyed by id.
+ *
+ * Time is cut into ticks and every deadline goes into the bucket of its tick modulo the wheel
+ * size, kept in an intrusive doubly linked list, so scheduling and cancelling are O(1) whatever
+ * the number of pending deadlines. Advancing the clock only visits the buckets of the ticks that
+ * passed (at most one full turn) and expires the entries whose tick is due; entries more than one
+ * turn away simply stay in their bucket until a later turn.
+ */
+final class HashedTimingWheel {
+
+    private final long tickMillis;
+    private final Entry[] buckets;
+    private final int mask;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private long currentTick;
+
+    private static final class Entry {
+        final long id;
+        final long tick;
+        Entry prev;
+        Entry next;
+
+        Entry(long id, long tick) {
+            this.id = id;
+            this.tick = tick;
+        }
+    }
+
+    HashedTimingWheel(Duration tick, int wheelSize, long startMillis) {
+        if (tick.toMillis() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMillis = tick.toMillis();
+        this.buckets = new Entry[size];
+        this.mask = size - 1;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules the id to expire at the deadline, replacing any earlier deadline of the same id.
+     * Deadlines already passed expire on the next advance.
+     */
+    synchronized void schedule(long id, long deadlineMillis) {
+        unlink(entries.remove(id));
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        Entry entry = new Entry(id, tick);
+        int bucket = (int) (tick & mask);
+        entry.next = buckets[bucket];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        buckets[bucket] = entry;
+        entries.put(id, entry);
+    }
+
+    synchronized boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        unlink(entry);
+        return entry != null;
+    }
+
+    /**
+     * Moves the clock forward and returns the ids whose deadline is at or before the given time.
+     */
+    synchronized List<Long> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<Long> expired = new ArrayList<>();
+        long lastTick = Math.min(targetTick, currentTick + buckets.length);
+        for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+            Entry entry = buckets[(int) (tick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.tick <= targetTick) {
+                    entries.remove(entry.id);
+                    unlink(entry);
+                    expired.add(entry.id);
+                }
+                entry = next;
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void unlink(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            int bucket = (int) (entry.tick & mask);
+            if (buckets[bucket] == entry) {
+                buckets[bucket] = entry.next;
+            }
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+    }
+}
@@ -0,0 +1,270 @@
+package tqs.blacktie.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tqs.blacktie.entity.IdempotencyRecord;
+import tqs.blacktie.repository.IdempotencyRecordRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry. The first request with a given {@code Idempotency-Key}
+ * runs and its response is stored; retries with the same key and body get the stored response
+ * back without running again, until the key expires.
+ *
+ * Completed responses are kept in a bounded in-memory LRU in front of the {@code idempotency_keys}
+ * table, so replays served by the same node never touch the database. The table is the source of
+ * truth across nodes: a key is reserved with a plain insert before the request runs, so of two
+ * concurrent requests with the same key only one executes.
+ *
+ * A reservation is only a short lease until the response is stored, when it is extended to the
+ * full TTL. The lease is renewed every third of its length while the request runs, so a slow
+ * request (a payment provider taking longer than one lease) keeps its key. If the node running the
+ * request dies, renewals stop, the lease runs out and a retry takes the key over instead of being
+ * refused as still in progress until the TTL is over.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Map<String, StoredResponse> cache;
+
+    record StoredResponse(String fingerprint, int statusCode, String contentType, String body,
+            LocalDateTime expiresAt) {
+
+        boolean isExpired(LocalDateTime now) {
+            return expiresAt.isBefore(now);
+        }
+
+        ResponseEntity<Object> toResponse() {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(statusCode).header(REPLAYED_HEADER, "true");
+            if (contentType != null) {
+                builder.contentType(MediaType.parseMediaType(contentType));
+            }
+            return builder.body(body);
+        }
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+            ObjectMapper objectMapper,
+            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${idempotency.lease:PT1M}") Duration lease,
+            @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.cache = new LinkedHashMap<>(cacheSize * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Runs the action once per key within the given scope (endpoint and caller). Without a key the
+     * action simply runs. Server errors and exceptions release the key so the client can retry.
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String scope, Object request,
+            Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest()
+                    .body(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String id = sha256(scope + '\n' + idempotencyKey);
+        String fingerprint = sha256(toJson(request));
+        // At the precision the database keeps, so lease renewals can find the reservation by it
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        StoredResponse cached = cachedResponse(id, now);
+        if (cached != null) {
+            return replay(cached, fingerprint);
+        }
+
+        Optional<IdempotencyRecord> existing = reserve(id, fingerprint, now);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.getStatusCode() == null) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("A request with this " + HEADER + " is still being processed");
+            }
+            StoredResponse stored = new StoredResponse(record.getFingerprint(), record.getStatusCode(),
+                    record.getContentType(), record.getResponseBody(), record.getExpiresAt());
+            remember(id, stored);
+            return replay(stored, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try (LeaseRenewal renewal = new LeaseRenewal(id, now)) {
+            response = action.get();
+        } catch (RuntimeException e) {
+            recordRepository.release(id);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            recordRepository.release(id);
+            return response;
+        }
+
+        StoredResponse stored = store(response, fingerprint, LocalDateTime.now().plus(ttl));
+        recordRepository.complete(id, stored.statusCode(), stored.contentType(), stored.body(), stored.expiresAt());
+        remember(id, stored);
+        return response;
+    }
+
+    /**
+     * Inserts a lease on the key, or returns the record already holding it. Expired records, be
+     * they stored responses or leases of requests that never finished, are replaced.
+     */
+    private Optional<IdempotencyRecord> reserve(String id, String fingerprint, LocalDateTime now) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                recordRepository.reserve(id, fingerprint, now, now.plus(lease));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                Optional<IdempotencyRecord> existing = recordRepository.findById(id);
+                if (existing.isPresent() && !existing.get().getExpiresAt().isBefore(now)) {
+                    return existing;
+                }
+                existing.ifPresent(expired -> recordRepository.releaseExpired(id, now));
+            }
+        }
+        throw new IllegalStateException("Could not reserve " + HEADER + ", please retry");
+    }
+
+    /**
+     * Renews the lease taken at {@code reservedAt} until closed. Waits on a latch rather than
+     * sleeping, so closing never interrupts a renewal halfway through its database call.
+     */
+    private final class LeaseRenewal implements AutoCloseable {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        LeaseRenewal(String id, LocalDateTime reservedAt) {
+            Thread.ofVirtual().name("idempotency-lease").start(() -> renewUntilDone(id, reservedAt));
+        }
+
+        private void renewUntilDone(String id, LocalDateTime reservedAt) {
+            Duration interval = lease.dividedBy(3);
+            try {
+                while (!done.await(interval.toMillis(), TimeUnit.MILLISECONDS)) {
+                    try {
+                        recordRepository.renew(id, reservedAt, LocalDateTime.now().plus(lease));
+                    } catch (DataAccessException e) {
+                        logger.warn("Could not renew {} lease, retrying: {}", HEADER, e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            done.countDown();
+        }
+    }
+
+    private ResponseEntity<Object> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(HEADER + " was already used for a different request");
+        }
+        return stored.toResponse();
+    }
+
+    private StoredResponse store(ResponseEntity<?> response, String fingerprint, LocalDateTime expiresAt) {
+        Object body = response.getBody();
+        if (body == null) {
+            return new StoredResponse(fingerprint, response.getStatusCode().value(), null, null, expiresAt);
+        }
+        if (body instanceof String text) {
+            return new StoredResponse(fingerprint, response.getStatusCode().value(),
+                    MediaType.TEXT_PLAIN_VALUE, text, expiresAt);
+        }
+        return new StoredResponse(fingerprint, response.getStatusCode().value(),
+                MediaType.APPLICATION_JSON_VALUE, toJson(body), expiresAt);
+    }
+
+    private StoredResponse cachedResponse(String id, LocalDateTime now) {
+        synchronized (cache) {
+            StoredResponse cached = cache.get(id);
+            if (cached != null && cached.isExpired(now)) {
+                cache.remove(id);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void remember(String id, StoredResponse stored) {
+        synchronized (cache) {
+            cache.put(id, stored);
+        }
+    }
+
+    int cachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        recordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package tqs.blacktie.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves notifications from the outbox into the notifications table.
+ *
+ * A batch of outbox rows is claimed with {@code FOR UPDATE SKIP LOCKED}, inserted into
+ * notifications with one JDBC batch and deleted, all in one transaction, so every outbox row
+ * becomes exactly one notification even with several backend replicas draining the same outbox.
+ * Rows whose recipient has been deleted meanwhile are dropped, and a deleted booking only clears
+ * the link.
+ *
+ * The drain loop runs on a virtual thread, woken up by {@link #wakeUp()} after each commit that
+ * enqueued something and every poll interval as a fallback.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final String CLAIM_SQL = "SELECT id, recipient_id, booking_id, type, message, created_at "
+            + "FROM notification_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_SQL = "INSERT INTO notifications "
+            + "(user_id, type, message, booking_id, is_read, created_at) "
+            + "SELECT ?, ?, ?, (SELECT b.id FROM bookings b WHERE b.id = ?), FALSE, ? "
+            + "WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM notification_outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final boolean background;
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private record OutboxRow(long id, long recipientId, Long bookingId, String type, String message,
+            LocalDateTime createdAt) {
+    }
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${notification.dispatcher.batch-size:200}") int batchSize,
+            @Value("${notification.dispatcher.poll-interval:PT5S}") Duration pollInterval,
+            @Value("${app.scheduling.enabled:true}") boolean background) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.background = background;
+    }
+
+    @PostConstruct
+    void start() {
+        if (background) {
+            running = true;
+            worker = Thread.ofVirtual().name("notification-dispatcher").start(this::run);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(pollInterval.toMillis());
+        }
+    }
+
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+                dispatchPending();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Notification dispatch failed, retrying on next wake-up", e);
+            }
+        }
+    }
+
+    /**
+     * Drains the outbox batch by batch and returns the number of outbox rows processed.
+     */
+    public int dispatchPending() {
+        int total = 0;
+        int dispatched;
+        do {
+            Integer result = transactionTemplate.execute(status -> dispatchBatch());
+            dispatched = result == null ? 0 : result;
+            total += dispatched;
+        } while (dispatched == batchSize);
+        return total;
+    }
+
+    private int dispatchBatch() {
+        List<OutboxRow> rows = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OutboxRow(
+                rs.getLong("id"),
+                rs.getLong("recipient_id"),
+                rs.getObject("booking_id", Long.class),
+                rs.getString("type"),
+                rs.getString("message"),
+                rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.recipientId());
+            ps.setString(2, row.type());
+            ps.setString(3, row.message());
+            if (row.bookingId() != null) {
+                ps.setLong(4, row.bookingId());
+            } else {
+                ps.setNull(4, Types.BIGINT);
+            }
+            ps.setTimestamp(5, Timestamp.valueOf(row.createdAt()));
+            ps.setLong(6, row.recipientId());
+        });
+        jdbcTemplate.batchUpdate(DELETE_SQL, rows, rows.size(), (ps, row) -> ps.setLong(1, row.id()));
+        return rows.size();
+    }
+}
@@ -0,0 +1,62 @@
+package tqs.blacktie.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.entity.NotificationOutboxEvent;
+import tqs.blacktie.repository.NotificationOutboxRepository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Transactional outbox of notifications. Enqueued notifications commit or roll back together with
+ * the caller's transaction and are turned into {@link Notification} rows by the
+ * {@link NotificationDispatcher}, which is woken up as soon as the transaction commits.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final String INSERT_EVENT = "INSERT INTO notification_outbox "
+            + "(recipient_id, booking_id, type, message, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationDispatcher dispatcher;
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationOutbox(NotificationOutboxRepository outboxRepository, NotificationDispatcher dispatcher,
+            JdbcTemplate jdbcTemplate) {
+        this.outboxRepository = outboxRepository;
+        this.dispatcher = dispatcher;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void enqueue(Notification notification) {
+        outboxRepository.save(new NotificationOutboxEvent(notification.getUser().getId(), bookingIdOf(notification),
+                notification.getType(), notification.getMessage(), notification.getCreatedAt()));
+        wakeUpDispatcher();
+    }
+
+    /**
+     * Enqueues all notifications with a single JDBC batch; the identity key of the outbox table
+     * keeps Hibernate from batching the inserts itself.
+     */
+    public void enqueueAll(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, notifications.stream()
+                .map(n -> new Object[] { n.getUser().getId(), bookingIdOf(n), n.getType(), n.getMessage(),
+                        Timestamp.valueOf(n.getCreatedAt()) })
+                .toList());
+        wakeUpDispatcher();
+    }
+
+    private static Long bookingIdOf(Notification notification) {
+        return notification.getBooking() != null ? notification.getBooking().getId() : null;
+    }
+
+    private void wakeUpDispatcher() {
+        AfterCommit.run(dispatcher::wakeUp);
+    }
+}
@@ -5,6 +5,7 @@ import tqs.blacktie.dto.NotificationResponse;
 import tqs.blacktie.entity.Booking;
 import tqs.blacktie.entity.Notification;
 import tqs.blacktie.entity.User;
+import tqs.blacktie.entity.WaitlistEntry;
 import tqs.blacktie.repository.NotificationRepository;
 import tqs.blacktie.repository.UserRepository;
 
@@ -17,19 +18,35 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final NotificationOutbox outbox;
 
-    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository) {
+    public NotificationService(NotificationRepository notificationRepository, UserRepository userRepository,
+            NotificationOutbox outbox) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.outbox = outbox;
     }
 
     public void createNewBookingNotification(User owner, Booking booking) {
+        outbox.enqueue(newBooking(owner, booking));
+    }
+
+    /**
+     * Notifies the owners of the given new bookings, written to the outbox in one batch.
+     */
+    public void createNewBookingNotifications(List<Booking> bookings) {
+        outbox.enqueueAll(bookings.stream()
+                .filter(booking -> booking.getProduct().getOwner() != null)
+                .map(booking -> newBooking(booking.getProduct().getOwner(), booking))
+                .toList());
+    }
+
+    private Notification newBooking(User owner, Booking booking) {
         String message = String.format("New booking for your product '%s' by %s",
                 booking.getProduct().getName(),
                 booking.getRenter().getName());
 
-        Notification notification = new Notification(owner, Notification.TYPE_NEW_BOOKING, message, booking);
-        notificationRepository.save(notification);
+        return new Notification(owner, Notification.TYPE_NEW_BOOKING, message, booking);
     }
 
     public void createBookingCancelledByRenterNotification(User owner, Booking booking) {
@@ -39,7 +56,7 @@ public class NotificationService {
 
         Notification notification = new Notification(owner, Notification.TYPE_BOOKING_CANCELLED_BY_RENTER, message,
                 booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createBookingCancelledByOwnerNotification(User renter, Booking booking) {
@@ -48,26 +65,70 @@ public class NotificationService {
 
         Notification notification = new Notification(renter, Notification.TYPE_BOOKING_CANCELLED_BY_OWNER, message,
                 booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createBookingApprovedNotification(User renter, Booking booking) {
+        outbox.enqueue(bookingApproved(renter, booking));
+    }
+
+    public void createBookingRejectedNotification(User renter, Booking booking, String reason) {
+        outbox.enqueue(bookingRejected(renter, booking, reason));
+    }
+
+    /**
+     * Notifies the renters of approved and rejected bookings, written to the outbox in one batch.
+     */
+    public void createBookingDecisionNotifications(List<Booking> decidedBookings) {
+        outbox.enqueueAll(decidedBookings.stream()
+                .map(booking -> Booking.STATUS_APPROVED.equals(booking.getStatus())
+                        ? bookingApproved(booking.getRenter(), booking)
+                        : bookingRejected(booking.getRenter(), booking, booking.getRejectionReason()))
+                .toList());
+    }
+
+    /**
+     * Tells the renters their approved bookings were released for not being paid in time, written
+     * to the outbox in one batch.
+     */
+    public void createCheckoutHoldExpiredNotifications(List<Booking> bookings) {
+        outbox.enqueueAll(bookings.stream()
+                .map(booking -> new Notification(booking.getRenter(), Notification.TYPE_CHECKOUT_HOLD_EXPIRED,
+                        String.format("Your booking for '%s' was released because it was not paid in time.",
+                                booking.getProduct().getName()),
+                        booking))
+                .toList());
+    }
+
+    /**
+     * Tells the waiters that the dates they were waiting for are free again, written to the outbox
+     * in one batch and in the given (priority) order.
+     */
+    public void createWaitlistSlotAvailableNotifications(List<WaitlistEntry> entries) {
+        outbox.enqueueAll(entries.stream()
+                .map(entry -> new Notification(entry.getUser(), Notification.TYPE_WAITLIST_SLOT_AVAILABLE,
+                        String.format("'%s' is now available from %s to %s. Book it before someone else does!",
+                                entry.getProduct().getName(), entry.getBookingDate().toLocalDate(),
+                                entry.getReturnDate().toLocalDate()),
+                        null))
+                .toList());
+    }
+
+    private Notification bookingApproved(User renter, Booking booking) {
         String message = String.format("Your booking for '%s' has been approved! You can now proceed with payment.",
                 booking.getProduct().getName());
 
-        Notification notification = new Notification(renter, Notification.TYPE_BOOKING_APPROVED, message, booking);
-        notificationRepository.save(notification);
+        return new Notification(renter, Notification.TYPE_BOOKING_APPROVED, message, booking);
     }
 
-    public void createBookingRejectedNotification(User renter, Booking booking, String reason) {
+    private Notification bookingRejected(User renter, Booking booking, String reason) {
         String message = String.format("Your booking for '%s' was rejected.",
                 booking.getProduct().getName());
         if (reason != null && !reason.isEmpty()) {
             message += " Reason: " + reason;
         }
 
-        Notification notification = new Notification(renter, Notification.TYPE_BOOKING_REJECTED, message, booking);
-        notificationRepository.save(notification);
+        return new Notification(renter, Notification.TYPE_BOOKING_REJECTED, message, booking);
     }
 
     public void createPaymentReceivedNotification(User owner, Booking booking) {
@@ -76,25 +137,25 @@ public class NotificationService {
                 booking.getRenter().getName());
 
         Notification notification = new Notification(owner, Notification.TYPE_PAYMENT_RECEIVED, message, booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createAccountSuspendedNotification(User user) {
         String message = "Your account has been suspended by the platform administrator. Please contact support for more information.";
         Notification notification = new Notification(user, Notification.TYPE_ACCOUNT_SUSPENDED, message, null);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createAccountBannedNotification(User user) {
         String message = "Your account has been banned by the platform administrator.";
         Notification notification = new Notification(user, Notification.TYPE_ACCOUNT_BANNED, message, null);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createAccountReactivatedNotification(User user) {
         String message = "Your account has been reactivated. Welcome back!";
         Notification notification = new Notification(user, Notification.TYPE_ACCOUNT_REACTIVATED, message, null);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createBookingCancelledByAdminNotification(User user, Booking booking, String reason) {
@@ -102,7 +163,7 @@ public class NotificationService {
                 booking.getProduct().getName(), reason);
         Notification notification = new Notification(user, Notification.TYPE_BOOKING_CANCELLED_BY_ADMIN, message,
                 booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createProductDeletedNotification(User user, String productName, boolean isOwner) {
@@ -115,7 +176,7 @@ public class NotificationService {
                     productName);
         }
         Notification notification = new Notification(user, Notification.TYPE_PRODUCT_DELETED_BY_ADMIN, message, null);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createDepositRequestedNotification(User renter, Booking booking, Double depositAmount, String reason) {
@@ -124,7 +185,7 @@ public class NotificationService {
                 booking.getProduct().getName(),
                 reason);
         Notification notification = new Notification(renter, Notification.TYPE_DEPOSIT_REQUESTED, message, booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createDepositPaidNotification(User owner, Booking booking) {
@@ -133,7 +194,7 @@ public class NotificationService {
                 booking.getRenter().getName(),
                 booking.getProduct().getName());
         Notification notification = new Notification(owner, Notification.TYPE_DEPOSIT_PAID, message, booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public void createDepositRefundedNotification(User renter, Booking booking, Double refundedAmount) {
@@ -141,7 +202,7 @@ public class NotificationService {
                 refundedAmount != null ? refundedAmount : 0.0,
                 booking.getProduct().getName());
         Notification notification = new Notification(renter, Notification.TYPE_DEPOSIT_REFUNDED, message, booking);
-        notificationRepository.save(notification);
+        outbox.enqueue(notification);
     }
 
     public List<NotificationResponse> getUserNotifications(Long userId) {
@@ -0,0 +1,106 @@
+package tqs.blacktie.service;
+
+/**
+ * Light stemmer for European Portuguese, reducing plural and feminine forms and the final vowel
+ * so that "vestidos", "vestida" and "vestido" share one term.
+ *
+ * It follows the rules of Savoy's light stemmer rather than a full suffix-stripping one: catalog
+ * text is short and mostly nouns and adjectives, and a light stemmer rarely merges unrelated
+ * words. Words are expected lower-cased and already stripped of diacritics by
+ * {@link ProductTextAnalyzer}.
+ */
+final class PortugueseStemmer {
+
+    private PortugueseStemmer() {
+    }
+
+    static String stem(String word) {
+        if (word.length() < 4 || !isLetters(word)) {
+            return word;
+        }
+        String stem = removePlural(word);
+        if (stem.length() > 3 && stem.endsWith("a")) {
+            stem = normalizeFeminine(stem);
+        }
+        // The "ao" of a folded "ão" is kept, or botão would become bota
+        if (stem.length() > 4 && "aeo".indexOf(stem.charAt(stem.length() - 1)) >= 0 && !stem.endsWith("ao")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String removePlural(String word) {
+        int length = word.length();
+        if (length > 4 && word.endsWith("es") && "rslz".indexOf(word.charAt(length - 3)) >= 0) {
+            // colares, luzes
+            return word.substring(0, length - 2);
+        }
+        if (word.endsWith("ns")) {
+            // bombons -> bombom
+            return word.substring(0, length - 2) + "m";
+        }
+        if (length > 4 && word.endsWith("eis")) {
+            // aneis -> anel
+            return word.substring(0, length - 3) + "el";
+        }
+        if (length > 4 && word.endsWith("ais")) {
+            // originais -> original
+            return word.substring(0, length - 3) + "al";
+        }
+        if (length > 4 && word.endsWith("ois")) {
+            // lencois -> lencol
+            return word.substring(0, length - 3) + "ol";
+        }
+        if (length > 4 && word.endsWith("is")) {
+            // funis -> funil
+            return word.substring(0, length - 1) + "l";
+        }
+        if (word.endsWith("oes") || word.endsWith("aes")) {
+            // botoes -> botao
+            return word.substring(0, length - 3) + "ao";
+        }
+        if (length > 6 && word.endsWith("mente")) {
+            return word.substring(0, length - 5);
+        }
+        if (word.endsWith("s")) {
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    private static String normalizeFeminine(String word) {
+        int length = word.length();
+        if (length > 7 && (word.endsWith("inha") || word.endsWith("iaca") || word.endsWith("eira"))) {
+            return masculine(word);
+        }
+        if (length <= 6) {
+            return word;
+        }
+        if (word.endsWith("osa") || word.endsWith("ica") || word.endsWith("ida") || word.endsWith("ada")
+                || word.endsWith("iva") || word.endsWith("ama") || (word.endsWith("na") && !word.endsWith("ona"))) {
+            return masculine(word);
+        }
+        if (word.endsWith("ona")) {
+            // chorona -> chorao
+            return word.substring(0, length - 3) + "ao";
+        }
+        if (word.endsWith("ora") || word.endsWith("esa")) {
+            // senhora -> senhor, francesa -> frances
+            return word.substring(0, length - 1);
+        }
+        return word;
+    }
+
+    private static String masculine(String word) {
+        return word.substring(0, word.length() - 1) + "o";
+    }
+
+    private static boolean isLetters(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
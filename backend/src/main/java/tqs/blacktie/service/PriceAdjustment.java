@@ -0,0 +1,30 @@
+package tqs.blacktie.service;
+
+import tqs.blacktie.entity.Product;
+
+import java.time.LocalDate;
+
+/**
+ * Pricing engine extension point. Every Spring bean implementing it is applied by the
+ * {@link PricingEngine} on top of the stored {@link tqs.blacktie.entity.PricingRule}s.
+ *
+ * Day factors are compiled into the cached price table of each product, so they must only depend
+ * on the product and the day; an implementation whose outcome changes later has to call
+ * {@link PricingEngine#invalidateAll()}.
+ */
+public interface PriceAdjustment {
+
+    /**
+     * Multiplier of the product's price for one rental day, 1 when the adjustment does not apply.
+     */
+    default double dayFactor(Product product, LocalDate day) {
+        return 1.0;
+    }
+
+    /**
+     * Multiplier of the whole rental for its length in days, 1 when the adjustment does not apply.
+     */
+    default double lengthFactor(Product product, long days) {
+        return 1.0;
+    }
+}
@@ -0,0 +1,219 @@
+package tqs.blacktie.service;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.PricingRule;
+import tqs.blacktie.entity.Product;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Rental prices: the product's daily price for every rented day, adjusted by the pricing rules and
+ * the {@link PriceAdjustment} plug-ins.
+ *
+ * The day factors are compiled, per product, into a table of prefix sums of the daily prices (in
+ * cents) over a {@code horizonDays} window starting at the first day of the current month, so the
+ * price of any rental inside the window is two array reads and a subtraction whatever its length.
+ * Tables are built lazily and cached, at most {@code maxTables} of them, the least recently used
+ * dropped first, and a deleted product's table is dropped with it. A table is dropped when the
+ * rules change and rebuilt when the product's price differs from the one it was compiled for or the
+ * window moved on. Rentals reaching outside the window are summed day by day.
+ *
+ * A rental is charged one day per started 24 hours from the booking date, at least one day.
+ */
+@Component
+public class PricingEngine {
+
+    private final List<PriceAdjustment> plugins;
+    private final int horizonDays;
+    // Access ordered, so the eldest entry is the least recently used table
+    private final Map<Long, PriceTable> tables;
+
+    // Adjustments and generation change together, so a table is never tagged with the wrong rules
+    private volatile Rules rules;
+
+    private record Rules(List<PriceAdjustment> adjustments, long generation) {
+    }
+
+    private record PriceTable(double price, long firstDay, long generation, long[] prefixCents) {
+
+        boolean covers(long fromDay, long toDay) {
+            return fromDay >= firstDay && toDay <= firstDay + prefixCents.length - 1;
+        }
+
+        long cents(long fromDay, long toDay) {
+            return prefixCents[(int) (toDay - firstDay)] - prefixCents[(int) (fromDay - firstDay)];
+        }
+    }
+
+    @Autowired
+    public PricingEngine(ObjectProvider<PriceAdjustment> plugins,
+            @Value("${pricing.horizon-days:730}") int horizonDays,
+            @Value("${pricing.cache-size:10000}") int maxTables) {
+        this(plugins.orderedStream().toList(), horizonDays, maxTables);
+    }
+
+    public PricingEngine(List<PriceAdjustment> plugins, int horizonDays, int maxTables) {
+        if (horizonDays <= 0 || maxTables <= 0) {
+            throw new IllegalArgumentException("Pricing horizon and cache size must be positive");
+        }
+        this.plugins = List.copyOf(plugins);
+        this.horizonDays = horizonDays;
+        this.rules = new Rules(this.plugins, 0);
+        this.tables = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PriceTable> eldest) {
+                return size() > maxTables;
+            }
+        };
+    }
+
+    /**
+     * Number of days charged for a rental between the given dates.
+     */
+    public static long rentalDays(LocalDateTime from, LocalDateTime to) {
+        return Math.max(1, ChronoUnit.DAYS.between(from, to));
+    }
+
+    /**
+     * Total price of renting the product between the given dates, rounded to cents.
+     */
+    public double totalPrice(Product product, LocalDateTime from, LocalDateTime to) {
+        long days = rentalDays(from, to);
+        long fromDay = from.toLocalDate().toEpochDay();
+        long toDay = fromDay + days;
+        Rules current = rules;
+
+        long cents;
+        PriceTable table = product.getId() != null ? tableOf(product, current) : null;
+        if (table != null && table.covers(fromDay, toDay)) {
+            cents = table.cents(fromDay, toDay);
+        } else {
+            cents = 0;
+            for (long day = fromDay; day < toDay; day++) {
+                cents += dayCents(product, LocalDate.ofEpochDay(day), current.adjustments());
+            }
+        }
+
+        double lengthFactor = 1.0;
+        for (PriceAdjustment adjustment : current.adjustments()) {
+            lengthFactor *= adjustment.lengthFactor(product, days);
+        }
+        return Math.round(cents * lengthFactor) / 100.0;
+    }
+
+    /**
+     * Replaces the stored rules applied along with the plug-ins and drops every cached table.
+     */
+    public synchronized void setRules(Collection<PricingRule> pricingRules) {
+        List<PriceAdjustment> compiled = new ArrayList<>(plugins);
+        NavigableMap<Integer, Double> lengthTiers = new TreeMap<>();
+        for (PricingRule rule : pricingRules) {
+            double factor = 1 + rule.getPercentage() / 100;
+            switch (rule.getType()) {
+                case PricingRule.TYPE_WEEKEND -> compiled.add(new PriceAdjustment() {
+                    @Override
+                    public double dayFactor(Product product, LocalDate day) {
+                        DayOfWeek dayOfWeek = day.getDayOfWeek();
+                        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY ? factor : 1.0;
+                    }
+                });
+                case PricingRule.TYPE_SEASON -> {
+                    LocalDate start = rule.getStartDate();
+                    LocalDate end = rule.getEndDate();
+                    compiled.add(new PriceAdjustment() {
+                        @Override
+                        public double dayFactor(Product product, LocalDate day) {
+                            return day.isBefore(start) || day.isAfter(end) ? 1.0 : factor;
+                        }
+                    });
+                }
+                case PricingRule.TYPE_LONG_RENTAL -> lengthTiers.merge(rule.getMinDays(), factor, Math::min);
+                default -> throw new IllegalArgumentException("Unknown pricing rule type: " + rule.getType());
+            }
+        }
+        if (!lengthTiers.isEmpty()) {
+            // Only the largest tier reached applies, tiers do not stack
+            compiled.add(new PriceAdjustment() {
+                @Override
+                public double lengthFactor(Product product, long days) {
+                    Map.Entry<Integer, Double> tier = lengthTiers.floorEntry((int) Math.min(days, Integer.MAX_VALUE));
+                    return tier != null ? tier.getValue() : 1.0;
+                }
+            });
+        }
+        rules = new Rules(List.copyOf(compiled), rules.generation() + 1);
+        clearTables();
+    }
+
+    /**
+     * Drops every cached table, for when the outcome of a rule or plug-in changed.
+     */
+    public synchronized void invalidateAll() {
+        rules = new Rules(rules.adjustments(), rules.generation() + 1);
+        clearTables();
+    }
+
+    /**
+     * Drops the cached table of a product being deleted.
+     */
+    public void evict(Long productId) {
+        synchronized (tables) {
+            tables.remove(productId);
+        }
+    }
+
+    int cachedTables() {
+        synchronized (tables) {
+            return tables.size();
+        }
+    }
+
+    private void clearTables() {
+        synchronized (tables) {
+            tables.clear();
+        }
+    }
+
+    private PriceTable tableOf(Product product, Rules current) {
+        long firstDay = LocalDate.now().withDayOfMonth(1).toEpochDay();
+        PriceTable table;
+        synchronized (tables) {
+            table = tables.get(product.getId());
+        }
+        if (table == null || table.generation() != current.generation() || table.firstDay() != firstDay
+                || table.price() != product.getPrice()) {
+            // Built outside the lock, so lookups of other products never wait for it
+            long[] prefixCents = new long[horizonDays + 1];
+            for (int i = 0; i < horizonDays; i++) {
+                prefixCents[i + 1] = prefixCents[i]
+                        + dayCents(product, LocalDate.ofEpochDay(firstDay + i), current.adjustments());
+            }
+            table = new PriceTable(product.getPrice(), firstDay, current.generation(), prefixCents);
+            synchronized (tables) {
+                tables.put(product.getId(), table);
+            }
+        }
+        return table;
+    }
+
+    private static long dayCents(Product product, LocalDate day, List<PriceAdjustment> current) {
+        double price = product.getPrice() * 100;
+        for (PriceAdjustment adjustment : current) {
+            price *= adjustment.dayFactor(product, day);
+        }
+        return Math.round(price);
+    }
+}
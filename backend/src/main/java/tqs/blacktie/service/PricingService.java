@@ -0,0 +1,140 @@
+package tqs.blacktie.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.dto.PriceQuoteResponse;
+import tqs.blacktie.dto.PricingRuleRequest;
+import tqs.blacktie.dto.PricingRuleResponse;
+import tqs.blacktie.entity.PricingRule;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.repository.PricingRuleRepository;
+import tqs.blacktie.repository.ProductRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Platform pricing rules (weekend and seasonal surcharges, long rental discounts) and price quotes.
+ * Rules are compiled into the {@link PricingEngine} at startup and again whenever they change. A
+ * change made on another node is picked up by {@link #refreshRules}, which compares the version of
+ * the stored rules with the one last compiled.
+ */
+@Service
+public class PricingService {
+
+    private static final Set<String> RULE_TYPES = Set.of(
+            PricingRule.TYPE_WEEKEND, PricingRule.TYPE_SEASON, PricingRule.TYPE_LONG_RENTAL);
+
+    private final PricingRuleRepository ruleRepository;
+    private final ProductRepository productRepository;
+    private final PricingEngine pricingEngine;
+    private volatile String compiledVersion;
+
+    public PricingService(PricingRuleRepository ruleRepository, ProductRepository productRepository,
+            PricingEngine pricingEngine) {
+        this.ruleRepository = ruleRepository;
+        this.productRepository = productRepository;
+        this.pricingEngine = pricingEngine;
+    }
+
+    public PriceQuoteResponse getQuote(Long productId, LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Both from and to dates are required for a quote");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Return date must be after booking date");
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
+
+        long days = PricingEngine.rentalDays(from, to);
+        double basePrice = Math.round(product.getPrice() * 100) * days / 100.0;
+        return new PriceQuoteResponse(productId, from, to, days, product.getPrice(), basePrice,
+                pricingEngine.totalPrice(product, from, to));
+    }
+
+    public List<PricingRuleResponse> getRules() {
+        return ruleRepository.findAllByOrderById().stream().map(this::convertToResponse).toList();
+    }
+
+    @Transactional
+    public PricingRuleResponse addRule(PricingRuleRequest request) {
+        validate(request);
+        PricingRule rule = new PricingRule(request.getType(), request.getPercentage());
+        if (PricingRule.TYPE_SEASON.equals(request.getType())) {
+            rule.setStartDate(request.getStartDate());
+            rule.setEndDate(request.getEndDate());
+        }
+        if (PricingRule.TYPE_LONG_RENTAL.equals(request.getType())) {
+            rule.setMinDays(request.getMinDays());
+        }
+        rule.setDescription(request.getDescription());
+        PricingRule saved = ruleRepository.save(rule);
+        AfterCommit.run(this::reloadRules);
+        return convertToResponse(saved);
+    }
+
+    @Transactional
+    public void deleteRule(Long ruleId) {
+        PricingRule rule = ruleRepository.findById(ruleId)
+                .orElseThrow(() -> new IllegalArgumentException("Pricing rule not found with id: " + ruleId));
+        ruleRepository.delete(rule);
+        AfterCommit.run(this::reloadRules);
+    }
+
+    /**
+     * Compiles the stored rules into the pricing engine, dropping its cached price tables, and
+     * returns how many there are.
+     */
+    public int reloadRules() {
+        // Read before the rules, so a change landing in between is reloaded on the next refresh
+        String version = versionOf(ruleRepository.findVersion());
+        List<PricingRule> rules = ruleRepository.findAllByOrderById();
+        pricingEngine.setRules(rules);
+        compiledVersion = version;
+        return rules.size();
+    }
+
+    /**
+     * Reloads the rules if they changed since they were last compiled, on this node or another.
+     */
+    @Scheduled(fixedDelayString = "${pricing.rules-refresh-interval:PT1M}",
+            initialDelayString = "${pricing.rules-refresh-interval:PT1M}")
+    public void refreshRules() {
+        if (!versionOf(ruleRepository.findVersion()).equals(compiledVersion)) {
+            reloadRules();
+        }
+    }
+
+    private static String versionOf(PricingRuleRepository.RulesVersion version) {
+        return version.getRules() + ":" + version.getLastId();
+    }
+
+    private static void validate(PricingRuleRequest request) {
+        if (!RULE_TYPES.contains(request.getType())) {
+            throw new IllegalArgumentException("Rule type must be WEEKEND, SEASON or LONG_RENTAL");
+        }
+        if (request.getPercentage() <= -100 || request.getPercentage() > 1000) {
+            throw new IllegalArgumentException("Percentage must be above -100 and at most 1000");
+        }
+        if (PricingRule.TYPE_SEASON.equals(request.getType())) {
+            if (request.getStartDate() == null || request.getEndDate() == null) {
+                throw new IllegalArgumentException("A season needs a start and an end date");
+            }
+            if (request.getEndDate().isBefore(request.getStartDate())) {
+                throw new IllegalArgumentException("End date must not be before start date");
+            }
+        }
+        if (PricingRule.TYPE_LONG_RENTAL.equals(request.getType())
+                && (request.getMinDays() == null || request.getMinDays() < 2)) {
+            throw new IllegalArgumentException("A long rental rule needs a minimum of at least 2 days");
+        }
+    }
+
+    private PricingRuleResponse convertToResponse(PricingRule rule) {
+        return new PricingRuleResponse(rule.getId(), rule.getType(), rule.getPercentage(), rule.getStartDate(),
+                rule.getEndDate(), rule.getMinDays(), rule.getDescription());
+    }
+}
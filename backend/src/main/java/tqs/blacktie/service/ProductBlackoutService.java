@@ -0,0 +1,168 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tqs.blacktie.dto.BlackoutRequest;
+import tqs.blacktie.dto.BlackoutResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.ProductBlackout;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
+import tqs.blacktie.repository.ProductRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Owner block-outs (maintenance, cleaning, tailoring) and buffer days after returns. Both are
+ * enforced by the {@link BookingAvailabilityIndex}, so bookings see them in the same lookup that
+ * checks the other bookings.
+ */
+@Service
+public class ProductBlackoutService {
+
+    public static final int MAX_BUFFER_DAYS = 30;
+
+    private static final List<String> HOLDING_STATUSES =
+            List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID, Booking.STATUS_COMPLETED);
+
+    private final ProductBlackoutRepository blackoutRepository;
+    private final ProductRepository productRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ReservationLock reservationLock;
+    private final ReservationCheck reservationCheck;
+    private final WaitlistService waitlistService;
+
+    public ProductBlackoutService(ProductBlackoutRepository blackoutRepository,
+            ProductRepository productRepository,
+            BookingRepository bookingRepository,
+            BookingAvailabilityIndex availabilityIndex,
+            ReservationLock reservationLock,
+            ReservationCheck reservationCheck,
+            WaitlistService waitlistService) {
+        this.blackoutRepository = blackoutRepository;
+        this.productRepository = productRepository;
+        this.bookingRepository = bookingRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.reservationLock = reservationLock;
+        this.reservationCheck = reservationCheck;
+        this.waitlistService = waitlistService;
+    }
+
+    public List<BlackoutResponse> getBlackouts(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product not found with id: " + productId);
+        }
+        return blackoutRepository.findByProductIdOrderByStartDate(productId).stream()
+                .map(this::convertToResponse)
+                .toList();
+    }
+
+    @Transactional
+    public BlackoutResponse addBlackout(Long productId, Long ownerId, BlackoutRequest request) {
+        Product product = findOwnedProduct(productId, ownerId);
+
+        if (request.getEndDate().isBefore(request.getStartDate())) {
+            throw new IllegalArgumentException("End date must be after start date");
+        }
+        if (request.getEndDate().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Block-out cannot end in the past");
+        }
+
+        // Blocking reserves the dates like an approval does, so check them under the same lock
+        reservationLock.lock(productId);
+        if (reservationCheck.isBlocked(product, request.getStartDate(), request.getEndDate())) {
+            throw new IllegalStateException("Product is already booked or blocked for the selected dates");
+        }
+
+        ProductBlackout blackout = blackoutRepository.save(
+                new ProductBlackout(product, request.getStartDate(), request.getEndDate(), request.getReason()));
+        availabilityIndex.sync(blackout);
+        return convertToResponse(blackout);
+    }
+
+    @Transactional
+    public void removeBlackout(Long productId, Long blackoutId, Long ownerId) {
+        findOwnedProduct(productId, ownerId);
+        ProductBlackout blackout = blackoutRepository.findById(blackoutId)
+                .filter(found -> found.getProduct().getId().equals(productId))
+                .orElseThrow(() -> new IllegalArgumentException("Block-out not found with id: " + blackoutId));
+
+        blackoutRepository.delete(blackout);
+        availabilityIndex.removeBlackout(productId, blackoutId);
+        waitlistService.datesReleased(productId, blackout.getStartDate(), blackout.getEndDate());
+    }
+
+    /**
+     * Changes the days the product stays blocked after each return. A longer buffer is refused if
+     * it would run into a booking already reserved; a shorter one frees the tail of every buffer
+     * still ahead, so its waiters are notified.
+     */
+    @Transactional
+    public Product updateBufferDays(Long productId, Long ownerId, int bufferDays) {
+        if (bufferDays < 0 || bufferDays > MAX_BUFFER_DAYS) {
+            throw new IllegalArgumentException("Buffer days must be between 0 and " + MAX_BUFFER_DAYS);
+        }
+        Product product = findOwnedProduct(productId, ownerId);
+
+        // Bookings are checked against the buffer under this lock, so no booking slips in meanwhile
+        reservationLock.lock(productId);
+        int previous = product.getBufferDays() != null ? product.getBufferDays() : 0;
+        List<Booking> holding = bookingRepository.findByProductAndStatusIn(product, HOLDING_STATUSES).stream()
+                .sorted(Comparator.comparing(Booking::getBookingDate))
+                .toList();
+        if (bufferDays > previous && bufferReachesNextBooking(holding, bufferDays)) {
+            throw new IllegalStateException("A buffer of " + bufferDays
+                    + " days would overlap bookings already reserved for this product");
+        }
+
+        product.setBufferDays(bufferDays);
+        Product saved = productRepository.save(product);
+        availabilityIndex.setBufferDays(productId, bufferDays);
+        if (bufferDays < previous) {
+            LocalDateTime now = LocalDateTime.now();
+            for (Booking booking : holding) {
+                LocalDateTime blockedUntil = booking.getReturnDate().plusDays(previous);
+                if (blockedUntil.isAfter(now)) {
+                    waitlistService.datesReleased(productId, booking.getReturnDate().plusDays(bufferDays), blockedUntil);
+                }
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Whether the buffer after some booking would reach the start of an APPROVED or PAID one after
+     * it. Bookings are sorted by start; completed ones only count through their buffer.
+     */
+    private static boolean bufferReachesNextBooking(List<Booking> bookings, int bufferDays) {
+        LocalDateTime lastReturn = null;
+        for (Booking booking : bookings) {
+            if (lastReturn != null && BookingAvailabilityIndex.isActive(booking.getStatus())
+                    && !lastReturn.plusDays(bufferDays).isBefore(booking.getBookingDate())) {
+                return true;
+            }
+            if (lastReturn == null || booking.getReturnDate().isAfter(lastReturn)) {
+                lastReturn = booking.getReturnDate();
+            }
+        }
+        return false;
+    }
+
+    private Product findOwnedProduct(Long productId, Long ownerId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + productId));
+        if (product.getOwner() == null || !product.getOwner().getId().equals(ownerId)) {
+            throw new IllegalStateException("You can only block your own products");
+        }
+        return product;
+    }
+
+    private BlackoutResponse convertToResponse(ProductBlackout blackout) {
+        return new BlackoutResponse(blackout.getId(), blackout.getProduct().getId(), blackout.getStartDate(),
+                blackout.getEndDate(), blackout.getReason());
+    }
+}
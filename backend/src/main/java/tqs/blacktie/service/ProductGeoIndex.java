@@ -0,0 +1,269 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory spatial index over the coordinates of the available products, answering "near me"
+ * searches without reading the products table or measuring the distance to every product.
+ *
+ * The globe is cut into a grid of {@value #CELL_DEGREES} degree cells (about 11 km north to south)
+ * and each product is kept in the cell holding its coordinates. A search only visits the cells
+ * overlapping the bounding box of the circle, drops the points outside that box or failing the
+ * owner and maximum price filters, and measures the great-circle distance to the few left.
+ * Longitudes wrap around the antimeridian. When the box covers more cells than are occupied, as
+ * near the poles where it spans every longitude, the occupied cells of its rows are visited instead.
+ *
+ * The index is rebuilt from the available products at startup and kept current by the services
+ * creating and deleting products; changes made inside a transaction are applied once it commits.
+ */
+@Component
+public class ProductGeoIndex {
+
+    static final double CELL_DEGREES = 0.1;
+    static final double MAX_RADIUS_KM = 1000;
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+    private static final long NO_OWNER = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Point>> pointsByCell = new HashMap<>();
+    private final Map<Long, Point> pointsById = new HashMap<>();
+
+    /**
+     * Replaces the whole index with the given products.
+     */
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            pointsByCell.clear();
+            pointsById.clear();
+            for (Product product : products) {
+                if (isLocated(product)) {
+                    insert(Point.of(product));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the product at its coordinates, replacing where it was before. A product that is not
+     * available or has no coordinates is removed instead.
+     */
+    public void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        if (!isLocated(product)) {
+            remove(product.getId());
+            return;
+        }
+        // Read now, while the entity still holds what is being committed
+        Point point = Point.of(product);
+        AfterCommit.run(() -> write(() -> {
+            delete(point.productId);
+            insert(point);
+        }));
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> write(() -> delete(productId)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return pointsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products within the radius of the given coordinates, nearest first.
+     *
+     * @param radiusKm greater than 0 and at most {@value #MAX_RADIUS_KM}
+     * @param ownerId  only products of this owner, or any owner when null
+     * @param maxPrice only products priced at most this, or any price when null
+     */
+    public List<Long> near(double latitude, double longitude, double radiusKm, Long ownerId, Double maxPrice) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + (int) MAX_RADIUS_KM + " km");
+        }
+
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double minLat = latitude - latDelta;
+        double maxLat = latitude + latDelta;
+        // Degrees of longitude shrink with the cosine of the latitude, widest at the box's edge nearest a pole
+        double widest = Math.max(Math.abs(minLat), Math.abs(maxLat));
+        double lngDelta = widest >= 90 ? 180 : Math.min(180, latDelta / Math.cos(Math.toRadians(widest)));
+        Box box = new Box(minLat, maxLat, longitude, lngDelta);
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int firstRow = row(minLat);
+            int lastRow = row(maxLat);
+            int firstColumn = (int) Math.floor((longitude - lngDelta + 180) / CELL_DEGREES);
+            int lastColumn = (int) Math.floor((longitude + lngDelta + 180) / CELL_DEGREES);
+            long boxCells = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+            if (lngDelta >= 180 || lastColumn - firstColumn + 1 >= COLUMNS || boxCells > pointsByCell.size()) {
+                // Fewer occupied cells than cells in the box, or a box around a pole: visit the occupied ones
+                for (Map.Entry<Long, List<Point>> cell : pointsByCell.entrySet()) {
+                    int row = (int) (cell.getKey() >> 32);
+                    if (row >= firstRow && row <= lastRow) {
+                        collect(cell.getValue(), latitude, longitude, radiusKm, box, ownerId, maxPrice, hits);
+                    }
+                }
+            } else {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    for (int column = firstColumn; column <= lastColumn; column++) {
+                        List<Point> points = pointsByCell.get(cell(row, Math.floorMod(column, COLUMNS)));
+                        if (points != null) {
+                            collect(points, latitude, longitude, radiusKm, box, ownerId, maxPrice, hits);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::productId));
+        List<Long> productIds = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            productIds.add(hit.productId);
+        }
+        return productIds;
+    }
+
+    /**
+     * Great-circle distance between two coordinates, by the haversine formula.
+     */
+    static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void collect(List<Point> points, double latitude, double longitude, double radiusKm, Box box,
+            Long ownerId, Double maxPrice, List<Hit> hits) {
+        for (Point point : points) {
+            if (!box.contains(point) || !accepts(point, ownerId, maxPrice)) {
+                continue;
+            }
+            double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+            if (distance <= radiusKm) {
+                hits.add(new Hit(point.productId, distance));
+            }
+        }
+    }
+
+    private static boolean accepts(Point point, Long ownerId, Double maxPrice) {
+        if (ownerId != null && point.ownerId != ownerId) {
+            return false;
+        }
+        // A missing price fails any maximum, as it would in the price query
+        return maxPrice == null || point.price <= maxPrice;
+    }
+
+    private static boolean isLocated(Product product) {
+        return product.getId() != null && Boolean.TRUE.equals(product.getAvailable())
+                && product.getLatitude() != null && product.getLongitude() != null;
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Point point) {
+        pointsById.put(point.productId, point);
+        pointsByCell.computeIfAbsent(point.cell, k -> new ArrayList<>()).add(point);
+    }
+
+    private void delete(Long productId) {
+        Point point = pointsById.remove(productId);
+        if (point == null) {
+            return;
+        }
+        List<Point> points = pointsByCell.get(point.cell);
+        points.remove(point);
+        if (points.isEmpty()) {
+            pointsByCell.remove(point.cell);
+        }
+    }
+
+    private static int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(ROWS - 1, row));
+    }
+
+    private static long cell(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private static final class Point {
+        final Long productId;
+        final double latitude;
+        final double longitude;
+        final long ownerId;
+        final double price;
+        final long cell;
+
+        private Point(Long productId, double latitude, double longitude, long ownerId, double price) {
+            this.productId = productId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.ownerId = ownerId;
+            this.price = price;
+            int column = Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+            this.cell = cell(row(latitude), column);
+        }
+
+        static Point of(Product product) {
+            Long ownerId = product.getOwner() != null ? product.getOwner().getId() : null;
+            return new Point(product.getId(), product.getLatitude(), product.getLongitude(),
+                    ownerId != null ? ownerId : NO_OWNER,
+                    product.getPrice() != null ? product.getPrice() : Double.NaN);
+        }
+    }
+
+    // Bounding box of the search circle; its longitudes may wrap around the antimeridian
+    private record Box(double minLat, double maxLat, double longitude, double lngDelta) {
+
+        boolean contains(Point point) {
+            if (point.latitude < minLat || point.latitude > maxLat) {
+                return false;
+            }
+            double offset = Math.abs(point.longitude - longitude);
+            return Math.min(offset, 360 - offset) <= lngDelta;
+        }
+    }
+
+    private record Hit(Long productId, double distanceKm) {
+    }
+}
@@ -0,0 +1,540 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index over the name, description, size and city of every available product,
+ * answering catalog searches without reading the products table.
+ *
+ * Products and queries are both reduced to accent- and case-insensitive Portuguese stems by
+ * {@link ProductTextAnalyzer}. Each term maps to its postings, the products holding it with the
+ * term's frequency, kept in the order products were indexed so additions are appended. A search
+ * returns the products holding every query term, the last one also matching as a prefix while it
+ * is being typed, ranked by BM25 with name terms counting {@value #NAME_WEIGHT} times. A query
+ * term matching no indexed term is taken for a typo and expanded to the terms within one or two
+ * edits of it ({@link FuzzyTermMatcher}), whose scores are scaled down by their distance so closer
+ * spellings rank first. The
+ * postings of the query terms are intersected rarest first, and only the documents left are
+ * checked against the owner and maximum price filters and scored.
+ *
+ * The index is rebuilt from the available products at startup and kept current by the services
+ * creating and deleting products; searches share a read lock and only wait for those writes.
+ * Changes made inside a transaction are applied once it commits, so rolled back writes never reach
+ * the index.
+ */
+@Component
+public class ProductSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    // Dictionary terms a misspelled term may expand to
+    static final int MAX_EXPANSIONS = 64;
+    static final int DENSE_POSTINGS = 4096;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final long NO_OWNER = Long.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Long, Doc> docsById = new HashMap<>();
+    private final FuzzyTermMatcher fuzzyTerms = new FuzzyTermMatcher();
+    // Owner and price of each ordinal, read in ordinal order while candidates are filtered
+    private long[] owners = new long[1024];
+    private double[] prices = new double[1024];
+    private long totalLength;
+    private int nextOrdinal;
+
+    /**
+     * Replaces the whole index with the given products.
+     */
+    public void rebuild(Collection<Product> products) {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            fuzzyTerms.clear();
+            docsById.clear();
+            totalLength = 0;
+            nextOrdinal = 0;
+            for (Product product : products) {
+                if (isSearchable(product)) {
+                    insert(Doc.of(product));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the product, replacing what was indexed for it before. A product that is not
+     * available is removed instead.
+     */
+    public void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        if (!isSearchable(product)) {
+            remove(product.getId());
+            return;
+        }
+        // Analyzed now, while the entity still holds what is being committed
+        Doc doc = Doc.of(product);
+        AfterCommit.run(() -> write(() -> {
+            delete(doc.productId);
+            insert(doc);
+        }));
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> write(() -> delete(productId)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products matching every term of the query, best match first.
+     *
+     * @param ownerId  only products of this owner, or any owner when null
+     * @param maxPrice only products priced at most this, or any price when null
+     */
+    public List<Long> search(String query, Long ownerId, Double maxPrice) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(ProductTextAnalyzer.terms(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Clause> clauses = new ArrayList<>(terms.size());
+            for (int i = 0; i < terms.size(); i++) {
+                Clause clause = clause(terms.get(i), i == terms.size() - 1);
+                if (clause.postings.isEmpty()) {
+                    return List.of();
+                }
+                clauses.add(clause);
+            }
+            // Intersect the ordinals, rarest term first, then score the few documents left
+            clauses.sort(Comparator.comparingInt(Clause::documentFrequency));
+            Candidates candidates = clauses.get(0).union();
+            for (int i = 1; i < clauses.size() && candidates.size > 0; i++) {
+                candidates.retainAll(clauses.get(i));
+            }
+
+            if (ownerId != null || maxPrice != null) {
+                candidates.retain(i -> accepts(candidates.ordinals[i], ownerId, maxPrice));
+            }
+
+            double avgLength = (double) totalLength / docsById.size();
+            double[] scores = new double[candidates.size];
+            for (Clause clause : clauses) {
+                clause.addScores(candidates, scores, avgLength);
+            }
+            Integer[] order = new Integer[candidates.size];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -scores[i])
+                    .thenComparing(i -> candidates.docs[i].productId));
+            List<Long> productIds = new ArrayList<>(order.length);
+            for (Integer i : order) {
+                productIds.add(candidates.docs[i].productId);
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Clause clause(String term, boolean prefix) {
+        List<Postings> postings = new ArrayList<>();
+        if (prefix) {
+            // Every term starting with the prefix sorts between it and the prefix followed by the last char
+            postings.addAll(postingsByTerm.subMap(term, true, term + Character.MAX_VALUE, false).values());
+        } else if (postingsByTerm.containsKey(term)) {
+            postings.add(postingsByTerm.get(term));
+        }
+        double[] weights = postings.stream().mapToDouble(p -> idf(p.size)).toArray();
+        if (!postings.isEmpty()) {
+            return new Clause(postings, weights);
+        }
+
+        List<FuzzyTermMatcher.Match> matches = fuzzyTerms.matches(term, MAX_EXPANSIONS);
+        weights = new double[matches.size()];
+        for (FuzzyTermMatcher.Match match : matches) {
+            Postings p = postingsByTerm.get(match.term());
+            weights[postings.size()] = idf(p.size) * similarity(term, match);
+            postings.add(p);
+        }
+        return new Clause(postings, weights);
+    }
+
+    // 1 for the same term, down to 0 as the edits approach its length
+    private static double similarity(String term, FuzzyTermMatcher.Match match) {
+        return 1.0 - (double) match.edits() / Math.max(term.length(), match.term().length());
+    }
+
+    private double idf(int documentFrequency) {
+        int documents = docsById.size();
+        return Math.log(1 + (documents - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double score(double idf, int frequency, int length, double avgLength) {
+        double norm = K1 * (1 - B + B * length / avgLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private static boolean isSearchable(Product product) {
+        return product.getId() != null && Boolean.TRUE.equals(product.getAvailable());
+    }
+
+    private static Map<String, Integer> termFrequencies(Product product) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String term : ProductTextAnalyzer.terms(product.getName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String text : new String[] { product.getDescription(), product.getSize(), product.getCity() }) {
+            for (String term : ProductTextAnalyzer.terms(text)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+        return frequencies;
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean accepts(int ordinal, Long ownerId, Double maxPrice) {
+        return (ownerId == null || ownerId == owners[ordinal]) && (maxPrice == null || prices[ordinal] <= maxPrice);
+    }
+
+    private void insert(Doc doc) {
+        doc.ordinal = nextOrdinal++;
+        if (doc.ordinal == owners.length) {
+            owners = Arrays.copyOf(owners, doc.ordinal * 2);
+            prices = Arrays.copyOf(prices, doc.ordinal * 2);
+        }
+        owners[doc.ordinal] = doc.ownerId;
+        prices[doc.ordinal] = doc.price;
+        for (int i = 0; i < doc.terms.length; i++) {
+            Postings postings = postingsByTerm.get(doc.terms[i]);
+            if (postings == null) {
+                postings = new Postings(doc.terms[i]);
+                postingsByTerm.put(postings.term, postings);
+                fuzzyTerms.add(postings.term);
+            }
+            postings.append(doc, doc.frequencies[i]);
+            // Share the dictionary's copy of the term
+            doc.terms[i] = postings.term;
+        }
+        docsById.put(doc.productId, doc);
+        totalLength += doc.length;
+    }
+
+    private void delete(Long productId) {
+        Doc doc = docsById.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null && postings.remove(doc) && postings.size == 0) {
+                postingsByTerm.remove(term);
+                fuzzyTerms.remove(term);
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    /**
+     * An indexed product. Compared by identity: a re-indexed product is a new document.
+     */
+    private static final class Doc {
+
+        private final Long productId;
+        // NO_OWNER and NaN when unset, so unowned or unpriced products never pass those filters
+        private final long ownerId;
+        private final double price;
+        private final String[] terms;
+        private final int[] frequencies;
+        private final int length;
+        // Position in the postings, assigned when the document is inserted
+        private int ordinal;
+
+        Doc(Long productId, Long ownerId, Double price, Map<String, Integer> frequencies) {
+            this.productId = productId;
+            this.ownerId = ownerId != null ? ownerId : NO_OWNER;
+            this.price = price != null ? price : Double.NaN;
+            this.terms = frequencies.keySet().toArray(String[]::new);
+            this.frequencies = frequencies.values().stream().mapToInt(Integer::intValue).toArray();
+            this.length = Arrays.stream(this.frequencies).sum();
+        }
+
+        static Doc of(Product product) {
+            return new Doc(product.getId(), product.getOwner() != null ? product.getOwner().getId() : null,
+                    product.getPrice(), termFrequencies(product));
+        }
+    }
+
+    /**
+     * The postings of the terms one query term matches.
+     */
+    private record Clause(List<Postings> postings, double[] weights) {
+
+        int documentFrequency() {
+            return postings.stream().mapToInt(p -> p.size).sum();
+        }
+
+        // Documents holding any of the matched terms, merged pairwise so a short prefix matching
+        // thousands of terms costs a few passes over their postings rather than one per term
+        Candidates union() {
+            List<Candidates> merged = new ArrayList<>(postings.size());
+            for (Postings p : postings) {
+                merged.add(Candidates.of(p));
+            }
+            while (merged.size() > 1) {
+                List<Candidates> next = new ArrayList<>((merged.size() + 1) / 2);
+                for (int i = 0; i < merged.size(); i += 2) {
+                    next.add(i + 1 < merged.size() ? merged.get(i).merge(merged.get(i + 1)) : merged.get(i));
+                }
+                merged = next;
+            }
+            return merged.get(0);
+        }
+
+        boolean holds(int ordinal, int[] cursors) {
+            boolean found = false;
+            for (int p = 0; p < cursors.length && !found; p++) {
+                Postings terms = postings.get(p);
+                if (terms.bits != null) {
+                    found = terms.contains(ordinal);
+                } else {
+                    cursors[p] = terms.seek(cursors[p], ordinal);
+                    found = cursors[p] < terms.size && terms.ordinals[cursors[p]] == ordinal;
+                }
+            }
+            return found;
+        }
+
+        // Adds each candidate's best score over the matched terms
+        void addScores(Candidates candidates, double[] scores, double avgLength) {
+            double[] best = new double[candidates.size];
+            for (int t = 0; t < postings.size(); t++) {
+                Postings p = postings.get(t);
+                int cursor = 0;
+                for (int i = 0; i < candidates.size; i++) {
+                    cursor = p.seek(cursor, candidates.ordinals[i]);
+                    if (cursor < p.size && p.ordinals[cursor] == candidates.ordinals[i]) {
+                        Doc doc = candidates.docs[i];
+                        best[i] = Math.max(best[i], score(weights[t], p.freqs[cursor], doc.length, avgLength));
+                    }
+                }
+            }
+            for (int i = 0; i < candidates.size; i++) {
+                scores[i] += best[i];
+            }
+        }
+    }
+
+    /**
+     * Documents matched so far, sorted by ordinal. Starts as a read-only view of a single term's
+     * postings and only copies what survives the first intersection.
+     */
+    private static final class Candidates {
+
+        private static final int UNION_THRESHOLD = 8;
+
+        private int[] ordinals;
+        private Doc[] docs;
+        private int size;
+
+        private Candidates(int[] ordinals, Doc[] docs, int size) {
+            this.ordinals = ordinals;
+            this.docs = docs;
+            this.size = size;
+        }
+
+        private Candidates(int capacity) {
+            this(new int[capacity], new Doc[capacity], 0);
+        }
+
+        static Candidates of(Postings postings) {
+            return new Candidates(postings.ordinals, postings.docs, postings.size);
+        }
+
+        Candidates merge(Candidates other) {
+            Candidates merged = new Candidates(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                int next;
+                if (j == other.size || (i < size && ordinals[i] <= other.ordinals[j])) {
+                    next = i++;
+                    merged.add(ordinals[next], docs[next]);
+                    if (j < other.size && other.ordinals[j] == merged.ordinals[merged.size - 1]) {
+                        j++;
+                    }
+                } else {
+                    next = j++;
+                    merged.add(other.ordinals[next], other.docs[next]);
+                }
+            }
+            return merged;
+        }
+
+        // Keeps the documents holding any of the clause's terms. A clause of many terms is merged
+        // first, so each candidate is looked up once instead of once per term
+        void retainAll(Clause clause) {
+            if (clause.postings.size() > UNION_THRESHOLD) {
+                Candidates union = clause.union();
+                int[] cursor = new int[1];
+                retain(i -> {
+                    while (cursor[0] < union.size && union.ordinals[cursor[0]] < ordinals[i]) {
+                        cursor[0]++;
+                    }
+                    return cursor[0] < union.size && union.ordinals[cursor[0]] == ordinals[i];
+                });
+                return;
+            }
+            int[] cursors = new int[clause.postings.size()];
+            retain(i -> clause.holds(ordinals[i], cursors));
+        }
+
+        // Keeps the candidates at the accepted positions, never writing to the postings viewed
+        void retain(IntPredicate accepted) {
+            Candidates kept = new Candidates(Math.min(size, 1024));
+            for (int i = 0; i < size; i++) {
+                if (accepted.test(i)) {
+                    if (kept.size == kept.ordinals.length) {
+                        kept.ordinals = Arrays.copyOf(kept.ordinals, kept.size * 2);
+                        kept.docs = Arrays.copyOf(kept.docs, kept.size * 2);
+                    }
+                    kept.add(ordinals[i], docs[i]);
+                }
+            }
+            ordinals = kept.ordinals;
+            docs = kept.docs;
+            size = kept.size;
+        }
+
+        private void add(int ordinal, Doc doc) {
+            ordinals[size] = ordinal;
+            docs[size++] = doc;
+        }
+    }
+
+    /**
+     * Documents holding a term, sorted by ordinal, with the term's weighted frequency in each. The
+     * ordinals are copied next to the documents so intersections never leave the arrays, and terms
+     * held by at least {@value #DENSE_POSTINGS} documents also keep a bitmap of them, so checking a
+     * candidate against a common term is a single bit test.
+     */
+    private static final class Postings {
+
+        private final String term;
+        private long[] bits;
+        private int[] ordinals = new int[4];
+        private Doc[] docs = new Doc[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        void append(Doc doc, int frequency) {
+            if (size == docs.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            ordinals[size] = doc.ordinal;
+            docs[size] = doc;
+            freqs[size++] = frequency;
+            if (bits != null) {
+                setBit(doc.ordinal);
+            } else if (size == DENSE_POSTINGS) {
+                bits = new long[(doc.ordinal >>> 6) + 1];
+                for (int i = 0; i < size; i++) {
+                    setBit(ordinals[i]);
+                }
+            }
+        }
+
+        boolean contains(int ordinal) {
+            int word = ordinal >>> 6;
+            return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+        }
+
+        private void setBit(int ordinal) {
+            int word = ordinal >>> 6;
+            if (word >= bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+            }
+            bits[word] |= 1L << ordinal;
+        }
+
+        boolean remove(Doc doc) {
+            int i = seek(0, doc.ordinal);
+            if (i == size || docs[i] != doc) {
+                return false;
+            }
+            System.arraycopy(ordinals, i + 1, ordinals, i, size - i - 1);
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(freqs, i + 1, freqs, i, size - i - 1);
+            docs[--size] = null;
+            if (bits != null) {
+                bits[doc.ordinal >>> 6] &= ~(1L << doc.ordinal);
+            }
+            return true;
+        }
+
+        /**
+         * First position at or after {@code from} whose ordinal is not below the given one. Steps
+         * ahead a few entries, as intersecting similar-sized lists mostly needs, then gallops and
+         * bisects, so a sweep in ordinal order stays linear at worst.
+         */
+        int seek(int from, int ordinal) {
+            for (int end = Math.min(from + 8, size); from < end; from++) {
+                if (ordinals[from] >= ordinal) {
+                    return from;
+                }
+            }
+            int step = 1;
+            int high = from;
+            while (high < size && ordinals[high] < ordinal) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int found = Arrays.binarySearch(ordinals, from, high, ordinal);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+}
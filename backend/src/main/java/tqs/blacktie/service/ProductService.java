@@ -1,13 +1,24 @@
 package tqs.blacktie.service;
 
 import org.springframework.stereotype.Service;
+import tqs.blacktie.dto.AvailabilityCalendarResponse;
 import tqs.blacktie.dto.LocationDTO;
+import tqs.blacktie.dto.SuggestionResponse;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -15,30 +26,88 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
     private final LocationService locationService;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final ProductSearchIndex searchIndex;
+    private final ProductSuggestionIndex suggestionIndex;
+    private final ProductGeoIndex geoIndex;
+    private final PricingEngine pricingEngine;
 
-    public ProductService(ProductRepository productRepository, UserRepository userRepository, LocationService locationService) {
+    public ProductService(ProductRepository productRepository, UserRepository userRepository,
+            LocationService locationService, BookingAvailabilityIndex availabilityIndex,
+            ProductSearchIndex searchIndex, ProductSuggestionIndex suggestionIndex, ProductGeoIndex geoIndex,
+            PricingEngine pricingEngine) {
         this.productRepository = productRepository;
         this.userRepository = userRepository;
         this.locationService = locationService;
+        this.availabilityIndex = availabilityIndex;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.geoIndex = geoIndex;
+        this.pricingEngine = pricingEngine;
     }
 
+    /**
+     * Available products, filtered by name and maximum price when given; owners only see their own.
+     * A name is matched against the name, description, size and city of the products by the
+     * in-memory {@link ProductSearchIndex} and the products come back best match first.
+     */
     public List<Product> getAvailableProducts(String name, Double maxPrice, Long requesterId) {
-        var requester = userRepository.findById(requesterId)
-            .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + requesterId));
+        return getAvailableProducts(name, maxPrice, requesterId, null, null);
+    }
+
+    /**
+     * Same as {@link #getAvailableProducts(String, Double, Long)}, additionally dropping, when both
+     * dates are given, the products that could not be booked for [from, to]: those with an APPROVED
+     * or PAID booking, the buffer days of any booking (COMPLETED ones included) or an owner block-out
+     * overlapping it, the product's own buffer days after {@code to} counted. The date filter is
+     * answered by the in-memory availability index, one O(log n) lookup per product.
+     */
+    public List<Product> getAvailableProducts(String name, Double maxPrice, Long requesterId,
+            LocalDateTime from, LocalDateTime to) {
+        return getAvailableProducts(name, maxPrice, requesterId, from, to, null, null, null);
+    }
+
+    /**
+     * Same as {@link #getAvailableProducts(String, Double, Long, LocalDateTime, LocalDateTime)},
+     * additionally keeping only the products within radiusKm of the given coordinates when all three
+     * are given, nearest first. The radius is answered by the in-memory {@link ProductGeoIndex}, and a
+     * name narrows its hits to the ones the search index matched.
+     */
+    public List<Product> getAvailableProducts(String name, Double maxPrice, Long requesterId,
+            LocalDateTime from, LocalDateTime to, Double lat, Double lng, Double radiusKm) {
+        if ((from == null) != (to == null)) {
+            throw new IllegalArgumentException("Both from and to dates are required to filter by availability");
+        }
+        if (from != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Return date must be after booking date");
+        }
+
+        boolean near = lat != null || lng != null || radiusKm != null;
+        if (near && (lat == null || lng == null || radiusKm == null)) {
+            throw new IllegalArgumentException("Latitude, longitude and radius are all required to search near a location");
+        }
+
+        List<Product> products = near
+            ? findProductsNear(name, maxPrice, requesterId, lat, lng, radiusKm)
+            : findAvailableProducts(name, maxPrice, requesterId);
+        if (from == null) {
+            return products;
+        }
+        return products.stream()
+            .filter(product -> !availabilityIndex.hasOverlap(product.getId(), from, to))
+            .toList();
+    }
 
+    private List<Product> findAvailableProducts(String name, Double maxPrice, Long requesterId) {
+        User requester = findRequester(requesterId);
         boolean isOwner = User.ROLE_OWNER.equalsIgnoreCase(requester.getRole());
         String trimmedName = name != null && !name.isBlank() ? name : null;
 
+        if (trimmedName != null) {
+            return findRanked(searchIndex.search(trimmedName, isOwner ? requester.getId() : null, maxPrice));
+        }
+
         if (isOwner) {
-            if (trimmedName != null && maxPrice != null) {
-                return productRepository
-                    .findByOwnerAndAvailableTrueAndNameContainingIgnoreCaseAndPriceLessThanEqual(
-                        requester, trimmedName, maxPrice);
-            }
-            if (trimmedName != null) {
-                return productRepository
-                    .findByOwnerAndAvailableTrueAndNameContainingIgnoreCase(requester, trimmedName);
-            }
             if (maxPrice != null) {
                 return productRepository
                     .findByOwnerAndAvailableTrueAndPriceLessThanEqual(requester, maxPrice);
@@ -46,20 +115,50 @@ public class ProductService {
             return productRepository.findByOwnerAndAvailableTrue(requester);
         }
 
-        if (trimmedName != null && maxPrice != null) {
-            return productRepository
-                .findByAvailableTrueAndNameContainingIgnoreCaseAndPriceLessThanEqual(trimmedName, maxPrice);
+        if (maxPrice != null) {
+            return productRepository.findByAvailableTrueAndPriceLessThanEqual(maxPrice);
         }
 
-        if (trimmedName != null) {
-            return productRepository.findByAvailableTrueAndNameContainingIgnoreCase(trimmedName);
+        return productRepository.findByAvailableTrue();
+    }
+
+    private List<Product> findProductsNear(String name, Double maxPrice, Long requesterId,
+            double lat, double lng, double radiusKm) {
+        User requester = findRequester(requesterId);
+        Long ownerId = User.ROLE_OWNER.equalsIgnoreCase(requester.getRole()) ? requester.getId() : null;
+
+        List<Long> productIds = geoIndex.near(lat, lng, radiusKm, ownerId, maxPrice);
+        if (name != null && !name.isBlank() && !productIds.isEmpty()) {
+            Set<Long> matching = new HashSet<>(searchIndex.search(name, ownerId, maxPrice));
+            productIds = productIds.stream().filter(matching::contains).toList();
         }
+        return findRanked(productIds);
+    }
 
-        if (maxPrice != null) {
-            return productRepository.findByAvailableTrueAndPriceLessThanEqual(maxPrice);
+    private User findRequester(Long requesterId) {
+        return userRepository.findById(requesterId)
+            .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + requesterId));
+    }
+
+    // Loads the matched products by primary key, keeping the index's ranking
+    private List<Product> findRanked(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
         }
+        Map<Long, Product> byId = productRepository.findAllById(productIds).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return productIds.stream()
+            .map(byId::get)
+            .filter(product -> product != null && Boolean.TRUE.equals(product.getAvailable()))
+            .toList();
+    }
 
-        return productRepository.findByAvailableTrue();
+    /**
+     * Product names, sizes and cities completing what is typed in the search box, answered by the
+     * in-memory {@link ProductSuggestionIndex}.
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
     }
 
     public Product createProduct(Product product, Long ownerId) {
@@ -75,6 +174,12 @@ public class ProductService {
         if (product.getAvailable() == null) {
             product.setAvailable(true);
         }
+        if (product.getBufferDays() == null) {
+            product.setBufferDays(0);
+        } else if (product.getBufferDays() < 0 || product.getBufferDays() > ProductBlackoutService.MAX_BUFFER_DAYS) {
+            throw new IllegalArgumentException(
+                "Buffer days must be between 0 and " + ProductBlackoutService.MAX_BUFFER_DAYS);
+        }
         
         // Geocode location if address is provided
         if (product.getAddress() != null && !product.getAddress().isBlank()) {
@@ -98,7 +203,11 @@ public class ProductService {
             product.setPostalCode(location.getPostalCode());
         }
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        searchIndex.add(saved);
+        suggestionIndex.add(saved);
+        geoIndex.add(saved);
+        return saved;
     }
 
     public void deleteProduct(Long productId, Long userId) {
@@ -123,5 +232,33 @@ public class ProductService {
         // Mark product as unavailable instead of deleting to preserve referential integrity
         product.setAvailable(false);
         productRepository.save(product);
+        searchIndex.remove(productId);
+        suggestionIndex.remove(productId);
+        geoIndex.remove(productId);
+        pricingEngine.evict(productId);
+    }
+
+    public AvailabilityCalendarResponse getAvailabilityCalendar(Long productId, LocalDate from, LocalDate to) {
+        if (!productRepository.existsById(productId)) {
+            throw new IllegalArgumentException("Product not found with id: " + productId);
+        }
+
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusMonths(1);
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+
+        // Served from the in-memory day bitmap, the bookings table is never read here
+        BitSet busyDays = availabilityIndex.busyDays(productId, start, end);
+
+        List<AvailabilityCalendarResponse.BusyRange> busy = new ArrayList<>();
+        for (int first = busyDays.nextSetBit(0); first >= 0; first = busyDays.nextSetBit(first)) {
+            int last = busyDays.nextClearBit(first) - 1;
+            busy.add(new AvailabilityCalendarResponse.BusyRange(start.plusDays(first), start.plusDays(last)));
+            first = last + 1;
+        }
+
+        return new AvailabilityCalendarResponse(productId, start, end, busy);
     }
 }
@@ -0,0 +1,500 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+import tqs.blacktie.dto.SuggestionResponse;
+import tqs.blacktie.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory completion index over the names of the available products and the sizes and cities
+ * they come in, answering the search box's suggestions without touching the database.
+ *
+ * Labels are folded like the search terms (lower case, no accents, punctuation as spaces) and kept
+ * in a compressed radix trie, once from the start of each of their words so "smok" completes
+ * "Black Smoking". Every node keeps the {@value #MAX_SUGGESTIONS} heaviest entries found below it,
+ * so a suggestion is a walk down the typed prefix and a copy of that list, whatever the size of the
+ * catalog. Products weigh the bookings they had when the index was built; sizes and cities weigh
+ * the number of available products carrying them.
+ *
+ * The index is rebuilt at startup and kept current by the services creating and deleting products;
+ * changes made inside a transaction are applied once it commits.
+ */
+@Component
+public class ProductSuggestionIndex {
+
+    static final int MAX_SUGGESTIONS = 10;
+
+    enum Type {
+        PRODUCT, SIZE, CITY
+    }
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+    private static final Comparator<Entry> HEAVIEST_FIRST = Comparator.comparingLong((Entry entry) -> entry.weight)
+        .reversed()
+        .thenComparing(entry -> entry.type)
+        .thenComparing(entry -> entry.label)
+        .thenComparing(entry -> entry.id, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node("");
+    // What each product put in the trie, to take it out again
+    private final Map<Long, Listing> listingsById = new HashMap<>();
+    // Size and city entries by type and folded label, with the number of products carrying them
+    private final Map<String, Facet> facets = new HashMap<>();
+    private Map<Long, Long> bookingsByProduct = Map.of();
+
+    /**
+     * Replaces the whole index with the given products, weighing each by its bookings.
+     */
+    public void rebuild(Collection<Product> products, Map<Long, Long> bookingsByProduct) {
+        lock.writeLock().lock();
+        try {
+            root = new Node("");
+            listingsById.clear();
+            facets.clear();
+            this.bookingsByProduct = Map.copyOf(bookingsByProduct);
+            for (Product product : products) {
+                if (isListed(product)) {
+                    list(product.getId(), product.getName(), product.getSize(), product.getCity(), false);
+                }
+            }
+            // Facets are inserted once with their final weight, and every node ranked once
+            for (Facet facet : facets.values()) {
+                facet.entry = new Entry(facet.type, null, facet.label, facet.products);
+                insert(facet.entry, false);
+            }
+            rank(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lists the product, replacing what was listed for it before. A product that is not available
+     * is removed instead.
+     */
+    public void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        if (!isListed(product)) {
+            remove(product.getId());
+            return;
+        }
+        // Read now, while the entity still holds what is being committed
+        Long productId = product.getId();
+        String name = product.getName();
+        String size = product.getSize();
+        String city = product.getCity();
+        AfterCommit.run(() -> write(() -> {
+            unlist(productId);
+            list(productId, name, size, city, true);
+        }));
+    }
+
+    public void remove(Long productId) {
+        AfterCommit.run(() -> write(() -> unlist(productId)));
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return listingsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products, sizes and cities with a word starting with the typed prefix, heaviest first.
+     *
+     * @param limit at most this many, between 1 and {@value #MAX_SUGGESTIONS}
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        String key = prefix == null ? "" : normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        Entry[] top;
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node == null) {
+                return List.of();
+            }
+            // Writers replace the array rather than change it, so it can be read after unlocking
+            top = node.top;
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SuggestionResponse> suggestions = new ArrayList<>(Math.min(limit, top.length));
+        for (int i = 0; i < top.length && i < limit; i++) {
+            suggestions.add(new SuggestionResponse(top[i].type.name(), top[i].id, top[i].label));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Lower-cases the text, strips its diacritics and reduces everything but letters and digits to
+     * single spaces between words.
+     */
+    static String normalize(String text) {
+        String folded = ProductTextAnalyzer.fold(text);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (!normalized.isEmpty() && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        if (!normalized.isEmpty() && normalized.charAt(normalized.length() - 1) == ' ') {
+            normalized.setLength(normalized.length() - 1);
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isListed(Product product) {
+        return product.getId() != null && Boolean.TRUE.equals(product.getAvailable());
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void list(Long productId, String name, String size, String city, boolean live) {
+        Entry nameEntry = null;
+        if (name != null && !normalize(name).isEmpty()) {
+            nameEntry = new Entry(Type.PRODUCT, productId, name.trim(), bookingsByProduct.getOrDefault(productId, 0L));
+            if (live) {
+                insert(nameEntry, true);
+            }
+        }
+        String sizeKey = countFacet(Type.SIZE, size, live);
+        String cityKey = countFacet(Type.CITY, city, live);
+        listingsById.put(productId, new Listing(nameEntry, sizeKey, cityKey));
+        if (!live && nameEntry != null) {
+            insert(nameEntry, false);
+        }
+    }
+
+    private void unlist(Long productId) {
+        Listing listing = listingsById.remove(productId);
+        if (listing == null) {
+            return;
+        }
+        if (listing.name != null) {
+            delete(listing.name);
+        }
+        uncountFacet(listing.sizeKey);
+        uncountFacet(listing.cityKey);
+    }
+
+    // Counts one more product carrying the label, re-weighing its entry when live
+    private String countFacet(Type type, String label, boolean live) {
+        String normalized = label == null ? "" : normalize(label);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String key = type + ":" + normalized;
+        Facet facet = facets.computeIfAbsent(key, k -> new Facet(type, label.trim()));
+        facet.products++;
+        if (live) {
+            reweigh(facet);
+        }
+        return key;
+    }
+
+    private void uncountFacet(String key) {
+        Facet facet = key == null ? null : facets.get(key);
+        if (facet == null) {
+            return;
+        }
+        facet.products--;
+        if (facet.products == 0) {
+            facets.remove(key);
+        }
+        reweigh(facet);
+    }
+
+    private void reweigh(Facet facet) {
+        if (facet.entry != null) {
+            delete(facet.entry);
+            facet.entry = null;
+        }
+        if (facet.products > 0) {
+            facet.entry = new Entry(facet.type, null, facet.label, facet.products);
+            insert(facet.entry, true);
+        }
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = indexOf(node, key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.edge, key, i);
+            if (i + common == key.length()) {
+                // The prefix ends on this edge, everything below completes it
+                return child;
+            }
+            if (common < child.edge.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private void insert(Entry entry, boolean rank) {
+        for (String key : entry.keys) {
+            insert(key, entry, rank);
+        }
+    }
+
+    private void insert(String key, Entry entry, boolean rank) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = indexOf(node, key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.children = insertAt(node.children, -index - 1, leaf);
+                path.add(leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.edge, key, i);
+            if (common < child.edge.length()) {
+                // Split the edge where the key leaves it
+                Node split = new Node(child.edge.substring(0, common));
+                child.edge = child.edge.substring(common);
+                split.children = new Node[] {child};
+                split.top = child.top;
+                node.children[index] = split;
+                child = split;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        if (node.entries == null) {
+            node.entries = new ArrayList<>(1);
+        }
+        node.entries.add(entry);
+        if (rank) {
+            for (int d = path.size() - 1; d >= 0; d--) {
+                rankNode(path.get(d));
+            }
+        }
+    }
+
+    private void delete(Entry entry) {
+        for (String key : entry.keys) {
+            delete(key, entry);
+        }
+    }
+
+    private void delete(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = indexOf(node, key.charAt(i));
+            if (index < 0 || !key.startsWith(node.children[index].edge, i)) {
+                return;
+            }
+            node = node.children[index];
+            path.add(node);
+            i += node.edge.length();
+        }
+        if (node.entries == null || !node.entries.remove(entry)) {
+            return;
+        }
+        if (node.entries.isEmpty()) {
+            node.entries = null;
+        }
+        // Drop the nodes left empty and merge the ones left with a single child, keeping it compressed
+        for (int d = path.size() - 1; d > 0; d--) {
+            Node current = path.get(d);
+            Node parent = path.get(d - 1);
+            if (current.entries == null && current.children.length <= 1) {
+                int index = indexOf(parent, current.edge.charAt(0));
+                if (current.children.length == 0) {
+                    parent.children = removeAt(parent.children, index);
+                } else {
+                    Node only = current.children[0];
+                    only.edge = current.edge + only.edge;
+                    parent.children[index] = only;
+                }
+            } else {
+                rankNode(current);
+            }
+        }
+        rankNode(root);
+    }
+
+    private void rank(Node node) {
+        for (Node child : node.children) {
+            rank(child);
+        }
+        rankNode(node);
+    }
+
+    // Keeps the heaviest entries ending at the node or below it, each once
+    private static void rankNode(Node node) {
+        List<Entry> candidates = new ArrayList<>();
+        if (node.entries != null) {
+            candidates.addAll(node.entries);
+        }
+        for (Node child : node.children) {
+            Collections.addAll(candidates, child.top);
+        }
+        candidates.sort(HEAVIEST_FIRST);
+        Entry[] top = new Entry[Math.min(MAX_SUGGESTIONS, candidates.size())];
+        Set<Entry> seen = new HashSet<>();
+        int count = 0;
+        for (int i = 0; i < candidates.size() && count < top.length; i++) {
+            // A label with two words starting alike is found twice below their common prefix
+            if (seen.add(candidates.get(i))) {
+                top[count++] = candidates.get(i);
+            }
+        }
+        node.top = count == top.length ? top : Arrays.copyOf(top, count);
+    }
+
+    private static int indexOf(Node node, char c) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char first = node.children[mid].edge.charAt(0);
+            if (first < c) {
+                low = mid + 1;
+            } else if (first > c) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int commonPrefix(String edge, String key, int from) {
+        int length = Math.min(edge.length(), key.length() - from);
+        int common = 0;
+        while (common < length && edge.charAt(common) == key.charAt(from + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static Node[] insertAt(Node[] children, int index, Node child) {
+        Node[] grown = new Node[children.length + 1];
+        System.arraycopy(children, 0, grown, 0, index);
+        grown[index] = child;
+        System.arraycopy(children, index, grown, index + 1, children.length - index);
+        return grown;
+    }
+
+    private static Node[] removeAt(Node[] children, int index) {
+        if (children.length == 1) {
+            return NO_CHILDREN;
+        }
+        Node[] shrunk = new Node[children.length - 1];
+        System.arraycopy(children, 0, shrunk, 0, index);
+        System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+        return shrunk;
+    }
+
+    /**
+     * A suggestion as stored in the trie, under the folded label from the start of each word.
+     * Compared by identity: the same entry is removed from every key it was inserted under.
+     */
+    private static final class Entry {
+        final Type type;
+        final Long id;
+        final String label;
+        final long weight;
+        final Set<String> keys;
+
+        Entry(Type type, Long id, String label, long weight) {
+            this.type = type;
+            this.id = id;
+            this.label = label;
+            this.weight = weight;
+            this.keys = keys(normalize(label));
+        }
+
+        private static Set<String> keys(String normalized) {
+            Set<String> keys = new LinkedHashSet<>();
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    keys.add(normalized.substring(i));
+                }
+            }
+            return keys;
+        }
+    }
+
+    private static final class Node {
+        // Characters on the edge from the parent, never empty below the root
+        String edge;
+        // Sorted by the first character of their edge
+        Node[] children = NO_CHILDREN;
+        // Entries whose key ends exactly here, null when none
+        List<Entry> entries;
+        Entry[] top = NO_ENTRIES;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private static final class Facet {
+        final Type type;
+        final String label;
+        int products;
+        Entry entry;
+
+        Facet(Type type, String label) {
+            this.type = type;
+            this.label = label;
+        }
+    }
+
+    private record Listing(Entry name, String sizeKey, String cityKey) {
+    }
+}
@@ -0,0 +1,57 @@
+package tqs.blacktie.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits product text and search queries into the terms of the {@link ProductSearchIndex}.
+ *
+ * Text is lower-cased and decomposed (Unicode NFD) with its combining marks dropped, so
+ * "Cerimónia", "CERIMONIA" and "cerimonia" are the same word, then each word is reduced by the
+ * {@link PortugueseStemmer}. Both sides go through the same analysis, so a query term matches an
+ * indexed term exactly when they come out equal here.
+ */
+final class ProductTextAnalyzer {
+
+    private ProductTextAnalyzer() {
+    }
+
+    /**
+     * Stemmed, folded runs of letters and digits of the text, in order, repeats included.
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(PortugueseStemmer.stem(folded.substring(start, i)));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lower-cases the text and strips its diacritics.
+     */
+    static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+}
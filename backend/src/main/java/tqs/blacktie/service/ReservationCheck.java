@@ -0,0 +1,79 @@
+package tqs.blacktie.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Overlap checks made under the {@link ReservationLock} before dates are reserved.
+ *
+ * With the in-JVM lock every reservation goes through this node, so its
+ * {@link BookingAvailabilityIndex} is current and answers on its own. The advisory lock also
+ * serializes reservations made on other nodes, whose commits never reach this node's index, so the
+ * checks then read the bookings and block-outs of the product from the database instead, through
+ * the (product_id, status) and product_id indexes. Both answer the same question: buffer days after
+ * each return count the same way.
+ */
+@Component
+public class ReservationCheck {
+
+    static final String CLUSTER_WIDE_LOCK = "advisory";
+
+    // Statuses holding a product's dates, as indexed by BookingAvailabilityIndex. Completed rentals
+    // only matter through their buffer days, so older ones never match a new booking's dates
+    private static final List<String> RESERVED_STATUSES =
+            List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID, Booking.STATUS_COMPLETED);
+
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final BookingRepository bookingRepository;
+    private final ProductBlackoutRepository blackoutRepository;
+    private final boolean clusterWide;
+
+    public ReservationCheck(BookingAvailabilityIndex availabilityIndex,
+            BookingRepository bookingRepository,
+            ProductBlackoutRepository blackoutRepository,
+            @Value("${booking.reservation.lock:local}") String lockMode) {
+        this.availabilityIndex = availabilityIndex;
+        this.bookingRepository = bookingRepository;
+        this.blackoutRepository = blackoutRepository;
+        this.clusterWide = CLUSTER_WIDE_LOCK.equals(lockMode);
+    }
+
+    /**
+     * Checks if booking the product between the given dates (inclusive) would overlap a reserved
+     * booking or a block-out, the buffer days after both the existing bookings and this one
+     * included. Same as {@link BookingAvailabilityIndex#hasOverlap}.
+     */
+    public boolean isBooked(Product product, LocalDateTime from, LocalDateTime to) {
+        if (!clusterWide) {
+            return availabilityIndex.hasOverlap(product.getId(), from, to);
+        }
+        int buffer = bufferDaysOf(product);
+        return bookingRepository.existsOverlapping(product.getId(), RESERVED_STATUSES,
+                from.minusDays(buffer), to.plusDays(buffer))
+                || blackoutRepository.existsOverlapping(product.getId(), from, to.plusDays(buffer));
+    }
+
+    /**
+     * Same as {@link #isBooked} for dates that need no buffer after them, such as a block-out: only
+     * the buffers of the existing bookings count. Same as {@link BookingAvailabilityIndex#isBlocked}.
+     */
+    public boolean isBlocked(Product product, LocalDateTime from, LocalDateTime to) {
+        if (!clusterWide) {
+            return availabilityIndex.isBlocked(product.getId(), from, to);
+        }
+        return bookingRepository.existsOverlapping(product.getId(), RESERVED_STATUSES,
+                from.minusDays(bufferDaysOf(product)), to)
+                || blackoutRepository.existsOverlapping(product.getId(), from, to);
+    }
+
+    private static int bufferDaysOf(Product product) {
+        return product.getBufferDays() != null ? product.getBufferDays() : 0;
+    }
+}
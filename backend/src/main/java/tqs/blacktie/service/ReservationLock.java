@@ -0,0 +1,20 @@
+package tqs.blacktie.service;
+
+import java.util.Collection;
+
+/**
+ * Serializes reservations (overlap check followed by a write) of the same product.
+ *
+ * The lock is bound to the current transaction: once acquired it is held until the transaction
+ * commits or rolls back, so callers must run inside a {@code @Transactional} method.
+ */
+public interface ReservationLock {
+
+    void lock(Long productId);
+
+    /**
+     * Locks several products at once. Locks are taken in an order shared by every caller, so two
+     * transactions locking overlapping sets of products can never deadlock on each other.
+     */
+    void lockAll(Collection<Long> productIds);
+}
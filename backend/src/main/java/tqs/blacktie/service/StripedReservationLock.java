@@ -0,0 +1,79 @@
+package tqs.blacktie.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM reservation lock: a fixed table of lock stripes indexed by product id. Products that
+ * share a stripe are serialized together, which keeps memory constant regardless of catalog size.
+ * Only safe for single-node deployments, use {@link AdvisoryReservationLock} otherwise.
+ */
+@Component
+@ConditionalOnProperty(name = "booking.reservation.lock", havingValue = "local", matchIfMissing = true)
+public class StripedReservationLock implements ReservationLock {
+
+    private final ReentrantLock[] stripes;
+
+    public StripedReservationLock(@Value("${booking.reservation.stripes:64}") int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        // Round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void lock(Long productId) {
+        lockStripe(stripeIndex(productId));
+    }
+
+    /**
+     * Locks the stripes of the products in ascending stripe order, each stripe once. Ordering by
+     * product id would not be enough: unrelated products share stripes.
+     */
+    @Override
+    public void lockAll(Collection<Long> productIds) {
+        productIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .forEach(this::lockStripe);
+    }
+
+    private void lockStripe(int index) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Reservation lock requires an active transaction");
+        }
+        ReentrantLock stripe = stripes[index];
+        stripe.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripe.unlock();
+            }
+        });
+    }
+
+    int stripeIndex(Long productId) {
+        int hash = Long.hashCode(productId);
+        hash ^= (hash >>> 16);
+        return hash & (stripes.length - 1);
+    }
+
+    int stripeCount() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,176 @@
+package tqs.blacktie.service;
+
+import org.springframework.stereotype.Component;
+import tqs.blacktie.repository.WaitlistEntryRepository.WaitlistKey;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static tqs.blacktie.service.BookingAvailabilityIndex.toKey;
+
+/**
+ * In-memory index of the WAITING waitlist entries of every product.
+ *
+ * Each product keeps an immutable snapshot of its entries sorted by start date, laid out as an
+ * implicit balanced interval tree: the middle of every range is its root and carries the latest
+ * end date of the range. Finding the waiters whose dates overlap a freed interval therefore costs
+ * O(log n + k) for k matches, never a pass over the whole waitlist. As in
+ * {@link BookingAvailabilityIndex}, writers replace one product's snapshot atomically, readers
+ * never lock, and changes made inside a transaction are applied once it commits.
+ */
+@Component
+public class WaitlistIndex {
+
+    /**
+     * A waiting entry and the interval it waits for, in index keys.
+     */
+    record Waiter(long id, long start, long end) {
+    }
+
+    private final Map<Long, Waiters> waitersByProduct = new ConcurrentHashMap<>();
+
+    /**
+     * Waiters of the product whose dates overlap the given interval (bounds inclusive, index
+     * keys), in priority order.
+     */
+    List<Waiter> overlapping(Long productId, long from, long to) {
+        Waiters waiters = waitersByProduct.get(productId);
+        if (waiters == null) {
+            return List.of();
+        }
+        List<Waiter> found = new ArrayList<>();
+        waiters.collect(0, waiters.size(), from, to, found);
+        found.sort(Comparator.comparingLong(Waiter::id));
+        return found;
+    }
+
+    public void add(Long productId, Long entryId, LocalDateTime from, LocalDateTime to) {
+        Waiter waiter = new Waiter(entryId, toKey(from), toKey(to));
+        AfterCommit.run(() -> waitersByProduct.compute(productId,
+                (id, current) -> (current == null ? Waiters.EMPTY : current).with(waiter)));
+    }
+
+    public void remove(Long productId, Long entryId) {
+        AfterCommit.run(() -> waitersByProduct.computeIfPresent(productId, (id, current) -> {
+            Waiters updated = current.without(entryId);
+            return updated.size() == 0 ? null : updated;
+        }));
+    }
+
+    public void removeProduct(Long productId) {
+        AfterCommit.run(() -> waitersByProduct.remove(productId));
+    }
+
+    /**
+     * Replaces the whole index with the given waiting entries.
+     */
+    public void rebuild(Collection<WaitlistKey> keys) {
+        Map<Long, List<Waiter>> grouped = new HashMap<>();
+        for (WaitlistKey key : keys) {
+            grouped.computeIfAbsent(key.getProductId(), id -> new ArrayList<>())
+                    .add(new Waiter(key.getId(), toKey(key.getBookingDate()), toKey(key.getReturnDate())));
+        }
+
+        Map<Long, Waiters> rebuilt = new HashMap<>();
+        grouped.forEach((productId, waiters) -> rebuilt.put(productId, Waiters.of(waiters.toArray(new Waiter[0]))));
+
+        waitersByProduct.keySet().retainAll(rebuilt.keySet());
+        waitersByProduct.putAll(rebuilt);
+    }
+
+    public int size() {
+        return waitersByProduct.values().stream().mapToInt(Waiters::size).sum();
+    }
+
+    /**
+     * Immutable, start-sorted waiters of one product. For every range {@code [low, high)} of the
+     * implicit tree, {@code maxEnds[mid]} holds the latest end inside the range, so whole subtrees
+     * that end before the queried interval are skipped.
+     */
+    private static final class Waiters {
+
+        static final Waiters EMPTY = new Waiters(new Waiter[0]);
+
+        private static final Comparator<Waiter> BY_START =
+                Comparator.comparingLong(Waiter::start).thenComparingLong(Waiter::id);
+
+        private final Waiter[] sorted;
+        private final long[] maxEnds;
+
+        private Waiters(Waiter[] sorted) {
+            this.sorted = sorted;
+            this.maxEnds = new long[sorted.length];
+            buildMaxEnds(0, sorted.length);
+        }
+
+        static Waiters of(Waiter[] waiters) {
+            Arrays.sort(waiters, BY_START);
+            return new Waiters(waiters);
+        }
+
+        int size() {
+            return sorted.length;
+        }
+
+        private long buildMaxEnds(int low, int high) {
+            if (low >= high) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (low + high) >>> 1;
+            long max = Math.max(sorted[mid].end(), Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        void collect(int low, int high, long from, long to, List<Waiter> found) {
+            if (low >= high) {
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] < from) {
+                return;
+            }
+            collect(low, mid, from, to, found);
+            Waiter waiter = sorted[mid];
+            if (waiter.start() > to) {
+                // Everything to the right starts even later
+                return;
+            }
+            if (waiter.end() >= from) {
+                found.add(waiter);
+            }
+            collect(mid + 1, high, from, to, found);
+        }
+
+        Waiters with(Waiter waiter) {
+            Waiter[] base = without(waiter.id()).sorted;
+            int at = Arrays.binarySearch(base, waiter, BY_START);
+            at = at < 0 ? -at - 1 : at;
+
+            Waiter[] updated = new Waiter[base.length + 1];
+            System.arraycopy(base, 0, updated, 0, at);
+            updated[at] = waiter;
+            System.arraycopy(base, at, updated, at + 1, base.length - at);
+            return new Waiters(updated);
+        }
+
+        Waiters without(long id) {
+            for (int i = 0; i < sorted.length; i++) {
+                if (sorted[i].id() == id) {
+                    Waiter[] updated = new Waiter[sorted.length - 1];
+                    System.arraycopy(sorted, 0, updated, 0, i);
+                    System.arraycopy(sorted, i + 1, updated, i, sorted.length - i - 1);
+                    return new Waiters(updated);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package tqs.blacktie.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.WaitlistEntryResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.entity.WaitlistEntry;
+import tqs.blacktie.repository.ProductRepository;
+import tqs.blacktie.repository.UserRepository;
+import tqs.blacktie.repository.WaitlistEntryRepository;
+import tqs.blacktie.service.WaitlistIndex.Waiter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Waitlists of renters who found a product already booked for the dates they wanted.
+ *
+ * Whenever a booking is cancelled or rejected, the waiters of its product whose dates overlap the
+ * booking are looked up in the {@link WaitlistIndex}, and those whose dates are now entirely free
+ * are notified in the order they joined. Notified entries leave the waitlist; the others keep
+ * waiting for the next release.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final BookingAvailabilityIndex availabilityIndex;
+    private final WaitlistIndex waitlistIndex;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    public WaitlistService(WaitlistEntryRepository waitlistRepository,
+            UserRepository userRepository,
+            ProductRepository productRepository,
+            BookingAvailabilityIndex availabilityIndex,
+            WaitlistIndex waitlistIndex,
+            NotificationService notificationService,
+            PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.waitlistIndex = waitlistIndex;
+        this.notificationService = notificationService;
+        // Releases are matched after the releasing transaction committed, so they need their own
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public WaitlistEntryResponse join(Long userId, BookingRequest request) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+
+        Product product = productRepository.findById(request.getProductId())
+                .orElseThrow(
+                        () -> new IllegalArgumentException("Product not found with id: " + request.getProductId()));
+
+        if (product.getAvailable() == null || !product.getAvailable()) {
+            throw new IllegalStateException("Product is not available for booking");
+        }
+        if (request.getReturnDate().isBefore(request.getBookingDate())) {
+            throw new IllegalArgumentException("Return date must be after booking date");
+        }
+        if (request.getBookingDate().isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Booking date cannot be in the past");
+        }
+
+        // Only dates that are actually taken can be waited for
+        if (!availabilityIndex.hasOverlap(product.getId(), request.getBookingDate(), request.getReturnDate())) {
+            throw new IllegalStateException("Product is available for the selected dates");
+        }
+        if (waitlistRepository.existsByUserIdAndProductIdAndBookingDateAndReturnDateAndStatus(userId,
+                product.getId(), request.getBookingDate(), request.getReturnDate(), WaitlistEntry.STATUS_WAITING)) {
+            throw new IllegalStateException("You are already on the waitlist for these dates");
+        }
+
+        WaitlistEntry entry = waitlistRepository.save(
+                new WaitlistEntry(user, product, request.getBookingDate(), request.getReturnDate()));
+        waitlistIndex.add(product.getId(), entry.getId(), entry.getBookingDate(), entry.getReturnDate());
+        return convertToResponse(entry);
+    }
+
+    public List<WaitlistEntryResponse> getUserEntries(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found with id: " + userId);
+        }
+        return waitlistRepository.findByUserIdOrderByIdDesc(userId).stream()
+                .map(this::convertToResponse)
+                .toList();
+    }
+
+    @Transactional
+    public void leave(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new IllegalArgumentException("Waitlist entry not found with id: " + entryId));
+
+        if (!entry.getUser().getId().equals(userId)) {
+            throw new IllegalStateException("User is not authorized to leave this waitlist entry");
+        }
+        if (!WaitlistEntry.STATUS_WAITING.equals(entry.getStatus())) {
+            throw new IllegalStateException("Waitlist entry is no longer waiting");
+        }
+
+        entry.setStatus(WaitlistEntry.STATUS_CANCELLED);
+        waitlistRepository.save(entry);
+        waitlistIndex.remove(entry.getProduct().getId(), entry.getId());
+    }
+
+    /**
+     * Notifies the waiters of the booking's dates once the change that freed them commits. Must be
+     * called after the availability index was synced with that change.
+     */
+    public void datesReleased(Booking booking) {
+        if (booking == null || booking.getProduct() == null || booking.getBookingDate() == null
+                || booking.getReturnDate() == null) {
+            return;
+        }
+        Integer bufferDays = booking.getProduct().getBufferDays();
+        datesReleased(booking.getProduct().getId(), booking.getBookingDate(),
+                booking.getReturnDate().plusDays(bufferDays != null ? bufferDays : 0));
+    }
+
+    /**
+     * Same as {@link #datesReleased(Booking)} for any interval of the product freed by a change
+     * that is committing, such as a removed block-out.
+     */
+    public void datesReleased(Long productId, LocalDateTime from, LocalDateTime to) {
+        long fromKey = BookingAvailabilityIndex.toKey(from);
+        long toKey = BookingAvailabilityIndex.toKey(to);
+        AfterCommit.run(() -> notifyWaiters(productId, fromKey, toKey));
+    }
+
+    /**
+     * Drops every waitlist entry of the user, whose account is being deleted.
+     */
+    public void removeAllForUser(Long userId) {
+        waitlistRepository.findKeysByUserId(userId)
+                .forEach(key -> waitlistIndex.remove(key.getProductId(), key.getId()));
+        waitlistRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Drops every waitlist entry of the product, which is being deleted.
+     */
+    public void removeAllForProduct(Long productId) {
+        waitlistRepository.deleteByProductId(productId);
+        waitlistIndex.removeProduct(productId);
+    }
+
+    /**
+     * Notifies the waiters of the product overlapping the freed interval whose whole dates are now
+     * free, and returns how many were notified.
+     */
+    int notifyWaiters(Long productId, long from, long to) {
+        List<Long> free = waitlistIndex.overlapping(productId, from, to).stream()
+                .filter(waiter -> !availabilityIndex.hasOverlap(productId, waiter.start(), waiter.end()))
+                .map(Waiter::id)
+                .toList();
+        if (free.isEmpty()) {
+            return 0;
+        }
+        try {
+            Integer notified = transactionTemplate.execute(status -> {
+                List<WaitlistEntry> entries = waitlistRepository.lockByIdInAndStatus(
+                        free, WaitlistEntry.STATUS_WAITING);
+                LocalDateTime now = LocalDateTime.now();
+                for (WaitlistEntry entry : entries) {
+                    entry.setStatus(WaitlistEntry.STATUS_NOTIFIED);
+                    entry.setNotifiedAt(now);
+                    waitlistIndex.remove(productId, entry.getId());
+                }
+                notificationService.createWaitlistSlotAvailableNotifications(entries);
+                return entries.size();
+            });
+            return notified == null ? 0 : notified;
+        } catch (RuntimeException e) {
+            // The release itself already committed; the waiters stay indexed for the next one
+            logger.warn("Notifying the waitlist of product {} failed", productId, e);
+            return 0;
+        }
+    }
+
+    private WaitlistEntryResponse convertToResponse(WaitlistEntry entry) {
+        return new WaitlistEntryResponse(entry.getId(), entry.getProduct().getId(), entry.getProduct().getName(),
+                entry.getBookingDate(), entry.getReturnDate(), entry.getStatus(), entry.getCreatedAt(),
+                entry.getNotifiedAt());
+    }
+}
@@ -0,0 +1,74 @@
+package tqs.blacktie.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Times of the operations of a benchmark run, for its percentiles. Callers warm the code up before
+ * recording, so the figures measure compiled code.
+ */
+public final class Latencies {
+
+    private final long[] nanos;
+    private int count;
+    private boolean sorted;
+
+    public Latencies(int capacity) {
+        this.nanos = new long[capacity];
+    }
+
+    /**
+     * Runs the operation, records how long it took and returns its result.
+     */
+    public <T> T time(Supplier<T> operation) {
+        long started = System.nanoTime();
+        T result = operation.get();
+        record(System.nanoTime() - started);
+        return result;
+    }
+
+    public void record(long elapsedNanos) {
+        nanos[count++] = elapsedNanos;
+        sorted = false;
+    }
+
+    public Duration percentile(int percent) {
+        if (count == 0) {
+            throw new IllegalStateException("Nothing recorded");
+        }
+        if (!sorted) {
+            Arrays.sort(nanos, 0, count);
+            sorted = true;
+        }
+        return Duration.ofNanos(nanos[Math.min(count - 1, count * percent / 100)]);
+    }
+
+    public Duration p50() {
+        return percentile(50);
+    }
+
+    public Duration p99() {
+        return percentile(99);
+    }
+
+    public Duration mean() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += nanos[i];
+        }
+        return Duration.ofNanos(total / Math.max(1, count));
+    }
+
+    /**
+     * Mean, median and 99th percentile in microseconds, for the benchmark's log line.
+     */
+    @Override
+    public String toString() {
+        return String.format("mean %.1f us, p50 %.1f us, p99 %.1f us", micros(mean()), micros(p50()), micros(p99()));
+    }
+
+    private static double micros(Duration duration) {
+        return duration.toNanos() / 1e3;
+    }
+}
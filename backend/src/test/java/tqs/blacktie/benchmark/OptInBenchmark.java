@@ -0,0 +1,21 @@
+package tqs.blacktie.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an opt-in benchmark: skipped unless run with {@code -Dbenchmark=true}, e.g.
+ * {@code mvn test -Dtest=ProductGeoIndexBenchmarkTest -Dbenchmark=true}. Benchmarks log their
+ * figures through SLF4J and assert the latency targets they were written for.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public @interface OptInBenchmark {
+}
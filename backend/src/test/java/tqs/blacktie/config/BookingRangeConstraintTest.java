@@ -0,0 +1,86 @@
+package tqs.blacktie.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookingRangeConstraint Tests")
+class BookingRangeConstraintTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private void databaseIs(String product) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(product);
+    }
+
+    @Test
+    @DisplayName("Installs the range column and the exclusion constraint on PostgreSQL")
+    void installsOnPostgres() {
+        databaseIs("PostgreSQL");
+        when(jdbcTemplate.queryForObject(BookingRangeConstraint.CONSTRAINT_EXISTS, Boolean.class,
+                BookingRangeConstraint.NAME)).thenReturn(false);
+
+        new BookingRangeConstraint(jdbcTemplate, true).run();
+
+        verify(jdbcTemplate).execute(BookingRangeConstraint.CREATE_EXTENSION);
+        verify(jdbcTemplate).execute(BookingRangeConstraint.ADD_RANGE_COLUMN);
+        verify(jdbcTemplate).execute(BookingRangeConstraint.ADD_CONSTRAINT);
+    }
+
+    @Test
+    @DisplayName("Does not add the constraint twice")
+    void skipsExistingConstraint() {
+        databaseIs("PostgreSQL");
+        when(jdbcTemplate.queryForObject(BookingRangeConstraint.CONSTRAINT_EXISTS, Boolean.class,
+                BookingRangeConstraint.NAME)).thenReturn(true);
+
+        new BookingRangeConstraint(jdbcTemplate, true).run();
+
+        verify(jdbcTemplate).execute(BookingRangeConstraint.ADD_RANGE_COLUMN);
+        verify(jdbcTemplate, never()).execute(BookingRangeConstraint.ADD_CONSTRAINT);
+    }
+
+    @Test
+    @DisplayName("Leaves other databases alone")
+    void skipsOtherDatabases() {
+        databaseIs("H2");
+
+        new BookingRangeConstraint(jdbcTemplate, true).run();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("Does nothing when disabled")
+    void skipsWhenDisabled() {
+        new BookingRangeConstraint(jdbcTemplate, false).run();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Keeps starting when the constraint cannot be added")
+    void survivesOverlappingRows() {
+        databaseIs("PostgreSQL");
+        when(jdbcTemplate.queryForObject(BookingRangeConstraint.CONSTRAINT_EXISTS, Boolean.class,
+                BookingRangeConstraint.NAME)).thenReturn(false);
+        lenient().doThrow(new DataIntegrityViolationException("conflicting key value violates exclusion constraint"))
+                .when(jdbcTemplate).execute(BookingRangeConstraint.ADD_CONSTRAINT);
+
+        BookingRangeConstraint constraint = new BookingRangeConstraint(jdbcTemplate, true);
+
+        assertThatCode(constraint::run).doesNotThrowAnyException();
+    }
+}
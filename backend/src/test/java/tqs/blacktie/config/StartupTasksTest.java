@@ -0,0 +1,45 @@
+package tqs.blacktie.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.annotation.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StartupTasks Tests")
+class StartupTasksTest {
+
+    static final List<String> ran = new ArrayList<>();
+
+    @Order(2)
+    static class IndexLoader implements StartupTask {
+        @Override
+        public void run() {
+            ran.add("index");
+        }
+    }
+
+    @Order(1)
+    static class DataLoader implements StartupTask {
+        @Override
+        public void run() {
+            ran.add("data");
+        }
+    }
+
+    @Test
+    @DisplayName("Runs every task once, in order, while the context is being refreshed")
+    void runsTasksInOrderDuringRefresh() {
+        ran.clear();
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(IndexLoader.class, DataLoader.class, StartupTasks.class);
+            context.refresh();
+
+            assertThat(ran).containsExactly("data", "index");
+        }
+    }
+}
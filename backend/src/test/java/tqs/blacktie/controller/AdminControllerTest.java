@@ -11,13 +11,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import tqs.blacktie.dto.AdminUserResponse;
+import tqs.blacktie.dto.BookingReplayResponse;
 import tqs.blacktie.dto.PlatformMetricsResponse;
+import tqs.blacktie.dto.PricingRuleRequest;
+import tqs.blacktie.dto.PricingRuleResponse;
 import tqs.blacktie.dto.SetRoleRequest;
 import tqs.blacktie.dto.UpdateUserStatusRequest;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.service.AdminService;
+import tqs.blacktie.service.BookingEventLog;
+import tqs.blacktie.service.BookingExportService;
+import tqs.blacktie.service.PricingService;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +41,15 @@ class AdminControllerTest {
     @Mock
     private AdminService adminService;
 
+    @Mock
+    private PricingService pricingService;
+
+    @Mock
+    private BookingExportService exportService;
+
+    @Mock
+    private BookingEventLog eventLog;
+
     @InjectMocks
     private AdminController adminController;
 
@@ -438,4 +454,162 @@ class AdminControllerTest {
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         }
     }
+
+    @Nested
+    @DisplayName("Booking Export Tests")
+    class BookingExportTests {
+
+        @Test
+        @DisplayName("Should stream every booking to admins")
+        void whenAdminExports_thenStreamAllBookings() {
+            when(adminService.isAdmin(1L)).thenReturn(true);
+
+            ResponseEntity<Object> response = adminController.exportBookings(1L, "ndjson");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        }
+
+        @Test
+        @DisplayName("Should forbid non-admins from exporting")
+        void whenNotAdmin_thenReturnForbidden() {
+            when(adminService.isAdmin(2L)).thenReturn(false);
+
+            ResponseEntity<Object> response = adminController.exportBookings(2L, "csv");
+
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            verifyNoInteractions(exportService);
+        }
+
+        @Test
+        @DisplayName("Should return bad request for an unknown format")
+        void whenUnknownFormat_thenReturnBadRequest() {
+            when(adminService.isAdmin(1L)).thenReturn(true);
+
+            ResponseEntity<Object> response = adminController.exportBookings(1L, "pdf");
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("Booking Event Log Tests")
+    class BookingEventLogTests {
+
+        @Test
+        @DisplayName("Should replay a booking's events")
+        void whenReplayBooking_thenReturnState() {
+            BookingReplayResponse replay = new BookingReplayResponse(7L, "PAID", false, 3, LocalDateTime.now(),
+                    Map.of("status", "PAID"));
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(eventLog.replay(7L)).thenReturn(replay);
+
+            ResponseEntity<Object> response = adminController.replayBooking(1L, 7L);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(replay, response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return not found for a booking without events")
+        void whenReplayUnknownBooking_thenReturnNotFound() {
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(eventLog.replay(7L)).thenThrow(new IllegalArgumentException("No events recorded for booking: 7"));
+
+            ResponseEntity<Object> response = adminController.replayBooking(1L, 7L);
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should return bad request for an empty summary period")
+        void whenSummaryPeriodIsEmpty_thenReturnBadRequest() {
+            LocalDateTime now = LocalDateTime.now();
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(eventLog.countByType(now, now))
+                    .thenThrow(new IllegalArgumentException("A period with from before to is required"));
+
+            ResponseEntity<Object> response = adminController.getBookingEventSummary(1L, now, now);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should forbid non-admins from reading booking events")
+        void whenNotAdmin_thenReturnForbidden() {
+            when(adminService.isAdmin(2L)).thenReturn(false);
+
+            ResponseEntity<Object> response = adminController.getBookingEvents(2L, 7L);
+
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            verifyNoInteractions(eventLog);
+        }
+    }
+
+    @Nested
+    @DisplayName("Pricing Rule Tests")
+    class PricingRuleTests {
+
+        @Test
+        @DisplayName("Should list the pricing rules")
+        void whenGetPricingRules_thenReturnRules() {
+            PricingRuleResponse rule = new PricingRuleResponse(1L, "WEEKEND", 20.0, null, null, null, "Weekends");
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(pricingService.getRules()).thenReturn(List.of(rule));
+
+            ResponseEntity<Object> response = adminController.getPricingRules(1L);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(List.of(rule), response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should add a pricing rule")
+        void whenAddPricingRule_thenReturnCreated() {
+            PricingRuleRequest request = new PricingRuleRequest("LONG_RENTAL", -10.0, null, null, 7, null);
+            PricingRuleResponse rule = new PricingRuleResponse(2L, "LONG_RENTAL", -10.0, null, null, 7, null);
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(pricingService.addRule(request)).thenReturn(rule);
+
+            ResponseEntity<Object> response = adminController.addPricingRule(1L, request);
+
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertEquals(rule, response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return bad request for an invalid pricing rule")
+        void whenAddInvalidPricingRule_thenReturnBadRequest() {
+            PricingRuleRequest request = new PricingRuleRequest("SEASON", 30.0, null, null, null, null);
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            when(pricingService.addRule(request))
+                    .thenThrow(new IllegalArgumentException("A season needs a start and an end date"));
+
+            ResponseEntity<Object> response = adminController.addPricingRule(1L, request);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should forbid non-admins from changing pricing rules")
+        void whenNotAdmin_thenReturnForbidden() {
+            when(adminService.isAdmin(2L)).thenReturn(false);
+
+            ResponseEntity<Object> response = adminController.deletePricingRule(2L, 1L);
+
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            verifyNoInteractions(pricingService);
+        }
+
+        @Test
+        @DisplayName("Should return not found when deleting an unknown pricing rule")
+        void whenDeleteUnknownPricingRule_thenReturnNotFound() {
+            when(adminService.isAdmin(1L)).thenReturn(true);
+            doThrow(new IllegalArgumentException("Pricing rule not found with id: 9")).when(pricingService).deleteRule(9L);
+
+            ResponseEntity<Object> response = adminController.deletePricingRule(1L, 9L);
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        }
+    }
 }
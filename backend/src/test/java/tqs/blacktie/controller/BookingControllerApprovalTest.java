@@ -9,12 +9,17 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import tqs.blacktie.dto.ApproveBookingRequest;
+import tqs.blacktie.dto.BookingDecision;
+import tqs.blacktie.dto.BookingDecisionResult;
 import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.dto.BulkDecisionRequest;
 import tqs.blacktie.dto.RejectBookingRequest;
 import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.IdempotencyService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,6 +31,9 @@ class BookingControllerApprovalTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -33,6 +41,8 @@ class BookingControllerApprovalTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
         testBooking = new BookingResponse();
         testBooking.setId(1L);
         testBooking.setStatus("PENDING_APPROVAL");
@@ -42,7 +52,7 @@ class BookingControllerApprovalTest {
     void testGetPendingApprovalBookings_Success() {
         when(bookingService.getPendingApprovalBookings(1L)).thenReturn(Arrays.asList(testBooking));
 
-        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L);
+        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(bookingService).getPendingApprovalBookings(1L);
@@ -53,7 +63,7 @@ class BookingControllerApprovalTest {
         when(bookingService.getPendingApprovalBookings(1L))
             .thenThrow(new IllegalArgumentException("Not found"));
 
-        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L);
+        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -63,7 +73,7 @@ class BookingControllerApprovalTest {
         when(bookingService.getPendingApprovalBookings(1L))
             .thenThrow(new IllegalStateException("Not authorized"));
 
-        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L);
+        ResponseEntity<?> response = bookingController.getPendingApprovalBookings(1L, null, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
@@ -139,7 +149,7 @@ class BookingControllerApprovalTest {
     void testProcessPayment_Success() {
         when(bookingService.processPayment(1L, 1L)).thenReturn(testBooking);
 
-        ResponseEntity<?> response = bookingController.processPayment(1L, 1L);
+        ResponseEntity<?> response = bookingController.processPayment(1L, 1L, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         verify(bookingService).processPayment(1L, 1L);
@@ -150,7 +160,7 @@ class BookingControllerApprovalTest {
         when(bookingService.processPayment(anyLong(), anyLong()))
             .thenThrow(new IllegalArgumentException("Invalid"));
 
-        ResponseEntity<?> response = bookingController.processPayment(1L, 1L);
+        ResponseEntity<?> response = bookingController.processPayment(1L, 1L, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
@@ -160,8 +170,25 @@ class BookingControllerApprovalTest {
         when(bookingService.processPayment(anyLong(), anyLong()))
             .thenThrow(new IllegalStateException("Not authorized"));
 
-        ResponseEntity<?> response = bookingController.processPayment(1L, 1L);
+        ResponseEntity<?> response = bookingController.processPayment(1L, 1L, null);
 
         assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
     }
+
+    @Test
+    void testDecideBookings_ReturnsPerItemResults() {
+        List<BookingDecision> decisions = List.of(
+                new BookingDecision(1L, BookingDecision.APPROVE, "SHIPPING", null, null),
+                new BookingDecision(2L, BookingDecision.REJECT, null, null, "No"));
+        List<BookingDecisionResult> results = List.of(
+                BookingDecisionResult.applied(testBooking),
+                BookingDecisionResult.failed(2L, "Booking is not pending approval"));
+        when(bookingService.decideBookings(1L, decisions)).thenReturn(results);
+
+        ResponseEntity<List<BookingDecisionResult>> response =
+                bookingController.decideBookings(1L, new BulkDecisionRequest(decisions));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
 }
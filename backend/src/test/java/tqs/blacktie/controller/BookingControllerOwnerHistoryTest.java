@@ -33,11 +33,11 @@ class BookingControllerOwnerHistoryTest {
     void shouldReturnEmptyListWhenNoOwnerBookings() {
         when(bookingService.getOwnerBookings(42L)).thenReturn(Collections.emptyList());
 
-        ResponseEntity<List<BookingResponse>> response = bookingController.getOwnerBookings(42L);
+        ResponseEntity<?> response = bookingController.getOwnerBookings(42L, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody()).isEmpty();
+        assertThat((List<BookingResponse>) response.getBody()).isEmpty();
         verify(bookingService, times(1)).getOwnerBookings(42L);
     }
 
@@ -47,7 +47,7 @@ class BookingControllerOwnerHistoryTest {
         when(bookingService.getOwnerBookings(999L)).thenThrow(new IllegalArgumentException("Owner not found"));
 
         try {
-            bookingController.getOwnerBookings(999L);
+            bookingController.getOwnerBookings(999L, null, null);
         } catch (IllegalArgumentException e) {
             assertThat(e.getMessage()).isEqualTo("Owner not found");
         }
@@ -8,16 +8,28 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tqs.blacktie.dto.BookingPageRequest;
+import tqs.blacktie.dto.BookingPageResponse;
 import tqs.blacktie.dto.BookingRequest;
 import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.dto.CartBookingRequest;
 import tqs.blacktie.dto.RequestDepositRequest;
+import tqs.blacktie.service.BookingExportService;
 import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.IdempotencyService;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +43,12 @@ class BookingControllerTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private BookingExportService exportService;
+
     @InjectMocks
     private BookingController bookingController;
 
@@ -39,6 +57,8 @@ class BookingControllerTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
         LocalDateTime bookingDate = LocalDateTime.now().plusDays(1);
         LocalDateTime returnDate = LocalDateTime.now().plusDays(3);
 
@@ -59,7 +79,7 @@ class BookingControllerTest {
             when(bookingService.createBooking(eq(1L), any(BookingRequest.class)))
                     .thenReturn(testResponse);
 
-            ResponseEntity<?> response = bookingController.createBooking(1L, testRequest);
+            ResponseEntity<?> response = bookingController.createBooking(1L, null, testRequest);
 
             assertEquals(HttpStatus.CREATED, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -75,7 +95,7 @@ class BookingControllerTest {
             when(bookingService.createBooking(eq(1L), any(BookingRequest.class)))
                     .thenThrow(new IllegalArgumentException("User not found"));
 
-            ResponseEntity<?> response = bookingController.createBooking(1L, testRequest);
+            ResponseEntity<?> response = bookingController.createBooking(1L, null, testRequest);
 
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
             assertEquals("User not found", response.getBody());
@@ -87,13 +107,42 @@ class BookingControllerTest {
             when(bookingService.createBooking(eq(1L), any(BookingRequest.class)))
                     .thenThrow(new IllegalStateException("Product not available"));
 
-            ResponseEntity<?> response = bookingController.createBooking(1L, testRequest);
+            ResponseEntity<?> response = bookingController.createBooking(1L, null, testRequest);
 
             assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
             assertEquals("Product not available", response.getBody());
         }
     }
 
+    @Nested
+    @DisplayName("Cart Booking Tests")
+    class CartBookingTests {
+
+        @Test
+        @DisplayName("Should create every booking of the cart")
+        void shouldCreateCart() {
+            when(bookingService.createCartBooking(1L, List.of(testRequest))).thenReturn(List.of(testResponse));
+
+            ResponseEntity<?> response = bookingController.createCartBooking(1L, null,
+                    new CartBookingRequest(List.of(testRequest)));
+
+            assertEquals(HttpStatus.CREATED, response.getStatusCode());
+            assertEquals(List.of(testResponse), response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return conflict when an item is already booked")
+        void shouldReturnConflict() {
+            when(bookingService.createCartBooking(1L, List.of(testRequest)))
+                    .thenThrow(new IllegalStateException("Product 1 is already booked for the selected dates"));
+
+            ResponseEntity<?> response = bookingController.createCartBooking(1L, null,
+                    new CartBookingRequest(List.of(testRequest)));
+
+            assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        }
+    }
+
     @Nested
     @DisplayName("Get Bookings Tests")
     class GetBookingsTests {
@@ -104,12 +153,13 @@ class BookingControllerTest {
             List<BookingResponse> bookings = Arrays.asList(testResponse);
             when(bookingService.getUserBookings(1L)).thenReturn(bookings);
 
-            ResponseEntity<List<BookingResponse>> response = bookingController.getUserBookings(1L);
+            ResponseEntity<?> response = bookingController.getUserBookings(1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
-            assertEquals(1, response.getBody().size());
-            assertEquals(1L, response.getBody().get(0).getId());
+            List<BookingResponse> body = (List<BookingResponse>) response.getBody();
+            assertEquals(1, body.size());
+            assertEquals(1L, body.get(0).getId());
             verify(bookingService, times(1)).getUserBookings(1L);
         }
 
@@ -119,11 +169,11 @@ class BookingControllerTest {
             List<BookingResponse> bookings = Arrays.asList(testResponse);
             when(bookingService.getAllBookings()).thenReturn(bookings);
 
-            ResponseEntity<List<BookingResponse>> response = bookingController.getAllBookings();
+            ResponseEntity<?> response = bookingController.getAllBookings(null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
-            assertEquals(1, response.getBody().size());
+            assertEquals(1, ((List<BookingResponse>) response.getBody()).size());
             verify(bookingService, times(1)).getAllBookings();
         }
 
@@ -159,7 +209,7 @@ class BookingControllerTest {
             List<BookingResponse> bookings = Arrays.asList(testResponse);
             when(bookingService.getBookingsByProduct(1L, 1L)).thenReturn(bookings);
 
-            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L);
+            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -174,11 +224,11 @@ class BookingControllerTest {
             List<BookingResponse> bookings = Arrays.asList(testResponse);
             when(bookingService.getOwnerBookings(10L)).thenReturn(bookings);
 
-            ResponseEntity<List<BookingResponse>> response = bookingController.getOwnerBookings(10L);
+            ResponseEntity<?> response = bookingController.getOwnerBookings(10L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
-            assertEquals(1, response.getBody().size());
+            assertEquals(1, ((List<BookingResponse>) response.getBody()).size());
             verify(bookingService, times(1)).getOwnerBookings(10L);
         }
 
@@ -188,7 +238,7 @@ class BookingControllerTest {
             when(bookingService.getBookingsByProduct(1L, 1L))
                     .thenThrow(new IllegalArgumentException("Product not found"));
 
-            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L);
+            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L, null, null);
 
             assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         }
@@ -199,11 +249,87 @@ class BookingControllerTest {
             when(bookingService.getBookingsByProduct(1L, 1L))
                     .thenThrow(new IllegalStateException("User is not authorized to view bookings for this product"));
 
-            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L);
+            ResponseEntity<?> response = bookingController.getBookingsByProduct(1L, 1L, null, null);
 
             assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
             assertEquals("User is not authorized to view bookings for this product", response.getBody());
         }
+
+        @Test
+        @DisplayName("Should return a keyset page when a limit is given")
+        void shouldReturnPageWhenLimitGiven() {
+            BookingPageResponse page = new BookingPageResponse(List.of(testResponse), "next");
+            when(bookingService.getAllBookings(any(BookingPageRequest.class))).thenReturn(page);
+
+            ResponseEntity<?> response = bookingController.getAllBookings(null, 1);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertSame(page, response.getBody());
+            verify(bookingService, never()).getAllBookings();
+        }
+
+        @Test
+        @DisplayName("Should page the bookings of a product and the pending approvals")
+        void shouldPageProductAndPendingBookings() {
+            BookingPageResponse page = new BookingPageResponse(List.of(testResponse), null);
+            when(bookingService.getBookingsByProduct(eq(1L), eq(10L), any(BookingPageRequest.class))).thenReturn(page);
+            when(bookingService.getPendingApprovalBookings(eq(10L), any(BookingPageRequest.class))).thenReturn(page);
+
+            assertSame(page, bookingController.getBookingsByProduct(1L, 10L, null, 5).getBody());
+            assertSame(page, bookingController.getPendingApprovalBookings(10L, null, 5).getBody());
+            verify(bookingService, never()).getBookingsByProduct(1L, 10L);
+            verify(bookingService, never()).getPendingApprovalBookings(10L);
+        }
+
+        @Test
+        @DisplayName("Should pass the decoded cursor to the service")
+        void shouldPassDecodedCursor() {
+            LocalDateTime after = LocalDateTime.of(2030, 1, 1, 10, 0);
+            String cursor = BookingPageRequest.cursorAfter(after, 42L);
+            when(bookingService.getOwnerBookings(eq(10L), any(BookingPageRequest.class)))
+                    .thenReturn(new BookingPageResponse(List.of(), null));
+
+            bookingController.getOwnerBookings(10L, cursor, null);
+
+            verify(bookingService).getOwnerBookings(10L,
+                    new BookingPageRequest(after, 42L, BookingPageRequest.DEFAULT_LIMIT));
+        }
+
+        @Test
+        @DisplayName("Should reject limits outside the allowed range")
+        void shouldRejectInvalidLimit() {
+            BookingPageRequest.InvalidPageException ex = assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getUserBookings(1L, null, 0));
+
+            assertEquals(HttpStatus.BAD_REQUEST, bookingController.handleInvalidPage(ex).getStatusCode());
+            verifyNoInteractions(bookingService);
+        }
+
+        @Test
+        @DisplayName("Should answer bad request rather than not found for a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            BookingPageRequest.InvalidPageException ex = assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getRenterHistory(1L, "not-a-cursor", null));
+
+            ResponseEntity<String> response = bookingController.handleInvalidPage(ex);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("Invalid cursor", response.getBody());
+            verifyNoInteractions(bookingService);
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor on every paged listing")
+        void shouldRejectMalformedCursorEverywhere() {
+            assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getAllBookings("not-a-cursor", null));
+            assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getOwnerBookings(10L, "not-a-cursor", null));
+            assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getBookingsByProduct(1L, 10L, "not-a-cursor", null));
+            assertThrows(BookingPageRequest.InvalidPageException.class,
+                    () -> bookingController.getPendingApprovalBookings(10L, null, 500));
+            verifyNoInteractions(bookingService);
+        }
     }
 
     @Nested
@@ -278,7 +404,7 @@ class BookingControllerTest {
 
             when(bookingService.getRenterHistory(1L)).thenReturn(history);
 
-            ResponseEntity<?> response = bookingController.getRenterHistory(1L);
+            ResponseEntity<?> response = bookingController.getRenterHistory(1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -296,7 +422,7 @@ class BookingControllerTest {
         void shouldReturnEmptyListWhenNoHistory() {
             when(bookingService.getRenterHistory(1L)).thenReturn(Arrays.asList());
 
-            ResponseEntity<?> response = bookingController.getRenterHistory(1L);
+            ResponseEntity<?> response = bookingController.getRenterHistory(1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -312,7 +438,7 @@ class BookingControllerTest {
             when(bookingService.getRenterHistory(999L))
                     .thenThrow(new IllegalArgumentException("User not found"));
 
-            ResponseEntity<?> response = bookingController.getRenterHistory(999L);
+            ResponseEntity<?> response = bookingController.getRenterHistory(999L, null, null);
 
             assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         }
@@ -336,7 +462,7 @@ class BookingControllerTest {
 
             when(bookingService.getActiveBookingsByRenter(1L)).thenReturn(activeBookings);
 
-            ResponseEntity<?> response = bookingController.getActiveBookings(1L);
+            ResponseEntity<?> response = bookingController.getActiveBookings(1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -353,7 +479,7 @@ class BookingControllerTest {
         void shouldReturnEmptyListWhenNoActiveBookings() {
             when(bookingService.getActiveBookingsByRenter(1L)).thenReturn(Arrays.asList());
 
-            ResponseEntity<?> response = bookingController.getActiveBookings(1L);
+            ResponseEntity<?> response = bookingController.getActiveBookings(1L, null, null);
 
             assertEquals(HttpStatus.OK, response.getStatusCode());
             assertNotNull(response.getBody());
@@ -369,7 +495,7 @@ class BookingControllerTest {
             when(bookingService.getActiveBookingsByRenter(999L))
                     .thenThrow(new IllegalArgumentException("User not found"));
 
-            ResponseEntity<?> response = bookingController.getActiveBookings(999L);
+            ResponseEntity<?> response = bookingController.getActiveBookings(999L, null, null);
 
             assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         }
@@ -541,6 +667,46 @@ class BookingControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Handover Tests")
+    class HandOverTests {
+
+        @Test
+        @DisplayName("Should hand over the booking of a delivery code")
+        void shouldHandOver() {
+            testResponse.setHandedOverAt(LocalDateTime.now());
+            when(bookingService.handOver("ABCD1234", 5L)).thenReturn(testResponse);
+
+            ResponseEntity<?> response = bookingController.handOver("ABCD1234", 5L);
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(testResponse, response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return not found for an unknown code")
+        void shouldReturnNotFoundForUnknownCode() {
+            when(bookingService.handOver("ZZZZ9999", 5L))
+                    .thenThrow(new IllegalArgumentException("No booking found for delivery code: ZZZZ9999"));
+
+            ResponseEntity<?> response = bookingController.handOver("ZZZZ9999", 5L);
+
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should return forbidden when the booking cannot be handed over")
+        void shouldReturnForbiddenWhenAlreadyHandedOver() {
+            when(bookingService.handOver("ABCD1234", 5L))
+                    .thenThrow(new IllegalStateException("Booking was already handed over"));
+
+            ResponseEntity<?> response = bookingController.handOver("ABCD1234", 5L);
+
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            assertEquals("Booking was already handed over", response.getBody());
+        }
+    }
+
     @Nested
     @DisplayName("Refund Deposit Tests")
     class RefundDepositTests {
@@ -619,4 +785,95 @@ class BookingControllerTest {
             assertTrue(response.getBody().toString().contains("completed bookings"));
         }
     }
+
+    @Nested
+    @DisplayName("Export Tests")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Should stream the owner's bookings as a CSV attachment")
+        void shouldStreamCsv() throws IOException {
+            ResponseEntity<?> response = bookingController.exportOwnerBookings(5L, "csv");
+
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals("text/csv", response.getHeaders().getContentType().toString());
+            assertEquals("attachment; filename=\"bookings.csv\"",
+                    response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+            verifyNoInteractions(exportService);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ((StreamingResponseBody) response.getBody()).writeTo(out);
+            verify(exportService).exportOwnerBookings(5L, BookingExportService.Format.CSV, out);
+        }
+
+        @Test
+        @DisplayName("Should accept NDJSON in any case")
+        void shouldStreamNdjson() {
+            ResponseEntity<?> response = bookingController.exportOwnerBookings(5L, "NDJSON");
+
+            assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        }
+
+        @Test
+        @DisplayName("Should return bad request for an unknown format")
+        void shouldRejectUnknownFormat() {
+            ResponseEntity<?> response = bookingController.exportOwnerBookings(5L, "xlsx");
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("Export format must be csv or ndjson", response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should refuse to export for an unknown user or a non-owner")
+        void shouldRejectNonOwner() {
+            doThrow(new IllegalArgumentException("User not found with id: 6")).when(bookingService).checkIsOwner(6L);
+            doThrow(new IllegalStateException("User is not an owner")).when(bookingService).checkIsOwner(7L);
+
+            assertEquals(HttpStatus.NOT_FOUND, bookingController.exportOwnerBookings(6L, "csv").getStatusCode());
+            ResponseEntity<?> response = bookingController.exportOwnerBookings(7L, "csv");
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            assertEquals("User is not an owner", response.getBody());
+            verifyNoInteractions(exportService);
+        }
+    }
+
+    @Test
+    @DisplayName("Should return conflict on concurrent modification")
+    void shouldReturnConflictOnOptimisticLockFailure() {
+        ResponseEntity<String> response = bookingController.handleConcurrentModification(
+                new OptimisticLockingFailureException("stale booking"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertTrue(response.getBody().contains("modified by another request"));
+    }
+
+    @Test
+    @DisplayName("Should return conflict when the database rejects overlapping active bookings")
+    void shouldReturnConflictOnRangeConstraintViolation() {
+        ResponseEntity<String> response = bookingController.handleIntegrityViolation(
+                new DataIntegrityViolationException("commit failed", new RuntimeException(
+                        "conflicting key value violates exclusion constraint \"bookings_no_active_overlap\"")));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Product is already booked for the selected dates", response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should return conflict when two payments drew the same delivery code")
+    void shouldReturnConflictOnDeliveryCodeCollision() {
+        ResponseEntity<String> response = bookingController.handleIntegrityViolation(
+                new DataIntegrityViolationException("commit failed", new RuntimeException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_BOOKINGS_DELIVERY_CODE_INDEX_F\"")));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Should rethrow other integrity violations")
+    void shouldRethrowOtherIntegrityViolations() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not null");
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> bookingController.handleIntegrityViolation(violation));
+    }
 }
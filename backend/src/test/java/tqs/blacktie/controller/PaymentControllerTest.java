@@ -1,6 +1,7 @@
 package tqs.blacktie.controller;
 
 import com.stripe.exception.StripeException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,12 +12,16 @@ import org.springframework.http.ResponseEntity;
 import tqs.blacktie.dto.PaymentIntentRequest;
 import tqs.blacktie.dto.PaymentIntentResponse;
 import tqs.blacktie.dto.PaymentStatusResponse;
+import tqs.blacktie.service.IdempotencyService;
 import tqs.blacktie.service.PaymentService;
 
+import java.util.function.Supplier;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,15 +30,24 @@ class PaymentControllerTest {
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private PaymentController paymentController;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(idempotencyService.execute(any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ResponseEntity<?>>>getArgument(3).get());
+    }
+
     @Test
     void shouldCreatePaymentIntentSuccessfully() throws StripeException {
         PaymentIntentResponse response = new PaymentIntentResponse("secret", "pi_123", 5000L, "eur");
         when(paymentService.createPaymentIntent(eq(1L), any(PaymentIntentRequest.class))).thenReturn(response);
 
-        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, new PaymentIntentRequest(10L, 5000L));
+        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, null, new PaymentIntentRequest(10L, 5000L));
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(response, result.getBody());
@@ -44,7 +58,7 @@ class PaymentControllerTest {
         when(paymentService.createPaymentIntent(eq(1L), any(PaymentIntentRequest.class)))
             .thenThrow(new IllegalArgumentException("Booking missing"));
 
-        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, new PaymentIntentRequest(10L, 5000L));
+        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, null, new PaymentIntentRequest(10L, 5000L));
 
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
         assertEquals("Booking missing", result.getBody());
@@ -55,7 +69,7 @@ class PaymentControllerTest {
         when(paymentService.createPaymentIntent(eq(1L), any(PaymentIntentRequest.class)))
             .thenThrow(new IllegalStateException("Unauthorized"));
 
-        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, new PaymentIntentRequest(10L, 5000L));
+        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, null, new PaymentIntentRequest(10L, 5000L));
 
         assertEquals(HttpStatus.FORBIDDEN, result.getStatusCode());
         assertEquals("Unauthorized", result.getBody());
@@ -68,7 +82,7 @@ class PaymentControllerTest {
         when(paymentService.createPaymentIntent(eq(1L), any(PaymentIntentRequest.class)))
             .thenThrow(stripeError);
 
-        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, new PaymentIntentRequest(10L, 5000L));
+        ResponseEntity<?> result = paymentController.createPaymentIntent(1L, null, new PaymentIntentRequest(10L, 5000L));
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
         assertEquals("Payment processing error: Stripe down", result.getBody());
@@ -1,18 +1,30 @@
 package tqs.blacktie.controller;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
+import tqs.blacktie.dto.AvailabilityCalendarResponse;
+import tqs.blacktie.dto.BlackoutRequest;
+import tqs.blacktie.dto.BlackoutResponse;
+import tqs.blacktie.dto.PriceQuoteResponse;
+import tqs.blacktie.dto.SuggestionResponse;
 import tqs.blacktie.entity.Product;
+import tqs.blacktie.service.PricingService;
+import tqs.blacktie.service.ProductBlackoutService;
 import tqs.blacktie.service.ProductService;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -30,9 +42,29 @@ class ProductControllerTest {
         @Mock
         private ProductService productService;
 
+        @Mock
+        private ProductBlackoutService blackoutService;
+
+        @Mock
+        private PricingService pricingService;
+
         @InjectMocks
         private ProductController productController;
 
+        @TempDir
+        private Path uploadDir;
+
+        @BeforeEach
+        void setUp() {
+                productController.setUploadDir(uploadDir.toString());
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<Product> products(ResponseEntity<?> response) {
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                return (List<Product>) response.getBody();
+        }
+
         @Nested
         @DisplayName("Get Products Tests")
         class GetProductsTests {
@@ -48,10 +80,10 @@ class ProductControllerTest {
                         product2.setId(2L);
                         product2.setAvailable(true);
 
-                        when(productService.getAvailableProducts(null, null, 1L))
+                        when(productService.getAvailableProducts(null, null, 1L, null, null, null, null, null))
                                         .thenReturn(Arrays.asList(product1, product2));
 
-                        List<Product> result = productController.getProducts(null, null, 1L);
+                        List<Product> result = products(productController.getProducts(null, null, null, null, null, null, null, 1L));
 
                         assertEquals(2, result.size());
                         assertEquals(1L, result.get(0).getId());
@@ -64,10 +96,10 @@ class ProductControllerTest {
                 @Test
                 @DisplayName("Should return empty list when no products")
                 void whenNoProducts_thenReturnEmptyList() {
-                        when(productService.getAvailableProducts(null, null, 1L))
+                        when(productService.getAvailableProducts(null, null, 1L, null, null, null, null, null))
                                         .thenReturn(Collections.emptyList());
 
-                        List<Product> result = productController.getProducts(null, null, 1L);
+                        List<Product> result = products(productController.getProducts(null, null, null, null, null, null, null, 1L));
 
                         assertTrue(result.isEmpty());
                 }
@@ -79,10 +111,10 @@ class ProductControllerTest {
                         product.setId(1L);
                         product.setAvailable(true);
 
-                        when(productService.getAvailableProducts("smoking", null, 1L))
+                        when(productService.getAvailableProducts("smoking", null, 1L, null, null, null, null, null))
                                         .thenReturn(Collections.singletonList(product));
 
-                        List<Product> result = productController.getProducts("smoking", null, 1L);
+                        List<Product> result = products(productController.getProducts("smoking", null, null, null, null, null, null, 1L));
 
                         assertEquals(1, result.size());
                         assertEquals("Smoking", result.get(0).getName());
@@ -95,10 +127,10 @@ class ProductControllerTest {
                         product.setId(1L);
                         product.setAvailable(true);
 
-                        when(productService.getAvailableProducts(null, 100.0, 1L))
+                        when(productService.getAvailableProducts(null, 100.0, 1L, null, null, null, null, null))
                                         .thenReturn(Collections.singletonList(product));
 
-                        List<Product> result = productController.getProducts(null, 100.0, 1L);
+                        List<Product> result = products(productController.getProducts(null, 100.0, null, null, null, null, null, 1L));
 
                         assertEquals(1, result.size());
                         assertEquals(80.0, result.get(0).getPrice());
@@ -111,10 +143,10 @@ class ProductControllerTest {
                         product.setId(1L);
                         product.setAvailable(true);
 
-                        when(productService.getAvailableProducts("smoking", 100.0, 1L))
+                        when(productService.getAvailableProducts("smoking", 100.0, 1L, null, null, null, null, null))
                                         .thenReturn(Collections.singletonList(product));
 
-                        List<Product> result = productController.getProducts("smoking", 100.0, 1L);
+                        List<Product> result = products(productController.getProducts("smoking", 100.0, null, null, null, null, null, 1L));
 
                         assertEquals(1, result.size());
                         assertEquals("Smoking", result.get(0).getName());
@@ -441,4 +473,240 @@ class ProductControllerTest {
                         assertEquals("User not found with id: 999", response.getBody());
                 }
         }
+
+        @Nested
+        @DisplayName("Availability Filter Tests")
+        class AvailabilityFilterTests {
+
+                @Test
+                @DisplayName("Should pass the date range to the service")
+                void whenFilterByDates_thenDelegateRange() {
+                        LocalDateTime from = LocalDateTime.of(2030, 5, 1, 10, 0);
+                        LocalDateTime to = LocalDateTime.of(2030, 5, 3, 10, 0);
+                        Product product = new Product("Smoking", "Classic black", 80.0);
+                        when(productService.getAvailableProducts(null, null, 1L, from, to, null, null, null))
+                                        .thenReturn(List.of(product));
+
+                        List<Product> result = products(productController.getProducts(null, null, from, to, null, null, null, 1L));
+
+                        assertEquals(1, result.size());
+                }
+
+                @Test
+                @DisplayName("Should map invalid arguments to bad request")
+                void whenIllegalArgument_thenReturnBadRequest() {
+                        LocalDateTime from = LocalDateTime.of(2030, 5, 1, 10, 0);
+                        when(productService.getAvailableProducts(null, null, 1L, from, null, null, null, null))
+                                        .thenThrow(new IllegalArgumentException("Both from and to dates are required"));
+
+                        ResponseEntity<?> response = productController.getProducts(null, null, from, null, null, null,
+                                        null, 1L);
+
+                        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                        assertEquals("Both from and to dates are required", response.getBody());
+                }
+        }
+
+        @Nested
+        @DisplayName("Availability Calendar Tests")
+        class AvailabilityCalendarTests {
+
+                @Test
+                @DisplayName("Should return the availability calendar")
+                void whenGetAvailability_thenReturnCalendar() {
+                        LocalDate from = LocalDate.of(2030, 1, 1);
+                        LocalDate to = LocalDate.of(2030, 1, 31);
+                        AvailabilityCalendarResponse calendar = new AvailabilityCalendarResponse(1L, from, to,
+                                        List.of(new AvailabilityCalendarResponse.BusyRange(from, from.plusDays(2))));
+                        when(productService.getAvailabilityCalendar(1L, from, to)).thenReturn(calendar);
+
+                        ResponseEntity<?> response = productController.getAvailability(1L, from, to);
+
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertEquals(calendar, response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should return bad request for invalid range")
+                void whenInvalidRange_thenReturnBadRequest() {
+                        LocalDate from = LocalDate.of(2030, 1, 31);
+                        LocalDate to = LocalDate.of(2030, 1, 1);
+                        when(productService.getAvailabilityCalendar(1L, from, to))
+                                        .thenThrow(new IllegalArgumentException("End date must not be before start date"));
+
+                        ResponseEntity<?> response = productController.getAvailability(1L, from, to);
+
+                        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                }
+        }
+
+        @Nested
+        @DisplayName("Blackout Tests")
+        class BlackoutTests {
+
+                private final LocalDateTime start = LocalDateTime.of(2030, 2, 1, 10, 0);
+
+                @Test
+                @DisplayName("Should create a block-out")
+                void whenAddBlackout_thenReturnCreated() {
+                        BlackoutRequest request = new BlackoutRequest(start, start.plusDays(2), "Dry-cleaning");
+                        BlackoutResponse blackout = new BlackoutResponse(7L, 1L, start, start.plusDays(2), "Dry-cleaning");
+                        when(blackoutService.addBlackout(1L, 2L, request)).thenReturn(blackout);
+
+                        ResponseEntity<?> response = productController.addBlackout(1L, 2L, request);
+
+                        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+                        assertEquals(blackout, response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should return conflict when the dates are taken")
+                void whenDatesTaken_thenReturnConflict() {
+                        BlackoutRequest request = new BlackoutRequest(start, start.plusDays(2), null);
+                        when(blackoutService.addBlackout(1L, 2L, request))
+                                        .thenThrow(new IllegalStateException("Product is already booked or blocked for the selected dates"));
+
+                        ResponseEntity<?> response = productController.addBlackout(1L, 2L, request);
+
+                        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+                }
+
+                @Test
+                @DisplayName("Should list the block-outs of a product")
+                void whenGetBlackouts_thenReturnList() {
+                        BlackoutResponse blackout = new BlackoutResponse(7L, 1L, start, start.plusDays(2), null);
+                        when(blackoutService.getBlackouts(1L)).thenReturn(List.of(blackout));
+
+                        ResponseEntity<?> response = productController.getBlackouts(1L);
+
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertEquals(List.of(blackout), response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should forbid removing another owner's block-out")
+                void whenRemoveForeignBlackout_thenReturnForbidden() {
+                        doThrow(new IllegalStateException("You can only block your own products"))
+                                        .when(blackoutService).removeBlackout(1L, 7L, 3L);
+
+                        ResponseEntity<?> response = productController.removeBlackout(1L, 7L, 3L);
+
+                        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+                }
+
+                @Test
+                @DisplayName("Should update the buffer days")
+                void whenUpdateBufferDays_thenReturnProduct() {
+                        Product product = new Product("Smoking", "Classic black", 80.0);
+                        product.setBufferDays(2);
+                        when(blackoutService.updateBufferDays(1L, 2L, 2)).thenReturn(product);
+
+                        ResponseEntity<?> response = productController.updateBufferDays(1L, 2, 2L);
+
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertEquals(product, response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should reject an out of range buffer")
+                void whenBufferOutOfRange_thenReturnBadRequest() {
+                        when(blackoutService.updateBufferDays(1L, 2L, 99))
+                                        .thenThrow(new IllegalArgumentException("Buffer days must be between 0 and 30"));
+
+                        ResponseEntity<?> response = productController.updateBufferDays(1L, 99, 2L);
+
+                        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                }
+
+                @Test
+                @DisplayName("Should refuse a buffer overlapping reserved bookings")
+                void whenBufferOverlapsBookings_thenReturnConflict() {
+                        when(blackoutService.updateBufferDays(1L, 2L, 5))
+                                        .thenThrow(new IllegalStateException("A buffer of 5 days would overlap bookings"));
+
+                        ResponseEntity<?> response = productController.updateBufferDays(1L, 5, 2L);
+
+                        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+                }
+        }
+
+        @Nested
+        @DisplayName("Quote Tests")
+        class QuoteTests {
+
+                private final LocalDateTime from = LocalDateTime.of(2030, 3, 1, 10, 0);
+
+                @Test
+                @DisplayName("Should quote a rental")
+                void whenGetQuote_thenReturnQuote() {
+                        PriceQuoteResponse quote = new PriceQuoteResponse(1L, from, from.plusDays(3), 3, 50.0, 150.0, 165.0);
+                        when(pricingService.getQuote(1L, from, from.plusDays(3))).thenReturn(quote);
+
+                        ResponseEntity<?> response = productController.getQuote(1L, from, from.plusDays(3));
+
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertEquals(quote, response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should return bad request for invalid dates")
+                void whenInvalidDates_thenReturnBadRequest() {
+                        when(pricingService.getQuote(1L, from, from.minusDays(1)))
+                                        .thenThrow(new IllegalArgumentException("Return date must be after booking date"));
+
+                        ResponseEntity<?> response = productController.getQuote(1L, from, from.minusDays(1));
+
+                        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                        assertEquals("Return date must be after booking date", response.getBody());
+                }
+        }
+
+        @Nested
+        @DisplayName("Near Filter Tests")
+        class NearFilterTests {
+
+                @Test
+                @DisplayName("Should pass the location and radius to the service")
+                void whenFilterByLocation_thenDelegateRadius() {
+                        Product product = new Product("Smoking", "Classic black", 80.0);
+                        when(productService.getAvailableProducts("smoking", 100.0, 1L, null, null, 40.64, -8.65, 5.0))
+                                        .thenReturn(List.of(product));
+
+                        List<Product> result = products(productController.getProducts("smoking", 100.0, null, null,
+                                        40.64, -8.65, 5.0, 1L));
+
+                        assertEquals(1, result.size());
+                }
+        }
+
+        @Nested
+        @DisplayName("Suggest Tests")
+        class SuggestTests {
+
+                @Test
+                @DisplayName("Should return suggestions for the typed prefix")
+                void whenSuggest_thenReturnSuggestions() {
+                        List<SuggestionResponse> suggestions = List.of(
+                                        new SuggestionResponse("PRODUCT", 1L, "Black Smoking"),
+                                        new SuggestionResponse("CITY", null, "Setúbal"));
+                        when(productService.suggest("s", 10)).thenReturn(suggestions);
+
+                        ResponseEntity<?> response = productController.suggest("s", 10);
+
+                        assertEquals(HttpStatus.OK, response.getStatusCode());
+                        assertEquals(suggestions, response.getBody());
+                }
+
+                @Test
+                @DisplayName("Should return bad request for an invalid limit")
+                void whenInvalidLimit_thenReturnBadRequest() {
+                        when(productService.suggest("s", 0))
+                                        .thenThrow(new IllegalArgumentException("Limit must be between 1 and 10"));
+
+                        ResponseEntity<?> response = productController.suggest("s", 0);
+
+                        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+                        assertEquals("Limit must be between 1 and 10", response.getBody());
+                }
+        }
 }
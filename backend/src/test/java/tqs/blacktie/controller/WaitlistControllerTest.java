@@ -0,0 +1,129 @@
+package tqs.blacktie.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.WaitlistEntryResponse;
+import tqs.blacktie.entity.WaitlistEntry;
+import tqs.blacktie.service.WaitlistService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistControllerTest {
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @InjectMocks
+    private WaitlistController waitlistController;
+
+    private BookingRequest request;
+    private WaitlistEntryResponse entry;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        request = new BookingRequest(10L, start, start.plusDays(2));
+        entry = new WaitlistEntryResponse(5L, 10L, "Tuxedo", start, start.plusDays(2),
+                WaitlistEntry.STATUS_WAITING, LocalDateTime.now(), null);
+    }
+
+    @Nested
+    class JoinWaitlistTests {
+        @Test
+        void shouldReturnCreatedEntry() {
+            when(waitlistService.join(1L, request)).thenReturn(entry);
+
+            ResponseEntity<?> response = waitlistController.joinWaitlist(1L, request);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+            assertThat(response.getBody()).isEqualTo(entry);
+        }
+
+        @Test
+        void shouldReturnBadRequestForInvalidDates() {
+            when(waitlistService.join(1L, request))
+                    .thenThrow(new IllegalArgumentException("Booking date cannot be in the past"));
+
+            ResponseEntity<?> response = waitlistController.joinWaitlist(1L, request);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        }
+
+        @Test
+        void shouldReturnConflictWhenDatesAreFree() {
+            when(waitlistService.join(1L, request))
+                    .thenThrow(new IllegalStateException("Product is available for the selected dates"));
+
+            ResponseEntity<?> response = waitlistController.joinWaitlist(1L, request);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(response.getBody()).isEqualTo("Product is available for the selected dates");
+        }
+    }
+
+    @Nested
+    class GetWaitlistTests {
+        @Test
+        void shouldReturnUserEntries() {
+            when(waitlistService.getUserEntries(1L)).thenReturn(List.of(entry));
+
+            ResponseEntity<?> response = waitlistController.getWaitlist(1L);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody()).isEqualTo(List.of(entry));
+        }
+
+        @Test
+        void shouldReturnNotFoundForUnknownUser() {
+            when(waitlistService.getUserEntries(1L)).thenThrow(new IllegalArgumentException("User not found"));
+
+            ResponseEntity<?> response = waitlistController.getWaitlist(1L);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Nested
+    class LeaveWaitlistTests {
+        @Test
+        void shouldReturnNoContent() {
+            ResponseEntity<?> response = waitlistController.leaveWaitlist(5L, 1L);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+            verify(waitlistService).leave(5L, 1L);
+        }
+
+        @Test
+        void shouldReturnForbiddenForOtherUsersEntry() {
+            doThrow(new IllegalStateException("User is not authorized to leave this waitlist entry"))
+                    .when(waitlistService).leave(5L, 2L);
+
+            ResponseEntity<?> response = waitlistController.leaveWaitlist(5L, 2L);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        }
+
+        @Test
+        void shouldReturnNotFoundForUnknownEntry() {
+            doThrow(new IllegalArgumentException("Waitlist entry not found with id: 9"))
+                    .when(waitlistService).leave(9L, 1L);
+
+            ResponseEntity<?> response = waitlistController.leaveWaitlist(9L, 1L);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        }
+    }
+}
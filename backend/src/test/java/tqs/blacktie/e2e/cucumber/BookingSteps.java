@@ -13,6 +13,7 @@ import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.*;
 import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.NotificationDispatcher;
 
 import java.time.LocalDateTime;
 
@@ -35,6 +36,9 @@ public class BookingSteps {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
     @Autowired
     private ReviewRepository reviewRepository;
 
@@ -234,6 +238,7 @@ public class BookingSteps {
 
     @Then("the renter should be notified of the cancellation")
     public void theRenterShouldBeNotifiedOfTheCancellation() {
+        notificationDispatcher.dispatchPending();
         long count = notificationRepository.countByUserAndIsRead(currentRenter, false);
         assertThat(count).isGreaterThan(0);
     }
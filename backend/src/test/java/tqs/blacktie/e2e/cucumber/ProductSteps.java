@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.*;
+import tqs.blacktie.service.ProductSearchIndex;
 import tqs.blacktie.service.ProductService;
 
 import java.util.List;
@@ -23,6 +24,9 @@ public class ProductSteps {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -87,6 +91,7 @@ public class ProductSteps {
         product.setOwner(owner);
         product.setAvailable(true);
         lastCreatedProduct = productRepository.save(product);
+        searchIndex.add(lastCreatedProduct);
     }
 
     @When("{string} creates a product {string} with description {string} and price {double}")
@@ -0,0 +1,125 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingDecision;
+import tqs.blacktie.dto.BookingDecisionResult;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.NotificationDispatcher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Bulk booking decision tests")
+class BookingBulkDecisionIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private Booking savePending(Product bookedProduct, int startDaysFromNow) {
+        LocalDateTime start = LocalDateTime.now().plusDays(startDaysFromNow);
+        return bookingRepository.save(new Booking(renter, bookedProduct, start, start.plusDays(1), 100.0));
+    }
+
+    /**
+     * Alternately approves and rejects {@code count} pending bookings of the product and returns
+     * the number of SQL statements prepared for it.
+     */
+    private long decideAlternately(int count, int firstDay) {
+        List<BookingDecision> decisions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Booking pending = savePending(product, firstDay + 3 * i);
+            decisions.add(i % 2 == 0
+                    ? new BookingDecision(pending.getId(), BookingDecision.APPROVE, "SHIPPING", null, null)
+                    : new BookingDecision(pending.getId(), BookingDecision.REJECT, null, null, "Fully booked"));
+        }
+
+        statistics.clear();
+        List<BookingDecisionResult> results = bookingService.decideBookings(owner.getId(), decisions);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(results).hasSize(count).allMatch(BookingDecisionResult::isSuccess);
+        return statements;
+    }
+
+    @Test
+    @DisplayName("Applies a whole queue with the same number of statements as a few bookings")
+    void statementCountDoesNotGrowWithTheBatch() {
+        long few = decideAlternately(4, 2);
+        long many = decideAlternately(40, 20);
+
+        assertThat(many).isEqualTo(few);
+        assertThat(bookingRepository.countByStatus(Booking.STATUS_APPROVED)).isEqualTo(22);
+        assertThat(bookingRepository.countByStatus(Booking.STATUS_REJECTED)).isEqualTo(22);
+    }
+
+    @Test
+    @DisplayName("Reports failures per item and applies the valid decisions")
+    void mixedBatch() {
+        Booking first = savePending(product, 5);
+        Booking overlapping = savePending(product, 5);
+        Booking toReject = savePending(product, 10);
+        Booking foreign = savePending(saveProduct("Foreign Suit",
+                userRepository.save(new User("Other", "other@bulk.test", "password", "owner"))), 5);
+
+        List<BookingDecisionResult> results = bookingService.decideBookings(owner.getId(), List.of(
+                new BookingDecision(first.getId(), BookingDecision.APPROVE, "PICKUP", "Rua Augusta", null),
+                new BookingDecision(overlapping.getId(), BookingDecision.APPROVE, "SHIPPING", null, null),
+                new BookingDecision(toReject.getId(), BookingDecision.REJECT, null, null, "Being repaired"),
+                new BookingDecision(foreign.getId(), BookingDecision.REJECT, null, null, null),
+                new BookingDecision(first.getId(), "MAYBE", null, null, null)));
+
+        assertThat(results).extracting(BookingDecisionResult::isSuccess)
+                .containsExactly(true, false, true, false, false);
+        assertThat(results.get(1).getError()).isEqualTo("Product is already booked for the selected dates");
+        assertThat(results.get(3).getError()).isEqualTo("User is not authorized to reject this booking");
+        assertThat(results.get(0).getBooking().getPickupLocation()).isEqualTo("Rua Augusta");
+
+        assertThat(bookingRepository.findById(first.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_APPROVED);
+        assertThat(bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_PENDING_APPROVAL);
+        assertThat(bookingRepository.findById(toReject.getId()).orElseThrow().getRejectionReason())
+                .isEqualTo("Being repaired");
+        assertThat(availabilityIndex.hasOverlap(product.getId(), first.getBookingDate(), first.getReturnDate()))
+                .isTrue();
+
+        notificationDispatcher.dispatchPending();
+        assertThat(notificationRepository.findByUserOrderByCreatedAtDesc(renter))
+                .extracting(Notification::getType)
+                .containsExactlyInAnyOrder(Notification.TYPE_BOOKING_APPROVED, Notification.TYPE_BOOKING_REJECTED);
+    }
+}
@@ -0,0 +1,124 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.NotificationDispatcher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Cart booking tests")
+class BookingCartIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10);
+    private Statistics statistics;
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        products = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Product piece = new Product();
+            piece.setName("Outfit piece " + i);
+            piece.setDescription("Part of a wedding outfit");
+            piece.setPrice(10.0 + i);
+            piece.setAvailable(true);
+            piece.setOwner(owner);
+            products.add(productRepository.save(piece));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private List<BookingRequest> cart(int size, LocalDateTime from) {
+        return products.subList(0, size).stream()
+                .map(product -> new BookingRequest(product.getId(), from, from.plusDays(2)))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Reserves every item of the cart as pending bookings and notifies the owner")
+    void reservesWholeCart() {
+        List<BookingResponse> bookings = bookingService.createCartBooking(renter.getId(), cart(3, start));
+
+        assertThat(bookings).hasSize(3).allSatisfy(booking -> {
+            assertThat(booking.getId()).isNotNull();
+            assertThat(booking.getStatus()).isEqualTo(Booking.STATUS_PENDING_APPROVAL);
+            assertThat(booking.getRenterId()).isEqualTo(renter.getId());
+        });
+        assertThat(bookings).extracting(BookingResponse::getTotalPrice).containsExactly(20.0, 22.0, 24.0);
+
+        Booking stored = bookingRepository.findById(bookings.get(1).getId()).orElseThrow();
+        assertThat(stored.getProduct().getId()).isEqualTo(products.get(1).getId());
+        assertThat(stored.getVersion()).isZero();
+        assertThat(stored.getDepositRequested()).isFalse();
+
+        notificationDispatcher.dispatchPending();
+        assertThat(notificationRepository.findByUserOrderByCreatedAtDesc(owner))
+                .hasSize(3)
+                .allMatch(n -> Notification.TYPE_NEW_BOOKING.equals(n.getType()));
+    }
+
+    @Test
+    @DisplayName("ORM statements stay the same as the cart grows")
+    void statementCountDoesNotGrowWithTheCart() {
+        statistics.clear();
+        bookingService.createCartBooking(renter.getId(), cart(2, start));
+        long small = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        bookingService.createCartBooking(renter.getId(), cart(12, start.plusDays(10)));
+        long large = statistics.getPrepareStatementCount();
+
+        assertThat(large).isEqualTo(small);
+        assertThat(bookingRepository.count()).isEqualTo(14);
+    }
+
+    @Test
+    @DisplayName("Leaves nothing behind when one item is already booked")
+    void conflictLeavesNoPartialCart() {
+        Booking approved = new Booking(renter, products.get(4), start.plusDays(1), start.plusDays(5), 50.0);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        approved = bookingRepository.save(approved);
+        availabilityIndex.sync(approved);
+
+        assertThatThrownBy(() -> bookingService.createCartBooking(renter.getId(), cart(6, start)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Product " + products.get(4).getId() + " is already booked for the selected dates");
+
+        assertThat(bookingRepository.count()).isEqualTo(1);
+        assertThat(outboxRepository.count()).isZero();
+    }
+}
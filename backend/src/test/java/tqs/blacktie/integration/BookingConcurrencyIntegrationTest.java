@@ -0,0 +1,111 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of concurrent approvals for overlapping bookings and checks that every date
+ * window ends up with exactly one approved booking.
+ */
+class BookingConcurrencyIntegrationTest extends CommittingIntegrationTest {
+
+    private static final int PRODUCTS = 8;
+    private static final int WINDOWS_PER_PRODUCT = 5;
+    private static final int REQUESTS_PER_WINDOW = 50;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void concurrentApprovalsNeverDoubleBook() throws Exception {
+        User renter = userRepository.save(new User("Renter", "renter@concurrency.test", "password", "renter"));
+        LocalDateTime base = LocalDateTime.now().plusDays(30).withNano(0);
+
+        List<Booking> pending = new ArrayList<>();
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = new Product("Tuxedo " + p, "Concurrency test tuxedo", 50.0);
+            product.setAvailable(true);
+            product.setOwner(owner);
+            product = productRepository.save(product);
+
+            for (int w = 0; w < WINDOWS_PER_PRODUCT; w++) {
+                LocalDateTime start = base.plusDays(w * 10L);
+                for (int r = 0; r < REQUESTS_PER_WINDOW; r++) {
+                    // Stagger the requests inside the window so they overlap without being identical
+                    pending.add(new Booking(renter, product, start.plusHours(r % 6), start.plusDays(2), 100.0));
+                }
+            }
+        }
+        pending = bookingRepository.saveAll(pending);
+        Collections.shuffle(pending);
+
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        Map<String, Throwable> unexpected = new ConcurrentHashMap<>();
+
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Booking booking : pending) {
+                Long bookingId = booking.getId();
+                futures.add(executor.submit(() -> {
+                    try {
+                        bookingService.approveBooking(bookingId, owner.getId(), Booking.DELIVERY_PICKUP, "Store");
+                        approved.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        conflicts.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        unexpected.put(String.valueOf(bookingId), e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        int totalRequests = PRODUCTS * WINDOWS_PER_PRODUCT * REQUESTS_PER_WINDOW;
+        assertThat(unexpected).isEmpty();
+        assertThat(approved.get()).isEqualTo(PRODUCTS * WINDOWS_PER_PRODUCT);
+        assertThat(conflicts.get()).isEqualTo(totalRequests - PRODUCTS * WINDOWS_PER_PRODUCT);
+        assertThat(elapsed).isLessThan(Duration.ofSeconds(60));
+
+        // No two approved bookings of the same product may overlap in the database
+        List<Booking> active = bookingRepository.findByStatusIn(List.of(Booking.STATUS_APPROVED));
+        assertThat(active).hasSize(PRODUCTS * WINDOWS_PER_PRODUCT);
+        for (Booking a : active) {
+            for (Booking b : active) {
+                if (a.getId().equals(b.getId()) || !a.getProduct().getId().equals(b.getProduct().getId())) {
+                    continue;
+                }
+                boolean overlaps = !a.getBookingDate().isAfter(b.getReturnDate())
+                        && !a.getReturnDate().isBefore(b.getBookingDate());
+                assertThat(overlaps).as("bookings %d and %d overlap", a.getId(), b.getId()).isFalse();
+            }
+        }
+    }
+}
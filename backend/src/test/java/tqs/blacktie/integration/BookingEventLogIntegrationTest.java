@@ -0,0 +1,122 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingEventResponse;
+import tqs.blacktie.dto.BookingReplayResponse;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.AdminService;
+import tqs.blacktie.service.BookingEventLog;
+import tqs.blacktie.service.BookingLifecycleSweeper;
+import tqs.blacktie.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Booking event log tests")
+class BookingEventLogIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingEventLog eventLog;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private BookingLifecycleSweeper sweeper;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.MINUTES);
+
+    private BookingResponse book(int fromDay, int toDay) {
+        return bookingService.createBooking(renter.getId(),
+                new BookingRequest(product.getId(), start.plusDays(fromDay), start.plusDays(toDay)));
+    }
+
+    @Test
+    @DisplayName("Records every transition of a booking, in order")
+    void recordsTransitions() {
+        BookingResponse booking = book(0, 2);
+        bookingService.approveBooking(booking.getId(), owner.getId(), Booking.DELIVERY_SHIPPING, null);
+        bookingService.processPayment(booking.getId(), renter.getId());
+        sweeper.completeFinishedBookings(start.plusDays(3));
+
+        List<BookingEventResponse> events = eventLog.history(booking.getId());
+
+        assertThat(events).extracting(BookingEventResponse::getType).containsExactly(
+                BookingEventLog.CREATED, BookingEventLog.APPROVED, BookingEventLog.PAID, BookingEventLog.COMPLETED);
+        assertThat(events).extracting(BookingEventResponse::getStatus).containsExactly(
+                Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_PAID,
+                Booking.STATUS_COMPLETED);
+        assertThat(events).extracting(BookingEventResponse::getActorId).containsExactly(
+                renter.getId(), owner.getId(), renter.getId(), null);
+        assertThat(events.get(2).getChanges()).containsKeys("paidAt", "deliveryCode");
+    }
+
+    @Test
+    @DisplayName("Replays the events into the booking's state, even once it is deleted")
+    void replaysDeletedBooking() {
+        BookingResponse booking = book(0, 2);
+        bookingService.rejectBooking(booking.getId(), owner.getId(), "Being altered");
+        adminService.deleteProduct(product.getId());
+
+        BookingReplayResponse replay = eventLog.replay(booking.getId());
+
+        assertThat(bookingRepository.findById(booking.getId())).isEmpty();
+        assertThat(replay.isDeleted()).isTrue();
+        assertThat(replay.getEvents()).isEqualTo(3);
+        assertThat(replay.getStatus()).isEqualTo(Booking.STATUS_REJECTED);
+        assertThat(replay.getState())
+                .containsEntry("status", Booking.STATUS_REJECTED)
+                .containsEntry("rejectionReason", "Being altered")
+                .containsEntry("totalPrice", 200.0)
+                .containsEntry("renterId", renter.getId().intValue());
+        assertThat(LocalDateTime.parse((String) replay.getState().get("bookingDate"))).isEqualTo(start);
+    }
+
+    @Test
+    @DisplayName("Writes a cart's events together and counts them by type")
+    void countsCartEvents() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        bookingService.createCartBooking(renter.getId(), List.of(
+                new BookingRequest(product.getId(), start, start.plusDays(1)),
+                new BookingRequest(product.getId(), start.plusDays(5), start.plusDays(6)),
+                new BookingRequest(product.getId(), start.plusDays(10), start.plusDays(11))));
+        BookingResponse cancelled = book(20, 21);
+        bookingService.cancelBooking(cancelled.getId(), renter.getId());
+
+        Map<String, Long> counts = eventLog.countByType(before, LocalDateTime.now().plusMinutes(1));
+
+        assertThat(counts).containsOnly(Map.entry(BookingEventLog.CANCELLED, 1L),
+                Map.entry(BookingEventLog.CREATED, 4L));
+        assertThat(eventLog.countByType(before.minusDays(2), before)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Records nothing for a transition that is rolled back")
+    void skipsRolledBackTransitions() {
+        BookingResponse first = book(0, 2);
+        BookingResponse second = book(1, 3);
+        bookingService.approveBooking(first.getId(), owner.getId(), Booking.DELIVERY_SHIPPING, null);
+        Long secondId = second.getId();
+        Long ownerId = owner.getId();
+
+        assertThatThrownBy(() -> bookingService.approveBooking(secondId, ownerId, Booking.DELIVERY_SHIPPING, null))
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(eventLog.history(secondId)).extracting(BookingEventResponse::getType)
+                .containsExactly(BookingEventLog.CREATED);
+        assertThatThrownBy(() -> eventLog.replay(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
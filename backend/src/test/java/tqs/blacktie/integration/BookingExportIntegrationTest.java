@@ -0,0 +1,139 @@
+package tqs.blacktie.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingExportService;
+import tqs.blacktie.service.BookingExportService.Format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Booking export tests")
+class BookingExportIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingExportService exportService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.MINUTES);
+    private Statistics statistics;
+    private Product otherProduct;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // Names a spreadsheet would misread unless the export escapes them
+        renter.setName("=SUM(A1)");
+        renter = userRepository.save(renter);
+        product.setName("Suit, \"Classic\"");
+        product = productRepository.save(product);
+        User otherOwner = userRepository.save(new User("Other", "other@export.test", "password", "owner"));
+        otherProduct = saveProduct("Gown", otherOwner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private List<Booking> saveBookings(Product bookedProduct, int count) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = count - 1; i >= 0; i--) {
+            LocalDateTime from = start.plusDays(3L * i);
+            bookings.add(new Booking(renter, bookedProduct, from, from.plusDays(2), 100.0));
+        }
+        return bookingRepository.saveAll(bookings);
+    }
+
+    private List<String> export(Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportOwnerBookings(owner.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    @Test
+    @DisplayName("Exports the owner's bookings as CSV, by booking date")
+    void exportsCsv() throws IOException {
+        saveBookings(product, 3);
+        saveBookings(otherProduct, 2);
+
+        List<String> lines = export(Format.CSV);
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("id,productId,productName,renterId,renterName,bookingDate");
+        assertThat(lines.get(1)).contains(",\"Suit, \"\"Classic\"\"\",", ",'=SUM(A1),", "," + start + ",",
+                ",PENDING_APPROVAL,100.0,");
+        assertThat(lines.get(3)).contains("," + start.plusDays(6) + ",");
+    }
+
+    @Test
+    @DisplayName("Exports the owner's bookings as NDJSON, one object per line")
+    void exportsNdjson() throws IOException {
+        List<Booking> bookings = saveBookings(product, 2);
+
+        List<String> lines = export(Format.NDJSON);
+
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertThat(first.get("id").asLong()).isEqualTo(bookings.get(1).getId());
+        assertThat(first.get("productName").asText()).isEqualTo("Suit, \"Classic\"");
+        assertThat(first.get("renterName").asText()).isEqualTo("=SUM(A1)");
+        assertThat(LocalDateTime.parse(first.get("bookingDate").asText())).isEqualTo(start);
+        assertThat(first.get("status").asText()).isEqualTo(Booking.STATUS_PENDING_APPROVAL);
+    }
+
+    @Test
+    @DisplayName("Reads the whole history with a single query")
+    void singleQueryWhateverTheSize() throws IOException {
+        saveBookings(product, 5);
+        statistics.clear();
+        assertThat(export(Format.CSV)).hasSize(6);
+        long few = statistics.getPrepareStatementCount();
+
+        saveBookings(product, 600);
+        statistics.clear();
+        assertThat(export(Format.NDJSON)).hasSize(605);
+        long many = statistics.getPrepareStatementCount();
+
+        assertThat(many).isEqualTo(few).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Admins export every booking")
+    void exportsAll() throws IOException {
+        saveBookings(product, 2);
+        saveBookings(otherProduct, 3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = exportService.exportAllBookings(Format.CSV, out);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(6);
+    }
+}
@@ -0,0 +1,161 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingEventLog;
+import tqs.blacktie.service.BookingLifecycleSweeper;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.NotificationDispatcher;
+import tqs.blacktie.service.NotificationService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Booking lifecycle sweeper tests")
+class BookingLifecycleSweeperIntegrationTest extends CommittingIntegrationTest {
+
+    // Small chunks so a sweep goes through several; built here rather than through a property so
+    // the test shares the application context of the other integration tests
+    private static final int CHUNK_SIZE = 3;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private BookingEventLog eventLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private BookingLifecycleSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new BookingLifecycleSweeper(bookingRepository, notificationService, availabilityIndex, eventLog,
+                transactionManager, CHUNK_SIZE);
+    }
+
+    private Booking saveBooking(String status, int startDaysFromNow, int endDaysFromNow) {
+        Booking booking = new Booking(renter, product,
+                now.plusDays(startDaysFromNow), now.plusDays(endDaysFromNow), 100.0);
+        booking.setStatus(status);
+        booking = bookingRepository.save(booking);
+        availabilityIndex.sync(booking);
+        return booking;
+    }
+
+    private List<Booking> saveBookings(int count, String status, int startDaysFromNow, int endDaysFromNow) {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            bookings.add(saveBooking(status, startDaysFromNow - 3 * i, endDaysFromNow - 3 * i));
+        }
+        return bookings;
+    }
+
+    private String statusOf(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+    }
+
+    @Test
+    @DisplayName("Completes paid bookings whose return date has passed, across several chunks")
+    void completesFinishedPaidBookings() {
+        List<Booking> finished = saveBookings(7, Booking.STATUS_PAID, -5, -2);
+        Booking ongoing = saveBooking(Booking.STATUS_PAID, -1, 2);
+        Booking approvedInThePast = saveBooking(Booking.STATUS_APPROVED, -40, -38);
+
+        int completed = sweeper.completeFinishedBookings(now);
+
+        assertThat(completed).isEqualTo(7);
+        assertThat(finished).allSatisfy(b -> {
+            Booking stored = bookingRepository.findById(b.getId()).orElseThrow();
+            assertThat(stored.getStatus()).isEqualTo(Booking.STATUS_COMPLETED);
+            assertThat(stored.getVersion()).isEqualTo(b.getVersion() + 1);
+        });
+        assertThat(statusOf(ongoing)).isEqualTo(Booking.STATUS_PAID);
+        assertThat(statusOf(approvedInThePast)).isEqualTo(Booking.STATUS_APPROVED);
+        assertThat(availabilityIndex.hasOverlap(product.getId(), now.minusDays(5), now.minusDays(2))).isFalse();
+        assertThat(availabilityIndex.hasOverlap(product.getId(), now, now)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Keeps the buffer days after a completed rental blocked")
+    void keepsBufferAfterCompletedRental() {
+        product.setBufferDays(3);
+        product = productRepository.save(product);
+        Booking returned = saveBooking(Booking.STATUS_PAID, -5, -1);
+
+        assertThat(sweeper.completeFinishedBookings(now)).isEqualTo(1);
+
+        assertThat(statusOf(returned)).isEqualTo(Booking.STATUS_COMPLETED);
+        assertThatThrownBy(() -> bookingService.createBooking(renter.getId(),
+                new BookingRequest(product.getId(), now.plusDays(1), now.plusDays(2))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already booked");
+        assertThat(bookingService.createBooking(renter.getId(),
+                new BookingRequest(product.getId(), now.plusDays(3), now.plusDays(4))).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Rejects pending bookings the owner never answered and notifies the renter")
+    void expiresStalePendingBookings() {
+        List<Booking> stale = saveBookings(4, Booking.STATUS_PENDING_APPROVAL, -1, 1);
+        Booking upcoming = saveBooking(Booking.STATUS_PENDING_APPROVAL, 3, 5);
+
+        int expired = sweeper.expireStalePendingBookings(now);
+
+        assertThat(expired).isEqualTo(4);
+        assertThat(stale).allSatisfy(b -> {
+            Booking stored = bookingRepository.findById(b.getId()).orElseThrow();
+            assertThat(stored.getStatus()).isEqualTo(Booking.STATUS_REJECTED);
+            assertThat(stored.getRejectionReason()).isEqualTo(BookingLifecycleSweeper.EXPIRED_REASON);
+        });
+        assertThat(statusOf(upcoming)).isEqualTo(Booking.STATUS_PENDING_APPROVAL);
+        notificationDispatcher.dispatchPending();
+        assertThat(notificationRepository.findByUserOrderByCreatedAtDesc(renter))
+                .hasSize(4)
+                .allMatch(n -> Notification.TYPE_BOOKING_REJECTED.equals(n.getType()));
+    }
+
+    @Test
+    @DisplayName("Concurrent sweeps split the work without processing a booking twice")
+    void concurrentSweepsDoNotOverlap() throws Exception {
+        saveBookings(30, Booking.STATUS_PAID, -5, -2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> sweeps = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                sweeps.add(executor.submit(() -> sweeper.completeFinishedBookings(now)));
+            }
+            int total = 0;
+            for (Future<Integer> sweep : sweeps) {
+                total += sweep.get();
+            }
+            assertThat(total).isEqualTo(30);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(bookingRepository.countByStatus(Booking.STATUS_COMPLETED)).isEqualTo(30);
+    }
+}
@@ -0,0 +1,158 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingPageRequest;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements of every booking listing: it must not grow with the number
+ * of rows, products, renters or owners involved, i.e. no per-row lookups of related entities.
+ */
+@DisplayName("Booking list statement count tests")
+class BookingListStatementCountIntegrationTest extends CommittingIntegrationTest {
+
+    private static final int SMALL = 2;
+    private static final int LARGE = 6;
+
+    private static final List<String> ALL_STATUSES = List.of(
+            Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_REJECTED,
+            Booking.STATUS_PAID, Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private record Fixture(User owner, User renter, Product sharedProduct) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    /**
+     * Every round adds a product booked by the renter once in each status, and a new renter
+     * paying for the shared product, so each listing grows in rows and in distinct related rows.
+     */
+    private Fixture seed(int rounds) {
+        User owner = userRepository.save(new User("Owner", "owner@statements.test", "password", "owner"));
+        User renter = userRepository.save(new User("Renter", "renter@statements.test", "password", "renter"));
+        Product sharedProduct = saveProduct("Shared Suit", owner);
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int round = 0; round < rounds; round++) {
+            Product product = saveProduct("Suit " + round, owner);
+            for (String status : ALL_STATUSES) {
+                saveBooking(renter, product, status, start);
+                start = start.plusDays(2);
+            }
+            User otherRenter = userRepository.save(
+                    new User("Other " + round, "other" + round + "@statements.test", "password", "renter"));
+            saveBooking(otherRenter, sharedProduct, Booking.STATUS_PAID, start);
+            start = start.plusDays(2);
+        }
+        return new Fixture(owner, renter, sharedProduct);
+    }
+
+    private void saveBooking(User renter, Product product, String status, LocalDateTime start) {
+        Booking booking = new Booking(renter, product, start, start.plusDays(1), 100.0);
+        booking.setStatus(status);
+        bookingRepository.save(booking);
+    }
+
+    private long[] measure(int rounds, Function<Fixture, List<BookingResponse>> listing) {
+        cleanUp();
+        Fixture fixture = seed(rounds);
+        statistics.clear();
+        List<BookingResponse> responses = listing.apply(fixture);
+        return new long[] { statistics.getPrepareStatementCount(), responses.size() };
+    }
+
+    private void assertConstantStatementCount(Function<Fixture, List<BookingResponse>> listing) {
+        long[] small = measure(SMALL, listing);
+        long[] large = measure(LARGE, listing);
+
+        assertThat(large[1]).as("listing grows with the data").isGreaterThan(small[1]);
+        assertThat(large[0]).as("statements for %d vs %d rows", large[1], small[1]).isEqualTo(small[0]);
+    }
+
+    @Test
+    @DisplayName("User bookings")
+    void userBookings() {
+        assertConstantStatementCount(f -> bookingService.getUserBookings(f.renter().getId()));
+    }
+
+    @Test
+    @DisplayName("Renter history")
+    void renterHistory() {
+        assertConstantStatementCount(f -> bookingService.getRenterHistory(f.renter().getId()));
+    }
+
+    @Test
+    @DisplayName("Active bookings of a renter")
+    void activeBookings() {
+        assertConstantStatementCount(f -> bookingService.getActiveBookingsByRenter(f.renter().getId()));
+    }
+
+    @Test
+    @DisplayName("Pending approvals of an owner")
+    void pendingApprovals() {
+        assertConstantStatementCount(f -> bookingService.getPendingApprovalBookings(f.owner().getId()));
+    }
+
+    @Test
+    @DisplayName("Bookings of a product")
+    void productBookings() {
+        assertConstantStatementCount(
+                f -> bookingService.getBookingsByProduct(f.sharedProduct().getId(), f.owner().getId()));
+    }
+
+    @Test
+    @DisplayName("Owner history")
+    void ownerHistory() {
+        assertConstantStatementCount(f -> bookingService.getOwnerBookings(f.owner().getId()));
+    }
+
+    @Test
+    @DisplayName("All bookings")
+    void allBookings() {
+        assertConstantStatementCount(f -> bookingService.getAllBookings());
+    }
+
+    @Test
+    @DisplayName("Paged listings")
+    void pagedListings() {
+        BookingPageRequest page = BookingPageRequest.of(null, BookingPageRequest.MAX_LIMIT);
+        assertConstantStatementCount(f -> bookingService.getAllBookings(page).getItems());
+        assertConstantStatementCount(f -> bookingService.getOwnerBookings(f.owner().getId(), page).getItems());
+        assertConstantStatementCount(f -> bookingService.getUserBookings(f.renter().getId(), page).getItems());
+    }
+}
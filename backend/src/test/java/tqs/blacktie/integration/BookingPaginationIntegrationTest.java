@@ -0,0 +1,112 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingPageRequest;
+import tqs.blacktie.dto.BookingPageResponse;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Booking keyset pagination tests")
+class BookingPaginationIntegrationTest extends CommittingIntegrationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 3, 1, 10, 0);
+
+    @Autowired
+    private BookingService bookingService;
+
+    private List<Booking> bookings;
+
+    @BeforeEach
+    void setUp() {
+        // Saved out of date order, with pairs sharing a start date so ties are broken by id
+        bookings = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            LocalDateTime start = BASE.plusDays((i * 7L) % 23 / 2);
+            Booking booking = new Booking(renter, product, start, start.plusHours(4), 50.0);
+            booking.setStatus(i % 3 == 0 ? Booking.STATUS_COMPLETED : Booking.STATUS_PENDING_APPROVAL);
+            bookings.add(bookingRepository.save(booking));
+        }
+    }
+
+    private List<Long> walk(Function<BookingPageRequest, BookingPageResponse> listing, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingPageResponse page = listing.apply(BookingPageRequest.of(cursor, limit));
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(limit);
+            page.getItems().stream().map(BookingResponse::getId).forEach(ids::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<Long> expectedIds(boolean openOnly) {
+        return bookings.stream()
+                .filter(b -> !openOnly || Booking.STATUS_PENDING_APPROVAL.equals(b.getStatus()))
+                .sorted(Comparator.comparing(Booking::getBookingDate).thenComparing(Booking::getId))
+                .map(Booking::getId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Walks all bookings in (bookingDate, id) order without gaps or duplicates")
+    void walksAllBookings() {
+        assertThat(walk(bookingService::getAllBookings, 5)).containsExactlyElementsOf(expectedIds(false));
+    }
+
+    @Test
+    @DisplayName("Walks the owner history page by page")
+    void walksOwnerHistory() {
+        assertThat(walk(page -> bookingService.getOwnerBookings(owner.getId(), page), 4))
+                .containsExactlyElementsOf(expectedIds(false));
+    }
+
+    @Test
+    @DisplayName("Walks only the open bookings of a renter")
+    void walksOpenRenterBookings() {
+        assertThat(walk(page -> bookingService.getUserBookings(renter.getId(), page), 3))
+                .containsExactlyElementsOf(expectedIds(true));
+    }
+
+    @Test
+    @DisplayName("Walks the paid and completed bookings of a product")
+    void walksProductBookings() {
+        List<Long> completed = bookings.stream()
+                .filter(b -> Booking.STATUS_COMPLETED.equals(b.getStatus()))
+                .sorted(Comparator.comparing(Booking::getBookingDate).thenComparing(Booking::getId))
+                .map(Booking::getId)
+                .toList();
+
+        assertThat(walk(page -> bookingService.getBookingsByProduct(product.getId(), owner.getId(), page), 3))
+                .containsExactlyElementsOf(completed);
+    }
+
+    @Test
+    @DisplayName("Walks the bookings waiting for the owner's approval")
+    void walksPendingApprovals() {
+        assertThat(walk(page -> bookingService.getPendingApprovalBookings(owner.getId(), page), 4))
+                .containsExactlyElementsOf(expectedIds(true));
+    }
+
+    @Test
+    @DisplayName("Returns no cursor when everything fits on one page")
+    void singlePageHasNoCursor() {
+        BookingPageResponse page = bookingService.getRenterHistory(renter.getId(), BookingPageRequest.of(null, 100));
+
+        assertThat(page.getItems()).hasSize(8);
+        assertThat(page.getNextCursor()).isNull();
+    }
+}
@@ -0,0 +1,111 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the booking listings only load the rows they return, i.e. the status filter runs
+ * in the database rather than over every booking of the user, owner or product.
+ */
+@DisplayName("Booking status query tests")
+class BookingStatusQueryIntegrationTest extends CommittingIntegrationTest {
+
+    private static final List<String> ALL_STATUSES = List.of(
+            Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_REJECTED,
+            Booking.STATUS_PAID, Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED);
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User otherRenter = userRepository.save(new User("Other", "other@status.test", "password", "renter"));
+
+        // Two bookings per status for the renter, one per status for somebody else
+        int day = 1;
+        for (String status : ALL_STATUSES) {
+            saveBooking(renter, status, day++);
+            saveBooking(renter, status, day++);
+            saveBooking(otherRenter, status, day++);
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private void saveBooking(User bookingRenter, String status, int day) {
+        LocalDateTime start = LocalDateTime.now().plusDays(day * 3L);
+        Booking booking = new Booking(bookingRenter, product, start, start.plusDays(1), 100.0);
+        booking.setStatus(status);
+        bookingRepository.save(booking);
+    }
+
+    private long bookingRowsLoadedBy(Supplier<List<BookingResponse>> listing, int expectedSize) {
+        statistics.clear();
+        List<BookingResponse> responses = listing.get();
+        assertThat(responses).hasSize(expectedSize);
+        return statistics.getEntityStatistics(Booking.class.getName()).getLoadCount();
+    }
+
+    @Test
+    @DisplayName("Open bookings of a user load only pending, approved and paid rows")
+    void userBookingsLoadOnlyOpenRows() {
+        assertThat(bookingRowsLoadedBy(() -> bookingService.getUserBookings(renter.getId()), 6)).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Renter history loads only completed and cancelled rows")
+    void renterHistoryLoadsOnlyFinishedRows() {
+        assertThat(bookingRowsLoadedBy(() -> bookingService.getRenterHistory(renter.getId()), 4)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Active bookings of a renter load only approved and paid rows")
+    void activeBookingsLoadOnlyActiveRows() {
+        assertThat(bookingRowsLoadedBy(() -> bookingService.getActiveBookingsByRenter(renter.getId()), 4))
+                .isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Pending approvals of an owner load only pending rows")
+    void pendingApprovalsLoadOnlyPendingRows() {
+        assertThat(bookingRowsLoadedBy(() -> bookingService.getPendingApprovalBookings(owner.getId()), 3))
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Product bookings load only paid and completed rows")
+    void productBookingsLoadOnlyPaidAndCompletedRows() {
+        assertThat(bookingRowsLoadedBy(
+                () -> bookingService.getBookingsByProduct(product.getId(), owner.getId()), 6)).isEqualTo(6);
+    }
+}
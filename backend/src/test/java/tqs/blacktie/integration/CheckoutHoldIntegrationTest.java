@@ -0,0 +1,155 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.CheckoutHoldService;
+import tqs.blacktie.service.NotificationDispatcher;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Checkout hold tests")
+class CheckoutHoldIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CheckoutHoldService checkoutHoldService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    private static LocalDateTime advancedTo = LocalDateTime.MIN;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(5);
+
+    /**
+     * Saves an approved booking whose hold started the given number of minutes ago and loads the
+     * holds the way the startup loader does.
+     */
+    private Booking approvedMinutesAgo(int minutes) {
+        Booking booking = new Booking(renter, product, start, start.plusDays(2), 200.0);
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setDeliveryMethod(Booking.DELIVERY_SHIPPING);
+        booking.setApprovedAt(LocalDateTime.now().minusMinutes(minutes));
+        booking.setHoldExpiresAt(booking.getApprovedAt().plusMinutes(30));
+        booking = bookingRepository.save(booking);
+        availabilityIndex.sync(booking);
+        checkoutHoldService.rebuild(bookingRepository.findHoldsByStatus(Booking.STATUS_APPROVED));
+        return booking;
+    }
+
+    /**
+     * Holds already past their deadline are due on the tick after the wheel's current one. The
+     * wheel is shared by the tests and only moves forward, so step past where earlier tests left it.
+     */
+    private static LocalDateTime nextTick() {
+        LocalDateTime now = LocalDateTime.now();
+        advancedTo = (advancedTo.isAfter(now) ? advancedTo : now).plusSeconds(2);
+        return advancedTo;
+    }
+
+    @Test
+    @DisplayName("Approving starts a hold and paying releases it")
+    void approvalHoldsUntilPayment() {
+        Booking pending = bookingRepository.save(new Booking(renter, product, start, start.plusDays(2), 200.0));
+        int before = checkoutHoldService.size();
+
+        bookingService.approveBooking(pending.getId(), owner.getId(), Booking.DELIVERY_SHIPPING, null);
+        assertThat(checkoutHoldService.size()).isEqualTo(before + 1);
+        assertThat(checkoutHoldService.expireDue(LocalDateTime.now())).isZero();
+
+        bookingService.processPayment(pending.getId(), renter.getId());
+        assertThat(checkoutHoldService.size()).isEqualTo(before);
+        assertThat(bookingRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_PAID);
+    }
+
+    @Test
+    @DisplayName("An unpaid hold past its window is cancelled, freed and notified")
+    void expiredHoldIsCancelled() {
+        Booking booking = approvedMinutesAgo(31);
+
+        assertThat(checkoutHoldService.expireDue(nextTick())).isEqualTo(1);
+
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_CANCELLED);
+        assertThat(availabilityIndex.hasOverlap(product.getId(), start, start.plusDays(2))).isFalse();
+
+        notificationDispatcher.dispatchPending();
+        assertThat(notificationRepository.findByUserOrderByCreatedAtDesc(renter))
+                .singleElement()
+                .satisfies(n -> assertThat(n.getType()).isEqualTo(Notification.TYPE_CHECKOUT_HOLD_EXPIRED));
+    }
+
+    @Test
+    @DisplayName("A hold still inside its window is kept")
+    void holdInsideWindowIsKept() {
+        Booking booking = approvedMinutesAgo(10);
+
+        assertThat(checkoutHoldService.expireDue(nextTick())).isZero();
+
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_APPROVED);
+        assertThat(availabilityIndex.hasOverlap(product.getId(), start, start.plusDays(2))).isTrue();
+    }
+
+    @Test
+    @DisplayName("A booking paid just before expiry is left alone")
+    void paidBookingIsNotExpired() {
+        Booking booking = approvedMinutesAgo(31);
+        booking.setStatus(Booking.STATUS_PAID);
+        bookingRepository.save(booking);
+
+        assertThat(checkoutHoldService.expireDue(nextTick())).isZero();
+
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_PAID);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("After a restart holds expire at their stored deadline, and older approvals get a full window")
+    void restartKeepsDeadlinesAndBackfillsOlderApprovals() {
+        Booking legacy = new Booking(renter, product, start.plusDays(10), start.plusDays(12), 200.0);
+        legacy.setStatus(Booking.STATUS_APPROVED);
+        legacy.setDeliveryMethod(Booking.DELIVERY_SHIPPING);
+        legacy.setApprovedAt(LocalDateTime.now().minusDays(3));
+        legacy = bookingRepository.save(legacy);
+        availabilityIndex.sync(legacy);
+        Booking pending = bookingRepository.save(new Booking(renter, product, start, start.plusDays(2), 200.0));
+        bookingService.approveBooking(pending.getId(), owner.getId(), Booking.DELIVERY_SHIPPING, null);
+
+        Booking approved = bookingRepository.findById(pending.getId()).orElseThrow();
+        assertThat(approved.getHoldExpiresAt()).isEqualTo(approved.getApprovedAt().plusMinutes(30));
+        assertThat(bookingRepository.findHoldsByStatus(Booking.STATUS_APPROVED))
+                .extracting(BookingRepository.HoldKey::getId)
+                .containsExactly(approved.getId());
+
+        // The node was down past the deadline: the hold is restarted from the database and expires
+        approved.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        bookingRepository.save(approved);
+        LocalDateTime restartedAt = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        assertThat(checkoutHoldService.backfill(restartedAt)).isEqualTo(1);
+        assertThat(checkoutHoldService.backfill(restartedAt)).isZero();
+        checkoutHoldService.rebuild(bookingRepository.findHoldsByStatus(Booking.STATUS_APPROVED));
+
+        assertThat(checkoutHoldService.expireDue(nextTick())).isEqualTo(1);
+        assertThat(bookingRepository.findById(approved.getId()).orElseThrow().getStatus())
+                .isEqualTo(Booking.STATUS_CANCELLED);
+        Booking backfilled = bookingRepository.findById(legacy.getId()).orElseThrow();
+        assertThat(backfilled.getStatus()).isEqualTo(Booking.STATUS_APPROVED);
+        assertThat(backfilled.getHoldExpiresAt()).isEqualTo(restartedAt.plusMinutes(30));
+        assertThat(bookingRepository.findHoldsByStatus(Booking.STATUS_APPROVED))
+                .extracting(BookingRepository.HoldKey::getId)
+                .containsExactly(legacy.getId());
+    }
+}
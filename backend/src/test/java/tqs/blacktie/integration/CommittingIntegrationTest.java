@@ -0,0 +1,115 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import tqs.blacktie.config.BookingEventLogSchema;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingAvailabilityIndex;
+import tqs.blacktie.service.PricingService;
+import tqs.blacktie.service.WaitlistIndex;
+
+import java.util.List;
+
+/**
+ * Base of the integration tests that commit for real (several threads, after-commit hooks,
+ * separate transactions) and so cannot roll back like the {@code @Transactional} ones. Every table
+ * they write is emptied before and after each test, and an owner, a renter and one product of the
+ * owner are saved for the test to use.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+abstract class CommittingIntegrationTest {
+
+    @Autowired
+    protected BookingRepository bookingRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    protected NotificationRepository notificationRepository;
+
+    @Autowired
+    protected ReviewRepository reviewRepository;
+
+    @Autowired
+    protected WaitlistEntryRepository waitlistRepository;
+
+    @Autowired
+    protected ProductBlackoutRepository blackoutRepository;
+
+    @Autowired
+    protected PricingRuleRepository ruleRepository;
+
+    @Autowired
+    protected IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    protected BookingAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    protected WaitlistIndex waitlistIndex;
+
+    @Autowired
+    protected PricingService pricingService;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected User owner;
+    protected User renter;
+    protected Product product;
+
+    @BeforeEach
+    void setUpFixture() {
+        cleanUp();
+        owner = userRepository.save(new User("Owner", "owner@integration.test", "password", "owner"));
+        renter = userRepository.save(new User("Renter", "renter@integration.test", "password", "renter"));
+        product = saveProduct("Test Suit", owner);
+    }
+
+    @AfterEach
+    void tearDownFixture() {
+        cleanUp();
+    }
+
+    protected Product saveProduct(String name, User productOwner) {
+        Product saved = new Product();
+        saved.setName(name);
+        saved.setDescription("A suit");
+        saved.setPrice(100.0);
+        saved.setAvailable(true);
+        saved.setOwner(productOwner);
+        return productRepository.save(saved);
+    }
+
+    protected void cleanUp() {
+        jdbcTemplate.update("DELETE FROM " + BookingEventLogSchema.TABLE);
+        recordRepository.deleteAll();
+        ruleRepository.deleteAll();
+        pricingService.reloadRules();
+        waitlistRepository.deleteAll();
+        blackoutRepository.deleteAll();
+        outboxRepository.deleteAll();
+        notificationRepository.deleteAll();
+        reviewRepository.deleteAll();
+        bookingRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        // Deleting in bulk bypasses the services, so the indexes would keep what was deleted
+        availabilityIndex.rebuild(List.of());
+        waitlistIndex.rebuild(List.of());
+    }
+}
@@ -0,0 +1,99 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Delivery code handover tests")
+class DeliveryHandoffIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private BookingResponse paidBooking(String deliveryMethod, int fromDay) {
+        Booking booking = new Booking(renter, product, LocalDateTime.now().plusDays(fromDay),
+                LocalDateTime.now().plusDays(fromDay + 1L), 45.0);
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setDeliveryMethod(deliveryMethod);
+        booking = bookingRepository.save(booking);
+        return bookingService.processPayment(booking.getId(), renter.getId());
+    }
+
+    @Test
+    @DisplayName("Hands over a paid pickup booking by its code, once")
+    void handsOverByCode() {
+        BookingResponse paid = paidBooking(Booking.DELIVERY_PICKUP, 1);
+        String scanned = paid.getDeliveryCode().toLowerCase();
+
+        statistics.clear();
+        BookingResponse handedOver = bookingService.handOver(scanned, owner.getId());
+
+        // One select resolving the code with renter, product and owner, one update
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(handedOver.getId()).isEqualTo(paid.getId());
+        assertThat(handedOver.getHandedOverAt()).isNotNull();
+        assertThat(bookingRepository.findById(paid.getId()).orElseThrow().getHandedOverAt()).isNotNull();
+        Long ownerId = owner.getId();
+        assertThatThrownBy(() -> bookingService.handOver(scanned, ownerId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already handed over");
+    }
+
+    @Test
+    @DisplayName("Only the product's owner can confirm a handover")
+    void onlyOwnerHandsOver() {
+        BookingResponse paid = paidBooking(Booking.DELIVERY_SHIPPING, 1);
+        String code = paid.getDeliveryCode();
+        Long renterId = renter.getId();
+
+        assertThatThrownBy(() -> bookingService.handOver(code, renterId))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> bookingService.handOver("NOSUCH00", renterId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("The database rejects two bookings with the same code")
+    void codesAreUnique() {
+        BookingResponse paid = paidBooking(Booking.DELIVERY_SHIPPING, 1);
+        BookingResponse other = paidBooking(Booking.DELIVERY_SHIPPING, 5);
+        assertThat(other.getDeliveryCode()).isNotEqualTo(paid.getDeliveryCode());
+
+        Booking duplicate = bookingRepository.findById(other.getId()).orElseThrow();
+        duplicate.setDeliveryCode(paid.getDeliveryCode());
+
+        assertThatThrownBy(() -> bookingRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,202 @@
+package tqs.blacktie.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tqs.blacktie.controller.BookingController;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.IdempotencyService;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Idempotency-Key tests")
+class IdempotencyIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BookingRequest request;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+        request = new BookingRequest(product.getId(), start, start.plusDays(2));
+    }
+
+    @Test
+    @DisplayName("A retried booking request creates the booking once and replays the response")
+    void retriedBookingIsCreatedOnce() {
+        ResponseEntity<?> first = bookingController.createBooking(renter.getId(), "retry-1", request);
+        ResponseEntity<?> retry = bookingController.createBooking(renter.getId(), "retry-1", request);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(bookingRepository.count()).isEqualTo(1);
+        assertThat(recordRepository.findAll()).singleElement()
+                .satisfies(record -> assertThat(record.getStatusCode()).isEqualTo(201));
+    }
+
+    @Test
+    @DisplayName("Without the same key the second request runs again")
+    void differentKeyRunsAgain() {
+        bookingController.createBooking(renter.getId(), "retry-1", request);
+
+        ResponseEntity<?> second = bookingController.createBooking(renter.getId(), "retry-2", request);
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isNull();
+        assertThat(bookingRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Concurrent requests with the same key execute once")
+    void concurrentRequestsExecuteOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> idempotencyService.execute(
+                    "race-1", "test scope", "body", () -> {
+                        executions.incrementAndGet();
+                        running.countDown();
+                        await(release);
+                        return ResponseEntity.ok("done");
+                    }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            ResponseEntity<?> second = idempotencyService.execute("race-1", "test scope", "body", () -> {
+                executions.incrementAndGet();
+                return ResponseEntity.ok("done");
+            });
+            release.countDown();
+
+            assertThat(second.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            assertThat(first.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Expired keys are purged")
+    void purgesExpiredKeys() {
+        bookingController.createBooking(renter.getId(), "old", request);
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = ?", LocalDateTime.now().minusMinutes(1));
+
+        idempotencyService.purgeExpired();
+
+        assertThat(recordRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("A failed request releases its key so the retry runs")
+    void failedRequestCanBeRetried() {
+        idempotencyService.execute("flaky", "test scope", "body", () -> ResponseEntity.internalServerError().build());
+
+        ResponseEntity<?> retry = idempotencyService.execute("flaky", "test scope", "body",
+                () -> ResponseEntity.ok("done"));
+
+        assertThat(retry.getBody()).isEqualTo("done");
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isNull();
+    }
+
+    @Test
+    @DisplayName("An expired key still in the table does not block a new request")
+    void expiredKeyIsReplaced() throws Exception {
+        String id = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("test scope\nstale".getBytes(StandardCharsets.UTF_8)));
+        LocalDateTime past = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, status_code, content_type, "
+                + "response_body, created_at, expires_at) VALUES (?, 'other', 200, 'text/plain', 'old', ?, ?)",
+                id, past, past.plusDays(1));
+
+        ResponseEntity<?> first = idempotencyService.execute("stale", "test scope", "body",
+                () -> ResponseEntity.ok("new"));
+        ResponseEntity<?> replay = idempotencyService.execute("stale", "test scope", "body",
+                () -> ResponseEntity.ok("again"));
+
+        assertThat(first.getBody()).isEqualTo("new");
+        assertThat(replay.getBody()).isEqualTo("new");
+        assertThat(recordRepository.findById(id).orElseThrow().getResponseBody()).isEqualTo("new");
+    }
+
+    @Test
+    @DisplayName("A key left reserved by a request that never finished is taken over once its lease runs out")
+    void abandonedLeaseIsTakenOver() throws Exception {
+        String id = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("test scope\nabandoned".getBytes(StandardCharsets.UTF_8)));
+        LocalDateTime reservedAt = LocalDateTime.now().minusMinutes(2);
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, created_at, expires_at) VALUES (?, ?, ?, ?)",
+                id, "in flight", reservedAt, reservedAt.plusMinutes(1));
+
+        ResponseEntity<?> retry = idempotencyService.execute("abandoned", "test scope", "body",
+                () -> ResponseEntity.ok("done"));
+
+        assertThat(retry.getBody()).isEqualTo("done");
+        assertThat(recordRepository.findById(id).orElseThrow().getExpiresAt())
+                .isAfter(LocalDateTime.now().plusHours(23));
+    }
+
+    @Test
+    @DisplayName("A request running longer than its lease keeps the key until it completes")
+    void slowRequestKeepsItsLease() {
+        IdempotencyService shortLease = new IdempotencyService(recordRepository, objectMapper,
+                Duration.ofHours(1), Duration.ofMillis(300), 10);
+        AtomicInteger retried = new AtomicInteger();
+
+        ResponseEntity<?> slow = shortLease.execute("slow", "test scope", "body", () -> {
+            try {
+                Thread.sleep(1_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // A retry arriving after several leases would have run out
+            ResponseEntity<?> retry = shortLease.execute("slow", "test scope", "body", () -> {
+                retried.incrementAndGet();
+                return ResponseEntity.ok("again");
+            });
+            assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+            return ResponseEntity.ok("done");
+        });
+
+        assertThat(slow.getBody()).isEqualTo("done");
+        assertThat(retried.get()).isZero();
+        assertThat(shortLease.execute("slow", "test scope", "body", () -> ResponseEntity.ok("again")).getBody())
+                .isEqualTo("done");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
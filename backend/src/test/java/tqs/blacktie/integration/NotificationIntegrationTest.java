@@ -16,6 +16,7 @@ import tqs.blacktie.repository.NotificationRepository;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.ReviewRepository;
 import tqs.blacktie.repository.UserRepository;
+import tqs.blacktie.service.NotificationDispatcher;
 import tqs.blacktie.service.NotificationService;
 
 import java.time.LocalDateTime;
@@ -32,6 +33,9 @@ class NotificationIntegrationTest {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
@@ -82,6 +86,7 @@ class NotificationIntegrationTest {
     @Test
     void testCreateNewBookingNotificationIntegration() {
         notificationService.createNewBookingNotification(owner, booking);
+        notificationDispatcher.dispatchPending();
 
         List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(owner);
         assertThat(notifications).hasSize(1);
@@ -94,6 +99,7 @@ class NotificationIntegrationTest {
     @Test
     void testCreateBookingCancelledByRenterNotificationIntegration() {
         notificationService.createBookingCancelledByRenterNotification(owner, booking);
+        notificationDispatcher.dispatchPending();
 
         List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(owner);
         assertThat(notifications).hasSize(1);
@@ -105,6 +111,7 @@ class NotificationIntegrationTest {
     @Test
     void testCreateBookingCancelledByOwnerNotificationIntegration() {
         notificationService.createBookingCancelledByOwnerNotification(renter, booking);
+        notificationDispatcher.dispatchPending();
 
         List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(renter);
         assertThat(notifications).hasSize(1);
@@ -117,6 +124,7 @@ class NotificationIntegrationTest {
     void testGetUserNotificationsIntegration() {
         notificationService.createNewBookingNotification(owner, booking);
         notificationService.createNewBookingNotification(owner, booking);
+        notificationDispatcher.dispatchPending();
 
         List<NotificationResponse> notifications = notificationService.getUserNotifications(owner.getId());
 
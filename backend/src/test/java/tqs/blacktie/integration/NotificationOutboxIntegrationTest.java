@@ -0,0 +1,151 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.entity.NotificationOutboxEvent;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.NotificationDispatcher;
+import tqs.blacktie.service.NotificationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Notification outbox tests")
+class NotificationOutboxIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        booking = bookingRepository.save(new Booking(renter, product,
+                LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(5), 200.0));
+    }
+
+    private void enqueueDirectly(int count, User recipient) {
+        List<NotificationOutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new NotificationOutboxEvent(recipient.getId(), booking.getId(),
+                    Notification.TYPE_NEW_BOOKING, "Message " + i, LocalDateTime.now()));
+        }
+        outboxRepository.saveAll(events);
+    }
+
+    @Test
+    @DisplayName("A booking transition writes an outbox row that becomes exactly one notification")
+    void transitionIsDeliveredExactlyOnce() {
+        bookingService.approveBooking(booking.getId(), owner.getId(), Booking.DELIVERY_PICKUP, "Main street");
+
+        assertThat(outboxRepository.count()).isEqualTo(1);
+        assertThat(notificationRepository.count()).isZero();
+
+        assertThat(notificationDispatcher.dispatchPending()).isEqualTo(1);
+        assertThat(notificationDispatcher.dispatchPending()).isZero();
+
+        List<Notification> notifications = notificationRepository.findByUserOrderByCreatedAtDesc(renter);
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications.get(0).getType()).isEqualTo(Notification.TYPE_BOOKING_APPROVED);
+        assertThat(notifications.get(0).getBooking().getId()).isEqualTo(booking.getId());
+        assertThat(notifications.get(0).getIsRead()).isFalse();
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Notifications enqueued by a rolled back transaction are never delivered")
+    void rolledBackTransactionLeavesNothing() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationService.createNewBookingNotification(owner, booking);
+            status.setRollbackOnly();
+        });
+
+        assertThat(notificationDispatcher.dispatchPending()).isZero();
+        assertThat(notificationRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Drops notifications of deleted users and unlinks deleted bookings")
+    void skipsDeletedRecipientsAndBookings() {
+        User gone = userRepository.save(new User("Gone", "gone@outbox.test", "password", "renter"));
+        enqueueDirectly(2, gone);
+        enqueueDirectly(1, owner);
+        userRepository.delete(gone);
+        jdbcTemplate.update("UPDATE notification_outbox SET booking_id = -1 WHERE recipient_id = ?", owner.getId());
+
+        assertThat(notificationDispatcher.dispatchPending()).isEqualTo(3);
+
+        List<Notification> notifications = notificationRepository.findAll();
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications.get(0).getUser().getId()).isEqualTo(owner.getId());
+        assertThat(notifications.get(0).getBooking()).isNull();
+    }
+
+    @Test
+    @DisplayName("Concurrent dispatchers deliver every outbox row exactly once")
+    void concurrentDispatchersDoNotDuplicate() throws Exception {
+        enqueueDirectly(1_000, owner);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Integer>> drains = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                drains.add(executor.submit(notificationDispatcher::dispatchPending));
+            }
+            int total = 0;
+            for (Future<Integer> drain : drains) {
+                total += drain.get();
+            }
+            assertThat(total).isEqualTo(1_000);
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(notificationRepository.count()).isEqualTo(1_000);
+        assertThat(outboxRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("The background dispatcher delivers as soon as it is woken up")
+    void backgroundDispatcherDeliversOnWakeUp() throws Exception {
+        NotificationDispatcher background = new NotificationDispatcher(
+                jdbcTemplate, transactionManager, 50, Duration.ofMinutes(1), true);
+        ReflectionTestUtils.invokeMethod(background, "start");
+        try {
+            enqueueDirectly(120, owner);
+            background.wakeUp();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (notificationRepository.count() < 120 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+        } finally {
+            ReflectionTestUtils.invokeMethod(background, "stop");
+        }
+        assertThat(notificationRepository.count()).isEqualTo(120);
+    }
+}
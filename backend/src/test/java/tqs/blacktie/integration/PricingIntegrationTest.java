@@ -0,0 +1,107 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.BookingResponse;
+import tqs.blacktie.dto.PriceQuoteResponse;
+import tqs.blacktie.dto.PricingRuleRequest;
+import tqs.blacktie.dto.PricingRuleResponse;
+import tqs.blacktie.entity.PricingRule;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.BookingService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Pricing rule tests")
+class PricingIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    // Friday to Monday: Friday, Saturday and Sunday are charged
+    private final LocalDateTime friday = LocalDate.now().plusWeeks(2)
+            .with(TemporalAdjusters.previousOrSame(DayOfWeek.FRIDAY)).atTime(10, 0);
+
+    @BeforeEach
+    void setUp() {
+        product.setPrice(40.0);
+        product = productRepository.save(product);
+    }
+
+    @Test
+    @DisplayName("Bookings are charged the quoted price once a rule is added")
+    void bookingMatchesQuote() {
+        PriceQuoteResponse before = pricingService.getQuote(product.getId(), friday, friday.plusDays(3));
+        assertThat(before.getTotalPrice()).isEqualTo(120.0);
+
+        pricingService.addRule(new PricingRuleRequest("WEEKEND", 25.0, null, null, null, "Weekend demand"));
+        PriceQuoteResponse quote = pricingService.getQuote(product.getId(), friday, friday.plusDays(3));
+        BookingResponse booking = bookingService.createBooking(renter.getId(),
+                new BookingRequest(product.getId(), friday, friday.plusDays(3)));
+
+        assertThat(quote.getDays()).isEqualTo(3);
+        assertThat(quote.getBasePrice()).isEqualTo(120.0);
+        assertThat(quote.getTotalPrice()).isEqualTo(140.0);
+        assertThat(booking.getTotalPrice()).isEqualTo(quote.getTotalPrice());
+    }
+
+    @Test
+    @DisplayName("Removing a rule restores the previous prices")
+    void deleteRuleRestoresPrices() {
+        PricingRuleResponse discount = pricingService.addRule(
+                new PricingRuleRequest("LONG_RENTAL", -10.0, null, null, 3, null));
+        assertThat(pricingService.getQuote(product.getId(), friday, friday.plusDays(3)).getTotalPrice())
+                .isEqualTo(108.0);
+
+        pricingService.deleteRule(discount.getId());
+
+        assertThat(pricingService.getRules()).isEmpty();
+        assertThat(pricingService.getQuote(product.getId(), friday, friday.plusDays(3)).getTotalPrice())
+                .isEqualTo(120.0);
+    }
+
+    @Test
+    @DisplayName("Rules changed by another node are picked up on the next refresh")
+    void refreshPicksUpStoredRules() {
+        // Written straight to the database, as another node would
+        PricingRule weekend = ruleRepository.save(new PricingRule("WEEKEND", 25.0));
+        assertThat(pricingService.getQuote(product.getId(), friday, friday.plusDays(3)).getTotalPrice())
+                .isEqualTo(120.0);
+
+        pricingService.refreshRules();
+        assertThat(pricingService.getQuote(product.getId(), friday, friday.plusDays(3)).getTotalPrice())
+                .isEqualTo(140.0);
+
+        ruleRepository.delete(weekend);
+        pricingService.refreshRules();
+        assertThat(pricingService.getQuote(product.getId(), friday, friday.plusDays(3)).getTotalPrice())
+                .isEqualTo(120.0);
+    }
+
+    @Test
+    @DisplayName("Invalid rules are rejected and not stored")
+    void rejectsInvalidRules() {
+        PricingRuleRequest season = new PricingRuleRequest("SEASON", 30.0, friday.toLocalDate(),
+                friday.toLocalDate().minusDays(1), null, null);
+        PricingRuleRequest discount = new PricingRuleRequest("LONG_RENTAL", -100.0, null, null, 3, null);
+
+        assertThatThrownBy(() -> pricingService.addRule(season))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("End date must not be before start date");
+        assertThatThrownBy(() -> pricingService.addRule(discount))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Percentage must be above -100 and at most 1000");
+        assertThat(ruleRepository.findAll()).isEmpty();
+        assertThat(pricingService.getRules()).isEqualTo(List.of());
+    }
+}
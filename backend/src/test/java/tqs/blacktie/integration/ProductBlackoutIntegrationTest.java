@@ -0,0 +1,202 @@
+package tqs.blacktie.integration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import tqs.blacktie.dto.BlackoutRequest;
+import tqs.blacktie.dto.BlackoutResponse;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.WaitlistEntry;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.AdminService;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.ProductBlackoutService;
+import tqs.blacktie.service.ReservationCheck;
+import tqs.blacktie.service.WaitlistService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Product block-out and buffer tests")
+class ProductBlackoutIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private ProductBlackoutService blackoutService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private AdminService adminService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MINUTES);
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    private BookingRequest dates(int fromDay, int toDay) {
+        return new BookingRequest(product.getId(), start.plusDays(fromDay), start.plusDays(toDay));
+    }
+
+    private BlackoutResponse blockOut(int fromDay, int toDay) {
+        return blackoutService.addBlackout(product.getId(), owner.getId(),
+                new BlackoutRequest(start.plusDays(fromDay), start.plusDays(toDay), "Dry-cleaning"));
+    }
+
+    @Test
+    @DisplayName("A block-out rejects bookings with the same statements as an approved booking")
+    void blackoutBlocksBookingsWithoutExtraQueries() {
+        Booking approved = new Booking(renter, product, start, start.plusDays(2), 200.0);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        availabilityIndex.sync(bookingRepository.save(approved));
+
+        statistics.clear();
+        assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), dates(1, 3)))
+                .isInstanceOf(IllegalStateException.class);
+        long againstBooking = statistics.getPrepareStatementCount();
+
+        blockOut(10, 12);
+        statistics.clear();
+        assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), dates(11, 13)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Product is already booked for the selected dates");
+        long againstBlackout = statistics.getPrepareStatementCount();
+
+        assertThat(againstBlackout).isEqualTo(againstBooking);
+        assertThat(bookingService.createBooking(renter.getId(), dates(5, 6)).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("A block-out cannot cover booked or blocked dates")
+    void blackoutCannotOverlapBookings() {
+        Booking paid = new Booking(renter, product, start, start.plusDays(2), 200.0);
+        paid.setStatus(Booking.STATUS_PAID);
+        availabilityIndex.sync(bookingRepository.save(paid));
+        blockOut(5, 6);
+
+        assertThatThrownBy(() -> blockOut(2, 4))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Product is already booked or blocked for the selected dates");
+        assertThatThrownBy(() -> blockOut(6, 8))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> blackoutService.addBlackout(product.getId(), renter.getId(),
+                new BlackoutRequest(start.plusDays(20), start.plusDays(21), null)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(blackoutRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Buffer days keep the product blocked after each return")
+    void bufferDaysAfterReturn() {
+        blackoutService.updateBufferDays(product.getId(), owner.getId(), 2);
+        Booking paid = new Booking(renter, product, start, start.plusDays(2), 200.0);
+        paid.setStatus(Booking.STATUS_PAID);
+        paid.setProduct(productRepository.findById(product.getId()).orElseThrow());
+        availabilityIndex.sync(bookingRepository.save(paid));
+
+        assertThatThrownBy(() -> bookingService.createBooking(renter.getId(), dates(4, 5)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(bookingService.createBooking(renter.getId(), dates(5, 6)).getId()).isNotNull();
+
+        blackoutService.updateBufferDays(product.getId(), owner.getId(), 0);
+        assertThat(bookingService.createBooking(renter.getId(), dates(3, 4)).getId()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("A longer buffer cannot run into a reserved booking, a shorter one frees dates for the waitlist")
+    void changingBufferDays() {
+        blackoutService.updateBufferDays(product.getId(), owner.getId(), 3);
+        product = productRepository.findById(product.getId()).orElseThrow();
+        for (int[] days : new int[][] {{0, 2}, {7, 8}}) {
+            Booking paid = new Booking(renter, product, start.plusDays(days[0]), start.plusDays(days[1]), 200.0);
+            paid.setStatus(Booking.STATUS_PAID);
+            availabilityIndex.sync(bookingRepository.save(paid));
+        }
+        WaitlistEntry entry = waitlistRepository.findById(
+                waitlistService.join(renter.getId(), dates(4, 4)).getId()).orElseThrow();
+
+        assertThatThrownBy(() -> blackoutService.updateBufferDays(product.getId(), owner.getId(), 5))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("would overlap bookings");
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getBufferDays()).isEqualTo(3);
+
+        blackoutService.updateBufferDays(product.getId(), owner.getId(), 1);
+
+        assertThat(availabilityIndex.hasOverlap(product.getId(), start.plusDays(4), start.plusDays(4))).isFalse();
+        assertThat(waitlistRepository.findById(entry.getId()).orElseThrow().getStatus())
+                .isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+    }
+
+    @Test
+    @DisplayName("The database checks made under the advisory lock agree with the index")
+    void databaseChecksAgreeWithIndex() {
+        blackoutService.updateBufferDays(product.getId(), owner.getId(), 2);
+        product = productRepository.findById(product.getId()).orElseThrow();
+        Booking paid = new Booking(renter, product, start, start.plusDays(2), 200.0);
+        paid.setStatus(Booking.STATUS_PAID);
+        availabilityIndex.sync(bookingRepository.save(paid));
+        blockOut(10, 12);
+        ReservationCheck local = new ReservationCheck(availabilityIndex, bookingRepository, blackoutRepository, "local");
+        ReservationCheck advisory = new ReservationCheck(availabilityIndex, bookingRepository, blackoutRepository,
+                "advisory");
+
+        for (int day = -4; day <= 16; day++) {
+            LocalDateTime from = start.plusDays(day);
+            LocalDateTime to = from.plusDays(1);
+            assertThat(advisory.isBooked(product, from, to)).as("booked on day %d", day)
+                    .isEqualTo(local.isBooked(product, from, to));
+            assertThat(advisory.isBlocked(product, from, to)).as("blocked on day %d", day)
+                    .isEqualTo(local.isBlocked(product, from, to));
+        }
+    }
+
+    @Test
+    @DisplayName("Removing a block-out frees its dates and notifies the waitlist")
+    void removingBlackoutNotifiesWaiters() {
+        BlackoutResponse blackout = blockOut(0, 3);
+        WaitlistEntry entry = waitlistRepository.findById(
+                waitlistService.join(renter.getId(), dates(1, 2)).getId()).orElseThrow();
+
+        blackoutService.removeBlackout(product.getId(), blackout.getId(), owner.getId());
+
+        assertThat(availabilityIndex.hasOverlap(product.getId(), start, start.plusDays(3))).isFalse();
+        assertThat(waitlistRepository.findById(entry.getId()).orElseThrow().getStatus())
+                .isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+    }
+
+    @Test
+    @DisplayName("Deleting a product drops its block-outs")
+    void deletingProductDropsBlackouts() {
+        blockOut(0, 3);
+
+        adminService.deleteProduct(product.getId());
+
+        assertThat(blackoutRepository.count()).isZero();
+        assertThat(availabilityIndex.hasOverlap(product.getId(), start, start.plusDays(3))).isFalse();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.*;
+import tqs.blacktie.service.ProductSearchIndex;
 import tqs.blacktie.service.ProductService;
 
 import java.util.List;
@@ -39,6 +40,9 @@ class ProductIntegrationTest {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
     private User owner;
     private User renter;
 
@@ -114,6 +118,8 @@ class ProductIntegrationTest {
         product2.setOwner(owner);
         product2.setAvailable(true);
         productRepository.save(product2);
+        // Saved outside ProductService and never committed: index them as the startup loader does
+        searchIndex.rebuild(productRepository.findByAvailableTrue());
 
         List<Product> products = productService.getAvailableProducts("Black", null, renter.getId());
 
@@ -0,0 +1,145 @@
+package tqs.blacktie.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import tqs.blacktie.dto.BookingRequest;
+import tqs.blacktie.dto.WaitlistEntryResponse;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Notification;
+import tqs.blacktie.entity.NotificationOutboxEvent;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.entity.WaitlistEntry;
+import tqs.blacktie.repository.*;
+import tqs.blacktie.service.AdminService;
+import tqs.blacktie.service.BookingService;
+import tqs.blacktie.service.WaitlistService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Waitlist tests")
+class WaitlistIntegrationTest extends CommittingIntegrationTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private AdminService adminService;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.MINUTES);
+
+    private Booking approved(User bookedBy, int fromDay, int toDay) {
+        Booking booking = new Booking(bookedBy, product, start.plusDays(fromDay), start.plusDays(toDay), 100.0);
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setApprovedAt(LocalDateTime.now());
+        booking = bookingRepository.save(booking);
+        availabilityIndex.sync(booking);
+        return booking;
+    }
+
+    private WaitlistEntryResponse join(String name, int fromDay, int toDay) {
+        User waiter = userRepository.save(new User(name, name + "@waitlist.test", "password", "renter"));
+        return waitlistService.join(waiter.getId(),
+                new BookingRequest(product.getId(), start.plusDays(fromDay), start.plusDays(toDay)));
+    }
+
+    private String statusOf(WaitlistEntryResponse entry) {
+        return waitlistRepository.findById(entry.getId()).orElseThrow().getStatus();
+    }
+
+    @Test
+    @DisplayName("Waiters of freed dates are notified in the order they joined")
+    void cancellationNotifiesWaitersInPriorityOrder() {
+        Booking booking = approved(renter, 0, 4);
+        WaitlistEntryResponse first = join("First", 1, 2);
+        WaitlistEntryResponse second = join("Second", 0, 4);
+        WaitlistEntryResponse elsewhere = join("Elsewhere", 3, 3);
+        outboxRepository.deleteAll();
+
+        Booking other = approved(renter, 3, 3);
+        bookingService.cancelBooking(booking.getId(), renter.getId());
+
+        assertThat(statusOf(first)).isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+        // Still blocked by the other booking on day 3
+        assertThat(statusOf(second)).isEqualTo(WaitlistEntry.STATUS_WAITING);
+        assertThat(statusOf(elsewhere)).isEqualTo(WaitlistEntry.STATUS_WAITING);
+
+        bookingService.cancelBooking(other.getId(), renter.getId());
+
+        assertThat(statusOf(second)).isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+        assertThat(statusOf(elsewhere)).isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+        assertThat(outboxRepository.findAll(Sort.by("id")))
+                .filteredOn(event -> Notification.TYPE_WAITLIST_SLOT_AVAILABLE.equals(event.getType()))
+                .extracting(NotificationOutboxEvent::getRecipientId)
+                .containsExactly(userIdOf(first), userIdOf(second), userIdOf(elsewhere));
+        assertThat(waitlistIndex.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Admin cancellations notify the waiters too")
+    void adminCancellationNotifiesWaiters() {
+        approved(renter, 0, 2);
+        WaitlistEntryResponse entry = join("Waiter", 0, 2);
+
+        adminService.updateUserStatus(renter.getId(), User.STATUS_SUSPENDED);
+
+        assertThat(statusOf(entry)).isEqualTo(WaitlistEntry.STATUS_NOTIFIED);
+    }
+
+    @Test
+    @DisplayName("Only taken dates can be waited for, once per renter")
+    void joinRequiresTakenDates() {
+        approved(renter, 0, 2);
+        User waiter = userRepository.save(new User("Waiter", "waiter@waitlist.test", "password", "renter"));
+        BookingRequest taken = new BookingRequest(product.getId(), start.plusDays(1), start.plusDays(3));
+
+        waitlistService.join(waiter.getId(), taken);
+
+        assertThatThrownBy(() -> waitlistService.join(waiter.getId(), taken))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("You are already on the waitlist for these dates");
+        assertThatThrownBy(() -> waitlistService.join(waiter.getId(),
+                new BookingRequest(product.getId(), start.plusDays(5), start.plusDays(6))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Product is available for the selected dates");
+    }
+
+    @Test
+    @DisplayName("A renter who left the waitlist is not notified")
+    void leftEntryIsNotNotified() {
+        Booking booking = approved(renter, 0, 2);
+        WaitlistEntryResponse entry = join("Waiter", 0, 2);
+
+        waitlistService.leave(entry.getId(), userIdOf(entry));
+        bookingService.cancelBooking(booking.getId(), renter.getId());
+
+        assertThat(statusOf(entry)).isEqualTo(WaitlistEntry.STATUS_CANCELLED);
+        assertThat(outboxRepository.findAll())
+                .noneMatch(event -> Notification.TYPE_WAITLIST_SLOT_AVAILABLE.equals(event.getType()));
+    }
+
+    @Test
+    @DisplayName("Deleting a product drops its waitlist")
+    void deletingProductDropsWaitlist() {
+        approved(renter, 0, 2);
+        join("Waiter", 0, 2);
+
+        adminService.deleteProduct(product.getId());
+
+        assertThat(waitlistRepository.count()).isZero();
+        assertThat(waitlistIndex.size()).isZero();
+    }
+
+    private Long userIdOf(WaitlistEntryResponse entry) {
+        return waitlistRepository.findById(entry.getId()).orElseThrow().getUser().getId();
+    }
+}
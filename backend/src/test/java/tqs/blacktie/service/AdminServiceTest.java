@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tqs.blacktie.dto.AdminUserResponse;
 import tqs.blacktie.dto.PlatformMetricsResponse;
@@ -16,6 +17,7 @@ import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.BookingRepository;
 import tqs.blacktie.repository.NotificationRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
@@ -26,8 +28,10 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +53,30 @@ class AdminServiceTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private ProductBlackoutRepository blackoutRepository;
+
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductSuggestionIndex suggestionIndex;
+
+    @Mock
+    private ProductGeoIndex geoIndex;
+
+    @Mock
+    private PricingEngine pricingEngine;
+
     @InjectMocks
     private AdminService adminService;
 
@@ -257,6 +285,7 @@ class AdminServiceTest {
             verify(bookingRepository).save(activeBooking);
             assertEquals(Booking.STATUS_CANCELLED, activeBooking.getStatus());
             verify(notificationService).createBookingCancelledByAdminNotification(eq(regularUser), eq(activeBooking), anyString());
+            verify(eventLog).record(eq(activeBooking), eq(BookingEventLog.CANCELLED), isNull(), anyMap());
         }
 
         @Test
@@ -524,6 +553,10 @@ class AdminServiceTest {
             // Verify product bookings and their notifications are deleted
             verify(notificationRepository).deleteAll(List.of(productBookingNotification));
             verify(bookingRepository).delete(productBooking);
+
+            // Verify the deletions are kept in the booking history
+            verify(eventLog).record(renterBooking, BookingEventLog.DELETED, null);
+            verify(eventLog).record(productBooking, BookingEventLog.DELETED, null);
             
             // Verify products are deleted
             verify(productRepository).delete(ownedProduct);
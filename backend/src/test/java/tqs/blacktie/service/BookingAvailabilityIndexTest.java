@@ -0,0 +1,278 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.ProductBlackout;
+import tqs.blacktie.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookingAvailabilityIndex Tests")
+class BookingAvailabilityIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 6, 1, 10, 0);
+
+    private BookingAvailabilityIndex index;
+    private User renter;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingAvailabilityIndex();
+        renter = new User("Renter", "renter@test.com", "password");
+        renter.setId(1L);
+        product = new Product("Tuxedo", "Classic black tuxedo", 50.0);
+        product.setId(10L);
+    }
+
+    private Booking booking(long id, int startDay, int endDay, String status) {
+        Booking booking = new Booking(renter, product, BASE.plusDays(startDay), BASE.plusDays(endDay), 100.0);
+        booking.setId(id);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    @Test
+    @DisplayName("Should detect overlap with approved and paid bookings only")
+    void shouldDetectOverlapWithActiveBookingsOnly() {
+        index.sync(booking(1L, 0, 2, Booking.STATUS_APPROVED));
+        index.sync(booking(2L, 10, 12, Booking.STATUS_PENDING_APPROVAL));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(3)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(10), BASE.plusDays(11)));
+        assertFalse(index.hasOverlap(99L, BASE, BASE.plusDays(30)));
+    }
+
+    @Test
+    @DisplayName("Should treat touching boundaries as overlapping")
+    void shouldTreatBoundariesAsInclusive() {
+        index.sync(booking(1L, 5, 7, Booking.STATUS_PAID));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(7), BASE.plusDays(9)));
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(3), BASE.plusDays(5)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(8), BASE.plusDays(9)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(4)));
+    }
+
+    @Test
+    @DisplayName("Should find long intervals that started before shorter ones")
+    void shouldFindNestedIntervals() {
+        index.sync(booking(1L, 0, 30, Booking.STATUS_APPROVED));
+        index.sync(booking(2L, 5, 6, Booking.STATUS_APPROVED));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(20), BASE.plusDays(21)));
+    }
+
+    @Test
+    @DisplayName("Should release the slot when a booking is cancelled or rejected")
+    void shouldReleaseSlotOnCancellation() {
+        Booking booking = booking(1L, 0, 2, Booking.STATUS_APPROVED);
+        index.sync(booking);
+
+        booking.setStatus(Booking.STATUS_CANCELLED);
+        index.sync(booking);
+
+        assertFalse(index.hasOverlap(10L, BASE, BASE.plusDays(2)));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep a single entry when a booking moves from approved to paid")
+    void shouldNotDuplicateOnRepeatedSync() {
+        Booking booking = booking(1L, 0, 2, Booking.STATUS_APPROVED);
+        index.sync(booking);
+        booking.setStatus(Booking.STATUS_PAID);
+        index.sync(booking);
+
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should remove deleted bookings")
+    void shouldRemoveDeletedBookings() {
+        Booking booking = booking(1L, 0, 2, Booking.STATUS_PAID);
+        index.sync(booking);
+
+        index.remove(booking);
+
+        assertFalse(index.hasOverlap(10L, BASE, BASE.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("Should rebuild from a list of bookings, discarding previous state")
+    void shouldRebuildFromBookings() {
+        index.sync(booking(1L, 40, 42, Booking.STATUS_APPROVED));
+
+        index.rebuild(List.of(
+                booking(2L, 0, 2, Booking.STATUS_APPROVED),
+                booking(3L, 20, 22, Booking.STATUS_CANCELLED)));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(1)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(20), BASE.plusDays(22)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(40), BASE.plusDays(42)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should apply a change made while the rebuild reads on top of the rebuilt index")
+    void shouldKeepChangesMadeDuringRebuild() throws InterruptedException {
+        Thread[] writer = new Thread[1];
+
+        index.rebuild(() -> {
+            writer[0] = new Thread(() -> index.sync(booking(1L, 40, 42, Booking.STATUS_APPROVED)));
+            writer[0].start();
+            try {
+                writer[0].join(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            assertTrue(writer[0].isAlive(), "the change waits for the rebuild");
+            return List.of(booking(2L, 0, 2, Booking.STATUS_APPROVED));
+        }, List::of);
+        writer[0].join(5_000);
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(1)));
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(41), BASE.plusDays(41)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should keep completed bookings until they are pruned")
+    void shouldKeepCompletedBookingsUntilPruned() {
+        index.sync(booking(1L, 0, 2, Booking.STATUS_COMPLETED));
+        index.sync(booking(2L, 10, 12, Booking.STATUS_PAID));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(1)));
+
+        index.pruneEndedBefore(BASE.plusDays(5));
+
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(1)));
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(11), BASE.plusDays(11)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Should mark busy days across word boundaries in the calendar bitmap")
+    void shouldBuildCalendarBitmap() {
+        LocalDate windowStart = index.calendarWindowStart();
+        Booking longBooking = new Booking(renter, product,
+                windowStart.plusDays(60).atTime(12, 0), windowStart.plusDays(140).atTime(9, 0), 100.0);
+        longBooking.setId(1L);
+        longBooking.setStatus(Booking.STATUS_APPROVED);
+        index.sync(longBooking);
+
+        BitSet busy = index.busyDays(10L, windowStart.plusDays(50), windowStart.plusDays(150));
+
+        assertEquals(10, busy.nextSetBit(0));
+        assertEquals(91, busy.nextClearBit(10));
+        assertEquals(81, busy.cardinality());
+    }
+
+    @Test
+    @DisplayName("Should keep a day busy while another booking still covers it")
+    void shouldKeepSharedDayBusyAfterCancellation() {
+        LocalDate day = index.calendarWindowStart().plusDays(20);
+        Booking morning = new Booking(renter, product, day.minusDays(1).atTime(9, 0), day.atTime(10, 0), 100.0);
+        morning.setId(1L);
+        morning.setStatus(Booking.STATUS_PAID);
+        Booking evening = new Booking(renter, product, day.atTime(18, 0), day.plusDays(1).atTime(10, 0), 100.0);
+        evening.setId(2L);
+        evening.setStatus(Booking.STATUS_PAID);
+        index.sync(morning);
+        index.sync(evening);
+
+        morning.setStatus(Booking.STATUS_CANCELLED);
+        index.sync(morning);
+
+        BitSet busy = index.busyDays(10L, day.minusDays(1), day.plusDays(1));
+        assertFalse(busy.get(0));
+        assertTrue(busy.get(1));
+        assertTrue(busy.get(2));
+    }
+
+    private ProductBlackout blackout(long id, int startDay, int endDay) {
+        ProductBlackout blackout = new ProductBlackout(product, BASE.plusDays(startDay), BASE.plusDays(endDay),
+                "Tailoring");
+        blackout.setId(id);
+        return blackout;
+    }
+
+    @Test
+    @DisplayName("Should block dates covered by an owner block-out")
+    void shouldBlockBlackoutDates() {
+        index.sync(booking(1L, 0, 2, Booking.STATUS_APPROVED));
+        index.sync(blackout(1L, 5, 7));
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(6), BASE.plusDays(9)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(3), BASE.plusDays(4)));
+
+        index.removeBlackout(10L, 1L);
+
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(6), BASE.plusDays(9)));
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(1), BASE.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Should keep the product blocked for the buffer days after each return")
+    void shouldApplyBufferAfterReturns() {
+        product.setBufferDays(2);
+        index.sync(booking(1L, 10, 12, Booking.STATUS_PAID));
+
+        // After the existing booking
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(14), BASE.plusDays(16)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(15), BASE.plusDays(16)));
+        // Before it: the new booking needs its own buffer too
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(5), BASE.plusDays(8)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(5), BASE.plusDays(7)));
+    }
+
+    @Test
+    @DisplayName("Should not stretch block-outs by the buffer")
+    void shouldNotBufferBlackouts() {
+        product.setBufferDays(2);
+        index.sync(blackout(1L, 10, 12));
+
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(13), BASE.plusDays(14)));
+        assertTrue(index.isBlocked(10L, BASE.plusDays(12), BASE.plusDays(14)));
+        assertFalse(index.isBlocked(10L, BASE.plusDays(8), BASE.plusDays(9)));
+    }
+
+    @Test
+    @DisplayName("Should apply a changed buffer to the bookings already indexed")
+    void shouldChangeBuffer() {
+        index.sync(booking(1L, 10, 12, Booking.STATUS_PAID));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(13), BASE.plusDays(14)));
+
+        index.setBufferDays(10L, 3);
+
+        assertTrue(index.hasOverlap(10L, BASE.plusDays(13), BASE.plusDays(14)));
+        assertFalse(index.hasOverlap(10L, BASE.plusDays(16), BASE.plusDays(17)));
+    }
+
+    @Test
+    @DisplayName("Should mark buffer and block-out days busy in the calendar")
+    void shouldShowBufferAndBlackoutInCalendar() {
+        LocalDate windowStart = index.calendarWindowStart();
+        product.setBufferDays(1);
+        Booking booking = new Booking(renter, product, windowStart.plusDays(2).atTime(10, 0),
+                windowStart.plusDays(3).atTime(10, 0), 100.0);
+        booking.setId(1L);
+        booking.setStatus(Booking.STATUS_PAID);
+        ProductBlackout blackout = new ProductBlackout(product, windowStart.plusDays(8).atStartOfDay(),
+                windowStart.plusDays(9).atStartOfDay(), null);
+        blackout.setId(1L);
+        index.rebuild(List.of(booking), List.of(blackout));
+
+        BitSet busy = index.busyDays(10L, windowStart, windowStart.plusDays(10));
+
+        assertEquals(BitSet.valueOf(new long[] { 0b1100011100L }), busy);
+    }
+}
@@ -5,17 +5,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tqs.blacktie.entity.Booking;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
+import tqs.blacktie.dto.BookingDecision;
+import tqs.blacktie.dto.BookingDecisionResult;
 import tqs.blacktie.dto.BookingResponse;
 import tqs.blacktie.repository.BookingRepository;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,6 +39,30 @@ class BookingServiceApprovalTest {
     @Mock
     private NotificationService notificationService;
 
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+
+    @Mock
+    private ReservationLock reservationLock;
+
+    @Spy
+    private ReservationCheck reservationCheck = new ReservationCheck(availabilityIndex, null, null, "local");
+
+    @Mock
+    private CheckoutHoldService checkoutHoldService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(List.of(), 730, 10000);
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Spy
+    private DeliveryCodeGenerator deliveryCodes = new DeliveryCodeGenerator();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -64,12 +94,13 @@ class BookingServiceApprovalTest {
     @Test
     void testGetPendingApprovalBookings() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(owner));
-        when(bookingRepository.findByProductOwnerId(1L)).thenReturn(Arrays.asList(booking));
+        when(bookingRepository.findByProductOwnerIdAndStatusIn(1L, List.of(Booking.STATUS_PENDING_APPROVAL)))
+                .thenReturn(Arrays.asList(booking));
 
         var result = bookingService.getPendingApprovalBookings(1L);
 
         assertEquals(1, result.size());
-        verify(bookingRepository).findByProductOwnerId(1L);
+        verify(bookingRepository, never()).findByProductOwnerId(any());
     }
 
     @Test
@@ -97,10 +128,32 @@ class BookingServiceApprovalTest {
         BookingResponse result = bookingService.approveBooking(1L, 1L, "PICKUP", "123 Main St");
 
         assertEquals(Booking.STATUS_APPROVED, result.getStatus());
+        verify(checkoutHoldService).hold(booking);
         assertEquals("PICKUP", result.getDeliveryMethod());
         verify(notificationService).createBookingApprovedNotification(any(), any());
     }
 
+    @Test
+    void testApproveBooking_OverlapsActiveBooking() {
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        booking.setBookingDate(start);
+        booking.setReturnDate(start.plusDays(2));
+
+        Booking approved = new Booking(renter, product, start.plusDays(1), start.plusDays(3), 100.0);
+        approved.setId(2L);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        availabilityIndex.sync(approved);
+
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+            () -> bookingService.approveBooking(1L, 1L, "PICKUP", "123 Main St"));
+
+        assertEquals("Product is already booked for the selected dates", exception.getMessage());
+        verify(reservationLock).lock(1L);
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void testApproveBooking_NotFound() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.empty());
@@ -151,6 +204,7 @@ class BookingServiceApprovalTest {
 
         assertEquals(Booking.STATUS_REJECTED, result.getStatus());
         verify(notificationService).createBookingRejectedNotification(any(), any(), eq("Not available"));
+        verify(waitlistService).datesReleased(booking);
     }
 
     @Test
@@ -173,6 +227,19 @@ class BookingServiceApprovalTest {
         assertEquals(Booking.STATUS_PAID, result.getStatus());
         assertNotNull(result.getDeliveryCode());
         verify(notificationService).createPaymentReceivedNotification(any(), any());
+        verify(checkoutHoldService).release(1L);
+    }
+
+    @Test
+    void testProcessPayment_HoldExpired() {
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> bookingService.processPayment(1L, 2L));
+        assertEquals("Checkout hold expired, the booking can no longer be paid", e.getMessage());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
@@ -184,6 +251,71 @@ class BookingServiceApprovalTest {
             () -> bookingService.processPayment(1L, 999L));
     }
 
+    @Test
+    void testProcessPayment_DrawsAgainWhenTheCodeIsTaken() {
+        booking.setStatus(Booking.STATUS_APPROVED);
+        booking.setDeliveryMethod("PICKUP");
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+        when(bookingRepository.existsByDeliveryCode(anyString())).thenReturn(true, false);
+
+        BookingResponse result = bookingService.processPayment(1L, 2L);
+
+        assertEquals(8, result.getDeliveryCode().length());
+        verify(bookingRepository, times(2)).existsByDeliveryCode(anyString());
+        verify(bookingRepository).existsByDeliveryCode(result.getDeliveryCode());
+    }
+
+    @Test
+    void testHandOver_Success() {
+        booking.setStatus(Booking.STATUS_PAID);
+        booking.setDeliveryCode("ABCD1234");
+        when(bookingRepository.findByDeliveryCode("ABCD1234")).thenReturn(Optional.of(booking));
+        when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+        BookingResponse result = bookingService.handOver(" abcd1234 ", 1L);
+
+        assertNotNull(result.getHandedOverAt());
+        assertEquals(Booking.STATUS_PAID, result.getStatus());
+        verify(eventLog).record(booking, BookingEventLog.HANDED_OVER, 1L);
+    }
+
+    @Test
+    void testHandOver_UnknownCode() {
+        when(bookingRepository.findByDeliveryCode("ZZZZ9999")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.handOver("ZZZZ9999", 1L));
+    }
+
+    @Test
+    void testHandOver_NotOwner() {
+        booking.setStatus(Booking.STATUS_PAID);
+        when(bookingRepository.findByDeliveryCode("ABCD1234")).thenReturn(Optional.of(booking));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> bookingService.handOver("ABCD1234", 2L));
+        assertEquals("User is not authorized to hand over this booking", e.getMessage());
+    }
+
+    @Test
+    void testHandOver_NotPaid() {
+        booking.setStatus(Booking.STATUS_APPROVED);
+        when(bookingRepository.findByDeliveryCode("ABCD1234")).thenReturn(Optional.of(booking));
+
+        assertThrows(IllegalStateException.class, () -> bookingService.handOver("ABCD1234", 1L));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testHandOver_OnlyOnce() {
+        booking.setStatus(Booking.STATUS_PAID);
+        booking.setHandedOverAt(LocalDateTime.now().minusHours(1));
+        when(bookingRepository.findByDeliveryCode("ABCD1234")).thenReturn(Optional.of(booking));
+
+        assertThrows(IllegalStateException.class, () -> bookingService.handOver("ABCD1234", 1L));
+        verify(bookingRepository, never()).save(any());
+    }
+
     @Test
     void testProcessPayment_NotApproved() {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
@@ -191,4 +323,79 @@ class BookingServiceApprovalTest {
         assertThrows(IllegalStateException.class, 
             () -> bookingService.processPayment(1L, 2L));
     }
+
+    private Booking pendingBooking(Long id, Product bookedProduct, int startDaysFromNow) {
+        Booking pending = new Booking();
+        pending.setId(id);
+        pending.setRenter(renter);
+        pending.setProduct(bookedProduct);
+        pending.setStatus(Booking.STATUS_PENDING_APPROVAL);
+        pending.setBookingDate(LocalDateTime.now().plusDays(startDaysFromNow));
+        pending.setReturnDate(LocalDateTime.now().plusDays(startDaysFromNow + 2L));
+        return pending;
+    }
+
+    @Test
+    void testDecideBookings_AppliesEachDecisionAndReportsFailures() {
+        Product otherProduct = new Product();
+        otherProduct.setId(2L);
+        otherProduct.setOwner(owner);
+        Booking first = pendingBooking(10L, product, 5);
+        Booking second = pendingBooking(11L, otherProduct, 5);
+        Booking alreadyApproved = pendingBooking(12L, product, 20);
+        alreadyApproved.setStatus(Booking.STATUS_APPROVED);
+        when(bookingRepository.findByIdIn(List.of(11L, 10L, 12L, 99L)))
+                .thenReturn(List.of(first, second, alreadyApproved));
+
+        List<BookingDecisionResult> results = bookingService.decideBookings(1L, List.of(
+                new BookingDecision(11L, BookingDecision.APPROVE, "PICKUP", "Rua Augusta", null),
+                new BookingDecision(10L, BookingDecision.REJECT, null, null, "Being repaired"),
+                new BookingDecision(12L, BookingDecision.REJECT, null, null, null),
+                new BookingDecision(99L, BookingDecision.APPROVE, "SHIPPING", null, null),
+                new BookingDecision(10L, BookingDecision.APPROVE, "SHIPPING", null, null)));
+
+        assertEquals(List.of(11L, 10L, 12L, 99L, 10L), results.stream().map(BookingDecisionResult::getBookingId).toList());
+        assertEquals(List.of(true, true, false, false, false),
+                results.stream().map(BookingDecisionResult::isSuccess).toList());
+        assertEquals("Booking is not pending approval", results.get(2).getError());
+        assertEquals("Booking not found with id: 99", results.get(3).getError());
+        assertEquals(Booking.STATUS_APPROVED, second.getStatus());
+        assertEquals(Booking.STATUS_REJECTED, first.getStatus());
+        assertEquals("Being repaired", first.getRejectionReason());
+        verify(reservationLock).lockAll(Set.of(2L, 1L));
+        verify(checkoutHoldService).hold(second);
+        verify(checkoutHoldService, never()).hold(first);
+        verify(bookingRepository, never()).save(any());
+        verify(notificationService).createBookingDecisionNotifications(List.of(second, first));
+    }
+
+    @Test
+    void testDecideBookings_RejectsOverlappingApprovalsOfTheSameBatch() {
+        Booking first = pendingBooking(10L, product, 5);
+        Booking overlapping = pendingBooking(11L, product, 6);
+        when(bookingRepository.findByIdIn(List.of(10L, 11L))).thenReturn(List.of(first, overlapping));
+
+        List<BookingDecisionResult> results = bookingService.decideBookings(1L, List.of(
+                new BookingDecision(10L, BookingDecision.APPROVE, "SHIPPING", null, null),
+                new BookingDecision(11L, BookingDecision.APPROVE, "SHIPPING", null, null)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Product is already booked for the selected dates", results.get(1).getError());
+        assertEquals(Booking.STATUS_PENDING_APPROVAL, overlapping.getStatus());
+        verify(reservationLock).lockAll(Set.of(1L));
+    }
+
+    @Test
+    void testDecideBookings_OnlyTheOwnerCanDecide() {
+        Booking pending = pendingBooking(10L, product, 5);
+        when(bookingRepository.findByIdIn(List.of(10L))).thenReturn(List.of(pending));
+
+        List<BookingDecisionResult> results = bookingService.decideBookings(999L, List.of(
+                new BookingDecision(10L, BookingDecision.APPROVE, "PICKUP", null, null)));
+
+        assertFalse(results.get(0).isSuccess());
+        assertEquals("User is not authorized to approve this booking", results.get(0).getError());
+        assertEquals(Booking.STATUS_PENDING_APPROVAL, pending.getStatus());
+        verify(notificationService).createBookingDecisionNotifications(List.of());
+    }
 }
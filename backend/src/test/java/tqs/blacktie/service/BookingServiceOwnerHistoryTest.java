@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import tqs.blacktie.dto.BookingResponse;
 import tqs.blacktie.entity.Booking;
@@ -27,6 +28,30 @@ class BookingServiceOwnerHistoryTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+
+    @Mock
+    private ReservationLock reservationLock;
+
+    @Spy
+    private ReservationCheck reservationCheck = new ReservationCheck(availabilityIndex, null, null, "local");
+
+    @Mock
+    private CheckoutHoldService checkoutHoldService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(List.of(), 730, 10000);
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Spy
+    private DeliveryCodeGenerator deliveryCodes = new DeliveryCodeGenerator();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -7,7 +7,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import tqs.blacktie.dto.BookingPageRequest;
+import tqs.blacktie.dto.BookingPageResponse;
 import tqs.blacktie.dto.BookingRequest;
 import tqs.blacktie.dto.BookingResponse;
 import tqs.blacktie.entity.Booking;
@@ -21,10 +25,15 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,6 +52,30 @@ class BookingServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+
+    @Mock
+    private ReservationLock reservationLock;
+
+    @Spy
+    private ReservationCheck reservationCheck = new ReservationCheck(availabilityIndex, null, null, "local");
+
+    @Mock
+    private CheckoutHoldService checkoutHoldService;
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(List.of(), 730, 10000);
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Spy
+    private DeliveryCodeGenerator deliveryCodes = new DeliveryCodeGenerator();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -78,8 +111,6 @@ class BookingServiceTest {
         void shouldCreateBookingSuccessfully() {
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
             when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-            when(bookingRepository.findByProductAndBookingDateLessThanEqualAndReturnDateGreaterThanEqual(
-                    any(), any(), any())).thenReturn(Collections.emptyList());
             when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
 
             BookingResponse response = bookingService.createBooking(1L, testRequest);
@@ -169,10 +200,9 @@ class BookingServiceTest {
         @DisplayName("Should throw exception when product already booked for dates")
         void shouldThrowExceptionWhenProductAlreadyBooked() {
             testBooking.setStatus(Booking.STATUS_APPROVED); // Only APPROVED/PAID bookings block overlaps
+            availabilityIndex.sync(testBooking);
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
             when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-            when(bookingRepository.findByProductAndBookingDateLessThanEqualAndReturnDateGreaterThanEqual(
-                    any(), any(), any())).thenReturn(Arrays.asList(testBooking));
 
             IllegalStateException exception = assertThrows(IllegalStateException.class,
                     () -> bookingService.createBooking(1L, testRequest));
@@ -192,8 +222,7 @@ class BookingServiceTest {
 
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
             when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
-            when(bookingRepository.findByProductAndBookingDateLessThanEqualAndReturnDateGreaterThanEqual(
-                    any(), any(), any())).thenReturn(Arrays.asList(cancelledBooking));
+            availabilityIndex.sync(cancelledBooking);
             when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
 
             BookingResponse response = bookingService.createBooking(1L, testRequest);
@@ -203,6 +232,96 @@ class BookingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Cart Booking Tests")
+    class CartBookingTests {
+
+        private Product shoes;
+
+        @BeforeEach
+        void setUpCart() {
+            shoes = new Product("Shoes", "Patent leather shoes", 10.0);
+            shoes.setId(2L);
+            shoes.setAvailable(true);
+        }
+
+        private BookingRequest item(Long productId, int startDaysFromNow, int days) {
+            LocalDateTime start = LocalDateTime.now().plusDays(startDaysFromNow);
+            return new BookingRequest(productId, start, start.plusDays(days));
+        }
+
+        @Test
+        @DisplayName("Should reserve every item with one product lookup and one batch insert")
+        void shouldReserveAllItems() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(productRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testProduct, shoes));
+            doAnswer(invocation -> {
+                List<Booking> inserted = invocation.getArgument(0);
+                for (int i = 0; i < inserted.size(); i++) {
+                    inserted.get(i).setId(100L + i);
+                }
+                return null;
+            }).when(bookingRepository).insertAll(anyList());
+
+            List<BookingResponse> responses = bookingService.createCartBooking(1L,
+                    List.of(item(1L, 1, 2), item(2L, 1, 3)));
+
+            assertEquals(List.of(100L, 101L), responses.stream().map(BookingResponse::getId).toList());
+            assertEquals(100.0, responses.get(0).getTotalPrice());
+            assertEquals(30.0, responses.get(1).getTotalPrice());
+            assertEquals(Booking.STATUS_PENDING_APPROVAL, responses.get(1).getStatus());
+            verify(reservationLock).lockAll(Set.of(1L, 2L));
+            verify(bookingRepository, never()).save(any());
+            verify(notificationService).createNewBookingNotifications(anyList());
+        }
+
+        @Test
+        @DisplayName("Should reject the whole cart when a product does not exist")
+        void shouldRejectMissingProduct() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(productRepository.findAllById(Set.of(1L, 9L))).thenReturn(List.of(testProduct));
+
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> bookingService.createCartBooking(1L, List.of(item(1L, 1, 2), item(9L, 1, 2))));
+
+            assertEquals("Product not found with id: 9", exception.getMessage());
+            verify(bookingRepository, never()).insertAll(anyList());
+            verifyNoInteractions(reservationLock, notificationService);
+        }
+
+        @Test
+        @DisplayName("Should reject the whole cart when two items overlap on the same product")
+        void shouldRejectOverlappingItems() {
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(productRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testProduct, shoes));
+
+            IllegalStateException exception = assertThrows(IllegalStateException.class,
+                    () -> bookingService.createCartBooking(1L,
+                            List.of(item(2L, 1, 2), item(1L, 1, 3), item(1L, 2, 1))));
+
+            assertEquals("Product 1 is already booked for the selected dates", exception.getMessage());
+            verify(bookingRepository, never()).insertAll(anyList());
+            verifyNoInteractions(notificationService);
+        }
+
+        @Test
+        @DisplayName("Should reject the whole cart when an item is already booked")
+        void shouldRejectBookedItem() {
+            Booking approved = new Booking(testUser, shoes, LocalDateTime.now().plusDays(1),
+                    LocalDateTime.now().plusDays(4), 30.0);
+            approved.setId(50L);
+            approved.setStatus(Booking.STATUS_APPROVED);
+            availabilityIndex.rebuild(List.of(approved));
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(productRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(testProduct, shoes));
+
+            assertThrows(IllegalStateException.class,
+                    () -> bookingService.createCartBooking(1L, List.of(item(1L, 1, 2), item(2L, 2, 1))));
+
+            verify(bookingRepository, never()).insertAll(anyList());
+        }
+    }
+
     @Nested
     @DisplayName("Get Bookings Tests")
     class GetBookingsTests {
@@ -210,26 +329,38 @@ class BookingServiceTest {
         @Test
         @DisplayName("Should get user bookings")
         void shouldGetUserBookings() {
-            when(bookingRepository.findByRenterId(1L)).thenReturn(Arrays.asList(testBooking));
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_PAID)))
+                    .thenReturn(Arrays.asList(testBooking));
 
             List<BookingResponse> responses = bookingService.getUserBookings(1L);
 
             assertNotNull(responses);
             assertEquals(1, responses.size());
             assertEquals(1L, responses.get(0).getId());
-            verify(bookingRepository, times(1)).findByRenterId(1L);
+            verify(bookingRepository, never()).findByRenterId(any());
         }
 
         @Test
         @DisplayName("Should get all bookings")
         void shouldGetAllBookings() {
-            when(bookingRepository.findAll()).thenReturn(Arrays.asList(testBooking));
+            when(bookingRepository.findPageAfter(any(), anyLong(), any())).thenReturn(Arrays.asList(testBooking));
 
             List<BookingResponse> responses = bookingService.getAllBookings();
 
             assertNotNull(responses);
             assertEquals(1, responses.size());
-            verify(bookingRepository, times(1)).findAll();
+            verify(bookingRepository, never()).findAll();
+        }
+
+        @Test
+        @DisplayName("Should cap the unpaged list of all bookings")
+        void shouldCapUnpagedBookings() {
+            when(bookingRepository.findPageAfter(any(), anyLong(), any())).thenReturn(List.of());
+
+            bookingService.getAllBookings();
+
+            verify(bookingRepository).findPageAfter(any(), eq(0L),
+                    eq(PageRequest.of(0, BookingService.UNPAGED_LIMIT)));
         }
 
         @Test
@@ -241,7 +372,8 @@ class BookingServiceTest {
             testBooking.setStatus(Booking.STATUS_PAID);
             when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
             when(userRepository.findById(10L)).thenReturn(Optional.of(owner));
-            when(bookingRepository.findByProduct(testProduct)).thenReturn(Arrays.asList(testBooking));
+            when(bookingRepository.findByProductAndStatusIn(testProduct, List.of(Booking.STATUS_PAID, Booking.STATUS_COMPLETED)))
+                    .thenReturn(Arrays.asList(testBooking));
 
             List<BookingResponse> responses = bookingService.getBookingsByProduct(1L, 10L);
 
@@ -249,7 +381,7 @@ class BookingServiceTest {
             assertEquals(1, responses.size());
             assertEquals(1L, responses.get(0).getProductId());
             verify(productRepository, times(1)).findById(1L);
-            verify(bookingRepository, times(1)).findByProduct(testProduct);
+            verify(bookingRepository, times(1)).findByProductAndStatusIn(eq(testProduct), anyCollection());
         }
 
         @Test
@@ -262,7 +394,7 @@ class BookingServiceTest {
                     () -> bookingService.getBookingsByProduct(99L, 1L));
 
             assertEquals("Product not found with id: 99", exception.getMessage());
-            verify(bookingRepository, never()).findByProduct(any());
+            verify(bookingRepository, never()).findByProductAndStatusIn(any(), anyCollection());
         }
 
         @Test
@@ -281,7 +413,7 @@ class BookingServiceTest {
                     () -> bookingService.getBookingsByProduct(1L, 10L));
 
             assertEquals("User is not authorized to view bookings for this product", exception.getMessage());
-            verify(bookingRepository, never()).findByProduct(any());
+            verify(bookingRepository, never()).findByProductAndStatusIn(any(), anyCollection());
         }
 
         @Test
@@ -290,12 +422,13 @@ class BookingServiceTest {
             testBooking.setStatus(Booking.STATUS_PAID);
             when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser)); // renter
-            when(bookingRepository.findByProduct(testProduct)).thenReturn(Arrays.asList(testBooking));
+            when(bookingRepository.findByProductAndStatusIn(testProduct, List.of(Booking.STATUS_PAID, Booking.STATUS_COMPLETED)))
+                    .thenReturn(Arrays.asList(testBooking));
 
             List<BookingResponse> responses = bookingService.getBookingsByProduct(1L, 1L);
 
             assertEquals(1, responses.size());
-            verify(bookingRepository, times(1)).findByProduct(testProduct);
+            verify(bookingRepository, times(1)).findByProductAndStatusIn(eq(testProduct), anyCollection());
         }
 
         @Test
@@ -337,6 +470,7 @@ class BookingServiceTest {
 
             verify(bookingRepository, times(1)).save(testBooking);
             assertEquals("CANCELLED", testBooking.getStatus());
+            verify(waitlistService).datesReleased(testBooking);
         }
 
         @Test
@@ -468,8 +602,8 @@ class BookingServiceTest {
             activeBooking.setStatus("ACTIVE");
 
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L))
-                    .thenReturn(Arrays.asList(completedBooking, cancelledBooking, activeBooking));
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED)))
+                    .thenReturn(Arrays.asList(completedBooking, cancelledBooking));
 
             List<BookingResponse> history = bookingService.getRenterHistory(1L);
 
@@ -483,7 +617,8 @@ class BookingServiceTest {
         @DisplayName("Should return empty list when no history exists")
         void shouldReturnEmptyListWhenNoHistoryExists() {
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L)).thenReturn(Collections.emptyList());
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED)))
+                    .thenReturn(Collections.emptyList());
 
             List<BookingResponse> history = bookingService.getRenterHistory(1L);
 
@@ -515,7 +650,8 @@ class BookingServiceTest {
             completedBooking.setStatus("COMPLETED");
 
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L)).thenReturn(Arrays.asList(completedBooking));
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED)))
+                    .thenReturn(Arrays.asList(completedBooking));
 
             List<BookingResponse> history = bookingService.getRenterHistory(1L);
 
@@ -538,7 +674,8 @@ class BookingServiceTest {
             completedBooking.setStatus("COMPLETED");
 
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L)).thenReturn(Arrays.asList(completedBooking));
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED)))
+                    .thenReturn(Arrays.asList(completedBooking));
 
             List<BookingResponse> history = bookingService.getRenterHistory(1L);
 
@@ -549,6 +686,68 @@ class BookingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Paged Listing Tests")
+    class PagedListingTests {
+
+        private Booking bookingOn(long id, int daysAhead) {
+            LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0).plusDays(daysAhead);
+            Booking booking = new Booking(testUser, testProduct, start, start.plusDays(1), 100.0);
+            booking.setId(id);
+            return booking;
+        }
+
+        @Test
+        @DisplayName("Should fetch one extra row and point the cursor at the last returned booking")
+        void shouldReturnCursorWhenMoreRowsExist() {
+            BookingPageRequest page = BookingPageRequest.of(null, 2);
+            when(bookingRepository.findPageAfter(page.afterDate(), 0L, PageRequest.of(0, 3)))
+                    .thenReturn(List.of(bookingOn(1L, 0), bookingOn(2L, 1), bookingOn(3L, 2)));
+
+            BookingPageResponse response = bookingService.getAllBookings(page);
+
+            assertEquals(List.of(1L, 2L), response.getItems().stream().map(BookingResponse::getId).toList());
+            BookingPageRequest next = BookingPageRequest.of(response.getNextCursor(), 2);
+            assertEquals(bookingOn(2L, 1).getBookingDate(), next.afterDate());
+            assertEquals(2L, next.afterId());
+        }
+
+        @Test
+        @DisplayName("Should return no cursor on the last page")
+        void shouldReturnNoCursorOnLastPage() {
+            BookingPageRequest page = BookingPageRequest.of(null, 2);
+            when(bookingRepository.findPageByProductOwnerId(eq(5L), any(), any(), any()))
+                    .thenReturn(List.of(bookingOn(1L, 0)));
+
+            BookingPageResponse response = bookingService.getOwnerBookings(5L, page);
+
+            assertEquals(1, response.getItems().size());
+            assertNull(response.getNextCursor());
+        }
+
+        @Test
+        @DisplayName("Should page renter history on completed and cancelled bookings")
+        void shouldPageRenterHistoryByStatus() {
+            BookingPageRequest page = BookingPageRequest.of(null, 5);
+            when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+            when(bookingRepository.findPageByRenterIdAndStatusIn(eq(1L),
+                    eq(List.of(Booking.STATUS_COMPLETED, Booking.STATUS_CANCELLED)), any(), any(), any()))
+                    .thenReturn(List.of());
+
+            assertTrue(bookingService.getRenterHistory(1L, page).getItems().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should not page active bookings of an unknown user")
+        void shouldThrowForUnknownUser() {
+            when(userRepository.findById(999L)).thenReturn(Optional.empty());
+            BookingPageRequest page = BookingPageRequest.of(null, null);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> bookingService.getActiveBookingsByRenter(999L, page));
+        }
+    }
+
     @Nested
     @DisplayName("Active Bookings Tests")
     class ActiveBookingsTests {
@@ -574,8 +773,8 @@ class BookingServiceTest {
             cancelledBooking.setStatus("CANCELLED");
 
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L))
-                    .thenReturn(Arrays.asList(activeBooking, completedBooking, cancelledBooking));
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID)))
+                    .thenReturn(Arrays.asList(activeBooking));
 
             List<BookingResponse> activeBookings = bookingService.getActiveBookingsByRenter(1L);
 
@@ -588,7 +787,8 @@ class BookingServiceTest {
         @DisplayName("Should return empty list when no active bookings")
         void shouldReturnEmptyListWhenNoActiveBookings() {
             when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-            when(bookingRepository.findByRenterId(1L)).thenReturn(Collections.emptyList());
+            when(bookingRepository.findByRenterIdAndStatusIn(1L, List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID)))
+                    .thenReturn(Collections.emptyList());
 
             List<BookingResponse> activeBookings = bookingService.getActiveBookingsByRenter(1L);
 
@@ -899,6 +1099,9 @@ class BookingServiceTest {
             verify(bookingRepository, times(1)).save(bookingWithPaidDeposit);
             verify(notificationService, times(1)).createDepositRefundedNotification(
                     eq(testUser), eq(bookingWithPaidDeposit), eq(50.0));
+            // The amount is gone from the booking but kept in its history
+            verify(eventLog).record(bookingWithPaidDeposit, BookingEventLog.DEPOSIT_REFUNDED, 5L,
+                    Map.of("refundedAmount", 50.0));
         }
 
         @Test
@@ -995,7 +1198,8 @@ class BookingServiceTest {
         @Test
         @DisplayName("Should return empty list when user has no bookings")
         void shouldReturnEmptyListWhenNoBookings() {
-            when(bookingRepository.findByRenterId(999L)).thenReturn(List.of());
+            when(bookingRepository.findByRenterIdAndStatusIn(999L, List.of(Booking.STATUS_PENDING_APPROVAL, Booking.STATUS_APPROVED, Booking.STATUS_PAID)))
+                    .thenReturn(List.of());
 
             List<BookingResponse> responses = bookingService.getUserBookings(999L);
 
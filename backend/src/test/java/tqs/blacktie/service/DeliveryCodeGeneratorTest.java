@@ -0,0 +1,57 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("DeliveryCodeGenerator Tests")
+class DeliveryCodeGeneratorTest {
+
+    private final DeliveryCodeGenerator generator = new DeliveryCodeGenerator();
+
+    @Test
+    @DisplayName("Generates 8 uppercase letters and digits")
+    void generatesCodes() {
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String code = generator.next(taken -> false);
+            assertThat(code).matches("[A-Z0-9]{8}");
+            codes.add(code);
+        }
+        assertThat(codes).hasSize(1000);
+    }
+
+    @Test
+    @DisplayName("Draws again while the code is taken")
+    void retriesTakenCodes() {
+        AtomicInteger checks = new AtomicInteger();
+
+        String code = generator.next(candidate -> checks.incrementAndGet() < 3);
+
+        assertThat(code).hasSize(DeliveryCodeGenerator.LENGTH);
+        assertThat(checks).hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Gives up after a bounded number of attempts")
+    void givesUp() {
+        AtomicInteger checks = new AtomicInteger();
+
+        assertThatThrownBy(() -> generator.next(candidate -> checks.incrementAndGet() > 0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(checks).hasValue(DeliveryCodeGenerator.MAX_ATTEMPTS);
+    }
+
+    @Test
+    @DisplayName("Normalizes scanned codes")
+    void normalizes() {
+        assertThat(DeliveryCodeGenerator.normalize(" ab12cd34\n")).isEqualTo("AB12CD34");
+        assertThat(DeliveryCodeGenerator.normalize(null)).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("FuzzyTermMatcher Tests")
+class FuzzyTermMatcherTest {
+
+    private FuzzyTermMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new FuzzyTermMatcher();
+        for (String term : new String[] { "tuxed", "vestid", "smoking", "fraque", "fato", "gravat", "xl", "52" }) {
+            matcher.add(term);
+        }
+    }
+
+    @Test
+    @DisplayName("Computes a bounded Levenshtein distance")
+    void computesDistance() {
+        assertThat(FuzzyTermMatcher.distance("tuxid", "tuxed", 2)).isEqualTo(1);
+        assertThat(FuzzyTermMatcher.distance("vestd", "vestid", 2)).isEqualTo(1);
+        assertThat(FuzzyTermMatcher.distance("smokng", "smoking", 2)).isEqualTo(1);
+        assertThat(FuzzyTermMatcher.distance("fraque", "fraque", 2)).isZero();
+        assertThat(FuzzyTermMatcher.distance("tuxedo", "gravata", 2)).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Finds the terms within the tolerated edits, closest first")
+    void findsCloseTerms() {
+        matcher.add("smokings");
+
+        assertThat(matcher.matches("smokng", 10)).containsExactly(
+                new FuzzyTermMatcher.Match("smoking", 1), new FuzzyTermMatcher.Match("smokings", 2));
+        assertThat(matcher.matches("tuxid", 10)).extracting(FuzzyTermMatcher.Match::term).containsExactly("tuxed");
+        assertThat(matcher.matches("fraqeu", 10)).extracting(FuzzyTermMatcher.Match::term).containsExactly("fraque");
+        assertThat(matcher.matches("smokng", 1)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Tolerates no edit in short words and codes")
+    void skipsShortWordsAndCodes() {
+        assertThat(FuzzyTermMatcher.maxEdits(2)).isZero();
+        assertThat(FuzzyTermMatcher.maxEdits(5)).isEqualTo(1);
+        assertThat(FuzzyTermMatcher.maxEdits(6)).isEqualTo(2);
+        assertThat(matcher.matches("xs", 10)).isEmpty();
+        assertThat(matcher.matches("53", 10)).isEmpty();
+        assertThat(matcher.matches("fat", 10)).extracting(FuzzyTermMatcher.Match::term).containsExactly("fato");
+    }
+
+    @Test
+    @DisplayName("Forgets removed terms")
+    void removesTerms() {
+        matcher.remove("tuxed");
+
+        assertThat(matcher.matches("tuxid", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashedTimingWheel Tests")
+class HashedTimingWheelTest {
+
+    private static final long SECOND = 1_000L;
+    private static final long START = 1_000_000L * SECOND;
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofSeconds(1), 8, START);
+
+    @Test
+    @DisplayName("Should expire an id at its deadline and not before")
+    void shouldExpireAtDeadline() {
+        wheel.schedule(1L, START + 3 * SECOND);
+
+        assertEquals(List.of(), wheel.advance(START + 2 * SECOND));
+        assertEquals(List.of(1L), wheel.advance(START + 3 * SECOND));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should round deadlines up to the next tick")
+    void shouldRoundUpToTick() {
+        wheel.schedule(1L, START + 2 * SECOND + 1);
+
+        assertEquals(List.of(), wheel.advance(START + 2 * SECOND + 999));
+        assertEquals(List.of(1L), wheel.advance(START + 3 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Should keep deadlines more than one turn away until their turn")
+    void shouldHandleSeveralTurns() {
+        wheel.schedule(1L, START + 20 * SECOND);
+        wheel.schedule(2L, START + 4 * SECOND);
+
+        assertEquals(List.of(2L), wheel.advance(START + 12 * SECOND));
+        assertEquals(List.of(), wheel.advance(START + 19 * SECOND));
+        assertEquals(List.of(1L), wheel.advance(START + 20 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Should expire everything due after a jump of many turns")
+    void shouldCatchUpAfterLongPause() {
+        for (long id = 1; id <= 30; id++) {
+            wheel.schedule(id, START + id * SECOND);
+        }
+
+        List<Long> expired = wheel.advance(START + 25 * SECOND);
+
+        assertEquals(25, expired.size());
+        assertEquals(5, wheel.size());
+        assertEquals(5, wheel.advance(START + 100 * SECOND).size());
+    }
+
+    @Test
+    @DisplayName("Should expire past deadlines on the next advance")
+    void shouldExpirePastDeadline() {
+        wheel.advance(START + 10 * SECOND);
+        wheel.schedule(1L, START);
+
+        assertEquals(List.of(1L), wheel.advance(START + 11 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Should not expire cancelled ids")
+    void shouldCancel() {
+        wheel.schedule(1L, START + 2 * SECOND);
+        wheel.schedule(2L, START + 2 * SECOND);
+        wheel.schedule(3L, START + 2 * SECOND);
+
+        assertTrue(wheel.cancel(2L));
+        assertFalse(wheel.cancel(2L));
+        assertFalse(wheel.cancel(42L));
+        assertEquals(List.of(3L, 1L), wheel.advance(START + 2 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Should replace the deadline of an id scheduled again")
+    void shouldReschedule() {
+        wheel.schedule(1L, START + 2 * SECOND);
+        wheel.schedule(1L, START + 5 * SECOND);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(START + 4 * SECOND));
+        assertEquals(List.of(1L), wheel.advance(START + 5 * SECOND));
+    }
+
+    @Test
+    @DisplayName("Should handle tens of thousands of holds")
+    void shouldHandleManyHolds() {
+        HashedTimingWheel large = new HashedTimingWheel(Duration.ofSeconds(1), 4096, START);
+        for (long id = 0; id < 50_000; id++) {
+            large.schedule(id, START + (id % 1800) * SECOND);
+        }
+        for (long id = 0; id < 50_000; id += 2) {
+            large.cancel(id);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        for (long second = 1; second <= 1800; second++) {
+            expired.addAll(large.advance(START + second * SECOND));
+        }
+
+        assertEquals(25_000, expired.size());
+        assertTrue(expired.stream().allMatch(id -> id % 2 == 1));
+        assertEquals(0, large.size());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive tick or size")
+    void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel(Duration.ZERO, 8, START));
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel(Duration.ofSeconds(1), 0, START));
+    }
+}
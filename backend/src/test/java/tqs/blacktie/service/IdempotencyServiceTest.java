@@ -0,0 +1,225 @@
+package tqs.blacktie.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import tqs.blacktie.entity.IdempotencyRecord;
+import tqs.blacktie.repository.IdempotencyRecordRepository;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IdempotencyService Tests")
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository recordRepository;
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(recordRepository, new ObjectMapper(), Duration.ofHours(1),
+                Duration.ofMinutes(1), 2);
+    }
+
+    private Supplier<ResponseEntity<?>> created(Object body) {
+        return () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.CREATED).body(body);
+        };
+    }
+
+    private ResponseEntity<?> run(String key, Object request) {
+        return idempotencyService.execute(key, "scope", request, created(Map.of("id", 7)));
+    }
+
+    @Test
+    @DisplayName("Should simply run the action without a key")
+    void shouldRunWithoutKey() {
+        ResponseEntity<?> response = run(null, "body");
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, executions.get());
+        verifyNoInteractions(recordRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject a blank key")
+    void shouldRejectBlankKey() {
+        assertEquals(HttpStatus.BAD_REQUEST, run(" ", "body").getStatusCode());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should replay a completed request from memory without touching the database")
+    void shouldReplayFromMemory() {
+        ResponseEntity<?> first = run("key-1", "body");
+        ResponseEntity<?> second = run("key-1", "body");
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals("{\"id\":7}", second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(recordRepository, times(1)).reserve(anyString(), anyString(), any(), any());
+        verify(recordRepository).complete(anyString(), eq(201), eq("application/json"), eq("{\"id\":7}"), any());
+        verify(recordRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("Should reserve the key for a short lease and keep the response for the TTL")
+    void shouldLeaseUntilCompleted() {
+        LocalDateTime before = LocalDateTime.now();
+        ArgumentCaptor<LocalDateTime> leaseEnd = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> responseExpiry = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        run("key-1", "body");
+
+        verify(recordRepository).reserve(anyString(), anyString(), any(), leaseEnd.capture());
+        verify(recordRepository).complete(anyString(), anyInt(), any(), any(), responseExpiry.capture());
+        assertTrue(leaseEnd.getValue().isBefore(before.plusMinutes(2)));
+        assertTrue(responseExpiry.getValue().isAfter(before.plusMinutes(59)));
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused with a different request body")
+    void shouldRejectDifferentBody() {
+        run("key-1", "body");
+
+        ResponseEntity<?> response = run("key-1", "other body");
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should keep only the most recently used responses in memory")
+    void shouldBoundTheCache() {
+        run("key-1", "body");
+        run("key-2", "body");
+        run("key-1", "body");
+        run("key-3", "body");
+
+        assertEquals(2, idempotencyService.cachedCount());
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should replay from the database once evicted from memory")
+    void shouldReplayFromDatabase() {
+        run("key-1", "body");
+        run("key-2", "body");
+        run("key-3", "body");
+
+        IdempotencyRecord stored = new IdempotencyRecord();
+        stored.setFingerprint(sha256Of("body"));
+        stored.setStatusCode(201);
+        stored.setContentType("application/json");
+        stored.setResponseBody("{\"id\":7}");
+        stored.setExpiresAt(LocalDateTime.now().plusHours(1));
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(recordRepository).reserve(anyString(), anyString(), any(), any());
+        when(recordRepository.findById(anyString())).thenReturn(Optional.of(stored));
+
+        ResponseEntity<?> response = run("key-1", "body");
+
+        assertEquals(3, executions.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals("{\"id\":7}", response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should renew the lease while a request runs longer than it")
+    void shouldRenewLeaseWhileRunning() {
+        IdempotencyService shortLease = new IdempotencyService(recordRepository, new ObjectMapper(),
+                Duration.ofHours(1), Duration.ofMillis(30), 2);
+        ArgumentCaptor<LocalDateTime> reservedAt = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        shortLease.execute("key-1", "scope", "body", () -> {
+            sleep(Duration.ofMillis(200));
+            return ResponseEntity.ok("done");
+        });
+
+        verify(recordRepository).reserve(anyString(), anyString(), reservedAt.capture(), any());
+        verify(recordRepository, atLeastOnce()).renew(anyString(), eq(reservedAt.getValue()), any());
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer with a conflict while the first request is still running")
+    void shouldRejectInFlightKey() {
+        IdempotencyRecord inFlight = new IdempotencyRecord();
+        inFlight.setFingerprint(sha256Of("body"));
+        inFlight.setExpiresAt(LocalDateTime.now().plusHours(1));
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(recordRepository).reserve(anyString(), anyString(), any(), any());
+        when(recordRepository.findById(anyString())).thenReturn(Optional.of(inFlight));
+
+        ResponseEntity<?> response = run("key-1", "body");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should release the key when the action fails")
+    void shouldReleaseOnFailure() {
+        Supplier<ResponseEntity<?>> failing = () -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("key-1", "scope", "body", failing));
+
+        verify(recordRepository).release(anyString());
+        verify(recordRepository, never()).complete(anyString(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should release the key on a server error so the client can retry")
+    void shouldReleaseOnServerError() {
+        ResponseEntity<?> response = idempotencyService.execute("key-1", "scope", "body",
+                () -> ResponseEntity.internalServerError().body("Payment processing error"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        verify(recordRepository).release(anyString());
+        assertEquals(0, idempotencyService.cachedCount());
+    }
+
+    private static String sha256Of(String body) {
+        try {
+            byte[] json = new ObjectMapper().writeValueAsBytes(body);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -14,6 +14,8 @@ import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.NotificationRepository;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -25,6 +27,9 @@ class NotificationServiceApprovalTest {
     @Mock
     private NotificationRepository notificationRepository;
 
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -64,7 +69,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createBookingApprovedNotification(renter, booking);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -85,7 +90,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createBookingRejectedNotification(renter, booking, reason);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -105,7 +110,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createBookingRejectedNotification(renter, booking, null);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -124,7 +129,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createBookingRejectedNotification(renter, booking, "");
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -138,7 +143,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createPaymentReceivedNotification(owner, booking);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -159,7 +164,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createBookingApprovedNotification(renter, booking);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -175,7 +180,7 @@ class NotificationServiceApprovalTest {
 
         notificationService.createPaymentReceivedNotification(owner, booking);
 
-        verify(notificationRepository, times(1)).save(captor.capture());
+        verify(notificationOutbox, times(1)).enqueue(captor.capture());
         
         Notification notification = captor.getValue();
         assertNotNull(notification);
@@ -197,4 +202,30 @@ class NotificationServiceApprovalTest {
         assertEquals(6, types.length);
         assertEquals(6, java.util.Arrays.stream(types).distinct().count());
     }
+
+    @Test
+    @DisplayName("Should batch the notifications of bulk decisions")
+    void testCreateBookingDecisionNotifications() {
+        Booking rejected = new Booking();
+        rejected.setId(2L);
+        rejected.setRenter(renter);
+        rejected.setProduct(product);
+        rejected.setStatus(Booking.STATUS_REJECTED);
+        rejected.setRejectionReason("Being repaired");
+        booking.setStatus(Booking.STATUS_APPROVED);
+
+        notificationService.createBookingDecisionNotifications(List.of(booking, rejected));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationOutbox).enqueueAll(captor.capture());
+        verify(notificationOutbox, never()).enqueue(any());
+
+        List<Notification> notifications = captor.getValue();
+        assertEquals(2, notifications.size());
+        assertEquals(Notification.TYPE_BOOKING_APPROVED, notifications.get(0).getType());
+        assertEquals(Notification.TYPE_BOOKING_REJECTED, notifications.get(1).getType());
+        assertTrue(notifications.get(1).getMessage().contains("Being repaired"));
+        assertEquals(renter, notifications.get(1).getUser());
+    }
 }
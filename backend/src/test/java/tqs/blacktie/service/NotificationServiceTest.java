@@ -33,6 +33,9 @@ class NotificationServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -64,29 +67,23 @@ class NotificationServiceTest {
 
     @Test
     void testCreateNewBookingNotification() {
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
-
         notificationService.createNewBookingNotification(owner, booking);
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutbox).enqueue(any(Notification.class));
     }
 
     @Test
     void testCreateBookingCancelledByRenterNotification() {
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
-
         notificationService.createBookingCancelledByRenterNotification(owner, booking);
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutbox).enqueue(any(Notification.class));
     }
 
     @Test
     void testCreateBookingCancelledByOwnerNotification() {
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
-
         notificationService.createBookingCancelledByOwnerNotification(renter, booking);
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutbox).enqueue(any(Notification.class));
     }
 
     @Test
@@ -208,20 +205,16 @@ class NotificationServiceTest {
     @Test
     void testCreateDepositRefundedNotification() {
         booking.setDepositAmount(50.0);
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
-
         notificationService.createDepositRefundedNotification(renter, booking, 50.0);
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutbox).enqueue(any(Notification.class));
     }
 
     @Test
     void testCreateDepositRefundedNotification_WithNullAmount() {
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
-
         notificationService.createDepositRefundedNotification(renter, booking, null);
 
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationOutbox).enqueue(any(Notification.class));
     }
 
     @Test
@@ -0,0 +1,196 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tqs.blacktie.entity.PricingRule;
+import tqs.blacktie.entity.Product;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("PricingEngine Tests")
+class PricingEngineTest {
+
+    private final LocalDateTime monday = LocalDate.now().plusWeeks(2)
+            .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atTime(10, 0);
+
+    private PricingEngine engine;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        engine = new PricingEngine(List.of(), 730, 10000);
+        product = new Product("Tuxedo", "Black tuxedo", 50.0);
+        product.setId(1L);
+    }
+
+    private static PricingRule rule(String type, double percentage) {
+        return new PricingRule(type, percentage);
+    }
+
+    private static PricingRule season(LocalDate start, LocalDate end, double percentage) {
+        PricingRule rule = rule(PricingRule.TYPE_SEASON, percentage);
+        rule.setStartDate(start);
+        rule.setEndDate(end);
+        return rule;
+    }
+
+    private static PricingRule longRental(int minDays, double percentage) {
+        PricingRule rule = rule(PricingRule.TYPE_LONG_RENTAL, percentage);
+        rule.setMinDays(minDays);
+        return rule;
+    }
+
+    @Test
+    @DisplayName("Charges the daily price per day, at least one day, without rules")
+    void chargesDailyPrice() {
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(3))).isEqualTo(150.0);
+        assertThat(engine.totalPrice(product, monday, monday.plusHours(5))).isEqualTo(50.0);
+        assertThat(PricingEngine.rentalDays(monday, monday.plusDays(3).plusHours(5))).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Adds the weekend surcharge to Saturdays and Sundays only")
+    void weekendSurcharge() {
+        engine.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 20.0)));
+
+        // Friday to Monday: Friday at 50, Saturday and Sunday at 60
+        assertThat(engine.totalPrice(product, monday.plusDays(4), monday.plusDays(7))).isEqualTo(170.0);
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(2))).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Adds the season surcharge to the days inside the season")
+    void seasonSurcharge() {
+        LocalDate start = monday.toLocalDate().plusDays(1);
+        engine.setRules(List.of(season(start, start.plusDays(1), 50.0)));
+
+        // Monday at 50, Tuesday and Wednesday at 75, Thursday at 50
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(4))).isEqualTo(250.0);
+    }
+
+    @Test
+    @DisplayName("Applies only the largest long rental discount reached")
+    void longRentalTiers() {
+        engine.setRules(List.of(longRental(3, -5.0), longRental(7, -15.0)));
+
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(2))).isEqualTo(100.0);
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(3))).isEqualTo(142.5);
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(10))).isEqualTo(425.0);
+    }
+
+    @Test
+    @DisplayName("Combines day surcharges with the length discount")
+    void combinesRules() {
+        engine.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 20.0), longRental(7, -10.0)));
+
+        // 5 weekdays at 50 and 2 weekend days at 60, minus 10%
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(7))).isEqualTo(333.0);
+    }
+
+    @Test
+    @DisplayName("Drops the cached tables when the rules change")
+    void invalidatesOnRuleChange() {
+        LocalDateTime saturday = monday.plusDays(5);
+        assertThat(engine.totalPrice(product, saturday, saturday.plusDays(1))).isEqualTo(50.0);
+        assertThat(engine.cachedTables()).isEqualTo(1);
+
+        engine.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 100.0)));
+        assertThat(engine.cachedTables()).isZero();
+        assertThat(engine.totalPrice(product, saturday, saturday.plusDays(1))).isEqualTo(100.0);
+
+        engine.setRules(List.of());
+        assertThat(engine.totalPrice(product, saturday, saturday.plusDays(1))).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Rebuilds the table of a product whose price changed")
+    void rebuildsOnPriceChange() {
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(2))).isEqualTo(100.0);
+
+        product.setPrice(80.0);
+
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(2))).isEqualTo(160.0);
+    }
+
+    @Test
+    @DisplayName("Applies the plug-in adjustments")
+    void appliesPlugins() {
+        PriceAdjustment premium = new PriceAdjustment() {
+            @Override
+            public double dayFactor(Product priced, LocalDate day) {
+                return priced.getPrice() >= 100 ? 1.5 : 1.0;
+            }
+        };
+        engine = new PricingEngine(List.of(premium), 730, 10000);
+        Product gown = new Product("Gown", "Silk gown", 100.0);
+        gown.setId(2L);
+
+        assertThat(engine.totalPrice(gown, monday, monday.plusDays(2))).isEqualTo(300.0);
+        assertThat(engine.totalPrice(product, monday, monday.plusDays(2))).isEqualTo(100.0);
+
+        engine.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 10.0)));
+        assertThat(engine.totalPrice(gown, monday, monday.plusDays(2))).isEqualTo(300.0);
+    }
+
+    @Test
+    @DisplayName("Table lookups match a day by day sum, inside and outside the window")
+    void matchesDayByDaySum() {
+        LocalDate start = LocalDate.now().plusDays(20);
+        engine.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 15.0), season(start, start.plusDays(40), 35.0),
+                longRental(5, -7.5)));
+        PricingEngine uncached = new PricingEngine(List.of(), 730, 10000);
+        uncached.setRules(List.of(rule(PricingRule.TYPE_WEEKEND, 15.0), season(start, start.plusDays(40), 35.0),
+                longRental(5, -7.5)));
+        Product unsaved = new Product("Tuxedo", "Black tuxedo", 49.99);
+        product.setPrice(49.99);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            // Some rentals start before the window or end after it
+            LocalDateTime from = LocalDate.now().withDayOfMonth(1).minusDays(10).plusDays(random.nextInt(760))
+                    .atTime(9, 0);
+            LocalDateTime to = from.plusDays(random.nextInt(30)).plusHours(random.nextInt(24));
+            assertThat(engine.totalPrice(product, from, to)).isEqualTo(uncached.totalPrice(unsaved, from, to));
+        }
+        assertThat(uncached.cachedTables()).isZero();
+    }
+
+    @Test
+    @DisplayName("Keeps only the most recently used tables and drops a deleted product's")
+    void boundsTheTableCache() {
+        PricingEngine bounded = new PricingEngine(List.of(), 730, 2);
+        Product second = new Product("Gown", "Silk gown", 100.0);
+        second.setId(2L);
+        Product third = new Product("Suit", "Grey suit", 70.0);
+        third.setId(3L);
+
+        bounded.totalPrice(product, monday, monday.plusDays(2));
+        bounded.totalPrice(second, monday, monday.plusDays(2));
+        bounded.totalPrice(product, monday, monday.plusDays(2));
+        bounded.totalPrice(third, monday, monday.plusDays(2));
+        assertThat(bounded.cachedTables()).isEqualTo(2);
+
+        bounded.evict(third.getId());
+        assertThat(bounded.cachedTables()).isEqualTo(1);
+        assertThat(bounded.totalPrice(third, monday, monday.plusDays(2))).isEqualTo(140.0);
+    }
+
+    @Test
+    @DisplayName("Rejects unknown rule types and a non-positive horizon")
+    void rejectsInvalidConfiguration() {
+        List<PricingRule> rules = List.of(rule("HOLIDAY", 10.0));
+        assertThatThrownBy(() -> engine.setRules(rules)).isInstanceOf(IllegalArgumentException.class);
+
+        List<PriceAdjustment> plugins = List.of();
+        assertThatThrownBy(() -> new PricingEngine(plugins, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
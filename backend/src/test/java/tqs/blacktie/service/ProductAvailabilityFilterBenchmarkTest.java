@@ -0,0 +1,98 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tqs.blacktie.benchmark.OptInBenchmark;
+import tqs.blacktie.benchmark.Latencies;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.ProductRepository;
+import tqs.blacktie.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Catalog availability filter over 100k products and 1M active bookings, within 100 ms at p99 for
+ * the whole catalog.
+ */
+@OptInBenchmark
+class ProductAvailabilityFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAvailabilityFilterBenchmarkTest.class);
+
+    private static final int PRODUCTS = 100_000;
+    private static final int BOOKINGS_PER_PRODUCT = 10;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void filterCatalogByAvailability() {
+        BookingAvailabilityIndex index = new BookingAvailabilityIndex();
+        ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        ProductService productService = new ProductService(productRepository, userRepository,
+                Mockito.mock(LocationService.class), index, new ProductSearchIndex(),
+                new ProductSuggestionIndex(), new ProductGeoIndex(), new PricingEngine(List.of(), 730, 10000));
+
+        User renter = new User("Renter", "r@example.com", "pass", "renter");
+        renter.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(renter));
+
+        LocalDateTime base = LocalDateTime.now().plusDays(1).withNano(0);
+        Random random = new Random(42);
+        List<Product> catalog = new ArrayList<>(PRODUCTS);
+        Booking booking = new Booking();
+        booking.setStatus(Booking.STATUS_PAID);
+
+        long buildStarted = System.nanoTime();
+        long bookingId = 0;
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = new Product("Product " + p, "Benchmark product", 50.0);
+            product.setId((long) p);
+            catalog.add(product);
+            booking.setProduct(product);
+            for (int b = 0; b < BOOKINGS_PER_PRODUCT; b++) {
+                // Ten 2-day rentals spread over the next year
+                LocalDateTime start = base.plusDays(b * 36L + random.nextInt(30));
+                booking.setId(++bookingId);
+                booking.setBookingDate(start);
+                booking.setReturnDate(start.plusDays(2));
+                index.sync(booking);
+            }
+        }
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+        when(productRepository.findByAvailableTrue()).thenReturn(catalog);
+
+        List<LocalDateTime> starts = new ArrayList<>(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            starts.add(base.plusDays(random.nextInt(360)));
+        }
+        for (LocalDateTime from : starts) {
+            productService.getAvailableProducts(null, null, 1L, from, from.plusDays(2));
+        }
+        Latencies latencies = new Latencies(ITERATIONS);
+        long excluded = 0;
+        for (LocalDateTime from : starts) {
+            excluded += PRODUCTS - latencies.time(
+                    () -> productService.getAvailableProducts(null, null, 1L, from, from.plusDays(2))).size();
+        }
+
+        logger.info("Availability filter: {} products, {} bookings, index built in {} ms, {} per query "
+                + "({} booked products excluded on average)", PRODUCTS, bookingId, buildMillis, latencies,
+                excluded / ITERATIONS);
+
+        assertThat(index.size()).isEqualTo(PRODUCTS * BOOKINGS_PER_PRODUCT);
+        assertThat(excluded).isPositive();
+        assertThat(latencies.p99()).isLessThan(Duration.ofMillis(100));
+    }
+}
@@ -0,0 +1,160 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("ProductGeoIndex Tests")
+class ProductGeoIndexTest {
+
+    private ProductGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductGeoIndex();
+    }
+
+    private Product product(long id, double price, User owner, Double latitude, Double longitude) {
+        Product product = new Product("Smoking " + id, "Desc", price);
+        product.setId(id);
+        product.setAvailable(true);
+        product.setOwner(owner);
+        product.setLatitude(latitude);
+        product.setLongitude(longitude);
+        return product;
+    }
+
+    @Test
+    @DisplayName("Measures great-circle distances")
+    void measuresDistance() {
+        // Lisboa to Porto, about 274 km
+        assertThat(ProductGeoIndex.distanceKm(38.7223, -9.1393, 41.1579, -8.6291)).isCloseTo(274.0, within(2.0));
+        assertThat(ProductGeoIndex.distanceKm(40.0, 179.95, 40.0, -179.95)).isCloseTo(8.5, within(0.1));
+    }
+
+    @Test
+    @DisplayName("Returns the products within the radius, nearest first")
+    void findsNearestFirst() {
+        index.rebuild(List.of(
+                product(1L, 80.0, null, 38.7223, -9.1393),
+                product(2L, 80.0, null, 38.7169, -9.1399),
+                product(3L, 80.0, null, 38.7600, -9.1500),
+                product(4L, 80.0, null, 41.1579, -8.6291),
+                product(5L, 80.0, null, null, null)));
+
+        assertThat(index.near(38.7170, -9.1400, 5, null, null)).containsExactly(2L, 1L, 3L);
+        assertThat(index.near(38.7170, -9.1400, 1, null, null)).containsExactly(2L, 1L);
+        assertThat(index.near(38.7170, -9.1400, 300, null, null)).containsExactly(2L, 1L, 3L, 4L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Filters by owner and maximum price")
+    void filtersByOwnerAndPrice() {
+        User owner = new User("Owner", "o@example.com", "pass", "owner");
+        owner.setId(10L);
+        index.rebuild(List.of(
+                product(1L, 80.0, owner, 40.6405, -8.6538),
+                product(2L, 150.0, owner, 40.6410, -8.6540),
+                product(3L, 80.0, null, 40.6415, -8.6542)));
+
+        assertThat(index.near(40.6405, -8.6538, 2, 10L, null)).containsExactly(1L, 2L);
+        assertThat(index.near(40.6405, -8.6538, 2, null, 100.0)).containsExactly(1L, 3L);
+        assertThat(index.near(40.6405, -8.6538, 2, 10L, 100.0)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Finds products across the antimeridian and around the poles")
+    void wrapsAroundTheGlobe() {
+        index.rebuild(List.of(
+                product(1L, 80.0, null, -16.5, 179.98),
+                product(2L, 80.0, null, -16.5, -179.98),
+                product(3L, 80.0, null, 89.95, 0.0),
+                product(4L, 80.0, null, 89.95, 180.0)));
+
+        assertThat(index.near(-16.5, -179.99, 5, null, null)).containsExactly(2L, 1L);
+        assertThat(index.near(89.99, 90.0, 20, null, null)).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Matches a full scan over random coordinates")
+    void matchesFullScan() {
+        Random random = new Random(7);
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            products.add(product(id, 80.0, null, 37 + random.nextDouble() * 5, -9.5 + random.nextDouble() * 3));
+        }
+        index.rebuild(products);
+
+        for (int i = 0; i < 50; i++) {
+            double lat = 37 + random.nextDouble() * 5;
+            double lng = -9.5 + random.nextDouble() * 3;
+            double radius = 1 + random.nextDouble() * 60;
+            List<Long> expected = products.stream()
+                .filter(p -> ProductGeoIndex.distanceKm(lat, lng, p.getLatitude(), p.getLongitude()) <= radius)
+                .sorted((a, b) -> Double.compare(
+                    ProductGeoIndex.distanceKm(lat, lng, a.getLatitude(), a.getLongitude()),
+                    ProductGeoIndex.distanceKm(lat, lng, b.getLatitude(), b.getLongitude())))
+                .map(Product::getId)
+                .toList();
+            assertThat(index.near(lat, lng, radius, null, null)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    @DisplayName("Moves and removes single products")
+    void updatesIncrementally() {
+        index.rebuild(List.of(product(1L, 80.0, null, 40.6405, -8.6538)));
+
+        index.add(product(2L, 80.0, null, 40.6410, -8.6540));
+        assertThat(index.near(40.6405, -8.6538, 1, null, null)).containsExactly(1L, 2L);
+
+        index.add(product(2L, 80.0, null, 41.1579, -8.6291));
+        assertThat(index.near(40.6405, -8.6538, 1, null, null)).containsExactly(1L);
+        assertThat(index.near(41.1579, -8.6291, 1, null, null)).containsExactly(2L);
+
+        Product withdrawn = product(1L, 80.0, null, 40.6405, -8.6538);
+        withdrawn.setAvailable(false);
+        index.add(withdrawn);
+        index.remove(2L);
+        assertThat(index.near(40.6405, -8.6538, 100, null, null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rejects coordinates off the globe and radii outside the maximum")
+    void rejectsInvalidArguments() {
+        assertThatThrownBy(() -> index.near(91, 0, 5, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, -181, 5, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, 0, 0, null, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.near(0, 0, ProductGeoIndex.MAX_RADIUS_KM + 1, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Applies changes made in a transaction only once it commits")
+    void waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.add(product(1L, 80.0, null, 40.6405, -8.6538));
+            assertThat(index.near(40.6405, -8.6538, 1, null, null)).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.near(40.6405, -8.6538, 1, null, null)).containsExactly(1L);
+    }
+}
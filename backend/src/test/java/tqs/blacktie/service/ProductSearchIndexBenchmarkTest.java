@@ -0,0 +1,186 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tqs.blacktie.benchmark.Latencies;
+import tqs.blacktie.benchmark.OptInBenchmark;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog text search over 500k products, spelled right and mistyped, against matching the terms
+ * of every product in turn as the {@code LIKE} queries did. {@code FuzzyLookupBenchmark} measures
+ * the mistyped lookup under JMH.
+ */
+@OptInBenchmark
+class ProductSearchIndexBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexBenchmarkTest.class);
+
+    private static final int PRODUCTS = 500_000;
+    private static final int OWNERS = 5_000;
+    private static final int ITERATIONS = 1_000;
+    private static final int SCANNED_QUERIES = 10;
+
+    static final String[] GARMENTS = { "tuxedo", "smoking", "tailcoat", "waistcoat", "gown", "dress",
+            "suit", "blazer", "cummerbund", "bowtie", "cape", "jumpsuit", "kilt", "sari", "kimono", "frock" };
+    static final String[] COLOURS = { "black", "navy", "ivory", "burgundy", "emerald", "silver", "gold",
+            "champagne", "midnight", "charcoal", "blush", "plum" };
+    private static final String[] MATERIALS = { "wool", "silk", "velvet", "satin", "linen", "lace", "tweed",
+            "chiffon", "brocade", "cashmere" };
+    private static final String[] CITIES = { "Lisboa", "Porto", "Aveiro", "Coimbra", "Braga", "Faro", "Evora",
+            "Viseu", "Leiria", "Setubal" };
+    private static final String[] SIZES = { "XS", "S", "M", "L", "XL", "XXL" };
+
+    @Test
+    void searchCatalog() {
+        Random random = new Random(42);
+        ProductSearchIndex index = new ProductSearchIndex();
+        List<Product> catalog = catalog(random);
+        long buildStarted = System.nanoTime();
+        index.rebuild(catalog);
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            queries.add(switch (i % 4) {
+                // A style number: a handful of matches, the common storefront query
+                case 0 -> pick(random, GARMENTS) + " " + random.nextInt(20_000);
+                // Three specific terms, the last one being typed
+                case 1 -> pick(random, COLOURS) + " " + pick(random, MATERIALS) + " "
+                        + pick(random, GARMENTS).substring(0, 3);
+                case 2 -> pick(random, CITIES) + " " + pick(random, COLOURS) + " " + pick(random, MATERIALS) + " "
+                        + pick(random, GARMENTS);
+                // An owner browsing their own listings
+                default -> pick(random, GARMENTS);
+            });
+        }
+
+        Latencies latencies = run(index, queries, random);
+        // Every term of the query in the product, the last one as a prefix
+        double scanMicros = scanMicros(catalog, queries, (queryTerm, last, productTerms) -> productTerms.stream()
+                .anyMatch(term -> last ? term.startsWith(queryTerm) : term.equals(queryTerm)));
+        logger.info("Text search: {} products, index built in {} ms, {} per query, full scan {} us", PRODUCTS,
+                buildMillis, latencies, String.format("%.1f", scanMicros));
+
+        assertThat(index.size()).isEqualTo(PRODUCTS);
+        assertThat(latencies.p99().toNanos() / 1e3).isLessThan(scanMicros);
+    }
+
+    @Test
+    void searchCatalogWithTypos() {
+        Random random = new Random(7);
+        ProductSearchIndex index = new ProductSearchIndex();
+        List<Product> catalog = catalog(random);
+        index.rebuild(catalog);
+
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            queries.add(switch (i % 3) {
+                case 0 -> typo(random, pick(random, GARMENTS));
+                case 1 -> pick(random, COLOURS) + " " + typo(random, pick(random, GARMENTS));
+                default -> typo(random, pick(random, COLOURS)) + " " + typo(random, pick(random, MATERIALS));
+            });
+        }
+
+        Latencies latencies = run(index, queries, random);
+        // Every term of the query within the tolerated edits of a term of the product
+        double scanMicros = scanMicros(catalog, queries, (queryTerm, last, productTerms) -> {
+            int maxEdits = FuzzyTermMatcher.maxEdits(queryTerm.length());
+            return productTerms.stream()
+                    .anyMatch(term -> FuzzyTermMatcher.distance(queryTerm, term, maxEdits) <= maxEdits);
+        });
+        logger.info("Fuzzy search: {} products, {} per query, full scan {} us", PRODUCTS, latencies,
+                String.format("%.1f", scanMicros));
+
+        assertThat(index.search(typo(random, "cummerbund"), null, null)).isNotEmpty();
+        assertThat(latencies.p99().toNanos() / 1e3).isLessThan(scanMicros);
+    }
+
+    // Query times, after a warm-up pass
+    private static Latencies run(ProductSearchIndex index, List<String> queries, Random random) {
+        for (String query : queries) {
+            index.search(query, null, null);
+        }
+        Latencies latencies = new Latencies(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            Long ownerId = i % 4 == 3 ? (long) random.nextInt(OWNERS) : null;
+            String query = queries.get(i);
+            latencies.time(() -> index.search(query, ownerId, 150.0));
+        }
+        return latencies;
+    }
+
+    /**
+     * Mean microseconds to answer the first queries by checking the terms of every product in turn.
+     */
+    private static double scanMicros(List<Product> catalog, List<String> queries, TermFilter filter) {
+        List<List<String>> catalogTerms = new ArrayList<>(catalog.size());
+        for (Product product : catalog) {
+            catalogTerms.add(ProductTextAnalyzer.terms(product.getName() + " " + product.getDescription() + " "
+                    + product.getSize() + " " + product.getCity()));
+        }
+        long matches = 0;
+        long started = System.nanoTime();
+        for (String query : queries.subList(0, SCANNED_QUERIES)) {
+            List<String> queryTerms = ProductTextAnalyzer.terms(query);
+            for (List<String> productTerms : catalogTerms) {
+                boolean found = true;
+                for (int t = 0; found && t < queryTerms.size(); t++) {
+                    found = filter.found(queryTerms.get(t), t == queryTerms.size() - 1, productTerms);
+                }
+                matches += found ? 1 : 0;
+            }
+        }
+        double micros = (System.nanoTime() - started) / 1e3 / SCANNED_QUERIES;
+        assertThat(matches).isPositive();
+        return micros;
+    }
+
+    // Whether a query term, the last one of the query or not, is found among a product's terms
+    private interface TermFilter {
+        boolean found(String queryTerm, boolean last, List<String> productTerms);
+    }
+
+    static List<Product> catalog(Random random) {
+        List<User> owners = new ArrayList<>(OWNERS);
+        for (int o = 0; o < OWNERS; o++) {
+            User owner = new User("Owner " + o, "owner" + o + "@example.com", "pass", "owner");
+            owner.setId((long) o);
+            owners.add(owner);
+        }
+        List<Product> catalog = new ArrayList<>(PRODUCTS);
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = new Product(
+                    pick(random, COLOURS) + " " + pick(random, MATERIALS) + " " + pick(random, GARMENTS),
+                    "A " + pick(random, COLOURS) + " " + pick(random, GARMENTS) + " in " + pick(random, MATERIALS)
+                            + ", style " + random.nextInt(20_000),
+                    20.0 + random.nextInt(300));
+            product.setId((long) p);
+            product.setAvailable(true);
+            product.setSize(pick(random, SIZES));
+            product.setCity(pick(random, CITIES));
+            product.setOwner(owners.get(random.nextInt(OWNERS)));
+            catalog.add(product);
+        }
+        return catalog;
+    }
+
+    // Replaces one letter after the first, as a typing slip would
+    static String typo(Random random, String word) {
+        int at = 1 + random.nextInt(word.length() - 1);
+        char slip = (char) ('a' + random.nextInt(26));
+        return word.substring(0, at) + slip + word.substring(at + 1);
+    }
+
+    static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
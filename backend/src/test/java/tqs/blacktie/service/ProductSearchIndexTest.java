@@ -0,0 +1,182 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductSearchIndex Tests")
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+    private User owner;
+    private User otherOwner;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        owner = new User("Owner", "owner@test.com", "password", "owner");
+        owner.setId(1L);
+        otherOwner = new User("Other", "other@test.com", "password", "owner");
+        otherOwner.setId(2L);
+    }
+
+    private Product product(long id, String name, String description, double price, User productOwner) {
+        Product product = new Product(name, description, price);
+        product.setId(id);
+        product.setAvailable(true);
+        product.setOwner(productOwner);
+        return product;
+    }
+
+    @Test
+    @DisplayName("Matches name, description, size and city, ignoring case")
+    void matchesAllFields() {
+        Product tuxedo = product(1L, "Tuxedo", "Midnight blue", 80.0, owner);
+        tuxedo.setSize("XL");
+        tuxedo.setCity("Aveiro");
+        index.rebuild(List.of(tuxedo, product(2L, "Tailcoat", "Black", 90.0, owner)));
+
+        assertThat(index.search("TUXEDO", null, null)).containsExactly(1L);
+        assertThat(index.search("midnight", null, null)).containsExactly(1L);
+        assertThat(index.search("xl", null, null)).containsExactly(1L);
+        assertThat(index.search("aveiro", null, null)).containsExactly(1L);
+        assertThat(index.search("porto", null, null)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ignores accents and matches other forms of the same word")
+    void matchesPortugueseForms() {
+        index.rebuild(List.of(
+                product(1L, "Vestido de Cerimónia", "Elegância clássica", 80.0, owner),
+                product(2L, "Calças de fato", "Lã fria", 40.0, owner)));
+
+        assertThat(index.search("cerimonia", null, null)).containsExactly(1L);
+        assertThat(index.search("elegancia classica", null, null)).containsExactly(1L);
+        assertThat(index.search("VESTIDOS", null, null)).containsExactly(1L);
+        assertThat(index.search("calça", null, null)).containsExactly(2L);
+        assertThat(index.search("la fria", null, null)).containsExactly(2L);
+        // A word being typed still matches by prefix
+        assertThat(index.search("cerimó", null, null)).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Tolerates typos, ranking closer spellings first")
+    void toleratesTypos() {
+        index.rebuild(List.of(
+                product(1L, "Tuxedo", "Wool", 80.0, owner),
+                product(2L, "Vestido longo", "Seda", 90.0, owner),
+                product(3L, "Blazer", "Linen", 60.0, owner),
+                product(4L, "Blaser", "Linen", 60.0, owner)));
+
+        assertThat(index.search("tuxido", null, null)).containsExactly(1L);
+        assertThat(index.search("vestdo longo", null, null)).containsExactly(2L);
+        assertThat(index.search("blazzer", null, null)).containsExactly(3L, 4L);
+        // Typos are only looked for when the word is not in the catalog
+        assertThat(index.search("blazer", null, null)).containsExactly(3L);
+        assertThat(index.search("tuxidox", null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Requires every term, the last one matching as a prefix")
+    void requiresEveryTerm() {
+        index.rebuild(List.of(
+                product(1L, "Black tuxedo", "Wool", 80.0, owner),
+                product(2L, "Black tailcoat", "Wool", 90.0, owner),
+                product(3L, "Navy tuxedo", "Wool", 70.0, owner)));
+
+        assertThat(index.search("black tux", null, null)).containsExactly(1L);
+        assertThat(index.search("tux", null, null)).containsExactlyInAnyOrder(1L, 3L);
+        // Only the term being typed expands
+        assertThat(index.search("bla tuxedo", null, null)).isEmpty();
+        assertThat(index.search(" -- ", null, null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Expands a prefix to every term starting with it, however many")
+    void expandsPrefixToEveryTerm() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            products.add(product(id, String.format("Suit ref%03d", id), "Wool", 80.0, owner));
+        }
+        products.add(product(101L, "Jacket ref999", "Wool", 80.0, owner));
+        index.rebuild(products);
+
+        assertThat(index.search("ref", null, null)).hasSize(101);
+        assertThat(index.search("ref05", null, null)).hasSize(10);
+        // Past the first 64 terms in dictionary order
+        assertThat(index.search("jacket ref", null, null)).containsExactly(101L);
+        assertThat(index.search("suit ref", null, null)).hasSize(100).doesNotContain(101L);
+    }
+
+    @Test
+    @DisplayName("Ranks name matches above description matches, and rarer terms higher")
+    void ranksByBm25() {
+        index.rebuild(List.of(
+                product(1L, "Tailcoat", "Goes well with a black waistcoat", 80.0, owner),
+                product(2L, "Black waistcoat", "Wool", 40.0, owner),
+                product(3L, "Black tie", "Silk", 20.0, owner),
+                product(4L, "Black bow tie", "Silk", 20.0, owner)));
+
+        assertThat(index.search("waistcoat", null, null)).containsExactly(2L, 1L);
+        // The shorter name is the closer match
+        assertThat(index.search("black tie", null, null)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("Filters by owner and maximum price")
+    void filtersByOwnerAndPrice() {
+        index.rebuild(List.of(
+                product(1L, "Tuxedo", "Wool", 80.0, owner),
+                product(2L, "Tuxedo", "Wool", 120.0, owner),
+                product(3L, "Tuxedo", "Wool", 60.0, otherOwner)));
+
+        assertThat(index.search("tuxedo", 1L, null)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("tuxedo", null, 80.0)).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("tuxedo", 2L, 50.0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Adds, re-indexes and removes single products")
+    void updatesIncrementally() {
+        index.rebuild(List.of(product(1L, "Tuxedo", "Wool", 80.0, owner)));
+
+        index.add(product(2L, "Tuxedo jacket", "Wool", 80.0, owner));
+        assertThat(index.search("tuxedo", null, null)).containsExactly(1L, 2L);
+
+        index.add(product(2L, "Tailcoat", "Wool", 80.0, owner));
+        assertThat(index.search("tuxedo", null, null)).containsExactly(1L);
+        assertThat(index.search("tailcoat", null, null)).containsExactly(2L);
+
+        Product withdrawn = product(1L, "Tuxedo", "Wool", 80.0, owner);
+        withdrawn.setAvailable(false);
+        index.add(withdrawn);
+        index.remove(2L);
+        assertThat(index.search("tuxedo", null, null)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Applies changes made in a transaction only once it commits")
+    void waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.add(product(1L, "Tuxedo", "Wool", 80.0, owner));
+            assertThat(index.search("tuxedo", null, null)).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.search("tuxedo", null, null)).containsExactly(1L);
+    }
+}
@@ -2,15 +2,23 @@ package tqs.blacktie.service;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import tqs.blacktie.dto.AvailabilityCalendarResponse;
+import tqs.blacktie.dto.SuggestionResponse;
+import tqs.blacktie.entity.Booking;
 import tqs.blacktie.entity.Product;
 import tqs.blacktie.entity.User;
 import tqs.blacktie.repository.ProductRepository;
 import tqs.blacktie.repository.UserRepository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -19,7 +27,27 @@ class ProductServiceTest {
     private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
     private final UserRepository userRepository = Mockito.mock(UserRepository.class);
     private final LocationService locationService = Mockito.mock(LocationService.class);
-    private final ProductService productService = new ProductService(productRepository, userRepository, locationService);
+    private final BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductSuggestionIndex suggestionIndex = new ProductSuggestionIndex();
+    private final ProductGeoIndex geoIndex = new ProductGeoIndex();
+    private final ProductService productService = new ProductService(productRepository, userRepository,
+            locationService, availabilityIndex, searchIndex, suggestionIndex, geoIndex,
+            new PricingEngine(List.of(), 730, 10000));
+
+    private static Product indexed(long id, String name, double price, User owner) {
+        Product product = new Product(name, "Desc", price);
+        product.setId(id);
+        product.setAvailable(true);
+        product.setOwner(owner);
+        return product;
+    }
+
+    private static Product located(Product product, double latitude, double longitude) {
+        product.setLatitude(latitude);
+        product.setLongitude(longitude);
+        return product;
+    }
 
     @Test
     void whenNoFilters_thenReturnsAllAvailable() {
@@ -39,18 +67,20 @@ class ProductServiceTest {
     }
 
     @Test
-    void whenNameFilter_thenUsesNameQuery() {
-        when(productRepository.findByAvailableTrueAndNameContainingIgnoreCase("smoking"))
-                .thenReturn(List.of());
+    void whenNameFilter_thenUsesSearchIndex() {
+        Product smoking = indexed(1L, "Smoking", 80.0, null);
+        Product tuxedo = indexed(2L, "Tuxedo", 90.0, null);
+        searchIndex.rebuild(List.of(smoking, tuxedo));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(smoking));
 
         User requester = new User("Renter", "r@example.com", "pass", "renter");
         requester.setId(1L);
         when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
 
-        productService.getAvailableProducts("smoking", null, 1L);
+        List<Product> result = productService.getAvailableProducts("smoking", null, 1L);
 
-        verify(productRepository)
-                .findByAvailableTrueAndNameContainingIgnoreCase("smoking");
+        assertThat(result).containsExactly(smoking);
+        verify(productRepository, never()).findByAvailableTrue();
     }
 
     @Test
@@ -69,19 +99,98 @@ class ProductServiceTest {
     }
 
     @Test
-    void whenNameAndMaxPriceFilter_thenUsesCombinedQuery() {
-        when(productRepository
-                .findByAvailableTrueAndNameContainingIgnoreCaseAndPriceLessThanEqual("smoking", 120.0))
-                .thenReturn(List.of());
+    void whenNameAndMaxPriceFilter_thenSearchesWithinPrice() {
+        Product cheap = indexed(1L, "Smoking", 80.0, null);
+        Product dear = indexed(2L, "Smoking jacket", 150.0, null);
+        searchIndex.rebuild(List.of(cheap, dear));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(cheap));
 
         User requester = new User("Renter", "r@example.com", "pass", "renter");
         requester.setId(1L);
         when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
 
-        productService.getAvailableProducts("smoking", 120.0, 1L);
+        List<Product> result = productService.getAvailableProducts("smoking", 120.0, 1L);
 
-        verify(productRepository)
-                .findByAvailableTrueAndNameContainingIgnoreCaseAndPriceLessThanEqual("smoking", 120.0);
+        assertThat(result).containsExactly(cheap);
+    }
+
+    @Test
+    void nearSearchReturnsProductsWithinRadiusNearestFirst() {
+        Product far = located(indexed(1L, "Smoking", 80.0, null), 40.6405, -8.6538);
+        Product near = located(indexed(2L, "Tuxedo", 80.0, null), 40.6420, -8.6500);
+        Product dear = located(indexed(3L, "Smoking", 300.0, null), 40.6410, -8.6540);
+        Product elsewhere = located(indexed(4L, "Smoking", 80.0, null), 41.1579, -8.6291);
+        geoIndex.rebuild(List.of(far, near, dear, elsewhere));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(far, near));
+
+        User requester = new User("Renter", "r@example.com", "pass", "renter");
+        requester.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
+
+        List<Product> result = productService.getAvailableProducts(null, 100.0, 1L, null, null, 40.6425, -8.6495, 5.0);
+
+        assertThat(result).containsExactly(near, far);
+        verify(productRepository, never()).findByAvailableTrue();
+    }
+
+    @Test
+    void nearSearchWithNameKeepsOnlyMatchingProductsByDistance() {
+        Product smoking = located(indexed(1L, "Black smoking", 80.0, null), 40.6405, -8.6538);
+        Product tuxedo = located(indexed(2L, "Tuxedo", 80.0, null), 40.6420, -8.6500);
+        searchIndex.rebuild(List.of(smoking, tuxedo));
+        geoIndex.rebuild(List.of(smoking, tuxedo));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(smoking));
+
+        User requester = new User("Renter", "r@example.com", "pass", "renter");
+        requester.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
+
+        List<Product> result = productService.getAvailableProducts("smoking", null, 1L, null, null, 40.6425, -8.6495, 5.0);
+
+        assertThat(result).containsExactly(smoking);
+    }
+
+    @Test
+    void nearSearchRequiresLatitudeLongitudeAndRadius() {
+        assertThatThrownBy(() -> productService.getAvailableProducts(null, null, 1L, null, null, 40.64, -8.65, null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Latitude, longitude and radius are all required to search near a location");
+    }
+
+    @Test
+    void ownerNameSearchOnlyMatchesOwnProducts() {
+        User owner = new User("Owner", "o@example.com", "pass", "owner");
+        owner.setId(10L);
+        User other = new User("Other", "x@example.com", "pass", "owner");
+        other.setId(11L);
+        Product own = indexed(1L, "Smoking", 80.0, owner);
+        searchIndex.rebuild(List.of(own, indexed(2L, "Smoking", 80.0, other)));
+        when(userRepository.findById(10L)).thenReturn(java.util.Optional.of(owner));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(own));
+
+        List<Product> result = productService.getAvailableProducts("smoking", null, 10L);
+
+        assertThat(result).containsExactly(own);
+    }
+
+    @Test
+    void nameSearchKeepsRankingAndSkipsProductsNoLongerAvailable() {
+        Product inName = indexed(1L, "Black smoking", 80.0, null);
+        Product inDescription = indexed(2L, "Tailcoat", 80.0, null);
+        inDescription.setDescription("Worn with a black waistcoat");
+        Product withdrawn = indexed(3L, "Black tie", 80.0, null);
+        searchIndex.rebuild(List.of(inDescription, inName, withdrawn));
+        withdrawn.setAvailable(false);
+        when(productRepository.findAllById(List.of(1L, 3L, 2L)))
+                .thenReturn(List.of(inDescription, withdrawn, inName));
+
+        User requester = new User("Renter", "r@example.com", "pass", "renter");
+        requester.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
+
+        List<Product> result = productService.getAvailableProducts("black", null, 1L);
+
+        assertThat(result).containsExactly(inName, inDescription);
     }
 
     @Test
@@ -139,6 +248,47 @@ class ProductServiceTest {
         assertThat(result.getAvailable()).isTrue();
     }
 
+    @Test
+    void createdProductIsSearchableAndDeletedOneIsNot() {
+        User owner = new User("Owner", "o@example.com", "pass", "owner");
+        owner.setId(1L);
+        Product saved = indexed(7L, "Smoking", 80.0, owner);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(owner));
+        when(productRepository.save(any(Product.class))).thenReturn(saved);
+        when(productRepository.findById(7L)).thenReturn(java.util.Optional.of(saved));
+
+        productService.createProduct(new Product("Smoking", "Desc", 80.0), 1L);
+        assertThat(searchIndex.search("smoking", null, null)).containsExactly(7L);
+
+        productService.deleteProduct(7L, 1L);
+        assertThat(searchIndex.search("smoking", null, null)).isEmpty();
+    }
+
+    @Test
+    void createdProductIsSuggestedAndDeletedOneIsNot() {
+        User owner = new User("Owner", "o@example.com", "pass", "owner");
+        owner.setId(1L);
+        Product saved = indexed(7L, "Black Smoking", 80.0, owner);
+        saved.setCity("Aveiro");
+        saved.setLatitude(40.6405);
+        saved.setLongitude(-8.6538);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(owner));
+        when(productRepository.save(any(Product.class))).thenReturn(saved);
+        when(productRepository.findById(7L)).thenReturn(java.util.Optional.of(saved));
+
+        productService.createProduct(new Product("Black Smoking", "Desc", 80.0), 1L);
+        assertThat(productService.suggest("smo", 10))
+            .extracting(SuggestionResponse::getType, SuggestionResponse::getId, SuggestionResponse::getLabel)
+            .containsExactly(tuple("PRODUCT", 7L, "Black Smoking"));
+        assertThat(productService.suggest("ave", 10)).extracting(SuggestionResponse::getLabel).containsExactly("Aveiro");
+        assertThat(geoIndex.near(40.64, -8.65, 5.0, null, null)).containsExactly(7L);
+
+        productService.deleteProduct(7L, 1L);
+        assertThat(productService.suggest("smo", 10)).isEmpty();
+        assertThat(productService.suggest("ave", 10)).isEmpty();
+        assertThat(geoIndex.near(40.64, -8.65, 5.0, null, null)).isEmpty();
+    }
+
     @Test
     void shouldMarkProductAsUnavailableWhenDeleted() {
         User owner = new User("Owner", "o@example.com", "pass", "owner");
@@ -215,17 +365,15 @@ class ProductServiceTest {
 
     @Test
     void shouldFilterProductsByNameCaseInsensitive() {
-        when(productRepository.findByAvailableTrueAndNameContainingIgnoreCase("SMOKING"))
-                .thenReturn(List.of());
+        Product smoking = indexed(1L, "Smoking", 80.0, null);
+        searchIndex.rebuild(List.of(smoking));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(smoking));
 
         User requester = new User("Renter", "r@example.com", "pass", "renter");
         requester.setId(1L);
         when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
 
-        productService.getAvailableProducts("SMOKING", null, 1L);
-
-        verify(productRepository)
-                .findByAvailableTrueAndNameContainingIgnoreCase("SMOKING");
+        assertThat(productService.getAvailableProducts("SMOKING", null, 1L)).containsExactly(smoking);
     }
 
     @Test
@@ -264,4 +412,112 @@ class ProductServiceTest {
         verify(productRepository).save(any(Product.class));
     }
 
+    @Test
+    void shouldReturnAvailabilityCalendarFromIndex() {
+        Product product = new Product("Tux", "Desc", 50.0);
+        product.setId(5L);
+        LocalDate start = LocalDate.now().plusDays(3);
+
+        Booking approved = new Booking(new User(), product, start.atTime(10, 0), start.plusDays(2).atTime(18, 0), 150.0);
+        approved.setId(1L);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        availabilityIndex.sync(approved);
+
+        Booking paid = new Booking(new User(), product, start.plusDays(6).atTime(9, 0), start.plusDays(6).atTime(20, 0), 50.0);
+        paid.setId(2L);
+        paid.setStatus(Booking.STATUS_PAID);
+        availabilityIndex.sync(paid);
+
+        when(productRepository.existsById(5L)).thenReturn(true);
+
+        AvailabilityCalendarResponse calendar = productService.getAvailabilityCalendar(5L, start, start.plusDays(10));
+
+        assertThat(calendar.getBusy()).hasSize(2);
+        assertThat(calendar.getBusy().get(0).getFrom()).isEqualTo(start);
+        assertThat(calendar.getBusy().get(0).getTo()).isEqualTo(start.plusDays(2));
+        assertThat(calendar.getBusy().get(1).getFrom()).isEqualTo(start.plusDays(6));
+        assertThat(calendar.getBusy().get(1).getTo()).isEqualTo(start.plusDays(6));
+    }
+
+    @Test
+    void shouldClipAvailabilityCalendarToRequestedRange() {
+        Product product = new Product("Tux", "Desc", 50.0);
+        product.setId(5L);
+        LocalDate start = LocalDate.now().plusDays(1);
+
+        Booking approved = new Booking(new User(), product, start.atStartOfDay(), start.plusDays(100).atStartOfDay(), 50.0);
+        approved.setId(1L);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        availabilityIndex.sync(approved);
+
+        when(productRepository.existsById(5L)).thenReturn(true);
+
+        AvailabilityCalendarResponse calendar = productService.getAvailabilityCalendar(5L,
+                start.plusDays(70), start.plusDays(130));
+
+        assertThat(calendar.getBusy()).hasSize(1);
+        assertThat(calendar.getBusy().get(0).getFrom()).isEqualTo(start.plusDays(70));
+        assertThat(calendar.getBusy().get(0).getTo()).isEqualTo(start.plusDays(100));
+    }
+
+    @Test
+    void shouldRejectAvailabilityOutsideCalendarWindow() {
+        when(productRepository.existsById(5L)).thenReturn(true);
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusMonths(BookingAvailabilityIndex.CALENDAR_WINDOW_MONTHS + 1);
+
+        assertThatThrownBy(() -> productService.getAvailabilityCalendar(5L, from, to))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Availability can only be queried between");
+    }
+
+    @Test
+    void shouldRejectAvailabilityForUnknownProduct() {
+        when(productRepository.existsById(99L)).thenReturn(false);
+        LocalDate from = LocalDate.now();
+
+        assertThatThrownBy(() -> productService.getAvailabilityCalendar(99L, from, from))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product not found with id: 99");
+    }
+
+    @Test
+    void whenDateRangeGiven_thenExcludesBookedProducts() {
+        Product free = new Product("Free Tux", "Desc", 50.0);
+        free.setId(1L);
+        Product booked = new Product("Booked Tux", "Desc", 50.0);
+        booked.setId(2L);
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(free, booked));
+
+        User requester = new User("Renter", "r@example.com", "pass", "renter");
+        requester.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(java.util.Optional.of(requester));
+
+        LocalDateTime from = LocalDateTime.now().plusDays(10);
+        Booking paid = new Booking(requester, booked, from.plusDays(1), from.plusDays(2), 100.0);
+        paid.setId(7L);
+        paid.setStatus(Booking.STATUS_PAID);
+        availabilityIndex.sync(paid);
+
+        List<Product> result = productService.getAvailableProducts(null, null, 1L, from, from.plusDays(3));
+
+        assertThat(result).containsExactly(free);
+    }
+
+    @Test
+    void whenOnlyOneDateGiven_thenRejectsFilter() {
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThatThrownBy(() -> productService.getAvailableProducts(null, null, 1L, from, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Both from and to dates are required");
+    }
+
+    @Test
+    void whenRangeReversed_thenRejectsFilter() {
+        LocalDateTime from = LocalDateTime.now().plusDays(3);
+
+        assertThatThrownBy(() -> productService.getAvailableProducts(null, null, 1L, from, from.minusDays(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
 }
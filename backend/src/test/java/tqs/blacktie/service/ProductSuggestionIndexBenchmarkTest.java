@@ -0,0 +1,102 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tqs.blacktie.benchmark.OptInBenchmark;
+import tqs.blacktie.benchmark.Latencies;
+import tqs.blacktie.entity.Product;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Search box suggestions over 500k products, within a millisecond at p99, and the cost of listing
+ * and removing one.
+ */
+@OptInBenchmark
+class ProductSuggestionIndexBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestionIndexBenchmarkTest.class);
+
+    private static final int PRODUCTS = 500_000;
+    private static final int ITERATIONS = 10_000;
+
+    private static final String[] GARMENTS = { "Tuxedo", "Smoking", "Tailcoat", "Waistcoat", "Gown", "Dress",
+            "Suit", "Blazer", "Cummerbund", "Bowtie", "Cape", "Jumpsuit", "Kilt", "Sari", "Kimono", "Frock" };
+    private static final String[] COLOURS = { "Black", "Navy", "Ivory", "Burgundy", "Emerald", "Silver", "Gold",
+            "Champagne", "Midnight", "Charcoal", "Blush", "Plum" };
+    private static final String[] CITIES = { "Lisboa", "Porto", "Aveiro", "Coimbra", "Braga", "Faro", "Évora",
+            "Viseu", "Leiria", "Setúbal" };
+    private static final String[] SIZES = { "XS", "S", "M", "L", "XL", "XXL" };
+
+    @Test
+    void suggestWhileTyping() {
+        Random random = new Random(42);
+        List<Product> catalog = new ArrayList<>(PRODUCTS);
+        Map<Long, Long> bookings = new HashMap<>();
+        for (int p = 0; p < PRODUCTS; p++) {
+            Product product = new Product(
+                    pick(random, COLOURS) + " " + pick(random, GARMENTS) + " " + random.nextInt(20_000), "Desc", 50.0);
+            product.setId((long) p);
+            product.setAvailable(true);
+            product.setSize(pick(random, SIZES));
+            product.setCity(pick(random, CITIES));
+            catalog.add(product);
+            bookings.put((long) p, (long) random.nextInt(50));
+        }
+        ProductSuggestionIndex index = new ProductSuggestionIndex();
+        long buildStarted = System.nanoTime();
+        index.rebuild(catalog, bookings);
+        long buildMillis = (System.nanoTime() - buildStarted) / 1_000_000;
+
+        // Every prefix of a word as it is typed, one to six letters
+        List<String> prefixes = new ArrayList<>(ITERATIONS);
+        for (int i = 0; i < ITERATIONS; i++) {
+            String word = switch (i % 3) {
+                case 0 -> pick(random, GARMENTS);
+                case 1 -> pick(random, COLOURS) + " " + pick(random, GARMENTS);
+                default -> pick(random, CITIES);
+            };
+            prefixes.add(word.substring(0, Math.min(word.length(), 1 + i % 6)));
+        }
+        for (String prefix : prefixes) {
+            index.suggest(prefix, ProductSuggestionIndex.MAX_SUGGESTIONS);
+        }
+        Latencies latencies = new Latencies(ITERATIONS);
+        for (String prefix : prefixes) {
+            latencies.time(() -> index.suggest(prefix, ProductSuggestionIndex.MAX_SUGGESTIONS));
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            Product product = catalog.get(random.nextInt(PRODUCTS));
+            index.remove(product.getId());
+            index.add(product);
+        }
+        long updateStarted = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            Product product = catalog.get(random.nextInt(PRODUCTS));
+            index.remove(product.getId());
+            index.add(product);
+        }
+        double updateMicros = (System.nanoTime() - updateStarted) / 1e3 / 2_000;
+
+        logger.info("Suggestions: {} products, index built in {} ms, {} per prefix, {} us per add or remove",
+                PRODUCTS, buildMillis, latencies, String.format("%.1f", updateMicros));
+
+        assertThat(index.size()).isEqualTo(PRODUCTS);
+        assertThat(index.suggest("tux", ProductSuggestionIndex.MAX_SUGGESTIONS))
+            .hasSize(ProductSuggestionIndex.MAX_SUGGESTIONS);
+        assertThat(latencies.p99()).isLessThan(Duration.ofMillis(1));
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
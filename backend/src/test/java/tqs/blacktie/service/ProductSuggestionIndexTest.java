@@ -0,0 +1,137 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tqs.blacktie.dto.SuggestionResponse;
+import tqs.blacktie.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DisplayName("ProductSuggestionIndex Tests")
+class ProductSuggestionIndexTest {
+
+    private ProductSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSuggestionIndex();
+    }
+
+    private Product product(long id, String name, String size, String city) {
+        Product product = new Product(name, "Desc", 50.0);
+        product.setId(id);
+        product.setAvailable(true);
+        product.setSize(size);
+        product.setCity(city);
+        return product;
+    }
+
+    private List<String> labels(String prefix) {
+        return index.suggest(prefix, ProductSuggestionIndex.MAX_SUGGESTIONS).stream()
+            .map(SuggestionResponse::getLabel)
+            .toList();
+    }
+
+    @Test
+    @DisplayName("Completes names from any word, and sizes and cities, ignoring case and accents")
+    void completesEveryWord() {
+        index.rebuild(List.of(
+                product(1L, "Black Smoking", "M", "Setúbal"),
+                product(2L, "Vestido de Cerimónia", "S", "Aveiro")), Map.of());
+
+        assertThat(index.suggest("SMO", 10))
+            .extracting(SuggestionResponse::getType, SuggestionResponse::getId, SuggestionResponse::getLabel)
+            .containsExactly(tuple("PRODUCT", 1L, "Black Smoking"));
+        assertThat(labels("black smo")).containsExactly("Black Smoking");
+        assertThat(labels("cerimonia")).containsExactly("Vestido de Cerimónia");
+        assertThat(labels("setub")).containsExactly("Setúbal");
+        assertThat(index.suggest("set", 10).get(0).getId()).isNull();
+        assertThat(labels("m")).containsExactly("M");
+        assertThat(labels("smoking black")).isEmpty();
+        assertThat(labels(" -- ")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ranks products by bookings and sizes and cities by products carrying them")
+    void ranksByPopularity() {
+        index.rebuild(List.of(
+                product(1L, "Tuxedo", null, "Porto"),
+                product(2L, "Tailcoat", null, "Tomar"),
+                product(3L, "Top hat", null, "Tomar"),
+                product(4L, "Tie", null, null)), Map.of(1L, 2L, 3L, 9L));
+
+        assertThat(labels("t")).containsExactly("Top hat", "Tuxedo", "Tomar", "Tailcoat", "Tie");
+        assertThat(index.suggest("t", 2)).extracting(SuggestionResponse::getLabel).containsExactly("Top hat", "Tuxedo");
+    }
+
+    @Test
+    @DisplayName("Keeps only the heaviest suggestions, each once")
+    void capsSuggestions() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            products.add(product(id, "Fato fato " + id, null, null));
+        }
+        index.rebuild(products, Map.of(30L, 5L));
+
+        List<String> labels = labels("fa");
+        assertThat(labels).hasSize(ProductSuggestionIndex.MAX_SUGGESTIONS).doesNotHaveDuplicates();
+        assertThat(labels.get(0)).isEqualTo("Fato fato 30");
+    }
+
+    @Test
+    @DisplayName("Adds, re-lists and removes single products, re-weighing sizes and cities")
+    void updatesIncrementally() {
+        index.rebuild(List.of(product(1L, "Smoking", "M", "Braga")), Map.of());
+
+        index.add(product(2L, "Smoking slim", "L", "Braga"));
+        assertThat(labels("smok")).containsExactly("Smoking", "Smoking slim");
+        assertThat(labels("b")).containsExactly("Braga");
+
+        index.add(product(2L, "Blazer", "L", "Beja"));
+        index.add(product(3L, "Bow tie", null, "Beja"));
+        assertThat(labels("smok")).containsExactly("Smoking");
+        assertThat(labels("b")).containsExactly("Beja", "Braga", "Blazer", "Bow tie");
+
+        Product withdrawn = product(1L, "Smoking", "M", "Braga");
+        withdrawn.setAvailable(false);
+        index.add(withdrawn);
+        index.remove(2L);
+        assertThat(labels("smok")).isEmpty();
+        assertThat(labels("b")).containsExactly("Beja", "Bow tie");
+        assertThat(labels("l")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Rejects limits outside 1 to the maximum")
+    void rejectsInvalidLimit() {
+        assertThatThrownBy(() -> index.suggest("smo", 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.suggest("smo", ProductSuggestionIndex.MAX_SUGGESTIONS + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Applies changes made in a transaction only once it commits")
+    void waitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.add(product(1L, "Smoking", null, null));
+            assertThat(labels("smo")).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(labels("smo")).containsExactly("Smoking");
+    }
+}
@@ -0,0 +1,44 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ProductTextAnalyzer Tests")
+class ProductTextAnalyzerTest {
+
+    @Test
+    @DisplayName("Folds case and diacritics")
+    void foldsDiacritics() {
+        assertThat(ProductTextAnalyzer.fold("Elegância CERIMÓNIA Calças")).isEqualTo("elegancia cerimonia calcas");
+        assertThat(ProductTextAnalyzer.terms("Cerimónia")).isEqualTo(ProductTextAnalyzer.terms("cerimonia"));
+    }
+
+    @Test
+    @DisplayName("Splits on anything but letters and digits")
+    void splitsWords() {
+        assertThat(ProductTextAnalyzer.terms("Smoking, tamanho 52 - Porto!")).containsExactly("smoking", "tamanh",
+                "52", "port");
+        assertThat(ProductTextAnalyzer.terms(null)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reduces plural and feminine forms to one stem")
+    void stemsPortuguese() {
+        assertThat(ProductTextAnalyzer.terms("vestido vestidos vestida vestidas")).containsOnly("vestid");
+        assertThat(ProductTextAnalyzer.terms("calça calças")).containsOnly("calc");
+        assertThat(ProductTextAnalyzer.terms("colar colares")).containsOnly("colar");
+        assertThat(ProductTextAnalyzer.terms("botão botões")).containsOnly("botao");
+        assertThat(ProductTextAnalyzer.terms("anel anéis")).containsOnly("anel");
+        assertThat(ProductTextAnalyzer.terms("elegante elegantes")).containsOnly("elegant");
+    }
+
+    @Test
+    @DisplayName("Leaves short words and codes alone")
+    void keepsShortWords() {
+        assertThat(PortugueseStemmer.stem("fato")).isEqualTo("fato");
+        assertThat(PortugueseStemmer.stem("xl")).isEqualTo("xl");
+        assertThat(PortugueseStemmer.stem("r2d2s")).isEqualTo("r2d2s");
+    }
+}
@@ -0,0 +1,67 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import tqs.blacktie.entity.Booking;
+import tqs.blacktie.entity.Product;
+import tqs.blacktie.entity.User;
+import tqs.blacktie.repository.BookingRepository;
+import tqs.blacktie.repository.ProductBlackoutRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("ReservationCheck Tests")
+class ReservationCheckTest {
+
+    private final BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+    private final BookingRepository bookingRepository = Mockito.mock(BookingRepository.class);
+    private final ProductBlackoutRepository blackoutRepository = Mockito.mock(ProductBlackoutRepository.class);
+
+    private final LocalDateTime from = LocalDateTime.of(2030, 5, 10, 10, 0);
+    private final LocalDateTime to = LocalDateTime.of(2030, 5, 12, 10, 0);
+
+    private static Product product(int bufferDays) {
+        Product product = new Product("Smoking", "Desc", 80.0);
+        product.setId(1L);
+        product.setBufferDays(bufferDays);
+        return product;
+    }
+
+    @Test
+    @DisplayName("Answers from the node's index with the in-JVM lock")
+    void localLockReadsTheIndex() {
+        ReservationCheck check = new ReservationCheck(availabilityIndex, bookingRepository, blackoutRepository, "local");
+        Booking approved = new Booking(new User(), product(0), from, to, 100.0);
+        approved.setId(7L);
+        approved.setStatus(Booking.STATUS_APPROVED);
+        availabilityIndex.sync(approved);
+
+        assertThat(check.isBooked(product(0), from.plusDays(1), to.plusDays(1))).isTrue();
+        assertThat(check.isBooked(product(0), to.plusDays(1), to.plusDays(2))).isFalse();
+        verifyNoInteractions(bookingRepository, blackoutRepository);
+    }
+
+    @Test
+    @DisplayName("Reads bookings and block-outs from the database with the advisory lock")
+    void advisoryLockReadsTheDatabase() {
+        ReservationCheck check = new ReservationCheck(availabilityIndex, bookingRepository, blackoutRepository, "advisory");
+        List<String> reserved = List.of(Booking.STATUS_APPROVED, Booking.STATUS_PAID, Booking.STATUS_COMPLETED);
+        when(bookingRepository.existsOverlapping(1L, reserved, from.minusDays(2), to.plusDays(2))).thenReturn(true);
+
+        // Another node's booking never reached this node's index
+        assertThat(check.isBooked(product(2), from, to)).isTrue();
+
+        when(blackoutRepository.existsOverlapping(any(), any(), any())).thenReturn(false);
+        assertThat(check.isBlocked(product(2), from, to)).isFalse();
+        verify(bookingRepository).existsOverlapping(1L, reserved, from.minusDays(2), to);
+        verify(blackoutRepository).existsOverlapping(1L, from, to);
+    }
+}
@@ -0,0 +1,133 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StripedReservationLock Tests")
+class StripedReservationLockTest {
+
+    private final StripedReservationLock lock = new StripedReservationLock(10);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should round the stripe count up to a power of two")
+    void shouldRoundStripeCount() {
+        assertEquals(16, lock.stripeCount());
+        assertEquals(64, new StripedReservationLock(64).stripeCount());
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive stripe count")
+    void shouldRejectInvalidStripeCount() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedReservationLock(0));
+    }
+
+    @Test
+    @DisplayName("Should refuse to lock outside a transaction")
+    void shouldRequireTransaction() {
+        assertThrows(IllegalStateException.class, () -> lock.lock(1L));
+    }
+
+    @Test
+    @DisplayName("Should hold the stripe until the transaction completes")
+    void shouldReleaseOnTransactionCompletion() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        lock.lock(7L);
+
+        CompletableFuture<Boolean> otherThread = CompletableFuture.supplyAsync(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                lock.lock(7L);
+                return true;
+            } finally {
+                TransactionSynchronizationManager.getSynchronizations()
+                        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        assertThrows(TimeoutException.class,
+                () -> otherThread.get(200, TimeUnit.MILLISECONDS));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(otherThread.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Should lock every stripe of a product set once")
+    void shouldLockSharedStripeOnce() {
+        long sameStripe = nextIdOnStripe(lock.stripeIndex(3L), 3L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        lock.lockAll(List.of(3L, sameStripe, 4L));
+
+        assertEquals(2, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    @DisplayName("Should not deadlock when product sets are locked in opposite orders")
+    void shouldLockSetsWithoutDeadlock() throws Exception {
+        // Ascending product ids whose stripes are in descending order
+        long first = 1L;
+        long second = first + 1;
+        while (lock.stripeIndex(second) >= lock.stripeIndex(first)) {
+            second++;
+        }
+        List<Long> ascending = List.of(first, second);
+        List<Long> descending = List.of(second, first);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (List<Long> products : List.of(ascending, descending)) {
+                runs.add(executor.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        TransactionSynchronizationManager.initSynchronization();
+                        try {
+                            lock.lockAll(products);
+                        } finally {
+                            TransactionSynchronizationManager.getSynchronizations().forEach(
+                                    sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+                            TransactionSynchronizationManager.clearSynchronization();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long nextIdOnStripe(int stripe, long after) {
+        long id = after + 1;
+        while (lock.stripeIndex(id) != stripe) {
+            id++;
+        }
+        return id;
+    }
+}
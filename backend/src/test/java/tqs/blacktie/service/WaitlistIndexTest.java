@@ -0,0 +1,144 @@
+package tqs.blacktie.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tqs.blacktie.repository.WaitlistEntryRepository.WaitlistKey;
+import tqs.blacktie.service.WaitlistIndex.Waiter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static tqs.blacktie.service.BookingAvailabilityIndex.toKey;
+
+@DisplayName("WaitlistIndex Tests")
+class WaitlistIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 6, 1, 10, 0);
+    private static final Long PRODUCT = 10L;
+
+    private WaitlistIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new WaitlistIndex();
+    }
+
+    private void add(long id, int startDay, int endDay) {
+        index.add(PRODUCT, id, BASE.plusDays(startDay), BASE.plusDays(endDay));
+    }
+
+    private List<Long> overlapping(int fromDay, int toDay) {
+        return index.overlapping(PRODUCT, toKey(BASE.plusDays(fromDay)), toKey(BASE.plusDays(toDay))).stream()
+                .map(Waiter::id)
+                .toList();
+    }
+
+    private static WaitlistKey key(long id, long productId, int startDay, int endDay) {
+        return new WaitlistKey() {
+            public Long getId() {
+                return id;
+            }
+
+            public Long getProductId() {
+                return productId;
+            }
+
+            public LocalDateTime getBookingDate() {
+                return BASE.plusDays(startDay);
+            }
+
+            public LocalDateTime getReturnDate() {
+                return BASE.plusDays(endDay);
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should find overlapping waiters in priority order")
+    void shouldFindOverlappingWaitersInPriorityOrder() {
+        add(3L, 0, 2);
+        add(1L, 4, 6);
+        add(2L, 1, 5);
+        add(4L, 10, 12);
+
+        assertEquals(List.of(1L, 2L, 3L), overlapping(2, 4));
+        assertEquals(List.of(4L), overlapping(9, 20));
+        assertEquals(List.of(), overlapping(7, 9));
+        assertTrue(index.overlapping(99L, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat touching boundaries as overlapping")
+    void shouldTreatBoundariesAsInclusive() {
+        add(1L, 5, 7);
+
+        assertEquals(List.of(1L), overlapping(7, 9));
+        assertEquals(List.of(1L), overlapping(3, 5));
+        assertEquals(List.of(), overlapping(8, 9));
+    }
+
+    @Test
+    @DisplayName("Should find a long waiter that started well before the freed interval")
+    void shouldFindLongWaiter() {
+        add(1L, 0, 100);
+        for (long id = 2; id < 50; id++) {
+            add(id, (int) id, (int) id);
+        }
+
+        assertEquals(List.of(1L), overlapping(70, 80));
+    }
+
+    @Test
+    @DisplayName("Should forget removed waiters and moved dates")
+    void shouldRemoveAndReplace() {
+        add(1L, 0, 2);
+        add(2L, 0, 2);
+        index.remove(PRODUCT, 1L);
+        add(2L, 20, 22);
+
+        assertEquals(List.of(), overlapping(0, 5));
+        assertEquals(List.of(2L), overlapping(21, 21));
+        assertEquals(1, index.size());
+
+        index.removeProduct(PRODUCT);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @DisplayName("Should replace the whole index on rebuild")
+    void shouldRebuild() {
+        add(1L, 0, 2);
+
+        index.rebuild(List.of(key(5L, PRODUCT, 3, 4), key(6L, 11L, 3, 4)));
+
+        assertEquals(List.of(5L), overlapping(0, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    @DisplayName("Should match a brute force search over random waiters")
+    void shouldMatchBruteForce() {
+        Random random = new Random(42);
+        List<int[]> waiters = new ArrayList<>();
+        for (int id = 0; id < 2_000; id++) {
+            int start = random.nextInt(365);
+            int end = start + random.nextInt(14);
+            waiters.add(new int[] { id, start, end });
+            add(id, start, end);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            int from = random.nextInt(365);
+            int to = from + random.nextInt(10);
+            List<Long> expected = waiters.stream()
+                    .filter(w -> w[1] <= to && w[2] >= from)
+                    .map(w -> (long) w[0])
+                    .toList();
+            assertEquals(expected, overlapping(from, to));
+        }
+    }
+}